@@ -0,0 +1,91 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import customExceptions.FolderWithoutMP3ContentException;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import model.musicPlayer.LibraryEngine;
+import model.musicPlayer.MusicFolder;
+
+/**Measures how the libraries are saved when the player closes, loaded when it starts and listed in the interface, with the headless
+ * LibraryEngine that MusicPlayer uses.<br>
+ * Every artist folder of a SyntheticCorpus is registered as a library, so the number of libraries grows with the number of files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class LibraryCatalogBenchmark {
+
+	@Param({"1000", "10000", "100000"})
+	private int files;
+
+	private LibraryEngine engine;
+
+	private File catalog;
+
+	private File indexFile;
+
+	@Setup(Level.Trial)
+	public void createLibraries() throws IOException, FolderWithoutMP3ContentException {
+		File corpus = SyntheticCorpus.create(files, 0, SyntheticCorpus.DEFAULT_SEED);
+		File[] artists = corpus.listFiles(File::isDirectory);
+		Arrays.sort(artists);
+		catalog = File.createTempFile("ctlg", ".got");
+		indexFile = File.createTempFile("lbrryndx", ".got");
+		catalog.delete();
+		engine = new LibraryEngine(catalog, indexFile);
+		for(File artist : artists) {
+			engine.addMusicFolder(artist);
+		}
+		save();
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteFiles() {
+		catalog.delete();
+		indexFile.delete();
+	}
+
+	/**Writing the catalog of the libraries and the library index, like when the player closes.
+	 */
+	@Benchmark
+	public void save() throws IOException {
+		engine.save();
+	}
+
+	/**Loading the library index, registering the saved libraries and indexing their words for the search, like when the player starts.
+	 */
+	@Benchmark
+	public LibraryEngine load() throws IOException {
+		return new LibraryEngine(catalog, indexFile);
+	}
+
+	/**What MusicPlayer.getMusicFolders does to list the libraries in the interface.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public ObservableList<MusicFolder> getMusicFolders() {
+		return FXCollections.observableArrayList(engine.getLibraries().getFolders());
+	}
+}
@@ -0,0 +1,107 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.musicPlayer.LibraryIndex;
+import model.musicPlayer.LibraryScanner;
+import model.musicPlayer.MusicFolder;
+import model.musicPlayer.Song;
+import model.musicPlayer.SongStore;
+
+/**Compares the time needed to build a MusicFolder reading the songs one after another, like the original constructor did,
+ * against the parallel LibraryScanner with different amounts of workers.<br>
+ * The corpus is made of copies of the demo library, so the benchmark must be run from the repository root.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LibraryScanBenchmark {
+
+	@Param({"600"})
+	private int files;
+
+	@Param({"1", "2", "4", "8"})
+	private int workers;
+
+	private File corpus;
+
+	private LibraryIndex warmIndex;
+
+	@Setup(Level.Trial)
+	public void createCorpus() throws IOException {
+		corpus = Files.createTempDirectory("scan-corpus").toFile();
+		ArrayList<File> demo = LibraryScanner.listMP3Files(new File("music"));
+		for(int i = 0; i < files; i++) {
+			File source = demo.get(i % demo.size());
+			Files.copy(source.toPath(), new File(corpus, i + "-" + source.getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		warmIndex = new LibraryIndex();
+		SongStore store = new SongStore(files);
+		for(File f : LibraryScanner.listMP3Files(corpus)) {
+			warmIndex.record(f, new Song(store, f));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteCorpus() {
+		File[] content = corpus.listFiles();
+		if(content != null) {
+			for(File f : content) {
+				f.delete();
+			}
+		}
+		corpus.delete();
+	}
+
+	/**The single threaded loop of the original MusicFolder constructor, kept as the baseline.
+	 */
+	@Benchmark
+	public ArrayList<Song> sequentialConstructor() throws IOException {
+		ArrayList<Song> songs = new ArrayList<Song>();
+		SongStore store = new SongStore(files);
+		for(File f : LibraryScanner.listMP3Files(corpus)) {
+			songs.add(new Song(store, f));
+		}
+		return songs;
+	}
+
+	@Benchmark
+	public MusicFolder parallelScanner() throws IOException, InterruptedException {
+		LibraryScanner scanner = new LibraryScanner(workers);
+		MusicFolder folder = new MusicFolder(corpus, scanner, null);
+		scanner.awaitCompletion();
+		return folder;
+	}
+
+	/**A rescan of the corpus when none of its files changed since they were recorded in the index.
+	 */
+	@Benchmark
+	public MusicFolder warmIndexRescan() throws IOException, InterruptedException {
+		LibraryScanner scanner = new LibraryScanner(workers, warmIndex);
+		MusicFolder folder = new MusicFolder(corpus, scanner, null);
+		scanner.awaitCompletion();
+		return folder;
+	}
+}
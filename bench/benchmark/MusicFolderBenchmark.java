@@ -0,0 +1,144 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import customExceptions.FolderWithoutMP3ContentException;
+import model.musicPlayer.LibraryIndex;
+import model.musicPlayer.MusicFolder;
+import model.musicPlayer.Song;
+import model.musicPlayer.SongSorter;
+import model.musicPlayer.SortKey;
+
+/**Measures the operations of a MusicFolder that depend on the size of the library: building it, sorting it by every key, searching
+ * it by title and traversing its title index.<br>
+ * The libraries are SyntheticCorpus libraries, so the results of different machines and versions can be compared. The sorts are measured
+ * on a folder of their own, so the searches always run on a folder sorted by title.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class MusicFolderBenchmark {
+	private final static int QUERIES = 1024;
+
+	@Param({"1000", "10000", "100000"})
+	private int files;
+
+	private File corpus;
+
+	private LibraryIndex warmIndex;
+
+	private MusicFolder library;
+
+	private MusicFolder sorted;
+
+	private String[] titles;
+
+	private int query;
+
+	@Setup(Level.Trial)
+	public void createLibrary() throws IOException, FolderWithoutMP3ContentException {
+		corpus = SyntheticCorpus.create(files, 0, SyntheticCorpus.DEFAULT_SEED);
+		warmIndex = new LibraryIndex();
+		library = new MusicFolder(corpus, warmIndex);
+		sorted = new MusicFolder(corpus, warmIndex);
+		ArrayList<Song> songs = library.getSongs();
+		Random random = new Random(SyntheticCorpus.DEFAULT_SEED);
+		titles = new String[QUERIES];
+		for(int i = 0; i < QUERIES; i++) {
+			titles[i] = songs.get(random.nextInt(songs.size())).getTitle();
+		}
+	}
+
+	/**Building a folder reading every file.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public MusicFolder coldConstruction() throws IOException, FolderWithoutMP3ContentException {
+		return new MusicFolder(corpus);
+	}
+
+	/**Building a folder when none of its files changed since they were recorded in the index, like when the player starts.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public MusicFolder warmConstruction() throws IOException, FolderWithoutMP3ContentException {
+		return new MusicFolder(corpus, warmIndex);
+	}
+
+	@Benchmark
+	public ArrayList<Song> sortSongsByTitle() {
+		sorted.sortSongsByTitle();
+		return sorted.getSongs();
+	}
+
+	@Benchmark
+	public ArrayList<Song> sortSongsByArtist() {
+		sorted.sortSongsByArtist();
+		return sorted.getSongs();
+	}
+
+	@Benchmark
+	public ArrayList<Song> sortSongsByAlbum() {
+		sorted.sortSongsByAlbum();
+		return sorted.getSongs();
+	}
+
+	@Benchmark
+	public ArrayList<Song> sortSongsByGenre() {
+		sorted.sortSongsByGenre();
+		return sorted.getSongs();
+	}
+
+	@Benchmark
+	public ArrayList<Song> sortSongsBySize() {
+		sorted.sortSongsBySize();
+		return sorted.getSongs();
+	}
+
+	/**Sorting without the permutations kept by the folder, like the first time a key is requested.
+	 */
+	@Benchmark
+	public int[] sortWithoutCache() {
+		return SongSorter.sort(library.getSongs(), SortKey.ARTIST_ALBUM_TITLE.getComparator());
+	}
+
+	@Benchmark
+	public Song search() {
+		return library.search(titles[query++ % QUERIES]);
+	}
+
+	@Benchmark
+	public ArrayList<Song> searchAll() {
+		return library.searchAll(titles[query++ % QUERIES]);
+	}
+
+	@Benchmark
+	public ArrayList<Song> inorder() {
+		return library.inorder();
+	}
+
+	@Benchmark
+	public ArrayList<Song> preorder() {
+		return library.preorder();
+	}
+}
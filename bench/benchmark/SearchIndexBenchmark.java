@@ -0,0 +1,102 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import customExceptions.FolderWithoutMP3ContentException;
+import model.musicPlayer.LibraryIndex;
+import model.musicPlayer.MusicFolder;
+import model.musicPlayer.SearchIndex;
+import model.musicPlayer.Song;
+
+/**Measures the search of the songs as the user types, which runs on every keystroke, and the updates of the index when the watcher
+ * replaces songs.<br>
+ * The queries are the beginnings of the titles of random songs of a SyntheticCorpus library, with and without a typo, so every call
+ * measures one keystroke.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SearchIndexBenchmark {
+	private final static int QUERIES = 1024;
+	private final static int MAX_RESULTS = 500;
+
+	@Param({"1000", "10000", "100000"})
+	private int files;
+
+	private MusicFolder library;
+
+	private SearchIndex index;
+
+	private String[] prefixes;
+
+	private String[] typos;
+
+	private Song[] updated;
+
+	private int query;
+
+	@Setup(Level.Trial)
+	public void createIndex() throws IOException, FolderWithoutMP3ContentException {
+		File corpus = SyntheticCorpus.create(files, 0, SyntheticCorpus.DEFAULT_SEED);
+		library = new MusicFolder(corpus, new LibraryIndex());
+		index = new SearchIndex();
+		index.addAll(library);
+		ArrayList<Song> songs = library.getSongs();
+		Random random = new Random(SyntheticCorpus.DEFAULT_SEED);
+		prefixes = new String[QUERIES];
+		typos = new String[QUERIES];
+		updated = new Song[QUERIES];
+		for(int i = 0; i < QUERIES; i++) {
+			Song song = songs.get(random.nextInt(songs.size()));
+			String title = song.getTitle();
+			prefixes[i] = title.substring(0, 1 + random.nextInt(title.length()));
+			int swap = random.nextInt(title.length() - 1);
+			typos[i] = title.substring(0, swap) + title.charAt(swap + 1) + title.charAt(swap) + title.substring(swap + 2);
+			updated[i] = song;
+		}
+	}
+
+	/**Searching the text typed so far, like every keystroke in the search field.
+	 */
+	@Benchmark
+	public ArrayList<Song> searchPrefix() {
+		return index.search(prefixes[query++ % QUERIES], MAX_RESULTS);
+	}
+
+	/**Searching a whole title with two characters swapped, so the words are matched by edit distance.
+	 */
+	@Benchmark
+	public ArrayList<Song> searchTypo() {
+		return index.search(typos[query++ % QUERIES], MAX_RESULTS);
+	}
+
+	/**Removing a song and indexing it again, like when the watcher reads a changed file. The ids left empty are compacted by the index.
+	 */
+	@Benchmark
+	public int update() {
+		Song song = updated[query++ % QUERIES];
+		index.remove(song, library);
+		index.add(song, library);
+		return index.capacity();
+	}
+}
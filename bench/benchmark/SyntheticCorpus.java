@@ -0,0 +1,144 @@
+package benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**Generates reproducible libraries of small MP3 files for the benchmarks, so they can measure libraries much bigger than the demo one
+ * on any machine.<br>
+ * Every file has an ID3v2.3 tag with a title, an artist, an album, a genre, a track number, a comment and optionally a front cover,
+ * followed by a few silent MPEG frames. The files are laid out as artist/album/track.mp3, with about FILES_PER_ARTIST files per artist.
+ * The same amount of files, cover size and seed always produce the same library, which is kept in the temporary directory and reused
+ * by the next runs.
+ */
+public class SyntheticCorpus {
+	/**The seed used by the benchmarks, so all of them measure the same libraries.
+	 */
+	public final static long DEFAULT_SEED = 20201018L;
+	/**The number of files in the folder of every artist.
+	 */
+	public final static int FILES_PER_ARTIST = 100;
+	/**The number of files in every album.
+	 */
+	public final static int FILES_PER_ALBUM = 10;
+
+	private final static String MARKER = ".complete";
+	private final static String[] WORDS = {"love", "night", "blue", "fire", "rain", "dance", "heart", "city", "dream", "summer", "lost",
+			"light", "river", "road", "golden", "song", "wild", "moon", "home", "time", "shadow", "sweet", "electric", "winter"};
+	private final static String[] GENRES = {"Rock", "Pop", "Jazz", "Blues", "Classical", "Electronic", "Hip-Hop", "Folk", "Country",
+			"Reggae", "Metal", "Soul", "Funk", "Punk", "Ambient", "Latin", "Indie", "Disco", "Gospel", "Salsa"};
+	/**A MPEG-1 layer III frame header at 128 kbps and 44.1 kHz, whose frames are 417 bytes long.
+	 */
+	private final static byte[] FRAME_HEADER = {(byte)0xFF, (byte)0xFB, (byte)0x90, 0x64};
+	private final static int FRAME_SIZE = 417;
+	private final static int FRAMES = 4;
+
+	/**Creates a library, or reuses the one created by a previous run with the same arguments.
+	 * @param files The number of MP3 files of the library
+	 * @param coverKilobytes The size of the front cover of every file, or 0 if they have none
+	 * @param seed The seed of the generated tags and covers
+	 * @return The folder of the library.
+	 * @throws IOException if the library could not be written.
+	 */
+	public static File create(int files, int coverKilobytes, long seed) throws IOException {
+		File root = new File(System.getProperty("java.io.tmpdir"), "musicplayer-corpus-" + files + "-" + coverKilobytes + "-" + seed);
+		File marker = new File(root, MARKER);
+		if(!marker.exists()) {
+			Random random = new Random(seed);
+			byte[] audio = audio();
+			for(int i = 0; i < files; i++) {
+				int artist = i / FILES_PER_ARTIST;
+				int album = (i % FILES_PER_ARTIST) / FILES_PER_ALBUM;
+				File dir = new File(root, String.format("artist%05d%salbum%02d", artist, File.separator, album));
+				dir.mkdirs();
+				ByteArrayOutputStream file = new ByteArrayOutputStream();
+				file.write(tag(random, i, artist, album, coverKilobytes));
+				file.write(audio);
+				Files.write(new File(dir, String.format("%06d.mp3", i)).toPath(), file.toByteArray());
+			}
+			Files.write(marker.toPath(), new byte[0]);
+		}
+		return root;
+	}
+
+	/**This method builds the ID3v2.3 tag of a file, with a random title, the frames read by the player and some padding.
+	 * @param random The generator of the title and the cover
+	 * @param i The number of the file
+	 * @param artist The number of the artist of the file
+	 * @param album The number of the album of the file in its artist
+	 * @param coverKilobytes The size of the front cover, or 0 if the file has none
+	 * @return The bytes of the tag.
+	 * @throws IOException if the tag could not be written.
+	 */
+	private static byte[] tag(Random random, int i, int artist, int album, int coverKilobytes) throws IOException {
+		ByteArrayOutputStream frames = new ByteArrayOutputStream();
+		StringBuilder title = new StringBuilder();
+		int words = 1 + random.nextInt(4);
+		for(int w = 0; w < words; w++) {
+			String word = WORDS[random.nextInt(WORDS.length)];
+			title.append(w == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : " " + word);
+		}
+		frames.write(frame("TIT2", text(title.toString())));
+		frames.write(frame("TPE1", text("Artist " + artist)));
+		frames.write(frame("TALB", text("Album " + artist + "-" + album)));
+		frames.write(frame("TCON", text(GENRES[(artist * 7 + album) % GENRES.length])));
+		frames.write(frame("TRCK", text(Integer.toString(i % FILES_PER_ALBUM + 1))));
+		frames.write(frame("COMM", text("Generated for the benchmarks")));
+		if(coverKilobytes > 0) {
+			byte[] image = new byte[coverKilobytes * 1024];
+			random.nextBytes(image);
+			ByteArrayOutputStream picture = new ByteArrayOutputStream();
+			picture.write(0);
+			picture.write("image/jpeg\0".getBytes(StandardCharsets.ISO_8859_1));
+			picture.write(3);
+			picture.write(0);
+			picture.write(image);
+			frames.write(frame("APIC", picture.toByteArray()));
+		}
+		frames.write(new byte[256]);
+		int size = frames.size();
+		ByteArrayOutputStream tag = new ByteArrayOutputStream();
+		tag.write(new byte[] {'I', 'D', '3', 3, 0, 0});
+		tag.write(new byte[] {(byte)((size >> 21) & 0x7F), (byte)((size >> 14) & 0x7F), (byte)((size >> 7) & 0x7F), (byte)(size & 0x7F)});
+		frames.writeTo(tag);
+		return tag.toByteArray();
+	}
+
+	/**This method builds the content of a text frame in ISO-8859-1.
+	 * @param value The text of the frame
+	 * @return The bytes of the content, with the encoding byte and the terminator.
+	 */
+	private static byte[] text(String value) {
+		return ("\0" + value + "\0").getBytes(StandardCharsets.ISO_8859_1);
+	}
+
+	/**This method builds an ID3v2.3 frame.
+	 * @param id The four characters of the id of the frame
+	 * @param content The content of the frame
+	 * @return The bytes of the frame, with its header.
+	 */
+	private static byte[] frame(String id, byte[] content) {
+		byte[] frame = new byte[10 + content.length];
+		System.arraycopy(id.getBytes(StandardCharsets.ISO_8859_1), 0, frame, 0, 4);
+		frame[4] = (byte)(content.length >> 24);
+		frame[5] = (byte)(content.length >> 16);
+		frame[6] = (byte)(content.length >> 8);
+		frame[7] = (byte)content.length;
+		System.arraycopy(content, 0, frame, 10, content.length);
+		return frame;
+	}
+
+	/**This method builds the audio shared by all the files: FRAMES empty MPEG frames.
+	 * @return The bytes of the audio.
+	 */
+	private static byte[] audio() {
+		byte[] audio = new byte[FRAMES * FRAME_SIZE];
+		for(int f = 0; f < FRAMES; f++) {
+			System.arraycopy(FRAME_HEADER, 0, audio, f * FRAME_SIZE, FRAME_HEADER.length);
+		}
+		return audio;
+	}
+}
@@ -0,0 +1,94 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.beaglebuddy.id3.enums.PictureType;
+import com.beaglebuddy.id3.pojo.AttachedPicture;
+import com.beaglebuddy.mp3.MP3;
+
+import model.musicPlayer.LibraryScanner;
+import model.musicPlayer.Song;
+import model.musicPlayer.SongStore;
+
+/**Compares reading the tags of a song with the complete parser, like the original Song constructor did, against the Id3Tag fast path.<br>
+ * The corpus is a SyntheticCorpus whose tags have the usual text frames, some frames that a Song does not use and a front cover of the
+ * requested size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TagReaderBenchmark {
+
+	@Param({"200"})
+	private int files;
+
+	@Param({"0", "64", "512"})
+	private int coverKilobytes;
+
+	private ArrayList<File> songs;
+
+	@Setup(Level.Trial)
+	public void createCorpus() throws IOException {
+		songs = LibraryScanner.listMP3Files(SyntheticCorpus.create(files, coverKilobytes, SyntheticCorpus.DEFAULT_SEED));
+	}
+
+	/**The complete parser with the fields read by the original Song constructor, kept as the baseline.
+	 */
+	@Benchmark
+	public void completeParser(Blackhole bh) throws IOException {
+		for(File f : songs) {
+			MP3 mp3 = new MP3(f);
+			bh.consume(mp3.getAlbum());
+			bh.consume(mp3.getBand() != null ? mp3.getBand() : mp3.getLeadPerformer());
+			bh.consume(mp3.getTitle());
+			bh.consume(mp3.getAudioSize());
+			bh.consume(mp3.getMusicType());
+		}
+	}
+
+	@Benchmark
+	public void fastPath(Blackhole bh) throws IOException {
+		SongStore store = new SongStore(songs.size());
+		for(File f : songs) {
+			bh.consume(new Song(store, f));
+		}
+	}
+
+	/**Reading the front cover with the complete parser, like Song.getImage did.
+	 */
+	@Benchmark
+	public void coverCompleteParser(Blackhole bh) throws IOException {
+		for(File f : songs) {
+			AttachedPicture picture = new MP3(f).getPicture(PictureType.FRONT_COVER);
+			bh.consume(picture != null ? picture.getImage() : null);
+		}
+	}
+
+	@Benchmark
+	public void coverFastPath(Blackhole bh) throws IOException {
+		SongStore store = new SongStore(songs.size());
+		for(File f : songs) {
+			bh.consume(new Song(store, f).getImage());
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.paint.ImageOnTree;
+import model.paint.TreeOfImages;
+
+/**Measures the random pick of the paint gallery on trees of 1k and 1M images, together with the positional queries it is built on
+ * and the cost of filling the tree in order, which is the worst case for an unbalanced binary search tree.<br>
+ * The uniformity of the picks is checked by TreeOfImagesTest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TreeOfImagesBenchmark {
+
+	@Param({"1000", "1000000"})
+	private int nodes;
+
+	private TreeOfImages tree;
+
+	private Random random;
+
+	@Setup(Level.Trial)
+	public void createTree() {
+		random = new Random(SyntheticCorpus.DEFAULT_SEED);
+		tree = new TreeOfImages(new Random(SyntheticCorpus.DEFAULT_SEED));
+		for(int i = 0; i < nodes; i++) {
+			tree.addNode(random.nextInt());
+		}
+	}
+
+	@Benchmark
+	public ImageOnTree selectRandomNode() {
+		return tree.selectRandomNode();
+	}
+
+	@Benchmark
+	public ImageOnTree select() {
+		return tree.select(random.nextInt(nodes));
+	}
+
+	@Benchmark
+	public int rank() {
+		return tree.rank(random.nextInt());
+	}
+
+	/**Filling a tree with values that arrive already sorted.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public TreeOfImages addSorted() {
+		TreeOfImages sorted = new TreeOfImages(random);
+		for(int i = 0; i < nodes; i++) {
+			sorted.addNode(i);
+		}
+		return sorted;
+	}
+}
@@ -0,0 +1,152 @@
+package model.musicPlayer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+public class ArtworkCache<V> {
+	/**It represents the number of decoded covers kept by default.
+	 */
+	public final static int DEFAULT_CAPACITY = 64;
+
+	/**It represents the decoded covers by key, from the least to the most recently used. A song without cover is kept with a null value
+	 * so its file is not read again.
+	 */
+	private LinkedHashMap<String, V> covers;
+	/**It represents the maximum number of decoded covers kept.
+	 */
+	private int capacity;
+	/**It represents the function that turns the bytes of a cover into the value kept in the cache.
+	 */
+	private Function<byte[], V> decoder;
+	/**It represents the number of requests answered from the cache.
+	 */
+	private long hits;
+	/**It represents the number of requests that had to read and decode a cover.
+	 */
+	private long misses;
+	/**It represents the number of covers discarded to respect the capacity.
+	 */
+	private long evictions;
+
+	/**ArtworkCache constructor method that creates an empty cache.
+	 * @param capacity An integer that represents the maximum number of decoded covers kept<br>capacity > 0
+	 * @param decoder A Function that turns the bytes of a cover into the value kept, usually a thumbnail. It returns null if the bytes
+	 * cannot be decoded<br>decoder != null
+	 */
+	public ArtworkCache(int capacity, Function<byte[], V> decoder) {
+		this.capacity = capacity;
+		this.decoder = decoder;
+		covers = new LinkedHashMap<String, V>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+				boolean remove = size() > ArtworkCache.this.capacity;
+				if(remove) {
+					evictions++;
+				}
+				return remove;
+			}
+		};
+	}
+
+	/**This method allows to obtain the decoded cover of a song. The songs of the same album share the same entry, so the cover of an
+	 * album is read and decoded only once, unless the user chose another cover for a song. When the cover is not in the cache it is read from the file and decoded outside the lock,
+	 * so other threads can keep using the cache meanwhile.
+	 * @param song The Song whose cover is requested<br>song != null
+	 * @return The decoded cover of the song, or null if the song has no cover or it could not be decoded.
+	 */
+	public V get(Song song) {
+		String key = keyOf(song);
+		synchronized(this) {
+			if(covers.containsKey(key)) {
+				hits++;
+				return covers.get(key);
+			}
+			misses++;
+		}
+		byte[] picture = song.getImage();
+		V cover = picture != null && picture.length > 0 ? decoder.apply(picture) : null;
+		synchronized(this) {
+			covers.put(key, cover);
+		}
+		return cover;
+	}
+
+	/**This method discards the cover kept for a song, so it is read again the next time it is requested. It must be called when the
+	 * cover art of the song changes.
+	 * @param song The Song whose cover changed<br>song != null
+	 */
+	public synchronized void invalidate(Song song) {
+		covers.remove(keyOf(song));
+	}
+
+	/**This method discards all the covers kept. The metrics are not reset.
+	 */
+	public synchronized void clear() {
+		covers.clear();
+	}
+
+	/**This method allows to obtain the key under which the cover of a song is kept. The songs with a known album share the key of the
+	 * album and artist, the other ones use the path of their file, and so do the songs whose cover was chosen by the user, since it is
+	 * not the cover of the rest of the album.
+	 * @param song The Song whose key is requested<br>song != null
+	 * @return A String that represents the key of the cover of the song.
+	 */
+	public static String keyOf(Song song) {
+		String album = song.getAlbum();
+		if(album == null || album.isEmpty() || album.equals("unknown") || song.getCustomCover() != null) {
+			return "file:" + song.getSongPath();
+		}
+		return "album:" + song.getArtist() + "\u0000" + album;
+	}
+
+	/**This method allows to obtain the number of covers kept.
+	 * @return An integer that represents the number of covers kept.
+	 */
+	public synchronized int size() {
+		return covers.size();
+	}
+
+	/**This method allows to obtain the maximum number of covers kept.
+	 * @return An integer that represents the capacity of the cache.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**This method allows to obtain the number of requests answered from the cache.
+	 * @return A long that represents the number of hits.
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**This method allows to obtain the number of requests that had to read and decode a cover.
+	 * @return A long that represents the number of misses.
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**This method allows to obtain the number of covers discarded to respect the capacity.
+	 * @return A long that represents the number of evictions.
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**This method allows to obtain the fraction of requests answered from the cache.
+	 * @return A double between 0 and 1 that represents the hit rate. It is 0 when there were no requests.
+	 */
+	public synchronized double getHitRate() {
+		long requests = hits + misses;
+		return requests == 0 ? 0 : (double)hits / requests;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "ArtworkCache[size=" + covers.size() + "/" + capacity + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "]";
+	}
+}
@@ -0,0 +1,105 @@
+package model.musicPlayer;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+public class HistoryEvent {
+	/**It represents the kinds of events recorded in the playback history.
+	 */
+	public enum Type {
+		/**A song was charged in the media player.
+		 */
+		PLAY,
+		/**A song was played until its end.
+		 */
+		FINISH,
+		/**A song was left before its end.
+		 */
+		SKIP
+	}
+
+	/**It represents when the event happened, in milliseconds since the epoch.
+	 */
+	private long timestamp;
+	/**It represents the kind of event.
+	 */
+	private Type type;
+	/**It represents the id of the song, see HistoryJournal.songId.
+	 */
+	private long songId;
+	/**It represents how long the song was played before the event, in milliseconds. It is 0 for PLAY events.
+	 */
+	private long playedMillis;
+	/**It represents the path of the song file.
+	 */
+	private String path;
+
+	/**HistoryEvent constructor method that receives all the data of the event.
+	 * @param timestamp A long that represents when the event happened, in milliseconds since the epoch.
+	 * @param type The Type of the event<br>type != null
+	 * @param songId A long that represents the id of the song.
+	 * @param playedMillis A long that represents how long the song was played before the event, in milliseconds.
+	 * @param path A String that represents the path of the song file<br>path != null
+	 */
+	public HistoryEvent(long timestamp, Type type, long songId, long playedMillis, String path) {
+		this.timestamp = timestamp;
+		this.type = type;
+		this.songId = songId;
+		this.playedMillis = playedMillis;
+		this.path = path;
+	}
+
+	/**This method allows to obtain when the event happened.
+	 * @return A long that represents when the event happened, in milliseconds since the epoch.
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/**This method allows to obtain the kind of event.
+	 * @return The Type of the event.
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**This method allows to obtain the id of the song.
+	 * @return A long that represents the id of the song.
+	 */
+	public long getSongId() {
+		return songId;
+	}
+
+	/**This method allows to obtain how long the song was played before the event.
+	 * @return A long that represents the played time in milliseconds.
+	 */
+	public long getPlayedMillis() {
+		return playedMillis;
+	}
+
+	/**This method allows to obtain the path of the song file.
+	 * @return A String that represents the path of the song file.
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	/**This method allows to obtain the name of the song file.
+	 * @return A String that represents the name of the song file.
+	 */
+	public String getFileName() {
+		return path.substring(path.lastIndexOf(File.separatorChar)+1);
+	}
+
+	@Override
+	public String toString() {
+		LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+		String text = time.toString() + " " + type + " " + getFileName();
+		if(type != Type.PLAY) {
+			text += " (" + playedMillis/1000 + " s)";
+		}
+		return text;
+	}
+}
@@ -0,0 +1,346 @@
+package model.musicPlayer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class HistoryJournal implements Closeable {
+	/**It represents the first integer of every journal segment, used to recognize it.
+	 */
+	public final static int MAGIC = 0x48534A4E;
+	/**It represents the version of the format written by this class.
+	 */
+	public final static int VERSION = 1;
+	/**It represents the number of bytes of the header of every segment: the magic number and the version.
+	 */
+	public final static int HEADER_SIZE = 8;
+	/**It represents the number of bytes of a record without the path: the size, the timestamp, the type, the song id, the played time and
+	 * the length of the path.
+	 */
+	public final static int RECORD_OVERHEAD = 4 + 8 + 1 + 8 + 8 + 2;
+	/**It represents the size a segment can reach before a new one is started, by default.
+	 */
+	public final static long DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+	/**It represents the number of records written between two synchronizations with the disk, by default.
+	 */
+	public final static int DEFAULT_SYNC_INTERVAL = 16;
+	/**It represents the beginning of the name of every segment file.
+	 */
+	public final static String SEGMENT_PREFIX = "hstry_";
+	/**It represents the end of the name of every segment file.
+	 */
+	public final static String SEGMENT_SUFFIX = ".got";
+
+	/**It represents the folder where the segments are written.
+	 */
+	private File directory;
+	/**It represents the size a segment can reach before a new one is started.
+	 */
+	private long maxSegmentSize;
+	/**It represents the number of records written between two synchronizations with the disk.
+	 */
+	private int syncInterval;
+	/**It represents the number of the segment being written.
+	 */
+	private int segmentNumber;
+	/**It represents the channel of the segment being written. It is null when the journal is closed.
+	 */
+	private FileChannel channel;
+	/**It represents the number of records written since the last synchronization with the disk.
+	 */
+	private int unsynced;
+	/**It represents the buffer where every record is encoded before writing it.
+	 */
+	private ByteBuffer buffer;
+
+	/**HistoryJournal constructor method that opens the journal of a folder with the default segment size and synchronization interval.
+	 * @param directory A File that represents the folder of the journal. It is created if it does not exist<br>directory != null
+	 * @throws IOException if the folder or the last segment cannot be opened.
+	 */
+	public HistoryJournal(File directory) throws IOException {
+		this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_SYNC_INTERVAL);
+	}
+
+	/**HistoryJournal constructor method that opens the journal of a folder. The records are appended to the last segment, unless it is full.
+	 * If the last segment ends with a record that was not completely written, for example because the application crashed, the broken
+	 * record is discarded.
+	 * @param directory A File that represents the folder of the journal. It is created if it does not exist<br>directory != null
+	 * @param maxSegmentSize A long that represents the size a segment can reach before a new one is started<br>maxSegmentSize > HEADER_SIZE
+	 * @param syncInterval An integer that represents the number of records written between two synchronizations with the disk<br>syncInterval > 0
+	 * @throws IOException if the folder or the last segment cannot be opened.
+	 */
+	public HistoryJournal(File directory, long maxSegmentSize, int syncInterval) throws IOException {
+		this.directory = directory;
+		this.maxSegmentSize = maxSegmentSize;
+		this.syncInterval = syncInterval;
+		buffer = ByteBuffer.allocate(RECORD_OVERHEAD + 256);
+		if(!directory.exists() && !directory.mkdirs()) {
+			throw new IOException("The history folder could not be created: " + directory.getPath());
+		}
+		ArrayList<File> segments = segments(directory);
+		if(segments.isEmpty()) {
+			openSegment(1);
+		} else {
+			File last = segments.get(segments.size()-1);
+			segmentNumber = numberOf(last);
+			channel = FileChannel.open(last.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+			long valid = validLength(channel);
+			if(valid < HEADER_SIZE) {
+				channel.close();
+				openSegment(segmentNumber);
+			} else {
+				channel.truncate(valid);
+				channel.position(valid);
+				if(valid >= maxSegmentSize) {
+					rotate();
+				}
+			}
+		}
+	}
+
+	/**This method appends an event to the journal. The record reaches the operating system immediately, so it survives if the application
+	 * crashes, and it is synchronized with the disk together with the next records, every syncInterval records.
+	 * @param event The HistoryEvent to append<br>event != null
+	 * @throws IOException if the record could not be written or the journal is closed.
+	 */
+	public synchronized void append(HistoryEvent event) throws IOException {
+		if(channel == null) {
+			throw new IOException("The history journal is closed");
+		}
+		byte[] path = event.getPath().getBytes(StandardCharsets.UTF_8);
+		if(path.length > Short.MAX_VALUE) {
+			int length = Short.MAX_VALUE;
+			while(length > 0 && (path[length] & 0xC0) == 0x80) {
+				length--; //the path is cut before the character that does not fit, not in the middle of its UTF-8 bytes
+			}
+			path = Arrays.copyOf(path, length);
+		}
+		int size = RECORD_OVERHEAD + path.length;
+		if(buffer.capacity() < size) {
+			buffer = ByteBuffer.allocate(size);
+		}
+		buffer.clear();
+		buffer.putInt(size - 4);
+		buffer.putLong(event.getTimestamp());
+		buffer.put((byte)event.getType().ordinal());
+		buffer.putLong(event.getSongId());
+		buffer.putLong(event.getPlayedMillis());
+		buffer.putShort((short)path.length);
+		buffer.put(path);
+		buffer.flip();
+		while(buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		if(++unsynced >= syncInterval) {
+			sync();
+		}
+		if(channel.position() >= maxSegmentSize) {
+			rotate();
+		}
+	}
+
+	/**This method appends an event about a song that happens now.
+	 * @param type The Type of the event<br>type != null
+	 * @param song The Song of the event<br>song != null
+	 * @param playedMillis A long that represents how long the song was played before the event, in milliseconds.
+	 * @return The HistoryEvent appended.
+	 * @throws IOException if the record could not be written or the journal is closed.
+	 */
+	public HistoryEvent record(HistoryEvent.Type type, Song song, long playedMillis) throws IOException {
+		String path = song.getSongFile().getAbsolutePath();
+		HistoryEvent event = new HistoryEvent(System.currentTimeMillis(), type, songId(path), playedMillis, path);
+		append(event);
+		return event;
+	}
+
+	/**This method synchronizes the records written so far with the disk.
+	 * @throws IOException if the synchronization failed.
+	 */
+	public synchronized void sync() throws IOException {
+		if(channel != null && unsynced > 0) {
+			channel.force(false);
+			unsynced = 0;
+		}
+	}
+
+	/**This method synchronizes the records with the disk and closes the segment being written.
+	 * @throws IOException if the synchronization failed.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if(channel != null) {
+			sync();
+			channel.close();
+			channel = null;
+		}
+	}
+
+	/**This method allows to obtain the segment being written.
+	 * @return A File that represents the segment being written.
+	 */
+	public synchronized File getCurrentSegment() {
+		return segmentFile(directory, segmentNumber);
+	}
+
+	/**This method allows to obtain the number of the segment being written.
+	 * @return An integer that represents the number of the segment.
+	 */
+	public synchronized int getSegmentNumber() {
+		return segmentNumber;
+	}
+
+	/**This method allows to obtain where the next record will be written in the segment being written.
+	 * @return A long that represents the position in bytes of the end of the last record.
+	 * @throws IOException if the journal is closed.
+	 */
+	public synchronized long getPosition() throws IOException {
+		if(channel == null) {
+			throw new IOException("The history journal is closed");
+		}
+		return channel.position();
+	}
+
+	/**This method closes the segment being written and starts the next one.
+	 * @throws IOException if the new segment could not be created.
+	 */
+	private void rotate() throws IOException {
+		sync();
+		channel.close();
+		openSegment(segmentNumber+1);
+	}
+
+	/**This method creates a segment and writes its header.
+	 * @param number An integer that represents the number of the segment.
+	 * @throws IOException if the segment could not be created.
+	 */
+	private void openSegment(int number) throws IOException {
+		segmentNumber = number;
+		channel = FileChannel.open(segmentFile(directory, number).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.flip();
+		while(header.hasRemaining()) {
+			channel.write(header);
+		}
+		channel.force(false);
+	}
+
+	/**This method finds where the last complete record of a segment ends. The segment is read with positional reads instead of being
+	 * mapped, so it can be truncated right after.
+	 * @param channel The FileChannel of the segment<br>channel != null
+	 * @return A long that represents the number of bytes of the segment up to the end of its last complete record, or 0 if the segment does
+	 * not have a valid header.
+	 * @throws IOException if the segment could not be read.
+	 */
+	private static long validLength(FileChannel channel) throws IOException {
+		long size = channel.size();
+		ByteBuffer header = ByteBuffer.allocate(RECORD_OVERHEAD);
+		header.limit(HEADER_SIZE);
+		if(!readFully(channel, header, 0) || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+			return 0;
+		}
+		long length = HEADER_SIZE;
+		boolean complete = true;
+		while(complete && length + RECORD_OVERHEAD <= size) {
+			header.clear();
+			complete = readFully(channel, header, length);
+			int record = header.getInt(0) + 4;
+			int pathLength = header.getShort(RECORD_OVERHEAD - 2);
+			int type = header.get(12);
+			complete &= record == RECORD_OVERHEAD + pathLength && pathLength >= 0 && length + record <= size
+					&& type >= 0 && type < HistoryEvent.Type.values().length;
+			if(complete) {
+				length += record;
+			}
+		}
+		return length;
+	}
+
+	/**This method reads from a position of a channel until a buffer is full.
+	 * @param channel The FileChannel to read<br>channel != null
+	 * @param buffer The ByteBuffer to fill up to its limit<br>buffer != null
+	 * @param position A long that represents where the reading starts.
+	 * @return A boolean that indicates whether the buffer was filled before the end of the channel.
+	 * @throws IOException if the channel could not be read.
+	 */
+	static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		int read = 0;
+		while(buffer.hasRemaining() && read >= 0) {
+			read = channel.read(buffer, position + buffer.position());
+		}
+		return !buffer.hasRemaining();
+	}
+
+	/**This method allows to obtain the segments of a journal, from the oldest to the newest.
+	 * @param directory A File that represents the folder of the journal<br>directory != null
+	 * @return A File ArrayList with the segments of the journal. It is empty if the folder does not exist.
+	 */
+	public static ArrayList<File> segments(File directory) {
+		ArrayList<File> segments = new ArrayList<File>();
+		File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+		if(files != null) {
+			for(File f : files) {
+				if(numberOf(f) > 0) {
+					segments.add(f);
+				}
+			}
+		}
+		segments.sort((a, b) -> Integer.compare(numberOf(a), numberOf(b)));
+		return segments;
+	}
+
+	/**This method allows to know whether a file is a journal segment.
+	 * @param file A File to check<br>file != null
+	 * @return A boolean that indicates whether the name of the file is the name of a segment.
+	 */
+	public static boolean isSegment(File file) {
+		String name = file.getName();
+		return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX) && numberOf(file) > 0;
+	}
+
+	/**This method allows to obtain the file of a segment of a journal.
+	 * @param directory A File that represents the folder of the journal<br>directory != null
+	 * @param number An integer that represents the number of the segment<br>number > 0
+	 * @return A File that represents the segment, named with its number padded to six digits.
+	 */
+	private static File segmentFile(File directory, int number) {
+		return new File(directory, SEGMENT_PREFIX + String.format("%06d", number) + SEGMENT_SUFFIX);
+	}
+
+	/**This method allows to obtain the number of a segment from the name of its file.
+	 * @param segment A File that represents the segment<br>segment != null
+	 * @return An integer that represents the number of the segment, or -1 if the name is not the name of a segment.
+	 */
+	static int numberOf(File segment) {
+		String name = segment.getName();
+		int number = -1;
+		try {
+			number = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+		} catch(NumberFormatException | IndexOutOfBoundsException e) {
+			number = -1;
+		}
+		return number;
+	}
+
+	/**This method computes the id of a song from the absolute path of its file, with the 64 bit FNV-1a hash, so the same file always has
+	 * the same id.
+	 * @param path A String that represents the absolute path of the song file<br>path != null
+	 * @return A long that represents the id of the song.
+	 */
+	public static long songId(String path) {
+		long hash = 0xcbf29ce484222325L;
+		for(int i = 0; i < path.length(); i++) {
+			hash ^= path.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+}
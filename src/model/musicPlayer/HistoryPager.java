@@ -0,0 +1,344 @@
+package model.musicPlayer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class HistoryPager implements Closeable {
+	/**It represents the first integer of every line index, used to recognize it.
+	 */
+	public final static int MAGIC = 0x48534C58;
+	/**It represents the version of the line index format written by this class.
+	 */
+	public final static int VERSION = 1;
+	/**It represents the end of the name of the line index of every history file.
+	 */
+	public final static String INDEX_SUFFIX = ".ndx";
+	/**It represents every how many lines the position of a line is kept in the index.
+	 */
+	public final static int STRIDE = 64;
+	/**It represents the number of lines read together from the history file. It is a multiple of STRIDE.
+	 */
+	public final static int PAGE_SIZE = 4 * STRIDE;
+	/**It represents the number of pages kept in memory.
+	 */
+	public final static int CACHED_PAGES = 8;
+
+	/**It represents the history file: a segment of the history journal or a text file of a previous version of the player.
+	 */
+	private File file;
+	/**It represents whether the history file is a segment of the history journal.
+	 */
+	private boolean journal;
+	/**It represents the reader of the segment, kept open to read all its pages. It is null if the history file is a text file.
+	 */
+	private HistoryReader reader;
+	/**It represents the channel of the text file, kept open to read all its pages. It is null if the history file is a segment.
+	 */
+	private FileChannel channel;
+	/**It represents the position in the file of the lines 0, STRIDE, 2*STRIDE...
+	 */
+	private long[] checkpoints;
+	/**It represents the number of positions used in checkpoints.
+	 */
+	private int checkpointCount;
+	/**It represents the number of complete lines of the file.
+	 */
+	private int lineCount;
+	/**It represents whether the text file ends with a line without line break, which is shown but not indexed.
+	 */
+	private boolean partialLine;
+	/**It represents the position in the file where the last complete line ends.
+	 */
+	private long indexedLength;
+	/**It represents the last pages read, from the least to the most recently used. It is also the lock of the pages, so the pages
+	 * already read can be obtained while another page is being read.
+	 */
+	private LinkedHashMap<Integer, String[]> pages;
+
+	/**HistoryPager constructor method that opens a history file to read it by lines. The line index saved next to the file is read and
+	 * completed with the lines added since it was saved, so only the new part of the file is read. If there is no valid index it is built.
+	 * The file stays open until the pager is closed.
+	 * @param file A File that represents the history file<br>file != null
+	 * @throws IOException if the history file cannot be read.
+	 */
+	public HistoryPager(File file) throws IOException {
+		this.file = file;
+		journal = HistoryJournal.isSegment(file);
+		pages = new LinkedHashMap<Integer, String[]>(CACHED_PAGES, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, String[]> eldest) {
+				return size() > CACHED_PAGES;
+			}
+		};
+		boolean loaded = loadIndex();
+		long previous = indexedLength;
+		try {
+			if(journal) {
+				reader = new HistoryReader(file);
+				indexJournal();
+			} else {
+				channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+				indexText();
+			}
+		} catch(IOException e) {
+			close();
+			throw e;
+		}
+		if(!loaded || indexedLength != previous) {
+			saveIndex();
+		}
+	}
+
+	/**This method allows to obtain the number of lines of the history file.
+	 * @return An integer that represents the number of lines.
+	 */
+	public int getLineCount() {
+		return partialLine ? lineCount+1 : lineCount;
+	}
+
+	/**This method allows to obtain a line of the history file. Only the page of the line is read, if it was not read before, so it should
+	 * be called out of the FX thread.
+	 * @param line An integer that represents the number of the line<br>0 <= line < getLineCount()
+	 * @return A String with the text of the line.
+	 * @throws IOException if the history file cannot be read.
+	 */
+	public String getLine(int line) throws IOException {
+		String text = getLoadedLine(line);
+		if(text == null) {
+			int page = line / PAGE_SIZE;
+			String[] lines;
+			synchronized(this) {
+				lines = readPage(page);
+			}
+			synchronized(pages) {
+				pages.put(page, lines);
+			}
+			text = lines[line % PAGE_SIZE];
+		}
+		return text;
+	}
+
+	/**This method allows to obtain a line of the history file only if its page was already read, so the file is never read.
+	 * @param line An integer that represents the number of the line<br>0 <= line < getLineCount()
+	 * @return A String with the text of the line, or null if its page has to be read with getLine.
+	 */
+	public String getLoadedLine(int line) {
+		if(line < 0 || line >= getLineCount()) {
+			throw new IndexOutOfBoundsException("Line " + line + " of " + getLineCount());
+		}
+		synchronized(pages) {
+			String[] lines = pages.get(line / PAGE_SIZE);
+			return lines != null ? lines[line % PAGE_SIZE] : null;
+		}
+	}
+
+	/**This method allows to obtain the first and the last line of the page of a line, which are read together.
+	 * @param line An integer that represents the number of the line<br>0 <= line < getLineCount()
+	 * @return An integer array with the number of the first line of the page and the number of the line after its last line.
+	 */
+	public int[] getPageBounds(int line) {
+		int first = line / PAGE_SIZE * PAGE_SIZE;
+		return new int[] {first, Math.min(first + PAGE_SIZE, getLineCount())};
+	}
+
+	/**This method allows to obtain the file where the line index of the history file is saved.
+	 * @return A File that represents the line index.
+	 */
+	public File getIndexFile() {
+		return indexFile(file);
+	}
+
+	/**This method allows to know whether a file is the line index of a history file.
+	 * @param file A File to check<br>file != null
+	 * @return A boolean that indicates whether the file is a line index.
+	 */
+	public static boolean isIndex(File file) {
+		return file.getName().endsWith(INDEX_SUFFIX);
+	}
+
+	/**This method allows to obtain the file where the line index of a history file is saved.
+	 * @param file A File that represents the history file<br>file != null
+	 * @return A File that represents the line index, next to the history file.
+	 */
+	private static File indexFile(File file) {
+		return new File(file.getPath() + INDEX_SUFFIX);
+	}
+
+	/**This method reads a page of lines from the history file, starting at the position of its first line kept in the index. It is only
+	 * called while holding the lock of the pager, because the reader and the channel are shared by all the pages.
+	 * @param page An integer that represents the number of the page<br>page >= 0
+	 * @return A String array with the lines of the page.
+	 * @throws IOException if the history file cannot be read.
+	 */
+	private String[] readPage(int page) throws IOException {
+		int first = page * PAGE_SIZE;
+		int count = Math.min(PAGE_SIZE, getLineCount() - first);
+		String[] lines = new String[count];
+		long start = first / STRIDE < checkpointCount ? checkpoints[first / STRIDE] : indexedLength;
+		if(journal) {
+			reader.seek(start);
+			ArrayList<HistoryEvent> events = reader.read(count);
+			for(int i = 0; i < count; i++) {
+				lines[i] = i < events.size() ? events.get(i).toString() : "";
+			}
+		} else {
+			channel.position(start);
+			BufferedReader br = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), Charset.defaultCharset()));
+			for(int i = 0; i < count; i++) {
+				String line = br.readLine();
+				lines[i] = line != null ? line : "";
+			}
+		}
+		return lines;
+	}
+
+	/**This method indexes the records of the journal segment added since the index was saved.
+	 * @throws IOException if the segment cannot be read.
+	 */
+	private void indexJournal() throws IOException {
+		if(indexedLength < HistoryJournal.HEADER_SIZE || indexedLength > reader.size()) {
+			resetIndex(HistoryJournal.HEADER_SIZE);
+		}
+		reader.seek(indexedLength);
+		long position = reader.position();
+		HistoryEvent event = reader.next();
+		while(event != null) {
+			addLine(position);
+			indexedLength = reader.position();
+			position = indexedLength;
+			event = reader.next();
+		}
+	}
+
+	/**This method indexes the lines of the text file added since the index was saved.
+	 * @throws IOException if the file cannot be read.
+	 */
+	private void indexText() throws IOException {
+		if(indexedLength > channel.size()) {
+			resetIndex(0);
+		}
+		channel.position(indexedLength);
+		InputStream in = new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024);
+		long position = indexedLength;
+		int b = in.read();
+		while(b != -1) {
+			position++;
+			if(b == '\n') {
+				addLine(indexedLength);
+				indexedLength = position;
+			}
+			b = in.read();
+		}
+		partialLine = position > indexedLength;
+	}
+
+	/**This method counts a complete line, keeping its position if it is one of every STRIDE lines.
+	 * @param position A long that represents the position of the line in the file.
+	 */
+	private void addLine(long position) {
+		if(lineCount % STRIDE == 0) {
+			if(checkpointCount == checkpoints.length) {
+				checkpoints = Arrays.copyOf(checkpoints, Math.max(16, checkpointCount * 2));
+			}
+			checkpoints[checkpointCount++] = position;
+		}
+		lineCount++;
+	}
+
+	/**This method empties the line index.
+	 * @param start A long that represents the position in the file of the first line.
+	 */
+	private void resetIndex(long start) {
+		checkpoints = new long[16];
+		checkpointCount = 0;
+		lineCount = 0;
+		indexedLength = start;
+	}
+
+	/**This method reads the line index saved next to the history file.
+	 * @return A boolean that indicates whether there was a valid index. If there was not, the index is empty.
+	 */
+	private boolean loadIndex() {
+		boolean loaded = false;
+		resetIndex(journal ? HistoryJournal.HEADER_SIZE : 0);
+		File index = indexFile(file);
+		if(index.exists()) {
+			try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(index)))) {
+				if(in.readInt() == MAGIC && in.readInt() == VERSION && in.readInt() == STRIDE) {
+					long length = in.readLong();
+					int lines = in.readInt();
+					int count = in.readInt();
+					if(count == (lines + STRIDE - 1) / STRIDE && length <= file.length()) {
+						long[] positions = new long[Math.max(16, count)];
+						for(int i = 0; i < count; i++) {
+							positions[i] = in.readLong();
+						}
+						checkpoints = positions;
+						checkpointCount = count;
+						lineCount = lines;
+						indexedLength = length;
+						loaded = true;
+					}
+				}
+			} catch(IOException e) {
+				resetIndex(journal ? HistoryJournal.HEADER_SIZE : 0);
+			}
+		}
+		return loaded;
+	}
+
+	/**This method saves the line index next to the history file. The index is only a cache, so if it cannot be saved it is built again the
+	 * next time.
+	 */
+	private void saveIndex() {
+		File index = indexFile(file);
+		File temp = new File(index.getPath() + ".tmp");
+		try {
+			try(DataOutputStream out = new DataOutputStream(new FileOutputStream(temp))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(STRIDE);
+				out.writeLong(indexedLength);
+				out.writeInt(lineCount);
+				out.writeInt(checkpointCount);
+				for(int i = 0; i < checkpointCount; i++) {
+					out.writeLong(checkpoints[i]);
+				}
+			}
+			Files.move(temp.toPath(), index.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch(IOException e) {
+			temp.delete();
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if(reader != null) {
+			reader.close();
+		}
+		if(channel != null) {
+			channel.close();
+		}
+	}
+}
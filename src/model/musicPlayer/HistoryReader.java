@@ -0,0 +1,153 @@
+package model.musicPlayer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+public class HistoryReader implements Closeable {
+	/**It represents the number of bytes of the segment read together. It is larger than the largest record.
+	 */
+	public final static int BLOCK_SIZE = 64 * 1024;
+
+	/**It represents the channel opened by this reader, which is closed with it.
+	 */
+	private FileChannel channel;
+	/**It represents the size of the segment when the reader was opened.
+	 */
+	private long size;
+	/**It represents the position of the next record.
+	 */
+	private long position;
+	/**It represents the last block read from the segment.
+	 */
+	private ByteBuffer block;
+	/**It represents the position in the segment of the first byte of the block.
+	 */
+	private long blockStart;
+
+	/**HistoryReader constructor method that opens a segment of a HistoryJournal. The records appended after this moment are not seen. The
+	 * segment is read with positional reads instead of being mapped, so no mapping keeps the file locked after the reader is closed.
+	 * @param segment A File that represents the segment<br>segment != null
+	 * @throws IOException if the segment cannot be read or it is not a journal segment of a supported version.
+	 */
+	public HistoryReader(File segment) throws IOException {
+		channel = FileChannel.open(segment.toPath(), StandardOpenOption.READ);
+		try {
+			size = channel.size();
+			block = ByteBuffer.allocate((int)Math.min(BLOCK_SIZE, size));
+			block.limit(0);
+			readHeader();
+		} catch(IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**This method checks the header of the segment and moves the reader to its first record.
+	 * @throws IOException if the segment cannot be read or it is not a journal segment of a supported version.
+	 */
+	private void readHeader() throws IOException {
+		if(!fill(HistoryJournal.HEADER_SIZE) || block.getInt(0) != HistoryJournal.MAGIC) {
+			throw new StreamCorruptedException("Not a history journal segment");
+		}
+		int version = block.getInt(4);
+		if(version != HistoryJournal.VERSION) {
+			throw new StreamCorruptedException("Unsupported history journal version " + version);
+		}
+		position = HistoryJournal.HEADER_SIZE;
+	}
+
+	/**This method makes sure the block contains a number of bytes from the position of the next record, reading a new block from that
+	 * position if it does not.
+	 * @param length An integer that represents the number of bytes needed<br>length <= BLOCK_SIZE
+	 * @return A boolean that indicates whether the bytes are in the block. They are not if the segment ends before.
+	 * @throws IOException if the segment cannot be read.
+	 */
+	private boolean fill(int length) throws IOException {
+		if(position + length > blockStart + block.limit() && position + length <= size) {
+			block.clear();
+			block.limit((int)Math.min(block.capacity(), size - position));
+			blockStart = position;
+			if(!HistoryJournal.readFully(channel, block, position)) {
+				block.limit(block.position());
+			}
+		}
+		return position + length <= blockStart + block.limit();
+	}
+
+	/**This method reads the next record of the segment.
+	 * @return The next HistoryEvent, or null if the segment ended or the next record was not completely written.
+	 * @throws IOException if the segment cannot be read.
+	 */
+	public HistoryEvent next() throws IOException {
+		HistoryEvent event = null;
+		if(fill(HistoryJournal.RECORD_OVERHEAD)) {
+			int start = (int)(position - blockStart);
+			int record = block.getInt(start) + 4;
+			int pathLength = block.getShort(start + HistoryJournal.RECORD_OVERHEAD - 2);
+			int type = block.get(start + 12);
+			if(record == HistoryJournal.RECORD_OVERHEAD + pathLength && pathLength >= 0 && type >= 0 && type < HistoryEvent.Type.values().length
+					&& fill(record)) {
+				start = (int)(position - blockStart);
+				long timestamp = block.getLong(start + 4);
+				long songId = block.getLong(start + 13);
+				long playedMillis = block.getLong(start + 21);
+				String path = new String(block.array(), start + HistoryJournal.RECORD_OVERHEAD, pathLength, StandardCharsets.UTF_8);
+				event = new HistoryEvent(timestamp, HistoryEvent.Type.values()[type], songId, playedMillis, path);
+				position += record;
+			}
+		}
+		return event;
+	}
+
+	/**This method reads the next records of the segment, to show them page by page.
+	 * @param max An integer that represents the maximum number of records to read<br>max > 0
+	 * @return A HistoryEvent ArrayList with the records read. It has less than max records only if the segment ended.
+	 * @throws IOException if the segment cannot be read.
+	 */
+	public ArrayList<HistoryEvent> read(int max) throws IOException {
+		ArrayList<HistoryEvent> events = new ArrayList<HistoryEvent>();
+		HistoryEvent event = events.size() < max ? next() : null;
+		while(event != null) {
+			events.add(event);
+			event = events.size() < max ? next() : null;
+		}
+		return events;
+	}
+
+	/**This method allows to obtain the position of the next record, so the reading can continue from it later with seek.
+	 * @return A long that represents the position in bytes of the next record.
+	 */
+	public long position() {
+		return position;
+	}
+
+	/**This method moves the reader to a record.
+	 * @param position A long that represents a position obtained with the method position<br>position is the position of a record
+	 * @throws IllegalArgumentException if the position is outside the segment.
+	 */
+	public void seek(long position) {
+		if(position < HistoryJournal.HEADER_SIZE || position > size) {
+			throw new IllegalArgumentException("Position outside the segment: " + position);
+		}
+		this.position = position;
+	}
+
+	/**This method allows to obtain the size of the segment as it was when the reader was opened.
+	 * @return A long that represents the size in bytes of the segment.
+	 */
+	public long size() {
+		return size;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
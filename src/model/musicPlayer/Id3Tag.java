@@ -0,0 +1,314 @@
+package model.musicPlayer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+public class Id3Tag {
+	/**It represents the size of the ID3v2 header, and of its footer when it has one.
+	 */
+	public final static int HEADER_SIZE = 10;
+	/**It represents the size of an ID3v1 tag, which is at the end of the file.
+	 */
+	public final static int ID3V1_SIZE = 128;
+	/**It represents the type of picture of a front cover in an APIC frame.
+	 */
+	public final static int FRONT_COVER = 3;
+
+	/**It represents the title, the TIT2 frame. It is null if the tag does not have it.
+	 */
+	private String title;
+	/**It represents the lead performer, the TPE1 frame. It is null if the tag does not have it.
+	 */
+	private String leadPerformer;
+	/**It represents the band, the TPE2 frame. It is null if the tag does not have it.
+	 */
+	private String band;
+	/**It represents the album, the TALB frame. It is null if the tag does not have it.
+	 */
+	private String album;
+	/**It represents the genre, the TCON frame. It is null if the tag does not have it.
+	 */
+	private String genre;
+	/**It represents the number of bytes of the file that are not tags.
+	 */
+	private long audioSize;
+	/**It represents the position in the file of the image of the front cover, or -1 if the tag does not have it.
+	 */
+	private long coverOffset;
+	/**It represents the number of bytes of the image of the front cover.
+	 */
+	private int coverLength;
+
+	/**Id3Tag constructor method that creates a tag without a front cover. It is filled by the method read.
+	 */
+	private Id3Tag() {
+		coverOffset = -1;
+	}
+
+	/**This method reads the ID3v2 tag of a MP3 file. Only the header is read first, then the tag is mapped and only the frames used by a
+	 * Song are decoded: the pictures are skipped, keeping just where the front cover is. The size of the audio is the size of the file
+	 * without its tags.<br>
+	 * The tags that this reader does not handle, like ID3v2.2 tags, unsynchronised tags and compressed or encrypted frames, are not read,
+	 * so the caller can use a complete parser instead.
+	 * @param file A File that represents the MP3 file<br>file != null
+	 * @return The Id3Tag of the file, or null if the file does not have an ID3v2.3 or ID3v2.4 tag that this reader handles.
+	 * @throws IOException if the file could not be read.
+	 */
+	public static Id3Tag read(File file) throws IOException {
+		Id3Tag tag = null;
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long length = channel.size();
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			int read = 0;
+			while(read >= 0 && header.hasRemaining()) {
+				read = channel.read(header, header.position());
+			}
+			header.flip();
+			if(header.remaining() == HEADER_SIZE && header.get(0) == 'I' && header.get(1) == 'D' && header.get(2) == '3') {
+				int version = header.get(3);
+				int flags = header.get(5) & 0xFF;
+				int size = syncsafe(header, 6);
+				long end = HEADER_SIZE + size + ((flags & 0x10) != 0 ? HEADER_SIZE : 0);
+				if((version == 3 || version == 4) && (flags & 0x80) == 0 && size >= 0 && end <= length) {
+					MappedByteBuffer frames = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, size);
+					tag = new Id3Tag();
+					if(tag.readFrames(frames, version, (flags & 0x40) != 0)) {
+						tag.audioSize = length - end - (hasId3v1(channel, end) ? ID3V1_SIZE : 0);
+					} else {
+						tag = null;
+					}
+				}
+			}
+		}
+		return tag;
+	}
+
+	/**This method decodes the frames of the tag that a Song uses.
+	 * @param frames A ByteBuffer with the tag without its header
+	 * @param version An integer that represents the minor version of ID3v2, 3 or 4
+	 * @param extended A boolean that indicates whether the tag starts with an extended header
+	 * @return A boolean that indicates whether the frames could be read by this reader.
+	 */
+	private boolean readFrames(ByteBuffer frames, int version, boolean extended) {
+		boolean valid = true;
+		int position = 0;
+		if(extended && frames.limit() >= 4) {
+			position = version == 4 ? syncsafe(frames, 0) : frames.getInt(0) + 4;
+		}
+		while(valid && position + HEADER_SIZE <= frames.limit() && frames.get(position) != 0) {
+			String id = frameId(frames, position);
+			int size = version == 4 ? syncsafe(frames, position+4) : frames.getInt(position+4);
+			int format = frames.get(position+9) & 0xFF;
+			int start = position + HEADER_SIZE;
+			boolean wanted = id.equals("TIT2") || id.equals("TPE1") || id.equals("TPE2") || id.equals("TALB") || id.equals("TCON")
+					|| id.equals("APIC");
+			boolean encoded = version == 4 ? (format & 0x0F) != 0 : (format & 0xE0) != 0;
+			if(size < 0 || start + size > frames.limit() || (wanted && encoded)) {
+				valid = false;
+			} else if(id.equals("APIC")) {
+				readPicture(frames, start, size);
+			} else if(wanted) {
+				String text = text(frames, start, size);
+				if(id.equals("TIT2")) {
+					title = text;
+				} else if(id.equals("TPE1")) {
+					leadPerformer = text;
+				} else if(id.equals("TPE2")) {
+					band = text;
+				} else if(id.equals("TALB")) {
+					album = text;
+				} else {
+					genre = text;
+					valid = !isGenreReference(text);
+				}
+			}
+			position = start + size;
+		}
+		return valid;
+	}
+
+	/**This method keeps where the image of an APIC frame is, if it is the first front cover of the tag. The image is not read.
+	 */
+	private void readPicture(ByteBuffer frames, int start, int size) {
+		int end = start + size;
+		if(coverOffset < 0 && size > 1) {
+			int encoding = frames.get(start);
+			int type = terminator(frames, start+1, end, 0) + 1;
+			if(type < end && (frames.get(type) & 0xFF) == FRONT_COVER) {
+				int description = terminator(frames, type+1, end, encoding);
+				int image = description + (encoding == 1 || encoding == 2 ? 2 : 1);
+				if(image <= end) {
+					coverOffset = HEADER_SIZE + image;
+					coverLength = end - image;
+				}
+			}
+		}
+	}
+
+	/**This method decodes a text frame until its first terminator, since the next values of an ID3v2.4 frame are not used.
+	 */
+	private static String text(ByteBuffer frames, int start, int size) {
+		String text = "";
+		if(size > 0) {
+			int encoding = frames.get(start);
+			int end = terminator(frames, start+1, start+size, encoding);
+			byte[] bytes = new byte[end - start - 1];
+			for(int i = 0; i < bytes.length; i++) {
+				bytes[i] = frames.get(start+1+i);
+			}
+			text = new String(bytes, charset(encoding));
+		}
+		return text;
+	}
+
+	/**This method finds the end of a string terminated by zero, one byte long in ISO-8859-1 and UTF-8 and two bytes long in UTF-16.
+	 * @return An integer that represents the position of the terminator, or end if the string is not terminated.
+	 */
+	private static int terminator(ByteBuffer frames, int start, int end, int encoding) {
+		int step = encoding == 1 || encoding == 2 ? 2 : 1;
+		int position = start;
+		while(position + step <= end && !(frames.get(position) == 0 && frames.get(position+step-1) == 0)) {
+			position += step;
+		}
+		return Math.min(position, end);
+	}
+
+	/**This method allows to obtain the charset of a text encoding byte of a frame: 0 is ISO-8859-1, 1 is UTF-16 with a byte order mark, 2
+	 * is UTF-16BE and 3 is UTF-8. Unknown encodings are read as ISO-8859-1.
+	 */
+	private static Charset charset(int encoding) {
+		Charset charset;
+		if(encoding == 1) {
+			charset = StandardCharsets.UTF_16;
+		} else if(encoding == 2) {
+			charset = StandardCharsets.UTF_16BE;
+		} else if(encoding == 3) {
+			charset = StandardCharsets.UTF_8;
+		} else {
+			charset = StandardCharsets.ISO_8859_1;
+		}
+		return charset;
+	}
+
+	/**This method allows to know whether a genre refers to an ID3v1 genre by its number, like "(17)" or "17", which a complete parser
+	 * translates to its name.
+	 */
+	private static boolean isGenreReference(String genre) {
+		boolean reference = genre.startsWith("(");
+		if(!reference && !genre.isEmpty()) {
+			reference = true;
+			for(int i = 0; i < genre.length() && reference; i++) {
+				reference = Character.isDigit(genre.charAt(i));
+			}
+		}
+		return reference;
+	}
+
+	/**This method allows to know whether the file ends with an ID3v1 tag after the end of the ID3v2 tag, so its size is not counted as
+	 * audio.
+	 */
+	private static boolean hasId3v1(FileChannel channel, long end) throws IOException {
+		boolean found = false;
+		long position = channel.size() - ID3V1_SIZE;
+		if(position >= end) {
+			ByteBuffer marker = ByteBuffer.allocate(3);
+			channel.read(marker, position);
+			found = marker.position() == 3 && marker.get(0) == 'T' && marker.get(1) == 'A' && marker.get(2) == 'G';
+		}
+		return found;
+	}
+
+	/**This method reads the four characters of the id of a frame, like "TIT2".
+	 */
+	private static String frameId(ByteBuffer frames, int position) {
+		char[] id = new char[4];
+		for(int i = 0; i < id.length; i++) {
+			id[i] = (char)(frames.get(position+i) & 0xFF);
+		}
+		return new String(id);
+	}
+
+	/**This method reads a 28 bits integer stored in four bytes whose most significant bit is always zero.
+	 */
+	private static int syncsafe(ByteBuffer buffer, int position) {
+		return ((buffer.get(position) & 0x7F) << 21) | ((buffer.get(position+1) & 0x7F) << 14) | ((buffer.get(position+2) & 0x7F) << 7)
+				| (buffer.get(position+3) & 0x7F);
+	}
+
+	/**This method reads the image of the front cover from the file, without reading the rest of the tag.
+	 * @param file A File that represents the MP3 file this tag was read from<br>file != null
+	 * @return A byte array with the image, or null if the tag does not have a front cover.
+	 * @throws IOException if the file could not be read.
+	 */
+	public byte[] readCover(File file) throws IOException {
+		byte[] image = null;
+		if(coverOffset >= 0) {
+			try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				ByteBuffer buffer = ByteBuffer.allocate(coverLength);
+				int read = 0;
+				while(read >= 0 && buffer.hasRemaining()) {
+					read = channel.read(buffer, coverOffset + buffer.position());
+				}
+				if(!buffer.hasRemaining()) {
+					image = buffer.array();
+				}
+			}
+		}
+		return image;
+	}
+
+	/**This method allows to obtain the title.
+	 * @return A String that represents the title, or null if the tag does not have it.
+	 */
+	public String getTitle() {
+		return title;
+	}
+
+	/**This method allows to obtain the lead performer.
+	 * @return A String that represents the lead performer, or null if the tag does not have it.
+	 */
+	public String getLeadPerformer() {
+		return leadPerformer;
+	}
+
+	/**This method allows to obtain the band.
+	 * @return A String that represents the band, or null if the tag does not have it.
+	 */
+	public String getBand() {
+		return band;
+	}
+
+	/**This method allows to obtain the album.
+	 * @return A String that represents the album, or null if the tag does not have it.
+	 */
+	public String getAlbum() {
+		return album;
+	}
+
+	/**This method allows to obtain the genre.
+	 * @return A String that represents the genre, or null if the tag does not have it.
+	 */
+	public String getGenre() {
+		return genre;
+	}
+
+	/**This method allows to obtain the size of the audio, the size of the file without its ID3v2 and ID3v1 tags.
+	 * @return A long that represents the size of the audio in bytes.
+	 */
+	public long getAudioSize() {
+		return audioSize;
+	}
+
+	/**This method allows to know whether the tag has a front cover.
+	 * @return A boolean that indicates whether the tag has a front cover.
+	 */
+	public boolean hasCover() {
+		return coverOffset >= 0;
+	}
+}
@@ -0,0 +1,291 @@
+package model.musicPlayer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+public class LibraryCatalog {
+	/**It represents the first integer of every catalog file, used to recognize it.
+	 */
+	public final static int MAGIC = 0x4D50434C;
+	/**It represents the version of the format written by this class. The version 1 had no covers section.
+	 */
+	public final static int VERSION = 2;
+	/**It represents the string id written when a metadata field has no value.
+	 */
+	private final static int NO_STRING = -1;
+
+	/**It represents the content of the catalog file.
+	 */
+	private ByteBuffer buffer;
+	/**It represents the version of the format of the catalog file.
+	 */
+	private int version;
+	/**It represents the position in the buffer of every string of the string table.
+	 */
+	private int[] stringOffsets;
+	/**It represents the strings of the string table already decoded, by id.
+	 */
+	private String[] strings;
+
+	/**LibraryCatalog constructor method that reads a catalog file and the positions of its string table. The strings themselves are
+	 * decoded the first time they are needed. The file is read at once and closed, so it can be replaced as soon as the catalog is read.
+	 * @param file A File that represents the catalog<br>file != null
+	 * @throws IOException if the file cannot be read or it is not a catalog of a supported version.
+	 */
+	private LibraryCatalog(File file) throws IOException {
+		buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+		if(buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+			throw new StreamCorruptedException("Not a music catalog: " + file.getPath());
+		}
+		version = buffer.getInt();
+		if(version != VERSION && version != 1) {
+			throw new StreamCorruptedException("Unsupported catalog version " + version + ": " + file.getPath());
+		}
+		int sectionEnd = buffer.getInt() + buffer.position();
+		int count = buffer.getInt();
+		stringOffsets = new int[count];
+		strings = new String[count];
+		for(int i = 0; i < count; i++) {
+			stringOffsets[i] = buffer.position();
+			buffer.position(buffer.position() + 4 + buffer.getInt(buffer.position()));
+		}
+		buffer.position(sectionEnd);
+	}
+
+	/**This method allows to obtain a string of the string table, decoding it if it was not decoded before, so the paths, artists,
+	 * albums and genres shared by many songs are decoded once.
+	 * @param id An integer that represents the id of the string.
+	 * @return The String with the requested id, or null if the id is NO_STRING.
+	 */
+	private String string(int id) {
+		if(id == NO_STRING) {
+			return null;
+		}
+		if(strings[id] == null) {
+			int offset = stringOffsets[id];
+			strings[id] = new String(buffer.array(), offset + 4, buffer.getInt(offset), StandardCharsets.UTF_8);
+		}
+		return strings[id];
+	}
+
+	/**This method reads the music folders saved in a catalog file. Only the metadata of the songs is read, their cover art is read
+	 * from their files the first time it is requested.
+	 * @param file A File that represents the catalog<br>file != null
+	 * @return The first MusicFolder of the saved linked list, or null if the catalog has no folders.
+	 * @throws IOException if the file cannot be read or it is not a catalog of a supported version.
+	 */
+	public static MusicFolder read(File file) throws IOException {
+		return new LibraryCatalog(file).readFolders();
+	}
+
+	/**This method reads the folders section and the songs section of the catalog and builds the linked list of folders.
+	 * @return The first MusicFolder of the saved linked list, or null if the catalog has no folders.
+	 */
+	private MusicFolder readFolders() {
+		buffer.getInt();
+		int folderCount = buffer.getInt();
+		int[] folderPaths = new int[folderCount];
+		int[] folderSongs = new int[folderCount];
+		for(int i = 0; i < folderCount; i++) {
+			folderPaths[i] = buffer.getInt();
+			folderSongs[i] = buffer.getInt();
+		}
+		buffer.getInt();
+		int songCount = buffer.getInt();
+		int[] parents = readColumn(songCount);
+		int[] names = readColumn(songCount);
+		int[] titles = readColumn(songCount);
+		int[] artists = readColumn(songCount);
+		int[] albums = readColumn(songCount);
+		int[] genres = readColumn(songCount);
+		double[] sizes = new double[songCount];
+		buffer.asDoubleBuffer().get(sizes);
+		buffer.position(buffer.position() + songCount * 8);
+		HashMap<Integer, byte[]> covers = version > 1 ? readCovers() : new HashMap<Integer, byte[]>();
+
+		MusicFolder first = null;
+		MusicFolder last = null;
+		int song = 0;
+		for(int i = 0; i < folderCount; i++) {
+			ArrayList<Song> songs = new ArrayList<Song>(folderSongs[i]);
+			SongStore store = new SongStore(folderSongs[i]);
+			for(int j = 0; j < folderSongs[i]; j++, song++) {
+				File f = new File(string(parents[song]), string(names[song]));
+				Song s = new Song(store, f, string(titles[song]), string(artists[song]), string(albums[song]), string(genres[song]), sizes[song]);
+				s.setCustomCover(covers.get(song));
+				songs.add(s);
+			}
+			MusicFolder folder = new MusicFolder(new File(string(folderPaths[i])), store, songs);
+			if(first == null) {
+				first = folder;
+			} else {
+				last.setNextMusicFolder(folder);
+				folder.setPrevMusicFolder(last);
+			}
+			last = folder;
+		}
+		return first;
+	}
+
+	/**This method reads the covers section of the catalog, with the cover art chosen by the user for some songs.
+	 * @return A HashMap with the chosen covers by the position of their song in the songs section.
+	 */
+	private HashMap<Integer, byte[]> readCovers() {
+		buffer.getInt();
+		int count = buffer.getInt();
+		HashMap<Integer, byte[]> covers = new HashMap<Integer, byte[]>();
+		for(int i = 0; i < count; i++) {
+			int song = buffer.getInt();
+			byte[] cover = new byte[buffer.getInt()];
+			buffer.get(cover);
+			covers.put(song, cover);
+		}
+		return covers;
+	}
+
+	/**This method reads a column of string ids from the current position of the buffer.
+	 * @param length An integer that represents the number of values in the column.
+	 * @return An integer array with the values of the column.
+	 */
+	private int[] readColumn(int length) {
+		int[] column = new int[length];
+		buffer.asIntBuffer().get(column);
+		buffer.position(buffer.position() + length * 4);
+		return column;
+	}
+
+	/**This method writes a linked list of music folders in a catalog file. The file is written next to the target and then moved
+	 * over it, so a failure never leaves a half written catalog.<br>
+	 * Every different string is written once in a string table and the songs are written column by column, referring to the strings
+	 * by id. The cover art stays in the MP3 files, only the covers chosen by the user are written, in a section of their own.
+	 * @param file A File that represents the catalog<br>file != null
+	 * @param first The first MusicFolder of the linked list to write<br>first != null
+	 * @throws IOException if there was a problem writing the file.
+	 */
+	public static void write(File file, MusicFolder first) throws IOException {
+		HashMap<String, Integer> ids = new HashMap<String, Integer>();
+		ArrayList<String> table = new ArrayList<String>();
+		ArrayList<MusicFolder> folders = new ArrayList<MusicFolder>();
+		ArrayList<Song> songs = new ArrayList<Song>();
+		ByteArrayOutputStream folderBytes = new ByteArrayOutputStream();
+		DataOutputStream folderSection = new DataOutputStream(folderBytes);
+		for(MusicFolder current = first; current != null; current = current.getNextMusicFolder()) {
+			ArrayList<Song> folderSongs = current.songsByTitle();
+			folders.add(current);
+			songs.addAll(folderSongs);
+			folderSection.writeInt(intern(current.getFolder().getPath(), ids, table));
+			folderSection.writeInt(folderSongs.size());
+		}
+
+		ByteArrayOutputStream songBytes = new ByteArrayOutputStream();
+		DataOutputStream songSection = new DataOutputStream(songBytes);
+		int[][] columns = new int[6][songs.size()];
+		for(int i = 0; i < songs.size(); i++) {
+			Song s = songs.get(i);
+			columns[0][i] = intern(s.getSongFile().getParent(), ids, table);
+			columns[1][i] = intern(s.getSongFile().getName(), ids, table);
+			columns[2][i] = intern(s.getTitle(), ids, table);
+			columns[3][i] = intern(s.getArtist(), ids, table);
+			columns[4][i] = intern(s.getAlbum(), ids, table);
+			columns[5][i] = intern(s.getGenre(), ids, table);
+		}
+		for(int[] column : columns) {
+			for(int value : column) {
+				songSection.writeInt(value);
+			}
+		}
+		for(Song s : songs) {
+			songSection.writeDouble(s.getSize());
+		}
+
+		ByteArrayOutputStream coverBytes = new ByteArrayOutputStream();
+		DataOutputStream coverSection = new DataOutputStream(coverBytes);
+		int covers = 0;
+		for(int i = 0; i < songs.size(); i++) {
+			byte[] cover = songs.get(i).getCustomCover();
+			if(cover != null) {
+				coverSection.writeInt(i);
+				coverSection.writeInt(cover.length);
+				coverSection.write(cover);
+				covers++;
+			}
+		}
+
+		ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+		DataOutputStream stringSection = new DataOutputStream(stringBytes);
+		for(String s : table) {
+			byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+			stringSection.writeInt(utf8.length);
+			stringSection.write(utf8);
+		}
+
+		File temp = new File(file.getPath() + ".tmp");
+		try(DataOutputStream out = new DataOutputStream(new FileOutputStream(temp))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(stringBytes.size() + 4);
+			out.writeInt(table.size());
+			stringBytes.writeTo(out);
+			out.writeInt(folderBytes.size() + 4);
+			out.writeInt(folders.size());
+			folderBytes.writeTo(out);
+			out.writeInt(songBytes.size() + 4);
+			out.writeInt(songs.size());
+			songBytes.writeTo(out);
+			out.writeInt(coverBytes.size() + 4);
+			out.writeInt(covers);
+			coverBytes.writeTo(out);
+		}
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**This method allows to obtain the id of a string in the string table, adding it if it is not there yet.
+	 * @param s A String that represents the string to intern. It can be null.
+	 * @param ids A HashMap with the id of every string already in the table.
+	 * @param table A String ArrayList that represents the string table.
+	 * @return An integer that represents the id of the string, or NO_STRING if it is null.
+	 */
+	private static int intern(String s, HashMap<String, Integer> ids, ArrayList<String> table) {
+		if(s == null) {
+			return NO_STRING;
+		}
+		Integer id = ids.get(s);
+		if(id == null) {
+			id = table.size();
+			ids.put(s, id);
+			table.add(s);
+		}
+		return id;
+	}
+
+	/**This method reads the folders saved with Java serialization by the previous versions of the player, so they can be scanned
+	 * again and saved in a catalog. Only their folders and the files and covers of their songs can be used, see Song.readObject.
+	 * @param file A File that represents the serialized music folders<br>file != null
+	 * @return A MusicFolder ArrayList with the folders of the saved linked list, in order.
+	 * @throws IOException if the file cannot be read.
+	 * @throws ClassNotFoundException if the file contains classes that are not in the class path.
+	 */
+	public static ArrayList<MusicFolder> readLegacyFolders(File file) throws IOException, ClassNotFoundException {
+		ArrayList<MusicFolder> folders = new ArrayList<MusicFolder>();
+		try(ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
+			MusicFolder current = (MusicFolder)ois.readObject();
+			while(current != null) {
+				folders.add(current);
+				current = current.getNextMusicFolder();
+			}
+		}
+		return folders;
+	}
+}
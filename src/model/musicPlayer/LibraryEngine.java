@@ -0,0 +1,307 @@
+package model.musicPlayer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import customExceptions.FolderWithoutMP3ContentException;
+
+public class LibraryEngine implements Closeable {
+	/**It represents the file where the catalog of the music folders is saved.
+	 */
+	private File catalogFile;
+	/**It represents the file where the index of the songs already read is saved.
+	 */
+	private File indexFile;
+	/**It represents the music folders of the libraries, by their folder and in the order they were added, and the songs of all of them.
+	 */
+	private LibraryRegistry libraries;
+	/**It represents the index of the songs already read, used to scan the music folders without reading the unchanged files.
+	 */
+	private LibraryIndex libraryIndex;
+	/**It represents the index used to search songs by their words across all the music folders.
+	 */
+	private SearchIndex searchIndex;
+	/**It represents the watcher that keeps the music folders updated with the changes of their files. It is null until the engine
+	 * starts watching or if the file system cannot be watched.
+	 */
+	private LibraryWatcher libraryWatcher;
+	/**It represents who is notified when the watcher changes the songs of a music folder. It can be null.
+	 */
+	private volatile WatchListener libraryListener;
+
+	/**LibraryEngine constructor method that loads the libraries saved in a catalog and the index of the songs already read. No folder
+	 * is scanned and nothing needs a display, so the libraries can be indexed, queried and saved by a batch job.
+	 * @param catalogFile A File that represents the catalog of the music folders. If it does not exist the engine starts without folders<br>catalogFile != null
+	 * @param indexFile A File that represents the library index. If it cannot be read the engine starts with an empty index<br>indexFile != null
+	 * @throws IOException if the catalog exists but cannot be read.
+	 */
+	public LibraryEngine(File catalogFile, File indexFile) throws IOException {
+		this.catalogFile = catalogFile;
+		this.indexFile = indexFile;
+		libraryIndex = LibraryIndex.load(indexFile);
+		libraries = new LibraryRegistry();
+		if(catalogFile.exists()) {
+			libraries.addAll(LibraryCatalog.read(catalogFile));
+		}
+		searchIndex = new SearchIndex();
+		for(MusicFolder folder : libraries.getFolders()) {
+			searchIndex.addAll(folder);
+		}
+	}
+
+	/**This method migrates the music folders saved with Java serialization by the previous versions of the player. The paths of the
+	 * folders are taken from the old file, except the first one, which was the demo library, and so are the covers the user chose for
+	 * their songs. The folders are scanned again and the old file is deleted once they are saved in the catalog.
+	 * @param legacy A File that represents the serialized linked list of music folders<br>legacy != null
+	 * @throws IOException if the file cannot be read or the catalog cannot be written.
+	 * @throws ClassNotFoundException if the file was saved by a version of the player that cannot be migrated.
+	 */
+	public void migrateLegacyFolders(File legacy) throws IOException, ClassNotFoundException {
+		ArrayList<MusicFolder> folders = LibraryCatalog.readLegacyFolders(legacy);
+		for(int i = 0; i < folders.size(); i++) {
+			MusicFolder folder = libraries.get(folders.get(i).getFolder());
+			try {
+				if(folder == null && i > 0) {
+					folder = addMusicFolder(folders.get(i).getFolder());
+				}
+			} catch(FileNotFoundException | FolderWithoutMP3ContentException e) {
+				//the folder no longer exists or no longer has songs, so it is not migrated
+			}
+			if(folder != null) {
+				migrateCovers(folders.get(i), folder);
+			}
+		}
+		LibraryCatalog.write(catalogFile, libraries.getFirst());
+		legacy.delete();
+	}
+
+	/**This method gives the songs of a migrated folder the covers that the user chose for them in the previous versions of the player.
+	 * Those versions kept the cover of every song, so it is only taken when it is not the cover of the file.
+	 * @param old The MusicFolder read from the old file<br>old != null
+	 * @param folder The registered MusicFolder of the same folder<br>folder != null
+	 */
+	private static void migrateCovers(MusicFolder old, MusicFolder folder) {
+		for(Song saved : old.getSongs()) {
+			byte[] cover = saved.getCustomCover();
+			Song song = cover != null ? folder.findSong(saved.getSongFile()) : null;
+			if(song != null && !Arrays.equals(cover, song.getImage())) {
+				song.setCustomCover(cover);
+			}
+		}
+	}
+
+	/**This method adds a music folder after the last one and waits until all its songs are read. The files that did not change since
+	 * they were recorded in the library index are not read again.
+	 * @param dir A File that represents the folder<br>dir != null
+	 * @return The MusicFolder added, or the one that was already registered for the folder.
+	 * @throws IOException if the folder has not been found or could not be read.
+	 * @throws FolderWithoutMP3ContentException if the folder does not have MP3 files.
+	 */
+	public MusicFolder addMusicFolder(File dir) throws IOException, FolderWithoutMP3ContentException {
+		MusicFolder folder = libraries.get(dir);
+		if(folder == null) {
+			folder = new MusicFolder(dir, libraryIndex);
+			libraries.add(folder);
+			searchIndex.addAll(folder);
+			watch(folder);
+		}
+		return folder;
+	}
+
+	/**This method adds a music folder after the last one without waiting for its songs. The folder is added empty and it is filled in the
+	 * background while the listener is notified about the progress.
+	 * @param dir A File that represents the folder<br>dir != null
+	 * @param listener A ScanListener that will be notified about the progress of the scan. It can be null.
+	 * @return A LibraryScanner that represents the scan in progress, it can be used to cancel it. It is null if the folder was already added.
+	 * @throws FileNotFoundException if the folder has not been found.
+	 */
+	public LibraryScanner addMusicFolderInBackground(File dir, final ScanListener listener) throws FileNotFoundException {
+		LibraryScanner scanner = null;
+		if(!libraries.contains(dir)) {
+			scanner = new LibraryScanner(LibraryScanner.DEFAULT_WORKERS, libraryIndex);
+			MusicFolder folder = new MusicFolder(dir, scanner, new ScanListener() {
+				@Override
+				public void songScanned(MusicFolder folder, Song song) {
+					if(!folder.getScanner().isCancelled()) {
+						searchIndex.add(song, folder);
+					}
+					if(listener != null) {
+						listener.songScanned(folder, song);
+					}
+				}
+
+				@Override
+				public void scanFinished(MusicFolder folder, boolean cancelled) {
+					if(listener != null) {
+						listener.scanFinished(folder, cancelled);
+					}
+				}
+			});
+			libraries.add(folder);
+			watch(folder);
+		}
+		return scanner;
+	}
+
+	/**This method removes a music folder from the libraries, cancelling its scan if it is still being filled.
+	 * @param folder The MusicFolder to remove<br>folder != null
+	 * @return A boolean that indicates whether the folder was in the libraries.
+	 */
+	public boolean removeMusicFolder(MusicFolder folder) {
+		if(folder.getScanner() != null) {
+			folder.getScanner().cancel();
+		}
+		searchIndex.removeAll(folder);
+		boolean removed = libraries.remove(folder);
+		if(libraryWatcher != null) {
+			libraryWatcher.unwatch(folder);
+		}
+		return removed;
+	}
+
+	/**This method reads again every music folder so it reflects the files added, changed or removed since it was saved. Only the files
+	 * that changed are read, the other songs are taken from the library index. The folders that no longer exist or no longer contain MP3
+	 * files are removed, except the first one, which is kept as it was saved. If the engine is watching the folders, the folders read
+	 * again are watched in place of the old ones.
+	 * @throws IOException if there was a problem reading a folder.
+	 */
+	public void rescanMusicFolders() throws IOException {
+		MusicFolder first = libraries.getFirst();
+		for(MusicFolder current : libraries.getFolders()) {
+			MusicFolder rescanned = null;
+			try {
+				rescanned = new MusicFolder(current.getFolder(), libraryIndex);
+			} catch(FileNotFoundException | FolderWithoutMP3ContentException e) {
+				rescanned = current == first ? current : null;
+			}
+			if(rescanned == null) {
+				removeMusicFolder(current);
+			} else if(rescanned != current && libraries.replace(current, rescanned)) {
+				searchIndex.addAll(rescanned);
+				searchIndex.removeAll(current);
+				if(libraryWatcher != null) {
+					libraryWatcher.unwatch(current);
+				}
+				watch(rescanned);
+			}
+		}
+	}
+
+	/**This method compares every music folder with its files, so it reflects the files added, changed or removed while the engine was
+	 * not watching them, for example while the player was closed. Unlike rescanMusicFolders, the folders are updated in place through
+	 * the watcher, so whoever shows them only receives the changes, and the search index and the library listener are updated like
+	 * with any other change. It can be called from any thread while the folders are being used.
+	 * @return A boolean that indicates whether the folders were compared. It is false if the engine is not watching the folders.
+	 */
+	public boolean reconcileMusicFolders() {
+		LibraryWatcher watcher = libraryWatcher;
+		if(watcher != null) {
+			watcher.reconcile();
+		}
+		return watcher != null;
+	}
+
+	/**This method saves the music folders in the catalog, together with the library index.
+	 * @throws IOException if the files could not be written.
+	 */
+	public void save() throws IOException {
+		LibraryCatalog.write(catalogFile, libraries.getFirst());
+		libraryIndex.save(indexFile);
+	}
+
+	/**This method starts watching the music folders, so the songs of the files added, changed or removed are updated without scanning
+	 * the folders again. The folders added later are watched too. If the file system cannot be watched the folders are only updated when
+	 * they are scanned again.
+	 * @return A boolean that indicates whether the folders are being watched.
+	 */
+	public boolean startWatching() {
+		if(libraryWatcher == null) {
+			try {
+				libraryWatcher = new LibraryWatcher(libraries, libraryIndex, LibraryWatcher.DEFAULT_DEBOUNCE_MILLIS, (folder, added, removed) -> {
+					for(Song song : removed) {
+						searchIndex.remove(song, folder);
+					}
+					for(Song song : added) {
+						searchIndex.add(song, folder);
+					}
+					WatchListener listener = libraryListener;
+					if(listener != null) {
+						listener.songsChanged(folder, added, removed);
+					}
+				});
+				for(MusicFolder folder : libraries.getFolders()) {
+					watch(folder);
+				}
+			} catch(IOException e) {
+				libraryWatcher = null;
+			}
+		}
+		return libraryWatcher != null;
+	}
+
+	/**This method starts watching a music folder, if the engine is watching the file system.
+	 * @param folder The MusicFolder to watch<br>folder != null
+	 */
+	private void watch(MusicFolder folder) {
+		if(libraryWatcher != null) {
+			try {
+				libraryWatcher.watch(folder);
+			} catch(IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**This method allows to be notified when the songs of a music folder change because its files were added, changed or removed.
+	 * @param listener The WatchListener to notify. It is invoked from the watcher thread. It can be null.
+	 */
+	public void setLibraryListener(WatchListener listener) {
+		libraryListener = listener;
+	}
+
+	/**This method stops watching the music folders. The libraries can still be used and saved.
+	 * @throws IOException if the watcher could not be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		if(libraryWatcher != null) {
+			libraryWatcher.close();
+			libraryWatcher = null;
+		}
+	}
+
+	/**This method allows to search songs across all the music folders. Every word of the query must begin a word of the title, artist,
+	 * album or genre of the song, and small typos are tolerated.
+	 * @param query A String that represents the text to search<br>query != null
+	 * @param limit An integer that represents the maximum number of songs returned.
+	 * @return A Song ArrayList with the matching songs.
+	 */
+	public ArrayList<Song> search(String query, int limit) {
+		return searchIndex.search(query, limit);
+	}
+
+	/**This method allows to obtain the music folder that contains a song.
+	 * @param song A Song that represents the song to look for<br>song != null
+	 * @return A MusicFolder that represents the folder that contains the song, or null if it is not in any library.
+	 */
+	public MusicFolder getMusicFolderOf(Song song) {
+		return searchIndex.getFolder(song);
+	}
+
+	/**This method allows to obtain the registry of the music folders of the libraries.
+	 * @return The LibraryRegistry with the music folders and their songs.
+	 */
+	public LibraryRegistry getLibraries() {
+		return libraries;
+	}
+
+	/**This method allows to obtain the index of the songs already read.
+	 * @return The LibraryIndex of the engine.
+	 */
+	public LibraryIndex getLibraryIndex() {
+		return libraryIndex;
+	}
+}
@@ -0,0 +1,266 @@
+package model.musicPlayer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class LibraryIndex {
+	/**It represents the first integer of every index file, used to recognize it.
+	 */
+	public final static int MAGIC = 0x4C494458;
+	/**It represents the version of the format written by this class.
+	 */
+	public final static int VERSION = 1;
+
+	/**It represents the metadata of the songs already read, by absolute path.
+	 */
+	private ConcurrentHashMap<String, Entry> entries;
+
+	/**LibraryIndex constructor method that creates an empty index.
+	 */
+	public LibraryIndex() {
+		entries = new ConcurrentHashMap<String, Entry>();
+	}
+
+	/**This method allows to obtain the index saved in a file.
+	 * @param file A File that represents the file where the index was saved<br>file != null
+	 * @return A LibraryIndex with the saved entries. It is empty when the file doesn't exist or it is not a valid index.
+	 */
+	public static LibraryIndex load(File file) {
+		LibraryIndex index = new LibraryIndex();
+		if(file.exists()) {
+			try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+				if(in.readInt() == MAGIC && in.readInt() == VERSION) {
+					int count = in.readInt();
+					for(int i = 0; i < count; i++) {
+						String path = readString(in);
+						index.entries.put(path, Entry.read(in));
+					}
+				}
+			} catch(IOException e) {
+				index.entries.clear();
+			}
+		}
+		return index;
+	}
+
+	/**This method saves the index in a file, replacing its previous content. The file is written next to the target and then moved
+	 * over it, so a failure never leaves a half written index.
+	 * @param file A File that represents the file where the index will be saved<br>file != null
+	 * @throws IOException if there was a problem writing the file.
+	 */
+	public void save(File file) throws IOException {
+		File temp = new File(file.getPath() + ".tmp");
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			Map<String, Entry> snapshot = new HashMap<String, Entry>(entries);
+			out.writeInt(snapshot.size());
+			for(Map.Entry<String, Entry> e : snapshot.entrySet()) {
+				writeString(out, e.getKey());
+				e.getValue().write(out);
+			}
+		}
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**This method writes a string as its length in bytes followed by its UTF-8 bytes, so it can be of any length.
+	 * @param out The DataOutputStream where the string is written<br>out != null
+	 * @param s A String that represents the string to write<br>s != null
+	 * @throws IOException if there was a problem writing the string.
+	 */
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(utf8.length);
+		out.write(utf8);
+	}
+
+	/**This method reads a string written by writeString.
+	 * @param in The DataInputStream where the string is read<br>in != null
+	 * @return The String read.
+	 * @throws IOException if there was a problem reading the string.
+	 */
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] utf8 = new byte[in.readInt()];
+		in.readFully(utf8);
+		return new String(utf8, StandardCharsets.UTF_8);
+	}
+
+	/**This method allows to know whether the index has the current metadata of a file, without creating its song. It is the case when
+	 * the size and the modification time of the file are the same that were recorded.
+	 * @param file A File that represents the MP3 file<br>file != null
+	 * @return A boolean that indicates whether the file is in the index and it has not changed.
+	 */
+	public boolean isFresh(File file) {
+		return isFresh(entries.get(file.getAbsolutePath()), file);
+	}
+
+	/**This method allows to know whether an entry of the index has the current metadata of a file.
+	 * @param entry The Entry recorded for the file. It can be null.
+	 * @param file A File that represents the MP3 file<br>file != null
+	 * @return A boolean that indicates whether the entry exists and the file has not changed since it was recorded.
+	 */
+	private static boolean isFresh(Entry entry, File file) {
+		return entry != null && entry.length == file.length() && entry.lastModified == file.lastModified();
+	}
+
+	/**This method allows to obtain a song from the index without reading the file again, keeping its metadata in a store. It only
+	 * succeeds when the size and the modification time of the file are the same that were recorded.
+	 * @param file A File that represents the MP3 file<br>file != null
+	 * @param store The SongStore where the metadata of the song is kept<br>store != null
+	 * @return A Song with the recorded metadata, or null if the file is not in the index or it has changed.
+	 */
+	public Song lookup(File file, SongStore store) {
+		Entry entry = entries.get(file.getAbsolutePath());
+		Song song = null;
+		if(isFresh(entry, file)) {
+			song = new Song(store, file, entry.title, entry.artist, entry.album, entry.genre, entry.size);
+		}
+		return song;
+	}
+
+	/**This method records the metadata of a song that has just been read from its file.
+	 * @param file A File that represents the MP3 file<br>file != null
+	 * @param song The Song read from the file<br>song != null
+	 */
+	public void record(File file, Song song) {
+		entries.put(file.getAbsolutePath(), new Entry(file.length(), file.lastModified(), song));
+	}
+
+	/**This method removes the entries of the files inside a folder that were not found in its last scan.
+	 * @param folder A File that represents the scanned folder<br>folder != null
+	 * @param found A String Set with the absolute paths of the files found in the scan<br>found != null
+	 * @return An integer that represents the number of removed entries.
+	 */
+	public int removeMissing(File folder, Set<String> found) {
+		String prefix = folder.getAbsolutePath() + File.separator;
+		int removed = 0;
+		Iterator<String> it = entries.keySet().iterator();
+		while(it.hasNext()) {
+			String path = it.next();
+			if(path.startsWith(prefix) && !found.contains(path)) {
+				it.remove();
+				removed++;
+			}
+		}
+		return removed;
+	}
+
+	/**This method allows to obtain the number of files in the index.
+	 * @return An integer that represents the number of files in the index.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**It represents the fingerprint and the metadata recorded for a file.
+	 */
+	private static class Entry {
+		/**It represents the size of the file in bytes when it was recorded.
+		 */
+		private long length;
+		/**It represents the modification time of the file when it was recorded.
+		 */
+		private long lastModified;
+		/**It represents the title of the song, or null if the tag did not have it.
+		 */
+		private String title;
+		/**It represents the artist of the song, or null if the tag did not have it.
+		 */
+		private String artist;
+		/**It represents the album of the song, or null if the tag did not have it.
+		 */
+		private String album;
+		/**It represents the genre of the song, or null if the tag did not have it.
+		 */
+		private String genre;
+		/**It represents the size of the song.
+		 */
+		private double size;
+
+		/**Entry constructor method that records the fingerprint of a file and the metadata of its song.
+		 * @param length A long that represents the size of the file in bytes.
+		 * @param lastModified A long that represents the modification time of the file.
+		 * @param song The Song read from the file<br>song != null
+		 */
+		private Entry(long length, long lastModified, Song song) {
+			this.length = length;
+			this.lastModified = lastModified;
+			title = song.getTitle();
+			artist = song.getArtist();
+			album = song.getAlbum();
+			genre = song.getGenre();
+			size = song.getSize();
+		}
+
+		/**Entry constructor method that creates an empty entry, which is filled by the method read.
+		 */
+		private Entry() {
+		}
+
+		/**This method writes the entry.
+		 * @param out The DataOutputStream where the entry is written<br>out != null
+		 * @throws IOException if there was a problem writing the entry.
+		 */
+		private void write(DataOutputStream out) throws IOException {
+			out.writeLong(length);
+			out.writeLong(lastModified);
+			writeNullable(out, title);
+			writeNullable(out, artist);
+			writeNullable(out, album);
+			writeNullable(out, genre);
+			out.writeDouble(size);
+		}
+
+		/**This method reads an entry written with the method write.
+		 * @param in The DataInputStream where the entry is read<br>in != null
+		 * @return The Entry read.
+		 * @throws IOException if there was a problem reading the entry.
+		 */
+		private static Entry read(DataInputStream in) throws IOException {
+			Entry e = new Entry();
+			e.length = in.readLong();
+			e.lastModified = in.readLong();
+			e.title = readNullable(in);
+			e.artist = readNullable(in);
+			e.album = readNullable(in);
+			e.genre = readNullable(in);
+			e.size = in.readDouble();
+			return e;
+		}
+
+		/**This method writes a string that can be null, as a boolean that tells whether it is there followed by the string.
+		 * @param out The DataOutputStream where the string is written<br>out != null
+		 * @param s A String that represents the string to write, or null.
+		 * @throws IOException if there was a problem writing the string.
+		 */
+		private static void writeNullable(DataOutputStream out, String s) throws IOException {
+			out.writeBoolean(s != null);
+			if(s != null) {
+				writeString(out, s);
+			}
+		}
+
+		/**This method reads a string written by writeNullable.
+		 * @param in The DataInputStream where the string is read<br>in != null
+		 * @return The String read, or null if none was written.
+		 * @throws IOException if there was a problem reading the string.
+		 */
+		private static String readNullable(DataInputStream in) throws IOException {
+			return in.readBoolean() ? readString(in) : null;
+		}
+	}
+}
@@ -0,0 +1,276 @@
+package model.musicPlayer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Objects;
+
+public class LibraryRegistry {
+	/**It represents the registered music folders by the canonical path of their folder.
+	 */
+	private HashMap<String, MusicFolder> folders;
+	/**It represents the registered music folders in the order they were added.
+	 */
+	private ArrayList<MusicFolder> order;
+	/**It represents the songs of all the registered music folders by the canonical path of their file, see songKey. A file that is in
+	 * several folders, because one of them is inside another or is reached through a link, has only one Song.
+	 */
+	private HashMap<String, SongEntry> songs;
+	/**It represents the canonical path of the parent folder of the songs, by its absolute path, so it is resolved once per folder.
+	 */
+	private HashMap<String, String> canonicalParents;
+
+	/**LibraryRegistry constructor method that creates an empty registry.
+	 */
+	public LibraryRegistry() {
+		folders = new HashMap<String, MusicFolder>();
+		order = new ArrayList<MusicFolder>();
+		songs = new HashMap<String, SongEntry>();
+		canonicalParents = new HashMap<String, String>();
+	}
+
+	/**This method registers a music folder after the last one, unless its folder is already registered. The songs of the folder that are
+	 * already in another registered folder are replaced by the Song of that folder, and so are the songs added to it later.
+	 * @param folder The MusicFolder to register<br>folder != null
+	 * @return A boolean that indicates whether the folder was registered.
+	 */
+	public boolean add(MusicFolder folder) {
+		boolean added = false;
+		synchronized(this) {
+			String key = keyOf(folder.getFolder());
+			if(!folders.containsKey(key)) {
+				folders.put(key, folder);
+				order.add(folder);
+				link(order.size()-1);
+				added = true;
+			}
+		}
+		if(added) {
+			folder.attach(this);
+		}
+		return added;
+	}
+
+	/**This method registers a linked list of music folders, in order.
+	 * @param first The first MusicFolder of the linked list. It can be null.
+	 */
+	public void addAll(MusicFolder first) {
+		ArrayList<MusicFolder> list = new ArrayList<MusicFolder>();
+		for(MusicFolder current = first; current != null; current = current.getNextMusicFolder()) {
+			list.add(current);
+		}
+		for(MusicFolder folder : list) {
+			add(folder);
+		}
+	}
+
+	/**This method unregisters a music folder. Its songs are forgotten unless they are also in another registered folder.
+	 * @param folder The MusicFolder to unregister<br>folder != null
+	 * @return A boolean that indicates whether the folder was registered.
+	 */
+	public boolean remove(MusicFolder folder) {
+		boolean removed = false;
+		synchronized(this) {
+			String key = keyOf(folder.getFolder());
+			if(folders.get(key) == folder) {
+				folders.remove(key);
+				int position = order.indexOf(folder);
+				order.remove(position);
+				link(position);
+				removed = true;
+			}
+		}
+		if(removed) {
+			folder.detach();
+		}
+		return removed;
+	}
+
+	/**This method puts a music folder in the place of another one of the same folder, for example when it was scanned again. The songs
+	 * that did not change are shared by both folders while the replacement is being registered.
+	 * @param old The registered MusicFolder to replace<br>old != null
+	 * @param replacement The MusicFolder that takes its place<br>replacement != null and represents the same folder
+	 * @return A boolean that indicates whether the old folder was registered.
+	 */
+	public boolean replace(MusicFolder old, MusicFolder replacement) {
+		boolean replaced = false;
+		synchronized(this) {
+			String key = keyOf(old.getFolder());
+			if(folders.get(key) == old && keyOf(replacement.getFolder()).equals(key)) {
+				folders.put(key, replacement);
+				int position = order.indexOf(old);
+				order.set(position, replacement);
+				link(position);
+				replaced = true;
+			}
+		}
+		if(replaced) {
+			replacement.attach(this);
+			old.detach();
+		}
+		return replaced;
+	}
+
+	/**This method updates the links of the folders around a position of the order after it changed, so the registered folders are
+	 * still a linked list in the same order.
+	 * @param position An integer that represents the position that changed.
+	 */
+	private void link(int position) {
+		for(int i = Math.max(0, position-1); i <= Math.min(position+1, order.size()-1); i++) {
+			MusicFolder folder = order.get(i);
+			folder.setPrevMusicFolder(i > 0 ? order.get(i-1) : null);
+			folder.setNextMusicFolder(i+1 < order.size() ? order.get(i+1) : null);
+		}
+	}
+
+	/**This method allows to know whether a folder is registered, in constant time.
+	 * @param dir A File that represents the folder<br>dir != null
+	 * @return A boolean that indicates whether a music folder of the folder is registered.
+	 */
+	public synchronized boolean contains(File dir) {
+		return folders.containsKey(keyOf(dir));
+	}
+
+	/**This method allows to obtain the registered music folder of a folder, in constant time.
+	 * @param dir A File that represents the folder<br>dir != null
+	 * @return The registered MusicFolder of the folder, or null if it is not registered.
+	 */
+	public synchronized MusicFolder get(File dir) {
+		return folders.get(keyOf(dir));
+	}
+
+	/**This method allows to obtain the first registered music folder.
+	 * @return The first MusicFolder, or null if the registry is empty.
+	 */
+	public synchronized MusicFolder getFirst() {
+		return order.isEmpty() ? null : order.get(0);
+	}
+
+	/**This method allows to obtain the registered music folders, in the order they were added.
+	 * @return A MusicFolder ArrayList with the registered folders. Changing it does not change the registry.
+	 */
+	public synchronized ArrayList<MusicFolder> getFolders() {
+		return new ArrayList<MusicFolder>(order);
+	}
+
+	/**This method allows to obtain the number of registered music folders.
+	 * @return An integer that represents the number of registered folders.
+	 */
+	public synchronized int size() {
+		return order.size();
+	}
+
+	/**This method allows to obtain the song of a file of any registered folder, in constant time.
+	 * @param path A String that represents the path of the file, through any of the folders that contain it<br>path != null
+	 * @return The Song of the file, or null if it is not in any registered folder.
+	 */
+	public Song getSong(String path) {
+		synchronized(songs) {
+			SongEntry entry = songs.get(songKey(new File(path)));
+			return entry != null ? entry.song : null;
+		}
+	}
+
+	/**This method allows to obtain the number of different files in all the registered folders.
+	 * @return An integer that represents the number of songs kept in memory.
+	 */
+	public int getSongCount() {
+		synchronized(songs) {
+			return songs.size();
+		}
+	}
+
+	/**This method is called when a song is added to a registered folder. If the file is already in another folder its Song is returned,
+	 * so it is kept only once in memory, unless its metadata changed, in which case the new Song is kept for the folders added later.
+	 * @param song The Song added to the folder<br>song != null
+	 * @return The Song that the folder must keep.
+	 */
+	Song intern(Song song) {
+		synchronized(songs) {
+			String path = songKey(song.getSongFile());
+			SongEntry entry = songs.get(path);
+			if(entry == null) {
+				entry = new SongEntry(song);
+				songs.put(path, entry);
+			} else if(entry.song != song && !sameMetadata(entry.song, song)) {
+				entry.song = song;
+			}
+			entry.folders++;
+			return entry.song;
+		}
+	}
+
+	/**This method is called when a song is removed from a registered folder. The song is forgotten when no folder has it.
+	 * @param song The Song removed from the folder<br>song != null
+	 */
+	void release(Song song) {
+		synchronized(songs) {
+			String path = songKey(song.getSongFile());
+			SongEntry entry = songs.get(path);
+			if(entry != null && --entry.folders <= 0) {
+				songs.remove(path);
+			}
+		}
+	}
+
+	/**This method allows to know whether two songs have the same title, artist, album, genre and size, so the registered one can be kept.
+	 * @param a The first Song<br>a != null
+	 * @param b The second Song<br>b != null
+	 * @return A boolean that indicates whether the metadata of the songs is the same.
+	 */
+	private static boolean sameMetadata(Song a, Song b) {
+		return Objects.equals(a.getTitle(), b.getTitle()) && Objects.equals(a.getArtist(), b.getArtist())
+				&& Objects.equals(a.getAlbum(), b.getAlbum()) && Objects.equals(a.getGenre(), b.getGenre()) && a.getSize() == b.getSize();
+	}
+
+	/**This method allows to obtain the key of a song file in the registry: the canonical path of its folder followed by its name, so
+	 * the same file reached through a linked folder is kept once, like the folders. The canonical path of every folder is resolved once.
+	 * It must be called while holding the lock of songs.
+	 * @param file A File that represents the song file<br>file != null
+	 * @return A String that represents the key of the file.
+	 */
+	private String songKey(File file) {
+		File absolute = file.getAbsoluteFile();
+		String parent = absolute.getParent();
+		String canonical = canonicalParents.get(parent);
+		if(canonical == null) {
+			canonical = keyOf(absolute.getParentFile());
+			canonicalParents.put(parent, canonical);
+		}
+		return canonical + File.separator + absolute.getName();
+	}
+
+	/**This method allows to obtain the key of a folder in the registry: its canonical path, so the same folder reached through different
+	 * paths is registered once.
+	 * @param dir A File that represents the folder<br>dir != null
+	 * @return A String that represents the key of the folder.
+	 */
+	public static String keyOf(File dir) {
+		String key;
+		try {
+			key = dir.getCanonicalPath();
+		} catch(IOException e) {
+			key = dir.getAbsolutePath();
+		}
+		return key;
+	}
+
+	/**The Song kept for a file and the number of registered folders that have it.
+	 */
+	private static class SongEntry {
+		/**It represents the Song kept for the file.
+		 */
+		private Song song;
+		/**It represents the number of registered folders that have the song.
+		 */
+		private int folders;
+
+		/**SongEntry constructor method that keeps the song of a file that is not in any folder yet.
+		 * @param song The Song of the file<br>song != null
+		 */
+		private SongEntry(Song song) {
+			this.song = song;
+		}
+	}
+}
@@ -0,0 +1,294 @@
+package model.musicPlayer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+public class LibraryScanner {
+	/**It represents the number of worker threads used when no other amount is specified.
+	 */
+	public final static int DEFAULT_WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+	/**It represents the maximum number of threads reading the metadata of the songs at the same time.
+	 */
+	private int workers;
+	/**It represents the index with the songs read in previous scans. It can be null.
+	 */
+	private LibraryIndex index;
+	/**It represents the pool of threads that read the songs. It is created when the scan starts.
+	 */
+	private ExecutorService pool;
+	/**It represents whether the scan has been cancelled.
+	 */
+	private volatile boolean cancelled;
+	/**It represents the number of MP3 files found in the folder so far. It only grows while the folder is being walked.
+	 */
+	private volatile int totalFiles;
+	/**It represents the number of files that have not been processed yet, plus one while the folder is still being walked.
+	 */
+	private AtomicInteger pendingFiles;
+	/**It represents the number of songs that were read and added to the folder.
+	 */
+	private AtomicInteger scannedSongs;
+	/**It represents the number of songs that were taken from the index instead of reading their files.
+	 */
+	private AtomicInteger reusedSongs;
+	/**It represents the number of MP3 files that could not be read.
+	 */
+	private AtomicInteger failedFiles;
+	/**It is released when every file has been processed or skipped.
+	 */
+	private CountDownLatch finished;
+
+	/**LibraryScanner constructor method that uses as many workers as available processors.
+	 */
+	public LibraryScanner() {
+		this(DEFAULT_WORKERS);
+	}
+
+	/**LibraryScanner constructor method that receives the number of workers that will read the songs.
+	 * @param workers An integer that represents the maximum number of songs being read at the same time<br>workers > 0
+	 */
+	public LibraryScanner(int workers) {
+		this(workers, null);
+	}
+
+	/**LibraryScanner constructor method that receives the number of workers and the index of the songs read in previous scans.
+	 * The files whose size and modification time did not change are taken from the index instead of being read again, and the index
+	 * is updated with the files that were added, changed or removed.
+	 * @param workers An integer that represents the maximum number of songs being read at the same time<br>workers > 0
+	 * @param index The LibraryIndex to use. It can be null, in which case every file is read.
+	 */
+	public LibraryScanner(int workers, LibraryIndex index) {
+		if(workers < 1) {
+			throw new IllegalArgumentException("The scanner needs at least one worker: " + workers);
+		}
+		this.workers = workers;
+		this.index = index;
+		pendingFiles = new AtomicInteger();
+		scannedSongs = new AtomicInteger();
+		reusedSongs = new AtomicInteger();
+		failedFiles = new AtomicInteger();
+		finished = new CountDownLatch(1);
+	}
+
+	/**This method allows to obtain the MP3 files inside a folder and all its subfolders. Symbolic links to folders are not followed.
+	 * @param folder A File that represents the folder to list<br>folder != null
+	 * @return A File ArrayList with the MP3 files of the folder tree. It is empty if the folder cannot be listed.
+	 */
+	public static ArrayList<File> listMP3Files(File folder) {
+		final ArrayList<File> mp3Files = new ArrayList<File>();
+		walkMP3Files(folder, mp3Files::add);
+		return mp3Files;
+	}
+
+	/**This method walks a folder and all its subfolders and gives every MP3 file to an action as soon as it is found. Symbolic links to
+	 * folders are not followed.
+	 * @param folder A File that represents the folder to walk<br>folder != null
+	 * @param action A File Predicate that receives every MP3 file and answers whether the walk must go on<br>action != null
+	 */
+	private static void walkMP3Files(File folder, final Predicate<File> action) {
+		try {
+			Files.walkFileTree(folder.toPath(), new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+					boolean goOn = true;
+					if(attrs.isRegularFile() && file.toString().endsWith(".mp3")) {
+						goOn = action.test(file.toFile());
+					}
+					return goOn ? FileVisitResult.CONTINUE : FileVisitResult.TERMINATE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException exc) {
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch(IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**This method starts reading in the background the MP3 files of the folder represented by target. The folder is walked by a thread
+	 * of its own, which gives every MP3 file to the workers as soon as it is found, so not even listing a big folder blocks the caller.
+	 * Every song is added to target as soon as it is read, so the folder grows while the scan is running. The method returns immediately.
+	 * @param target The MusicFolder that will receive the songs<br>target != null
+	 * @param listener The ScanListener that will be notified about the progress. It can be null.
+	 * @throws IllegalStateException if this scanner has already been started.
+	 */
+	public synchronized void scan(final MusicFolder target, final ScanListener listener) {
+		if(pool != null) {
+			throw new IllegalStateException("A LibraryScanner can only be started once");
+		}
+		final ArrayList<File> files = new ArrayList<File>();
+		pendingFiles.set(1);
+		pool = Executors.newFixedThreadPool(workers, new ThreadFactory() {
+			private int created = 0;
+			@Override
+			public synchronized Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "library-scanner-" + (++created));
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		Thread walker = new Thread(() -> {
+			try {
+				walkMP3Files(target.getFolder(), f -> {
+					if(!cancelled) {
+						files.add(f);
+						totalFiles = files.size();
+						pendingFiles.incrementAndGet();
+						pool.execute(() -> read(f, target, listener, files));
+					}
+					return !cancelled;
+				});
+			} finally {
+				processed(target, listener, files);
+			}
+		}, "library-scanner-walker");
+		walker.setDaemon(true);
+		walker.start();
+	}
+
+	/**This method reads a song, or takes it from the index if its file did not change, and adds it to the folder. It is run by the workers.
+	 * @param f A File that represents the MP3 file<br>f != null
+	 * @param target The MusicFolder that receives the song.
+	 * @param listener The ScanListener to notify. It can be null.
+	 * @param files The File ArrayList with the MP3 files found in the folder.
+	 */
+	private void read(File f, MusicFolder target, ScanListener listener, ArrayList<File> files) {
+		try {
+			if(!cancelled) {
+				Song song = index != null ? index.lookup(f, target.getStore()) : null;
+				if(song != null) {
+					reusedSongs.incrementAndGet();
+				} else {
+					song = new Song(target.getStore(), f);
+					if(index != null) {
+						index.record(f, song);
+					}
+				}
+				song = target.addSong(song);
+				scannedSongs.incrementAndGet();
+				if(listener != null) {
+					listener.songScanned(target, song);
+				}
+			}
+		} catch(IOException | RuntimeException e) {
+			failedFiles.incrementAndGet();
+		} finally {
+			processed(target, listener, files);
+		}
+	}
+
+	/**This method is called when a file has been processed or the walk of the folder is over. The last one to be done finishes the scan.
+	 * The list of files is complete by then, because the walk counts as a pending file until it is over.
+	 * @param target The MusicFolder that was being filled.
+	 * @param listener The ScanListener to notify. It can be null.
+	 * @param files The File ArrayList with the MP3 files found in the folder.
+	 */
+	private void processed(MusicFolder target, ScanListener listener, ArrayList<File> files) {
+		if(pendingFiles.decrementAndGet() == 0) {
+			removeMissingFromIndex(target, files);
+			finish(target, listener);
+		}
+	}
+
+	/**This method forgets the indexed files of the scanned folder that were not found, unless the scan was cancelled.
+	 * @param target The MusicFolder that was scanned.
+	 * @param files The File ArrayList with the MP3 files found in the folder.
+	 */
+	private void removeMissingFromIndex(MusicFolder target, ArrayList<File> files) {
+		if(index != null && !cancelled) {
+			HashSet<String> found = new HashSet<String>();
+			for(File f : files) {
+				found.add(f.getAbsolutePath());
+			}
+			index.removeMissing(target.getFolder(), found);
+		}
+	}
+
+	/**This method releases the workers, sorts the songs added to the folder and notifies the listener that the scan is over.
+	 * @param target The MusicFolder that was being filled.
+	 * @param listener The ScanListener to notify. It can be null.
+	 */
+	private void finish(MusicFolder target, ScanListener listener) {
+		pool.shutdown();
+		try {
+			target.finishAppending();
+			if(listener != null) {
+				listener.scanFinished(target, cancelled);
+			}
+		} finally {
+			finished.countDown();
+		}
+	}
+
+	/**This method blocks the calling thread until the scan has finished or has been cancelled.
+	 * @throws InterruptedException if the calling thread is interrupted while waiting.
+	 */
+	public void awaitCompletion() throws InterruptedException {
+		finished.await();
+	}
+
+	/**This method stops the scan. The songs that are being read at the moment are still added, but the remaining files are skipped.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**This method allows to know whether the scan has been cancelled.
+	 * @return A boolean that indicates whether the scan has been cancelled.
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**This method allows to know whether the scan has finished.
+	 * @return A boolean that indicates whether all the files have been processed or skipped.
+	 */
+	public boolean isFinished() {
+		return finished.getCount() == 0;
+	}
+
+	/**This method allows to obtain the number of MP3 files found in the folder. It grows while the folder is being walked, and it is
+	 * the total once the scan has finished.
+	 * @return An integer that represents the number of MP3 files found in the folder so far.
+	 */
+	public int getTotalFiles() {
+		return totalFiles;
+	}
+
+	/**This method allows to obtain the number of songs read and added to the folder so far.
+	 * @return An integer that represents the number of songs read so far.
+	 */
+	public int getScannedSongs() {
+		return scannedSongs.get();
+	}
+
+	/**This method allows to obtain the number of songs that were taken from the index instead of reading their files.
+	 * @return An integer that represents the number of songs taken from the index so far.
+	 */
+	public int getReusedSongs() {
+		return reusedSongs.get();
+	}
+
+	/**This method allows to obtain the number of MP3 files that could not be read.
+	 * @return An integer that represents the number of MP3 files that could not be read.
+	 */
+	public int getFailedFiles() {
+		return failedFiles.get();
+	}
+}
@@ -0,0 +1,313 @@
+package model.musicPlayer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class LibraryWatcher implements Closeable {
+	/**It represents the time without changes that the watcher waits by default before applying a burst of changes, in milliseconds.
+	 */
+	public final static long DEFAULT_DEBOUNCE_MILLIS = 500;
+
+	/**It represents the registry whose music folders are updated.
+	 */
+	private LibraryRegistry registry;
+	/**It represents the index with the songs already read. It can be null, in which case every changed file is read.
+	 */
+	private LibraryIndex index;
+	/**It represents who is notified about the changes applied. It can be null.
+	 */
+	private WatchListener listener;
+	/**It represents the time without changes to wait before applying them, in milliseconds.
+	 */
+	private long debounceMillis;
+	/**It represents the service that notifies the changes of the watched directories.
+	 */
+	private WatchService service;
+	/**It represents the watched directory of every key of the service.
+	 */
+	private ConcurrentHashMap<WatchKey, Path> directories;
+	/**It represents the canonical paths of the watched music folders.
+	 */
+	private Set<Path> roots;
+	/**It represents the thread that receives and applies the changes.
+	 */
+	private Thread thread;
+	/**It represents whether the watcher was closed.
+	 */
+	private volatile boolean closed;
+
+	/**LibraryWatcher constructor method that starts the thread that waits for changes. No folder is watched until the method watch is called.
+	 * @param registry The LibraryRegistry whose music folders are updated<br>registry != null
+	 * @param index The LibraryIndex used to read the changed files and updated with them. It can be null.
+	 * @param debounceMillis A long that represents the time without changes to wait before applying a burst of changes<br>debounceMillis > 0
+	 * @param listener The WatchListener notified about the changes applied. It can be null.
+	 * @throws IOException if the file system cannot be watched.
+	 */
+	public LibraryWatcher(LibraryRegistry registry, LibraryIndex index, long debounceMillis, WatchListener listener) throws IOException {
+		this.registry = registry;
+		this.index = index;
+		this.debounceMillis = debounceMillis;
+		this.listener = listener;
+		service = FileSystems.getDefault().newWatchService();
+		directories = new ConcurrentHashMap<WatchKey, Path>();
+		roots = ConcurrentHashMap.newKeySet();
+		thread = new Thread(this::run, "library-watcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**This method starts watching a music folder and all its subfolders, including the ones created later.
+	 * @param folder The MusicFolder to watch<br>folder != null
+	 * @throws IOException if the folder cannot be watched.
+	 */
+	public void watch(MusicFolder folder) throws IOException {
+		Path root = Paths.get(LibraryRegistry.keyOf(folder.getFolder()));
+		if(roots.add(root)) {
+			register(root);
+		}
+	}
+
+	/**This method stops watching a music folder. The subfolders that are also inside another watched folder are still watched.
+	 * @param folder The MusicFolder to stop watching<br>folder != null
+	 */
+	public void unwatch(MusicFolder folder) {
+		Path root = Paths.get(LibraryRegistry.keyOf(folder.getFolder()));
+		if(roots.remove(root)) {
+			Iterator<Map.Entry<WatchKey, Path>> entries = directories.entrySet().iterator();
+			while(entries.hasNext()) {
+				Map.Entry<WatchKey, Path> entry = entries.next();
+				if(entry.getValue().startsWith(root) && rootOf(entry.getValue()) == null) {
+					entry.getKey().cancel();
+					entries.remove();
+				}
+			}
+		}
+	}
+
+	/**This method stops watching every folder and the thread that applies the changes.
+	 * @throws IOException if the service could not be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		service.close();
+		thread.interrupt();
+	}
+
+	/**This method watches a directory and all its subdirectories. Symbolic links to directories are not followed.
+	 * @param dir A Path that represents the directory<br>dir != null
+	 * @throws IOException if the directory cannot be watched.
+	 */
+	private void register(Path dir) throws IOException {
+		Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path d, BasicFileAttributes attrs) throws IOException {
+				WatchKey key = d.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+						StandardWatchEventKinds.ENTRY_MODIFY);
+				directories.put(key, d);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException exc) {
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/**This method waits for changes and, once no change arrives during the debounce time, applies all of them together, so a burst of
+	 * changes, like copying an album, updates every folder only once.
+	 */
+	private void run() {
+		try {
+			while(!closed) {
+				LinkedHashSet<Path> changed = new LinkedHashSet<Path>();
+				boolean overflow = collect(service.take(), changed);
+				WatchKey key = service.poll(debounceMillis, TimeUnit.MILLISECONDS);
+				while(key != null) {
+					overflow |= collect(key, changed);
+					key = service.poll(debounceMillis, TimeUnit.MILLISECONDS);
+				}
+				apply(changed, overflow);
+			}
+		} catch(InterruptedException | ClosedWatchServiceException e) {
+			//the watcher was closed
+		}
+	}
+
+	/**This method takes the changes notified by a key.
+	 * @param key The WatchKey that was notified<br>key != null
+	 * @param changed A Path Set where the changed files and directories are added<br>changed != null
+	 * @return A boolean that indicates whether some changes were lost because there were too many.
+	 */
+	private boolean collect(WatchKey key, Set<Path> changed) {
+		boolean overflow = false;
+		Path dir = directories.get(key);
+		for(WatchEvent<?> event : key.pollEvents()) {
+			if(event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				overflow = true;
+			} else if(dir != null) {
+				changed.add(dir.resolve((Path)event.context()));
+			}
+		}
+		if(!key.reset()) {
+			directories.remove(key);
+		}
+		return overflow;
+	}
+
+	/**This method compares every watched music folder with its files, like when some changes were lost, so the folders reflect the
+	 * changes made while they were not watched, for example while the player was closed. The folders are updated in place and the
+	 * listener is notified, like with any other change. Only the files that are new or changed since they were indexed are read.
+	 */
+	public void reconcile() {
+		apply(new LinkedHashSet<Path>(), true);
+	}
+
+	/**This method applies a group of changes to the registered music folders that contain them. Only the songs of the changed files are
+	 * read, removed or replaced, the rest of every folder is kept as it is.
+	 * @param changed A Path Set with the changed files and directories<br>changed != null
+	 * @param overflow A boolean that indicates whether some changes were lost, in which case every watched folder is compared with its files.
+	 */
+	synchronized void apply(Set<Path> changed, boolean overflow) {
+		LinkedHashSet<File> updated = new LinkedHashSet<File>();
+		ArrayList<File> deleted = new ArrayList<File>();
+		for(Path path : changed) {
+			if(Files.isDirectory(path)) {
+				try {
+					register(path);
+				} catch(IOException e) {
+					//the directory was deleted while it was being registered, its deletion will be notified
+				}
+				updated.addAll(LibraryScanner.listMP3Files(path.toFile()));
+			} else if(Files.exists(path)) {
+				if(path.toString().endsWith(".mp3")) {
+					updated.add(path.toFile());
+				}
+			} else {
+				deleted.add(path.toFile());
+			}
+		}
+		HashMap<File, Song> read = new HashMap<File, Song>();
+		for(MusicFolder folder : registry.getFolders()) {
+			Path root = Paths.get(LibraryRegistry.keyOf(folder.getFolder()));
+			ArrayList<Song> added = new ArrayList<Song>();
+			ArrayList<Song> removed = new ArrayList<Song>();
+			if(overflow && roots.contains(root)) {
+				reconcile(folder, read, added, removed);
+			} else {
+				for(File file : deleted) {
+					if(file.toPath().startsWith(root)) {
+						removed.addAll(folder.removeSongsIn(localFile(folder, root, file)));
+					}
+				}
+				for(File file : updated) {
+					if(file.toPath().startsWith(root)) {
+						put(folder, localFile(folder, root, file), read, added, removed);
+					}
+				}
+			}
+			if(listener != null && (!added.isEmpty() || !removed.isEmpty())) {
+				listener.songsChanged(folder, added, removed);
+			}
+		}
+	}
+
+	/**This method compares a music folder with its files, removing the songs of the files that no longer exist and adding or replacing
+	 * the songs of the files that are new or changed since they were indexed.
+	 */
+	private void reconcile(MusicFolder folder, HashMap<File, Song> read, ArrayList<Song> added, ArrayList<Song> removed) {
+		HashMap<String, Song> songs = new HashMap<String, Song>();
+		synchronized(folder) {
+			for(Song song : folder.getSongs()) {
+				songs.put(song.getSongFile().getAbsolutePath(), song);
+			}
+		}
+		for(File file : LibraryScanner.listMP3Files(folder.getFolder())) {
+			Song known = songs.remove(file.getAbsolutePath());
+			if(known == null || index == null || !index.isFresh(file)) {
+				put(folder, file, read, added, removed);
+			}
+		}
+		for(Song missing : songs.values()) {
+			if(folder.removeSong(missing)) {
+				removed.add(missing);
+			}
+		}
+	}
+
+	/**This method reads a changed file, once for all the folders that contain it, and adds its song to a folder or replaces the old one.
+	 * A file that cannot be read, for example because it is still being copied, is skipped: it will be read when its next change arrives.
+	 */
+	private void put(MusicFolder folder, File file, HashMap<File, Song> read, ArrayList<Song> added, ArrayList<Song> removed) {
+		Song song = read.get(file);
+		if(song == null && !read.containsKey(file)) {
+			song = index != null ? index.lookup(file, folder.getStore()) : null;
+			if(song == null) {
+				try {
+					song = new Song(folder.getStore(), file);
+					if(index != null) {
+						index.record(file, song);
+					}
+				} catch(IOException | RuntimeException e) {
+					song = null;
+				}
+			}
+			read.put(file, song);
+		}
+		if(song != null) {
+			Song old = folder.findSong(file);
+			if(old != null) {
+				removed.add(old);
+			}
+			added.add(folder.putSong(song));
+		}
+	}
+
+	/**This method allows to obtain a changed file through the path of the music folder that contains it, since the changes are notified
+	 * through the canonical path of the folder and its songs keep the path it was added with.
+	 * @param folder The MusicFolder that contains the file<br>folder != null
+	 * @param root A Path that represents the canonical path of the folder<br>root != null
+	 * @param file A File that represents the changed file<br>file != null and it is inside root
+	 * @return A File that represents the changed file inside the path of the folder.
+	 */
+	private static File localFile(MusicFolder folder, Path root, File file) {
+		return folder.getFolder().getAbsoluteFile().toPath().resolve(root.relativize(file.toPath())).toFile();
+	}
+
+	/**This method allows to obtain the watched music folder that contains a directory.
+	 * @param dir A Path that represents the directory<br>dir != null
+	 * @return A Path that represents the watched folder, or null if the directory is not inside any of them.
+	 */
+	private Path rootOf(Path dir) {
+		Path root = null;
+		for(Iterator<Path> it = roots.iterator(); it.hasNext() && root == null;) {
+			Path candidate = it.next();
+			if(dir.startsWith(candidate)) {
+				root = candidate;
+			}
+		}
+		return root;
+	}
+}
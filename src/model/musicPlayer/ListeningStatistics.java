@@ -0,0 +1,365 @@
+package model.musicPlayer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+public class ListeningStatistics {
+	/**It represents what the statistics are grouped by.
+	 */
+	public enum Kind {
+		SONG,
+		ARTIST,
+		ALBUM
+	}
+
+	/**It represents the values the statistics can be ordered by.
+	 */
+	public enum Metric {
+		/**The number of times it was played.
+		 */
+		PLAYS,
+		/**The time it was listened.
+		 */
+		LISTEN_TIME,
+		/**The number of times it was left before its end.
+		 */
+		SKIPS,
+		/**The fraction of the plays that were left before the end.
+		 */
+		SKIP_RATE
+	}
+
+	/**The statistics of a song, an artist or an album.
+	 */
+	public static class Entry {
+		/**It represents the id of the song, the artist or the album.
+		 */
+		private long key;
+		/**It represents the name of the song, the artist or the album.
+		 */
+		private String name;
+		/**It represents the number of times it was played.
+		 */
+		private int plays;
+		/**It represents the number of times it was played until its end.
+		 */
+		private int finishes;
+		/**It represents the number of times it was left before its end.
+		 */
+		private int skips;
+		/**It represents the time it was listened, in milliseconds.
+		 */
+		private long listenMillis;
+
+		Entry(long key, String name, int plays, int finishes, int skips, long listenMillis) {
+			this.key = key;
+			this.name = name;
+			this.plays = plays;
+			this.finishes = finishes;
+			this.skips = skips;
+			this.listenMillis = listenMillis;
+		}
+
+		/**This method allows to obtain the id.
+		 * @return A long that represents the id of the song, the artist or the album.
+		 */
+		public long getKey() {
+			return key;
+		}
+
+		/**This method allows to obtain the name.
+		 * @return A String that represents the name of the song, the artist or the album.
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**This method allows to obtain the plays.
+		 * @return An integer that represents the number of times it was played.
+		 */
+		public int getPlays() {
+			return plays;
+		}
+
+		/**This method allows to obtain the plays until the end.
+		 * @return An integer that represents the number of times it was played until its end.
+		 */
+		public int getFinishes() {
+			return finishes;
+		}
+
+		/**This method allows to obtain the skips.
+		 * @return An integer that represents the number of times it was left before its end.
+		 */
+		public int getSkips() {
+			return skips;
+		}
+
+		/**This method allows to obtain the listened time.
+		 * @return A long that represents the time it was listened, in milliseconds.
+		 */
+		public long getListenMillis() {
+			return listenMillis;
+		}
+
+		/**This method allows to obtain the fraction of the plays that were left before the end.
+		 * @return A double between 0 and 1 that represents the skip rate, 0 if no play ended yet.
+		 */
+		public double getSkipRate() {
+			int ended = finishes + skips;
+			return ended > 0 ? (double)skips / ended : 0;
+		}
+
+		@Override
+		public String toString() {
+			return name + ": " + plays + " plays, " + listenMillis/1000 + " s, " + skips + " skips";
+		}
+	}
+
+	/**It represents the first integer of the statistics file, used to recognize it.
+	 */
+	public final static int MAGIC = 0x4C535453;
+	/**It represents the version of the format written by this class.
+	 */
+	public final static int VERSION = 1;
+	/**It represents the number of milliseconds of a day, the precision of the time windows.
+	 */
+	public final static long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+	/**It represents the statistics of all the time, by kind.
+	 */
+	private StatisticsTable[] totals;
+	/**It represents the statistics of every day, by kind. The key is the number of days since the epoch.
+	 */
+	private TreeMap<Long, StatisticsTable[]> days;
+	/**It represents the number of the history journal segment up to which the events were counted.
+	 */
+	private int journalSegment;
+	/**It represents the position in the history journal segment up to which the events were counted.
+	 */
+	private long journalPosition;
+
+	/**ListeningStatistics constructor method that creates empty statistics.
+	 */
+	public ListeningStatistics() {
+		totals = newTables();
+		days = new TreeMap<Long, StatisticsTable[]>();
+	}
+
+	/**This method counts an event of the playback history. It takes constant time, so it can be called every time a song is charged.
+	 * @param event The HistoryEvent to count<br>event != null
+	 * @param song The Song of the event, used to count its artist and album. If it is null only the song is counted.
+	 */
+	public void record(HistoryEvent event, Song song) {
+		int plays = event.getType() == HistoryEvent.Type.PLAY ? 1 : 0;
+		int finishes = event.getType() == HistoryEvent.Type.FINISH ? 1 : 0;
+		int skips = event.getType() == HistoryEvent.Type.SKIP ? 1 : 0;
+		long listened = event.getPlayedMillis();
+		long dayNumber = Math.floorDiv(event.getTimestamp(), DAY_MILLIS);
+		StatisticsTable[] day = days.get(dayNumber);
+		if(day == null) {
+			day = newTables();
+			days.put(dayNumber, day);
+		}
+		String title = song != null ? song.getTitle() : event.getFileName();
+		for(StatisticsTable[] tables : new StatisticsTable[][] {totals, day}) {
+			tables[Kind.SONG.ordinal()].add(event.getSongId(), title, plays, finishes, skips, listened);
+			if(song != null) {
+				String artist = nameOf(song.getArtist());
+				String album = nameOf(song.getAlbum());
+				tables[Kind.ARTIST.ordinal()].add(artistId(artist), artist, plays, finishes, skips, listened);
+				tables[Kind.ALBUM.ordinal()].add(albumId(artist, album), album, plays, finishes, skips, listened);
+			}
+		}
+	}
+
+	/**This method allows to obtain the statistics of all the time of a song.
+	 * @param song The Song<br>song != null
+	 * @return The Entry of the song, or null if it was never played.
+	 */
+	public Entry get(Song song) {
+		return totals[Kind.SONG.ordinal()].get(HistoryJournal.songId(song.getSongFile().getAbsolutePath()));
+	}
+
+	/**This method allows to obtain the statistics of all the time of a song, an artist or an album.
+	 * @param kind The Kind of the key<br>kind != null
+	 * @param key A long that represents the id of the song, the artist or the album.
+	 * @return The Entry of the key, or null if it was never played.
+	 */
+	public Entry get(Kind kind, long key) {
+		return totals[kind.ordinal()].get(key);
+	}
+
+	/**This method allows to obtain the most played songs, artists or albums of all the time.
+	 * @param kind The Kind of the statistics<br>kind != null
+	 * @param metric The Metric used to order them<br>metric != null
+	 * @param n An integer that represents the maximum number of entries<br>n >= 0
+	 * @return An Entry ArrayList with at most n entries, from the greatest to the smallest value of the metric.
+	 */
+	public ArrayList<Entry> top(Kind kind, Metric metric, int n) {
+		return totals[kind.ordinal()].top(metric, n);
+	}
+
+	/**This method allows to obtain the most played songs, artists or albums of a time window, with a precision of one day. Only the
+	 * statistics of the days of the window are added, so the history is not read again.
+	 * @param kind The Kind of the statistics<br>kind != null
+	 * @param metric The Metric used to order them<br>metric != null
+	 * @param n An integer that represents the maximum number of entries<br>n >= 0
+	 * @param from A long that represents the beginning of the window, in milliseconds since the epoch.
+	 * @param to A long that represents the end of the window, excluded, in milliseconds since the epoch<br>to > from
+	 * @return An Entry ArrayList with at most n entries, from the greatest to the smallest value of the metric.
+	 */
+	public ArrayList<Entry> top(Kind kind, Metric metric, int n, long from, long to) {
+		long first = Math.floorDiv(from, DAY_MILLIS);
+		long last = Math.floorDiv(to - 1, DAY_MILLIS);
+		ArrayList<Entry> top;
+		if(days.isEmpty() || (days.firstKey() >= first && days.lastKey() <= last)) {
+			top = top(kind, metric, n);
+		} else {
+			NavigableMap<Long, StatisticsTable[]> window = days.subMap(first, true, last, true);
+			StatisticsTable sum = new StatisticsTable();
+			for(StatisticsTable[] day : window.values()) {
+				sum.addAll(day[kind.ordinal()]);
+			}
+			top = sum.top(metric, n);
+		}
+		return top;
+	}
+
+	/**This method counts the events of the history journal that were not counted yet, for example because the application was closed
+	 * before the statistics were saved.
+	 * @param directory A File that represents the folder of the history journal<br>directory != null
+	 * @param songs A function that gives the Song of the library of the absolute path of a file, or null if it is not in the library. It
+	 * is used to count the artists and albums<br>songs != null
+	 * @throws IOException if the journal could not be read.
+	 */
+	public void catchUp(File directory, Function<String, Song> songs) throws IOException {
+		for(File segment : HistoryJournal.segments(directory)) {
+			int number = HistoryJournal.numberOf(segment);
+			if(number >= journalSegment) {
+				try(HistoryReader reader = new HistoryReader(segment)) {
+					if(number == journalSegment && journalPosition <= reader.size()) {
+						reader.seek(Math.max(journalPosition, HistoryJournal.HEADER_SIZE));
+					}
+					HistoryEvent event = reader.next();
+					while(event != null) {
+						record(event, songs.apply(event.getPath()));
+						event = reader.next();
+					}
+					journalSegment = number;
+					journalPosition = reader.position();
+				}
+			}
+		}
+	}
+
+	/**This method saves the statistics, and the position of the history journal up to which the events were counted.
+	 * @param file A File that represents where the statistics are saved<br>file != null
+	 * @param segment An integer that represents the number of the journal segment being written.
+	 * @param position A long that represents the position of the end of the last event counted in that segment.
+	 * @throws IOException if the statistics could not be saved.
+	 */
+	public void save(File file, int segment, long position) throws IOException {
+		journalSegment = segment;
+		journalPosition = position;
+		File temp = new File(file.getPath() + ".tmp");
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(journalSegment);
+			out.writeLong(journalPosition);
+			for(StatisticsTable table : totals) {
+				table.write(out);
+			}
+			out.writeInt(days.size());
+			for(Map.Entry<Long, StatisticsTable[]> day : days.entrySet()) {
+				out.writeLong(day.getKey());
+				for(StatisticsTable table : day.getValue()) {
+					table.write(out);
+				}
+			}
+		}
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**This method loads the statistics saved with the method save.
+	 * @param file A File that represents where the statistics were saved<br>file != null
+	 * @return The ListeningStatistics read, or empty statistics if the file does not exist.
+	 * @throws IOException if the file could not be read or it is not a statistics file of a supported version.
+	 */
+	public static ListeningStatistics load(File file) throws IOException {
+		ListeningStatistics statistics = new ListeningStatistics();
+		if(file.exists()) {
+			try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+				if(in.readInt() != MAGIC || in.readInt() != VERSION) {
+					throw new StreamCorruptedException("Not a listening statistics file of a supported version");
+				}
+				statistics.journalSegment = in.readInt();
+				statistics.journalPosition = in.readLong();
+				for(int i = 0; i < statistics.totals.length; i++) {
+					statistics.totals[i] = StatisticsTable.read(in);
+				}
+				int count = in.readInt();
+				for(int i = 0; i < count; i++) {
+					long day = in.readLong();
+					StatisticsTable[] tables = newTables();
+					for(int j = 0; j < tables.length; j++) {
+						tables[j] = StatisticsTable.read(in);
+					}
+					statistics.days.put(day, tables);
+				}
+			}
+		}
+		return statistics;
+	}
+
+	/**This method computes the id of an artist.
+	 * @param artist A String that represents the name of the artist<br>artist != null
+	 * @return A long that represents the id of the artist.
+	 */
+	public static long artistId(String artist) {
+		return HistoryJournal.songId("artist:" + artist);
+	}
+
+	/**This method computes the id of an album. Albums with the same name of different artists have different ids.
+	 * @param artist A String that represents the name of the artist<br>artist != null
+	 * @param album A String that represents the name of the album<br>album != null
+	 * @return A long that represents the id of the album.
+	 */
+	public static long albumId(String artist, String album) {
+		return HistoryJournal.songId("album:" + artist + "\0" + album);
+	}
+
+	/**This method allows to obtain the name counted for an artist or an album that may be missing in the tag of a song.
+	 * @param name A String that represents the name read from the tag, or null
+	 * @return The name, or "unknown" if it is null.
+	 */
+	private static String nameOf(String name) {
+		return name != null ? name : "unknown";
+	}
+
+	/**This method creates an empty table for every Kind.
+	 * @return A StatisticsTable array indexed by the ordinal of the Kind.
+	 */
+	private static StatisticsTable[] newTables() {
+		StatisticsTable[] tables = new StatisticsTable[Kind.values().length];
+		for(int i = 0; i < tables.length; i++) {
+			tables[i] = new StatisticsTable();
+		}
+		return tables;
+	}
+}
@@ -0,0 +1,96 @@
+package model.musicPlayer;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.Timeline;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+
+public class MediaPlayback implements Playback {
+	/**It represents the JavaFX media player that plays the song.
+	 */
+	private MediaPlayer mediaPlayer;
+
+	/**MediaPlayback constructor method that prepares a song to be played with the JavaFX media player. It is the PlaybackBackend used
+	 * by the interface, as MediaPlayback::new.
+	 * @param song The Song to play<br>song != null
+	 */
+	public MediaPlayback(Song song) {
+		mediaPlayer = new MediaPlayer(new Media(song.getSongPath()));
+	}
+
+	/**This method allows to obtain the JavaFX media player, so the interface can follow its progress and status.
+	 * @return The MediaPlayer that plays the song.
+	 */
+	public MediaPlayer getMediaPlayer() {
+		return mediaPlayer;
+	}
+
+	@Override
+	public void play() {
+		mediaPlayer.play();
+	}
+
+	@Override
+	public void pause() {
+		mediaPlayer.pause();
+	}
+
+	@Override
+	public void stop() {
+		mediaPlayer.stop();
+	}
+
+	@Override
+	public void dispose() {
+		mediaPlayer.dispose();
+	}
+
+	@Override
+	public boolean isPlaying() {
+		return mediaPlayer.getStatus() == MediaPlayer.Status.PLAYING;
+	}
+
+	@Override
+	public long getPositionMillis() {
+		return (long)mediaPlayer.getCurrentTime().toMillis();
+	}
+
+	@Override
+	public long getDurationMillis() {
+		Duration total = mediaPlayer.getTotalDuration();
+		return total == null || total.isUnknown() || total.isIndefinite() ? -1 : (long)total.toMillis();
+	}
+
+	@Override
+	public double getVolume() {
+		return mediaPlayer.getVolume();
+	}
+
+	@Override
+	public void setVolume(double volume) {
+		mediaPlayer.setVolume(volume);
+	}
+
+	@Override
+	public boolean isMute() {
+		return mediaPlayer.isMute();
+	}
+
+	@Override
+	public void setMute(boolean mute) {
+		mediaPlayer.setMute(mute);
+	}
+
+	/**This method changes the volume gradually with a Timeline, so it must be called from the JavaFX application thread.
+	 */
+	@Override
+	public void fade(double volume, long millis, Runnable finished) {
+		Timeline fade = new Timeline(new KeyFrame(Duration.millis(millis), new KeyValue(mediaPlayer.volumeProperty(), volume)));
+		if(finished != null) {
+			fade.setOnFinished(e -> finished.run());
+		}
+		fade.play();
+	}
+}
@@ -3,12 +3,20 @@ package model.musicPlayer;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import customExceptions.FolderWithoutMP3ContentException;
-import customExceptions.NotMP3FileException;
 
 public class MusicFolder implements Serializable {
+	/**It represents the version of the serialized form, kept so the folders saved by previous versions can still be migrated.
+	 */
+	private static final long serialVersionUID = -3220297760924589661L;
 
 	/** This is the folder that will be represented by this class
 	 */
@@ -19,9 +27,9 @@ public class MusicFolder implements Serializable {
 	/**This is the number of MP3 files that are contained in this folder
 	 */
 	private int numberOfSongs;
-	/**This is the song that charges all the other songs in the binary search tree
+	/**This is the balanced binary search tree that keeps the songs ordered by title
 	 */
-	private Song root;
+	private SongTree titleIndex;
 	/** This is where all the songs in the binary search tree will be contained to perform the sorting algorithms
 	 */
 	private ArrayList<Song> songs;
@@ -31,119 +39,383 @@ public class MusicFolder implements Serializable {
 	/**This is the previous folder in the folders linked list
 	 */
 	private MusicFolder prevMusicFolder;
+	/**This is the store that keeps the metadata of the songs read for this folder, column by column.
+	 */
+	private SongStore store;
 	/** This indicates if the Song ArrayList is sorted by title or not.
 	 */
 	private boolean sortedByTitle;
+	/**This is the scanner that reads the songs of the folder. It is not saved with the folder.
+	 */
+	private transient LibraryScanner scanner;
+	/**This is the engine that keeps the sorted permutations of the songs. It is updated every time a song is added or removed.
+	 */
+	private transient SongSorter sorter;
+	/**This is the number of times the Song ArrayList was changed, used by others to know when the order of the songs is no longer the same.
+	 */
+	private transient int modifications;
+	/**This is the registry where the folder is registered, which keeps only one Song of every file. It is null when the folder is not registered.
+	 */
+	private transient LibraryRegistry registry;
+	/**This is the key by which the Song ArrayList is sorted. It is null when it is sorted by title in ascending order, like a new folder.
+	 */
+	private transient SortKey sortKey;
+	/**This indicates if the Song ArrayList is sorted in descending order of sortKey.
+	 */
+	private transient boolean descending;
+	/**This is where the songs of the folder are found by the absolute path of their file.
+	 */
+	private transient HashMap<String, Song> songsByPath;
+	/**This indicates if the songs are being added by a scan. They are appended to the Song ArrayList and it is sorted once when the scan finishes.
+	 */
+	private transient boolean appending;
 
-	/**The method allows to get an instance of MusicFolder that will represent the folder received as parameter.
+	/**The method allows to get an instance of MusicFolder that will represent the folder received as parameter and all its subfolders.<br>
+	 * The songs are read in parallel by a LibraryScanner and the method returns when all of them have been added.
 	 * @param folder The folder to be represented by this MusicFolder<br>folder is different to null and is a valid directory in this device
 	 * @throws IOException if the folder doesn't exist or there was another problem reading it.
 	 * @throws FolderWithoutMP3ContentException if the folder doesn't contain any MP3 files in it.
 	 */
 	public MusicFolder(File folder) throws IOException, FolderWithoutMP3ContentException {
+		this(folder, (LibraryIndex)null);
+	}
+
+	/**The method allows to get an instance of MusicFolder that will represent the folder received as parameter and all its subfolders.<br>
+	 * The songs whose files did not change since they were recorded in the index are taken from it, the other ones are read in parallel.
+	 * The method returns when all of them have been added.
+	 * @param folder The folder to be represented by this MusicFolder<br>folder is different to null and is a valid directory in this device
+	 * @param index The LibraryIndex with the songs read in previous scans. It can be null, in which case every file is read.
+	 * @throws IOException if the folder doesn't exist or there was another problem reading it.
+	 * @throws FolderWithoutMP3ContentException if the folder doesn't contain any MP3 files in it.
+	 */
+	public MusicFolder(File folder, LibraryIndex index) throws IOException, FolderWithoutMP3ContentException {
+		this(folder, new LibraryScanner(LibraryScanner.DEFAULT_WORKERS, index), null);
+		try {
+			scanner.awaitCompletion();
+		} catch (InterruptedException ie) {
+			scanner.cancel();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("The scan of " + folder.getPath() + " was interrupted");
+		}
+		if(numberOfSongs == 0) {
+			throw new FolderWithoutMP3ContentException(folder.getPath());
+		}
+	}
+
+	/**The method allows to get an instance of MusicFolder that starts empty and is filled in the background by the scanner received
+	 * as parameter. The songs are added to this folder as soon as they are read, and the listener is notified about the progress.
+	 * @param folder The folder to be represented by this MusicFolder<br>folder is different to null and is a valid directory in this device
+	 * @param scanner The LibraryScanner that will read the songs of the folder<br>scanner != null and has not been started
+	 * @param listener The ScanListener that will be notified about the progress of the scan. It can be null.
+	 * @throws FileNotFoundException if the folder doesn't exist.
+	 */
+	public MusicFolder(File folder, LibraryScanner scanner, ScanListener listener) throws FileNotFoundException {
 		this.folder = folder;
 		if(!folder.exists()) {
 			throw new FileNotFoundException();
 		}
-		File[] content = folder.listFiles();
 		songs = new ArrayList<Song>();
-		if(content.length != 0) {
-			int index = 0;
-			boolean added = false;
-			while(!added) {
-				try {
-					root = new Song(content[index]);
-					added = true;
-				} catch(NotMP3FileException nmp3fe) {
-					index++;
-					if(index == content.length) {
-						throw new FolderWithoutMP3ContentException(folder.getPath());
-					}
-				}
+		songsByPath = new HashMap<String, Song>();
+		store = new SongStore();
+		titleIndex = new SongTree();
+		sortedByTitle = true;
+		folderName = folder.getName();
+		this.scanner = scanner;
+		appending = true;
+		scanner.scan(this, listener);
+	}
+
+	/**The method allows to get an instance of MusicFolder with songs that were already read. The folder is not scanned.
+	 * @param folder The folder to be represented by this MusicFolder<br>folder != null
+	 * @param songs A Song ArrayList with the songs of the folder<br>songs != null
+	 */
+	MusicFolder(File folder, ArrayList<Song> songs) {
+		this(folder, new SongStore(), songs);
+	}
+
+	/**The method allows to get an instance of MusicFolder with songs that were already read and kept in a store, for example from a LibraryCatalog.
+	 * The folder is not scanned.
+	 * @param folder The folder to be represented by this MusicFolder<br>folder != null
+	 * @param store The SongStore that keeps the metadata of the songs<br>store != null
+	 * @param songs A Song ArrayList with the songs of the folder<br>songs != null
+	 */
+	MusicFolder(File folder, SongStore store, ArrayList<Song> songs) {
+		this.folder = folder;
+		this.store = store;
+		this.songs = new ArrayList<Song>();
+		songsByPath = new HashMap<String, Song>();
+		titleIndex = new SongTree();
+		sortedByTitle = true;
+		folderName = folder.getName();
+		appending = true;
+		for(Song s : songs) {
+			addSong(s);
+		}
+		finishAppending();
+	}
+
+	/**The method allows to add a song to this folder. The song is added to the binary search tree and to the Song ArrayList, in the
+	 * position of the order the list is sorted by, after the songs that are equal to it in that order, like the sorted permutations do.
+	 * While the folder is being scanned the song is appended instead, and the list is sorted once when the scan finishes. If the folder
+	 * is registered and the file is already in another registered folder, the Song of that folder is added instead, and the given one is
+	 * detached from its store if no folder keeps it.
+	 * @param song The Song to be added<br>song != null
+	 * @return The Song added to the folder.
+	 */
+	public synchronized Song addSong(Song song) {
+		if(registry != null) {
+			Song kept = registry.intern(song);
+			if(kept != song && !song.isHeld()) {
+				song.detach();
 			}
+			song = kept;
 		}
-		for(int i = 1; i < content.length; i++) {
-			if(content[i].isFile() && content[i].getPath().endsWith(".mp3")) {
-				addSongToBST(root, new Song(content[i]));
+		song.hold();
+		titleIndex.add(song);
+		if(sorter != null) {
+			sorter.add(song);
+		}
+		if(appending) {
+			songs.add(song);
+		} else {
+			Comparator<Song> order = (sortKey != null ? sortKey : SortKey.TITLE).getComparator();
+			int sign = descending ? -1 : 1;
+			int low = 0;
+			int high = songs.size();
+			while(low < high) {
+				int mid = (low+high)/2;
+				if(sign * order.compare(songs.get(mid), song) > 0) {
+					high = mid;
+				} else {
+					low = mid+1;
+				}
 			}
+			songs.add(low, song);
 		}
-		sortedByTitle = true;
-		songs = inorder();
-		folderName = folder.getName();
+		songsByPath().put(song.getSongFile().getAbsolutePath(), song);
 		numberOfSongs = songs.size();
+		modifications++;
+		return song;
 	}
 
-	/** The method allows to add a new Song to the binary search tree according to the natural order.
-	 * @param current The current node in the binary search tree that is responsible to add the requested 
-	 * node before or after itself depending on the natural order<br>current != null 
-	 * @param addme The node that is going to be added to the binary search tree.
+	/**The method is called when the songs of a scan have been added. The Song ArrayList, whose songs were appended in the order they
+	 * were read, is sorted once in the order it is shown, and the next songs are inserted in their position.
 	 */
-	private void addSongToBST(Song current, Song addme) {
-		if(current.compareTo(addme) > 0) {
-			if(current.getLeft() != null) {
-				addSongToBST(current.getLeft(), addme);
-			} else {
-				current.setLeft(addme);
-			}
-		} else {
-			if(current.getRight() != null) {
-				addSongToBST(current.getRight(), addme);
-			} else {
-				current.setRight(addme);
+	synchronized void finishAppending() {
+		if(appending) {
+			appending = false;
+			sortSongs(sortKey != null ? sortKey : SortKey.TITLE, !descending);
+		}
+	}
+
+	/**The method allows to obtain where the songs of the folder are found by the absolute path of their file, building it if the folder
+	 * was deserialized.
+	 * @return A HashMap with the songs of the folder by the absolute path of their file.
+	 */
+	private HashMap<String, Song> songsByPath() {
+		if(songsByPath == null) {
+			songsByPath = new HashMap<String, Song>();
+			for(Song song : songs) {
+				songsByPath.put(song.getSongFile().getAbsolutePath(), song);
 			}
 		}
+		return songsByPath;
 	}
 
-	/** The method allows to obtain a list with the songs in the binary search tree in order. 
-	 * @return A Song ArrayList with the songs in order.
+	/**The method is called when this folder is registered. Its songs whose files are already in another registered folder are replaced
+	 * by the Song of that folder.
+	 * @param registry The LibraryRegistry where the folder is registered<br>registry != null
 	 */
-	public ArrayList<Song> inorder() {
-		ArrayList<Song> inorderSongs = new ArrayList<Song>();
-		sortedByTitle = true;
-		if(root != null) {
-			inorder(root, inorderSongs);
+	synchronized void attach(LibraryRegistry registry) {
+		this.registry = registry;
+		boolean replaced = false;
+		for(int i = 0; i < songs.size(); i++) {
+			Song old = songs.get(i);
+			Song song = registry.intern(old);
+			if(song != old) {
+				songsByPath().remove(old.getSongFile().getAbsolutePath());
+				songsByPath().put(song.getSongFile().getAbsolutePath(), song);
+				songs.set(i, song);
+				song.hold();
+				if(old.drop()) {
+					old.detach();
+				}
+				replaced = true;
+			}
+		}
+		if(replaced) {
+			titleIndex = new SongTree();
+			for(Song song : songs) {
+				titleIndex.add(song);
+			}
+			sorter = null;
+			modifications++;
 		}
-		return inorderSongs;
 	}
 
-	/** The method allows to fill an ArrayList with the songs in the binary search tree in order.
-	 * @param current The current node in the binary search tree that is going to be added to the ArrayList after its left 
-	 * subtree and before its right subtree<br>current != null
-	 * @param tofill the ArrayList where the songs are going to accumulate.
+	/**The method is called when this folder is no longer registered, so the registry forgets the songs that only this folder had, and
+	 * the songs no longer count this folder among the ones that keep them.
 	 */
-	private void inorder(Song current, ArrayList<Song> tofill) {
-		if(current.getLeft() != null) {
-			inorder(current.getLeft(), tofill);
+	synchronized void detach() {
+		if(registry != null) {
+			for(Song song : songs) {
+				registry.release(song);
+				song.drop();
+			}
+			registry = null;
 		}
-		tofill.add(current);
-		if(current.getRight() != null) {
-			inorder(current.getRight(), tofill);
+	}
+
+	/**The method allows to know whether the Song ArrayList changed, because a song was added or removed or the songs were sorted.
+	 * @return An integer that changes every time the Song ArrayList changes.
+	 */
+	public synchronized int getModifications() {
+		return modifications;
+	}
+
+	/**The method allows to obtain the store where the songs read for this folder keep their metadata. The songs that the folder shares
+	 * with other registered folders may be kept in the store of another folder.
+	 * @return A SongStore that represents the store of this folder.
+	 */
+	public SongStore getStore() {
+		return store;
+	}
+
+	/**The method allows to obtain the scanner that filled this folder.
+	 * @return A LibraryScanner that represents the scanner that filled this folder. It is null when the folder was loaded from disk.
+	 */
+	public LibraryScanner getScanner() {
+		return scanner;
+	}
+
+	/**The method serializes this folder while no scanner thread is adding songs to it.
+	 * @param oos The stream where this folder is written.
+	 * @throws IOException if there was a problem writing the folder.
+	 */
+	private synchronized void writeObject(ObjectOutputStream oos) throws IOException {
+		oos.defaultWriteObject();
+	}
+
+	/**The method allows to remove a song from this folder. If no other folder keeps the song, it is detached from its store so its row
+	 * can be used by another song.
+	 * @param song The Song to be removed<br>song != null
+	 * @return A boolean that indicates whether the song was in this folder.
+	 */
+	public synchronized boolean removeSong(Song song) {
+		boolean removed = titleIndex.remove(song);
+		if(removed) {
+			if(registry != null) {
+				registry.release(song);
+			}
+			if(sorter != null) {
+				sorter.remove(song);
+			}
+			songs.remove(song);
+			songsByPath().remove(song.getSongFile().getAbsolutePath());
+			numberOfSongs = songs.size();
+			modifications++;
+			if(song.drop()) {
+				song.detach();
+			}
 		}
+		return removed;
 	}
-	
-	/** This method allows to obtain a Song ArrayList that is sorted in preorder.
-	 * @return A Song ArrayList that is sorted in preorder.
+
+	/**The method allows to obtain the song of a file of this folder, in constant time. When the folder is registered, the file can also
+	 * be found through the path of another registered folder that shares its Song.
+	 * @param file A File that represents the MP3 file<br>file != null
+	 * @return The Song of the file, or null if it is not in this folder.
 	 */
-	public ArrayList<Song> preorder() {
-		ArrayList<Song> preorderSongs = new ArrayList<Song>();
-		if(root != null) {
-			preorder(root, preorderSongs);
+	public synchronized Song findSong(File file) {
+		String path = file.getAbsolutePath();
+		Song found = songsByPath().get(path);
+		if(found == null && registry != null) {
+			Song shared = registry.getSong(path);
+			if(shared != null && songsByPath().get(shared.getSongFile().getAbsolutePath()) == shared) {
+				found = shared;
+			}
 		}
-		return preorderSongs;
+		return found;
 	}
-	
-	/** This method allows to fill a Song ArrayList with songs in preorder.
-	 * @param current A Song that represents the current song to be added in the Song ArrayList<br>current != null
-	 * @param tofill A Song ArrayList that represents the array where songs in preorder are going to be added.
-	 */
-	private void preorder(Song current, ArrayList<Song> tofill) {
-		tofill.add(current);
-		if(current.getLeft() != null) {
-			inorder(current.getLeft(), tofill);
+
+	/**The method allows to add the song of a file or to replace it if the file was already in this folder, for example because its
+	 * tags changed. Only this song is removed and added, the rest of the folder is kept as it is.
+	 * @param song The Song read from the file<br>song != null
+	 * @return The Song added to the folder, see addSong.
+	 */
+	public synchronized Song putSong(Song song) {
+		Song old = findSong(song.getSongFile());
+		if(old != null) {
+			removeSong(old);
 		}
-		if(current.getRight() != null) {
-			inorder(current.getRight(), tofill);
+		return addSong(song);
+	}
+
+	/**The method allows to remove the songs of a file, or of all the files inside a folder, that no longer exist. The songs of a folder
+	 * are removed together, in a single pass over the songs of this folder, and detached like in removeSong.
+	 * @param path A File that represents the MP3 file or the folder<br>path != null
+	 * @return A Song ArrayList with the removed songs.
+	 */
+	public synchronized ArrayList<Song> removeSongsIn(File path) {
+		ArrayList<Song> removed = new ArrayList<Song>();
+		Song single = findSong(path);
+		if(single != null) {
+			removeSong(single);
+			removed.add(single);
+		} else {
+			String file = path.getAbsolutePath();
+			String inside = file.endsWith(File.separator) ? file : file + File.separator;
+			Iterator<Song> it = songsByPath().values().iterator();
+			while(it.hasNext()) {
+				Song song = it.next();
+				if(song.getSongFile().getAbsolutePath().startsWith(inside)) {
+					it.remove();
+					removed.add(song);
+				}
+			}
+			if(!removed.isEmpty()) {
+				HashSet<Song> gone = new HashSet<Song>(removed);
+				songs.removeIf(gone::contains);
+				for(Song song : removed) {
+					titleIndex.remove(song);
+					if(registry != null) {
+						registry.release(song);
+					}
+					if(song.drop()) {
+						song.detach();
+					}
+				}
+				if(sorter != null) {
+					sorter.removeAll(gone);
+				}
+				numberOfSongs = songs.size();
+				modifications++;
+			}
 		}
+		return removed;
+	}
+
+	/** The method allows to obtain a list with the songs in the binary search tree in order. 
+	 * @return A Song ArrayList with the songs in order.
+	 */
+	public synchronized ArrayList<Song> inorder() {
+		sortedByTitle = true;
+		return titleIndex.inorder();
+	}
+	
+	/** The method allows to obtain the songs of the binary search tree in order without changing how the Song ArrayList is considered
+	 * sorted, so it can be used while the songs are shown in another order.
+	 * @return A Song ArrayList with the songs ordered by title.
+	 */
+	synchronized ArrayList<Song> songsByTitle() {
+		return titleIndex.inorder();
+	}
+
+	/** This method allows to obtain a Song ArrayList that is sorted in preorder.
+	 * @return A Song ArrayList that is sorted in preorder.
+	 */
+	public synchronized ArrayList<Song> preorder() {
+		return titleIndex.preorder();
 	}
 
 	/** The method allows to obtain the next music folder in the linked list.
@@ -207,90 +479,50 @@ public class MusicFolder implements Serializable {
 		return equal;
 	}
 
-	/** The method allows to sort the songs in the playList according to its title.<br>
-	 * It uses bubble sort.
+	/** The method allows to sort the songs in the playList according to a key. The permutation of every key is computed once with a
+	 * stable merge sort and kept, and updated when songs are added or removed, so switching between orders takes linear time.
+	 * @param key The SortKey that defines the order<br>key != null
+	 * @param ascending A boolean that indicates whether the songs are sorted in ascending or descending order.
 	 */
-	public void sortSongsByTitle() {
-		sortedByTitle = true;
-		for(int i = 0; i < songs.size(); i++) {
-			for(int j = 0; j < songs.size()-1-i; j++) {
-				if(songs.get(j).compareTo(songs.get(j+1)) > 0) {
-					Song temp = songs.get(j);
-					songs.set(j, songs.get(j+1));
-					songs.set(j+1, temp);
-				}
-			}
+	public synchronized void sortSongs(SortKey key, boolean ascending) {
+		sortedByTitle = key == SortKey.TITLE && ascending;
+		sortKey = key;
+		descending = !ascending;
+		if(sorter == null) {
+			sorter = new SongSorter(titleIndex.inorder());
 		}
+		sorter.sort(songs, key, ascending);
+		modifications++;
+	}
+
+	/** The method allows to sort the songs in the playList according to its title.
+	 */
+	public void sortSongsByTitle() {
+		sortSongs(SortKey.TITLE, true);
 	}
 
-	/**The method allows to sort the songs in the playList according to its artist.<br>
-	 * It uses bubble sort.
+	/**The method allows to sort the songs in the playList according to its artist.
 	 */
 	public void sortSongsByArtist() {
-		sortedByTitle = false;
-		ArtistComparator ac = new ArtistComparator();
-		for(int i = 0; i < songs.size(); i++) {
-			for(int j = 0; j < songs.size()-1-i; j++) {
-				if(ac.compare(songs.get(j), songs.get(j+1)) > 0) {
-					Song temp = songs.get(j);
-					songs.set(j, songs.get(j+1));
-					songs.set(j+1, temp);
-				}
-			}
-		}
+		sortSongs(SortKey.ARTIST, true);
 	} 
 
-	/**The method allows to sort the songs in the playList according to its album.<br>
-	 * It uses insertion sort.
+	/**The method allows to sort the songs in the playList according to its album.
 	 */
 	public void sortSongsByAlbum() {
-		sortedByTitle = false;
-		AlbumComparator ac = new AlbumComparator();
-		for(int i = 1; i < songs.size(); i++) {
-			Song current = songs.get(i);
-			int j = i-1;
-			while(j >= 0 && ac.compare(songs.get(j), current) > 0) {
-				songs.set(j+1, songs.get(j));
-				j--;
-			}
-			songs.set(j+1, current);
-		}
+		sortSongs(SortKey.ALBUM, true);
 	}
 
-	/**The method allows to sort the songs in the playList according to its size.<br>
-	 * It uses selection sort.
+	/**The method allows to sort the songs in the playList according to its size.
 	 */
 	public void sortSongsBySize() {
-		sortedByTitle = false;
-		SizeComparator sc = new SizeComparator();
-		for(int i = 0; i < songs.size()-1; i++) {
-			int low = i;
-			for(int j = i+1; j < songs.size(); j++) {
-				if(sc.compare(songs.get(low), songs.get(j)) > 0) {
-					low = j;
-				}
-			}
-			Song temp = songs.get(low);
-			songs.set(low, songs.get(i));
-			songs.set(i, temp);
-		}
+		sortSongs(SortKey.SIZE, true);
 	}
 
-	/**The method allows to sort the songs in the playList according to its genre.<br>
-	 * It uses insertion sort.
+	/**The method allows to sort the songs in the playList according to its genre.
 	 */
 	public void sortSongsByGenre() {
-		sortedByTitle = false;
-		GenreComparator gc = new GenreComparator();
-		for(int i = 1; i < songs.size(); i++) {
-			Song current = songs.get(i);
-			int j = i-1;
-			while(j >= 0 && gc.compare(songs.get(j), current) > 0) {
-				songs.set(j+1, songs.get(j));
-				j--;
-			}
-			songs.set(j+1, current);
-		}
+		sortSongs(SortKey.GENRE, true);
 	}
 
 	/**The method allows to obtain a Song ArrayList that represents all the songs inside the music folder.
@@ -301,20 +533,28 @@ public class MusicFolder implements Serializable {
 	}
 	
 	/** This method allows to obtain a song specifying its title. When the list is sorted by title, it performs a binary
-	 * searching in the array. Else, the searching is performed in the binary search tree. 
+	 * searching in the array. Else, the searching is performed in the balanced binary search tree. 
 	 * @param title A String that represents the song title from the song to find.<br>title != null
 	 * @return A Song that represents the found song when this is in the array or the three. If the method does not find the requested song it returns null
 	 */
 	public Song search(String title) {
-		Song match = null;System.out.println(sortedByTitle);
-		if(sortedByTitle) {System.out.println("en el arreglo");
+		Song match = null;
+		if(sortedByTitle && !appending) {
 			match = searchInArrayList(title);
-		} else {System.out.println("en el arbol");
-			match = searchInBinarySearchTree(root, title);
+		} else {
+			match = titleIndex.search(title);
 		}	
 		return match;
 	}
 	
+	/** This method allows to obtain all the songs that have the requested title.
+	 * @param title A String that represents the title of the songs to find.<br>title != null
+	 * @return A Song ArrayList with the songs that have the requested title, in the order they were added. It is empty if there is none.
+	 */
+	public synchronized ArrayList<Song> searchAll(String title) {
+		return titleIndex.searchAll(title);
+	}
+	
 	/** This method performs a binary searching to look for a song by title.
 	 * @param title A String that represents the song title from the song to find<br>title != null
 	 * @return A Song that represents the found song when this is in the array. If the method does not find the requested song it returns null
@@ -337,19 +577,4 @@ public class MusicFolder implements Serializable {
 		}
 		return found;
 	}
-	
-	/** This method performs a linear searching to look for a song by title.
-	 * @param current A Song that represents the current song in the binary searching three.
-	 * @param title A String that represents the song title from the song to find<br>title != null
-	 * @return A Song that represents the found song when this is in the binary searching three. If the method does not find the requested song it returns null
-	 */
-	private Song searchInBinarySearchTree(Song current, String title) {
-		if(current == null || title.compareTo(current.getTitle()) == 0) {
-			return current;
-		} else if(title.compareTo(current.getTitle()) < 0) {
-			return searchInBinarySearchTree(current.getLeft(), title);
-		} else {
-			return searchInBinarySearchTree(current.getRight(), title);
-		}
-	}
 }
@@ -1,14 +1,12 @@
 package model.musicPlayer;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.PrintWriter;
-import java.time.LocalDateTime;
+import java.io.InvalidClassException;
 import java.util.ArrayList;
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
 import customExceptions.AttemptedToRemoveCurrentPlayListException;
 import customExceptions.AttemptedToRemoveDemoLibraryException;
 import customExceptions.FolderWithoutMP3ContentException;
@@ -18,24 +16,34 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
 
 
 public class MusicPlayer {
-	/**It represents the path where the music folders are serialized. 
+	/**It represents the path where the previous versions of the player serialized the music folders. It is only read to migrate them.
 	 */
 	public final static String MUSIC_FOLDERS_PATH = "data"+File.separator+"mscfldrs.got";
+	/**It represents the path where the catalog of the music folders is saved.
+	 */
+	public final static String LIBRARY_CATALOG_PATH = "data"+File.separator+"ctlg.got";
+	/**It represents the path where the index of the songs already read is saved.
+	 */
+	public final static String LIBRARY_INDEX_PATH = "data"+File.separator+"lbrryndx.got";
 	/**It represents the path in which the playback history is saved
 	 * */
 	public final static String PLAYBACK_HISTORY_PATH = "history";
-	/**It represents the actual song put to be reproduced. 
+	/**It represents the path in which the listening statistics are saved
+	 */
+	public final static String LISTENING_STATISTICS_PATH = "data"+File.separator+"stts.got";
+	/**It represents the engine that scans, indexes, searches and saves the music folders of the libraries.
 	 */
-	private Media currentAudio;
-	/**It represents the media player to reproduce the songs.
+	private LibraryEngine engine;
+	/**It represents the backend that plays the songs.
 	 */
-	private MediaPlayer mediaPlayer;
-	/** It represents the first music folder in the linked list.
+	private PlaybackBackend backend;
+	/**It represents the playback of the current song.
 	 */
-	private MusicFolder firstMusicFolder;
+	private Playback playback;
 	/**It represents the actual song title sounding in the media player.
 	 */
 	private SimpleStringProperty currentSongTitle;
@@ -51,80 +59,355 @@ public class MusicPlayer {
 	/**It represents the song loaded position as an integer simple property.
 	 */
 	private SimpleIntegerProperty songLoaded;
-	/**It represents the current song cover art to use it in the interface as a byte array.
-	 */
-	private byte[] currentCoverArt;
 	/**It represents the actual song playing in the media player.
 	 */
 	private Song currentSong;
 	/**It represents the current folder that is being played
 	 * */
 	private MusicFolder currentMusicFolder;
-	/** It represents the songs played register.
+	/** It represents the songs played register, written as the songs are played.
+	 */
+	private HistoryJournal historyJournal;
+	/** It represents the song whose playback was the last one recorded in the history. It is null before the first song.
+	 */
+	private Song historySong;
+	/** It represents the play counts and listening time of the songs, artists and albums, updated as the songs are played.
+	 */
+	private ListeningStatistics statistics;
+	/** It represents how the songs of the current play list are ordered: in sequence or in one of the shuffle modes.
+	 */
+	private PlaybackMode playbackMode;
+	/** It represents the function that gives the weight of every song in the weighted shuffle modes.
+	 */
+	private ToDoubleFunction<Song> playbackWeigher;
+	/** It represents the random number generator used to shuffle the songs.
 	 */
-	private String history;
+	private Random random;
+	/** It represents the order in which the songs of the current play list are played. It is rebuilt when the play list changes.
+	 */
+	private PlaybackOrder playbackOrder;
+	/** It represents the music folder whose songs are ordered by the playback order.
+	 */
+	private MusicFolder playbackOrderFolder;
+	/** It represents the modifications of the music folder when the playback order was built.
+	 */
+	private int playbackOrderVersion;
+	/** It represents whether the next song is charged in advance, so it starts without a gap when the current one ends.
+	 */
+	private boolean preloading;
+	/** It represents the song charged in advance. It is null when there is none.
+	 */
+	private Song preloadedSong;
+	/** It represents the playback of the song charged in advance. It is null when there is none.
+	 */
+	private Playback preloadedPlayback;
+	/** It represents the time during which the current song fades out while the next one fades in.
+	 */
+	private Duration crossfade;
 	
-	/** Constructor MusicPlayer method that starts the entire current song metadata and the media player. 
+	/** Constructor MusicPlayer method that starts the entire current song metadata and the media player. The libraries are loaded from
+	 * the catalog and the songs are played with the JavaFX media player.
 	 * @throws ClassNotFoundException if the class definition is not there due to the library witch contains it 
 	 * is not in the application class path.
 	 * @throws IOException if the file has not been found, deleted or moved to another location.
 	 * @throws FolderWithoutMP3ContentException if the selected folder does not have music files with mp3 extension.
 	 */
 	public MusicPlayer() throws ClassNotFoundException, IOException, FolderWithoutMP3ContentException {
+		this(new LibraryEngine(new File(LIBRARY_CATALOG_PATH), new File(LIBRARY_INDEX_PATH)), MediaPlayback::new);
+	}
+
+	/** Constructor MusicPlayer method that plays the songs of the libraries of an engine with a playback backend. If the engine has no
+	 * libraries the demo library is added, together with the folders saved by the previous versions of the player. The engine starts
+	 * watching its music folders, and the saved ones are shown as they were loaded while they are compared with their files in the
+	 * background, so they reflect the files changed while the player was closed. If the folders cannot be watched, they are scanned
+	 * again with the library index before they are shown.
+	 * @param engine The LibraryEngine with the libraries<br>engine != null
+	 * @param backend The PlaybackBackend that plays the songs<br>backend != null
+	 * @throws ClassNotFoundException if the class definition is not there due to the library witch contains it 
+	 * is not in the application class path.
+	 * @throws IOException if the file has not been found, deleted or moved to another location.
+	 * @throws FolderWithoutMP3ContentException if the selected folder does not have music files with mp3 extension.
+	 */
+	public MusicPlayer(LibraryEngine engine, PlaybackBackend backend) throws ClassNotFoundException, IOException, FolderWithoutMP3ContentException {
+		this.engine = engine;
+		this.backend = backend;
 		songLoaded = new SimpleIntegerProperty(Integer.MIN_VALUE);
-		history = LocalDateTime.now().toString() + "\n";
+		random = new Random();
+		playbackMode = PlaybackMode.SEQUENTIAL;
+		playbackWeigher = song -> 1;
+		preloading = true;
+		crossfade = Duration.ZERO;
+		historyJournal = new HistoryJournal(new File(PLAYBACK_HISTORY_PATH));
 
 		currentSongAlbum = new SimpleStringProperty();
 		currentSongArtist = new SimpleStringProperty();
 		currentSongTitle = new SimpleStringProperty();
 
-		firstMusicFolder = new MusicFolder(new File("music"));
-		
-		File file = new File(MUSIC_FOLDERS_PATH);
-		if(file.exists()) {
-			loadMusicFolders(file);
+		boolean saved = engine.getLibraries().size() > 0;
+		if(!saved) {
+			engine.addMusicFolder(new File("music"));
+			File legacy = new File(MUSIC_FOLDERS_PATH);
+			if(legacy.exists()) {
+				try {
+					engine.migrateLegacyFolders(legacy);
+				} catch(InvalidClassException ice) {
+					//the folders were saved by a version of the player that cannot be migrated, only the demo library is kept
+				}
+			}
+		}
+		boolean watching = engine.startWatching();
+		if(saved && !watching) {
+			engine.rescanMusicFolders();
 		}
 		
-		currentPlaylist = firstMusicFolder.getSongs();
+		loadStatistics();
+
+		currentMusicFolder = engine.getLibraries().getFirst();
+		currentPlaylist = currentMusicFolder.getSongs();
 		currentSong = currentPlaylist.get(0);
-		currentMusicFolder = firstMusicFolder;
 		chargeMedia();
+
+		if(saved && watching) {
+			//the files added, changed or removed while the player was closed are not seen by the watcher
+			Thread reconciler = new Thread(engine::reconcileMusicFolders, "library-reconciler");
+			reconciler.setDaemon(true);
+			reconciler.start();
+		}
 	}
 	
-	/** This method charges the entire metadata to the Media and the Media to the MediaPlayer.
+	/** This method charges the entire metadata and opens the current song in the playback backend. When the song was charged in advance
+	 * its playback is reused, so it starts without a gap. The previous playback is disposed, once it has faded out if there is a crossfade.
 	 */
 	private void chargeMedia() {
-		if(mediaPlayer != null) {
-			mediaPlayer.stop();
+		Playback previous = playback;
+		if(preloadedPlayback != null && preloadedSong == currentSong) {
+			playback = preloadedPlayback;
+			preloadedPlayback = null;
+			preloadedSong = null;
+		} else {
+			disposePreloaded();
+			playback = backend.open(currentSong);
+		}
+		recordHistory(previous);
+		if(previous != null) {
+			playback.setMute(previous.isMute());
+			retire(previous);
 		}
-		currentAudio = new Media(currentSong.getSongPath());
-		mediaPlayer = new MediaPlayer(currentAudio);
-		mediaPlayer.stop();
-
-		currentCoverArt = currentSong.getImage();
 
 		currentSongAlbum.set(currentSong.getAlbum());
 		currentSongArtist.set(currentSong.getArtist());
 		currentSongTitle.set(currentSong.getTitle());
 
 		songLoaded.set(songLoaded.get()+1);
-		history += "\n"+currentSong.getFileName();
+		chooseNext();
 	}
-	
-	/** Method that deserializes the folder with music when the application is started again.
-	 * @param mf A File that represents the first music folder in the linked list to deserialize when the application is started again<br>mf != null
-	 * @throws IOException if the file has not been found, deleted or moved to another location.
-	 * @throws ClassNotFoundException if the class definition is not there due to the library witch contains it is not
-	 * in the application class path.
+
+	/** This method records in the history how the previous song ended and that the current song was charged. The previous song is
+	 * recorded as finished if it was played until its end, or until the crossfade started, and as skipped otherwise.
+	 * @param previous The Playback of the previous song, or null if there is none.
+	 */
+	private void recordHistory(Playback previous) {
+		try {
+			if(previous != null && historySong != null) {
+				long played = previous.getPositionMillis();
+				long total = previous.getDurationMillis();
+				long margin = (long)Math.max(crossfade.toMillis(), 1000);
+				boolean finished = total >= 0 && played + margin >= total;
+				HistoryEvent.Type type = finished ? HistoryEvent.Type.FINISH : HistoryEvent.Type.SKIP;
+				statistics.record(historyJournal.record(type, historySong, played), historySong);
+			}
+			historySong = currentSong;
+			statistics.record(historyJournal.record(HistoryEvent.Type.PLAY, currentSong, 0), currentSong);
+		} catch(IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/** This method stops and disposes a playback that is no longer the current one. If it is playing and there is a crossfade, it
+	 * fades out while the current playback fades in to the same volume, and it is disposed when the fade finishes.
+	 * @param previous The Playback of the previous song<br>previous != null
+	 */
+	private void retire(Playback previous) {
+		double volume = previous.getVolume();
+		long millis = (long)crossfade.toMillis();
+		if(millis > 0 && previous.isPlaying()) {
+			playback.setVolume(0);
+			playback.fade(volume, millis, null);
+			previous.fade(0, millis, () -> {
+				previous.stop();
+				previous.dispose();
+			});
+		} else {
+			playback.setVolume(volume);
+			previous.stop();
+			previous.dispose();
+		}
+	}
+
+	/** This method charges in advance the song that will be played after the current one, if the preloading is enabled.
+	 */
+	private void chooseNext() {
+		Song next = playbackOrder().peekNext();
+		if(preloading && next != null && next != currentSong) {
+			if(next != preloadedSong) {
+				disposePreloaded();
+				preloadedSong = next;
+				preloadedPlayback = backend.open(next);
+			}
+		} else {
+			disposePreloaded();
+		}
+	}
+
+	/** This method allows to obtain the playback order of the current play list. It is built again when the current play list is another
+	 * music folder, and it continues from the current song. When the songs of the folder were added, removed or sorted since it was
+	 * built, it is updated instead, so in the shuffle modes the songs already played in the current cycle are not played again.
+	 * @return The PlaybackOrder of the current play list.
+	 */
+	private PlaybackOrder playbackOrder() {
+		synchronized(currentMusicFolder) {
+			int version = currentMusicFolder.getModifications();
+			if(playbackOrder == null || playbackOrderFolder != currentMusicFolder) {
+				playbackOrder = new PlaybackOrder(currentPlaylist, playbackMode, random);
+				playbackOrder.setWeigher(playbackWeigher);
+				playbackOrder.jumpTo(currentSong);
+				playbackOrderFolder = currentMusicFolder;
+				playbackOrderVersion = version;
+			} else if(playbackOrderVersion != version) {
+				playbackOrder.update(currentPlaylist);
+				playbackOrderVersion = version;
+			}
+		}
+		return playbackOrder;
+	}
+
+	/** This method disposes the playback charged in advance, if there is one.
+	 */
+	private void disposePreloaded() {
+		if(preloadedPlayback != null) {
+			preloadedPlayback.dispose();
+			preloadedPlayback = null;
+			preloadedSong = null;
+		}
+	}
+
+	/** This method charges the song that comes after the current one in the playback order. When the whole play list was played it starts
+	 * again, in a new random order in the shuffle modes.
 	 */
-	private void loadMusicFolders(File mf) throws IOException, ClassNotFoundException {
-		FileInputStream fis = new FileInputStream(mf);
-		ObjectInputStream ois = new ObjectInputStream(fis);
+	public void playNext() {
+		Song next = playbackOrder().next();
+		if(next != null) {
+			currentSong = next;
+			chargeMedia();
+		}
+	}
+
+	/** This method charges the song that was played before the current one in the playback order.
+	 */
+	public void playPrevious() {
+		Song previous = playbackOrder().previous();
+		if(previous != null) {
+			currentSong = previous;
+			chargeMedia();
+		}
+	}
 
-		firstMusicFolder = (MusicFolder)ois.readObject();
-		currentPlaylist = firstMusicFolder.getSongs();
-		ois.close();
-		fis.close();
+	/** This method allows to obtain the song that will be played after the current one.
+	 * @return A Song that represents the next song, or null if the play list is empty.
+	 */
+	public Song getNextSong() {
+		return playbackOrder().peekNext();
+	}
+
+	/** This method allows to set how the songs of the current play list are ordered. The current song is kept and the rest of the songs
+	 * are ordered again according to the new mode.
+	 * @param mode The PlaybackMode to use<br>mode != null
+	 */
+	public void setPlaybackMode(PlaybackMode mode) {
+		playbackMode = mode;
+		playbackOrder().setMode(mode);
+		chooseNext();
+	}
+
+	/** This method allows to obtain how the songs of the current play list are ordered.
+	 * @return The PlaybackMode in use.
+	 */
+	public PlaybackMode getPlaybackMode() {
+		return playbackMode;
+	}
+
+	/** This method allows to set the weight of every song in the WEIGHTED and SMART playback modes.
+	 * @param weigher A Song function that gives a weight greater than or equal to zero<br>weigher != null
+	 */
+	public void setPlaybackWeigher(ToDoubleFunction<Song> weigher) {
+		playbackWeigher = weigher;
+		playbackOrder().setWeigher(weigher);
+		chooseNext();
+	}
+
+	/** This method allows to set the shuffle mode. The next song is chosen again according to the new mode.
+	 * @param sh A boolean that represents if the shuffle mode is activated or not.
+	 */
+	public void setShuffle(boolean sh) {
+		setPlaybackMode(sh ? PlaybackMode.SHUFFLE : PlaybackMode.SEQUENTIAL);
+	}
+
+	/** This method allows to obtain the shuffle mode.
+	 * @return A boolean that represents if any of the shuffle modes is activated.
+	 */
+	public boolean isShuffle() {
+		return playbackMode != PlaybackMode.SEQUENTIAL;
+	}
+
+	/** This method allows to enable or disable the charge of the next song in advance. Without it the next song is charged when the current
+	 * one ends, which leaves a short gap between them, but only one song is kept in memory.
+	 * @param p A boolean that represents if the next song is charged in advance.
+	 */
+	public void setPreloading(boolean p) {
+		preloading = p;
+		chooseNext();
+	}
+
+	/** This method allows to know if the next song is charged in advance.
+	 * @return A boolean that represents if the next song is charged in advance.
+	 */
+	public boolean isPreloading() {
+		return preloading;
+	}
+
+	/** This method allows to set the time during which the current song fades out while the next one fades in. The next song has to start
+	 * that time before the current one ends, see PlaybackProgressUpdater.
+	 * @param cf A Duration that represents the crossfade time. Duration.ZERO disables it<br>cf != null
+	 */
+	public void setCrossfade(Duration cf) {
+		crossfade = cf;
+	}
+
+	/** This method allows to obtain the time during which the current song fades out while the next one fades in.
+	 * @return A Duration that represents the crossfade time.
+	 */
+	public Duration getCrossfade() {
+		return crossfade;
+	}
+	
+	/** Method that reads again every music folder in the linked list so it reflects the files added, changed or removed since it was saved.
+	 * Only the files that changed are read, the other songs are taken from the library index. The folders that no longer exist or no
+	 * longer contain MP3 files are removed from the list, except the first one, which is kept as it was saved.<br>
+	 * The current play list keeps being the one of the current music folder, now read again, or the first one if the folder was removed.
+	 * @throws IOException if there was a problem reading a folder.
+	 */
+	public void rescanMusicFolders() throws IOException {
+		engine.rescanMusicFolders();
+		MusicFolder rescanned = currentMusicFolder != null ? engine.getLibraries().get(currentMusicFolder.getFolder()) : null;
+		currentMusicFolder = rescanned != null ? rescanned : engine.getLibraries().getFirst();
+		currentPlaylist = currentMusicFolder.getSongs();
+		if(currentSong != null) {
+			Song song = currentMusicFolder.findSong(currentSong.getSongFile());
+			if(song != null) {
+				currentSong = song;
+			}
+			chooseNext();
+		}
 	}
 	
 	/** Method to get the current Song sounding in the media player.
@@ -135,10 +418,11 @@ public class MusicPlayer {
 	}
 	
 	/**This method allows to get the actual song put to be reproduced.
-	 * @return A Media that represents the actual song put to be reproduced.
+	 * @return A Media that represents the actual song put to be reproduced, or null if the songs are not played with MediaPlayback.
 	 */
 	public Media getCurrentAudio() {
-		return currentAudio;
+		MediaPlayer player = getMediaPlayer();
+		return player != null ? player.getMedia() : null;
 	}
 	
 	/**This method allows to set the Media through an index that represents the song position inside
@@ -147,15 +431,23 @@ public class MusicPlayer {
 	 */
 	public void setMedia(int index) {
 		this.currentSong = currentPlaylist.get(index);
-		mediaPlayer.stop();
+		playbackOrder().jumpTo(currentSong);
 		chargeMedia();
 	}
 	
 	/** This method allows to get the actual media player used to play the music.
-	 * @return A MediaPlayer that represents the actual media player used to play the music.
+	 * @return A MediaPlayer that represents the actual media player used to play the music, or null if the songs are not played with
+	 * MediaPlayback.
 	 */
 	public MediaPlayer getMediaPlayer() {
-		return mediaPlayer;
+		return playback instanceof MediaPlayback ? ((MediaPlayback)playback).getMediaPlayer() : null;
+	}
+
+	/** This method allows to obtain the playback of the current song, whatever the backend that plays it.
+	 * @return The Playback of the current song.
+	 */
+	public Playback getPlayback() {
+		return playback;
 	}
 	
 	/**
@@ -163,14 +455,21 @@ public class MusicPlayer {
 	 * @return A MusicFolder that represents the first music folder in the list.
 	 */
 	public MusicFolder getFirstMusicFolder() {
-		return firstMusicFolder;
+		return engine.getLibraries().getFirst();
 	}
-	
-	/** This method allows to set the first music folder in the list.
-	 * @param firstMusicFolder A MusicFolder that represents the first music folder in the list.
+
+	/** This method allows to obtain the registry of the music folders of the libraries.
+	 * @return The LibraryRegistry with the music folders and their songs.
+	 */
+	public LibraryRegistry getLibraries() {
+		return engine.getLibraries();
+	}
+
+	/** This method allows to obtain the engine that scans, indexes, searches and saves the libraries.
+	 * @return The LibraryEngine of the player.
 	 */
-	public void setFirstMusicFolder(MusicFolder firstMusicFolder) {
-		this.firstMusicFolder = firstMusicFolder;
+	public LibraryEngine getEngine() {
+		return engine;
 	}
 	
 	/** This method allows to obtain a simple string representation of the current song title to use it in the interface.
@@ -194,11 +493,11 @@ public class MusicPlayer {
 		return currentSongAlbum;
 	}
 	
-	/** This method allows to obtain the current song cover art to use it in the interface as a byte array.
+	/** This method allows to obtain the current song cover art to use it in the interface as a byte array. It is read from the song file.
 	 * @return An byte array that represents the current song cover art to use it in the interface.
 	 */
 	public byte[] getCurrentCoverArt() {
-		return currentCoverArt;
+		return currentSong.getImage();
 	}
 	
 	/** This method allows to add a music folder into the linked list of music folders in the last place. 
@@ -208,47 +507,34 @@ public class MusicPlayer {
 	 */
 	public void addMusicFolder(File dir) throws IOException, FolderWithoutMP3ContentException {
 		if(dir != null) {
-			MusicFolder toAdd = new MusicFolder(dir);
-			MusicFolder current = firstMusicFolder;
-			boolean duplicated = false;
-			while(current != null && !duplicated) {
-				if(current.equals(toAdd)) {
-					duplicated = true;
-				} else if(current.getNextMusicFolder() == null) {
-					current.setNextMusicFolder(toAdd);
-					toAdd.setPrevMusicFolder(current);
-				}
-				current = current.getNextMusicFolder();
-			}
+			engine.addMusicFolder(dir);
 		}
 	}
 	
-	/** This method allow to obtain an observable list of music folders adding them as a linked list and thus be able 
+	/** This method allows to add a music folder into the linked list of music folders in the last place without waiting for its songs.
+	 * The folder is added empty and it is filled in the background while the listener is notified about the progress.
+	 * @param dir A File that represents the music folder to be added in the linked list of music folders.
+	 * @param listener A ScanListener that will be notified about the progress of the scan. It can be null.
+	 * @return A LibraryScanner that represents the scan in progress, it can be used to cancel it. It is null if the folder was already added.
+	 * @throws FileNotFoundException if the folder has not been found, deleted or moved to another location.
+	 */
+	public LibraryScanner addMusicFolderInBackground(File dir, final ScanListener listener) throws FileNotFoundException {
+		return dir != null ? engine.addMusicFolderInBackground(dir, listener) : null;
+	}
+	
+	/** This method allow to obtain an observable list of music folders in the order they were added and thus be able 
 	 * to display them in the in the interface. 
-	 * @return An ObservableList of MusicFolders that represents the linked list to display it in the interface. 
+	 * @return An ObservableList of MusicFolders to display it in the interface. 
 	 */
 	public ObservableList<MusicFolder> getMusicFolders() {
-		ObservableList<MusicFolder> folders = FXCollections.observableArrayList();
-		MusicFolder current = firstMusicFolder;
-		while(current != null) {
-			folders.add(current);
-			current = current.getNextMusicFolder();
-		}
-		return folders;
+		return FXCollections.observableArrayList(engine.getLibraries().getFolders());
 	}
 	
-	/** This method allows to save the music folders added when the application is running.
+	/** This method allows to save the music folders added when the application is running in the library catalog, together with the library index.
 	 * @throws IOException if the file has not been found, deleted or moved to another location.
 	 */
 	public void save() throws IOException {
-		File file = new File(MUSIC_FOLDERS_PATH);
-		FileOutputStream fos = new FileOutputStream(file);
-		ObjectOutputStream oos = new ObjectOutputStream(fos);
-
-		oos.writeObject(firstMusicFolder);
-
-		oos.close();
-		fos.close();
+		engine.save();
 	}
 	
 	/** This method allows to obtain the song loaded position as a simple integer property.
@@ -264,6 +550,7 @@ public class MusicPlayer {
 	public void setCurrentPlayList(MusicFolder current) {
 		currentPlaylist = current.getSongs();
 		currentMusicFolder = current;
+		chooseNext();
 	}
 	
 	/** This method allows to obtain a Song array list that represents the actual play list.
@@ -280,42 +567,76 @@ public class MusicPlayer {
 		return currentMusicFolder;
 	}
 	
+	/** This method allows to search songs across all the music folders as the user types. Every word of the query must begin a word
+	 * of the title, artist, album or genre of the song, and small typos are tolerated.
+	 * @param query A String that represents the text typed by the user<br>query != null
+	 * @param limit An integer that represents the maximum number of songs returned.
+	 * @return A Song ArrayList with the matching songs.
+	 */
+	public ArrayList<Song> search(String query, int limit) {
+		return engine.search(query, limit);
+	}
+	
+	/** This method allows to obtain the music folder that contains a song.
+	 * @param song A Song that represents the song to look for<br>song != null
+	 * @return A MusicFolder that represents the folder that contains the song, or null if it is not in any library.
+	 */
+	public MusicFolder getMusicFolderOf(Song song) {
+		return engine.getMusicFolderOf(song);
+	}
+	
 	/** This method allows to remove a music folder from the linked list.
 	 * @param toremove A MusicFolder that represents the music folder that will be removed from the linked list<br>toremove != null
 	 * @throws AttemptedToRemoveDemoLibraryException if the user tries to remove the default music folder. 
 	 */
 	public void removeMusicFolderFromLibraries(MusicFolder toremove) throws AttemptedToRemoveDemoLibraryException, AttemptedToRemoveCurrentPlayListException {
-		if(toremove == firstMusicFolder) {
+		if(toremove == engine.getLibraries().getFirst()) {
 			throw new AttemptedToRemoveDemoLibraryException();
 		}
 		if(toremove.getSongs().contains(currentSong)) {
 			throw new AttemptedToRemoveCurrentPlayListException(currentSong.getParentFolderPath());
 		}
+		engine.removeMusicFolder(toremove);
+	}
+	
+	/** This method allows to be notified when the songs of a music folder change because its files were added, changed or removed.
+	 * @param listener The WatchListener to notify. It is invoked from the watcher thread. It can be null.
+	 */
+	public void setLibraryListener(WatchListener listener) {
+		engine.setLibraryListener(listener);
+	}
 
-		MusicFolder prev = toremove.getPrevMusicFolder();
-		MusicFolder next = toremove.getNextMusicFolder();
-		if(prev != null) {
-			prev.setNextMusicFolder(next);
-		} else {
-			firstMusicFolder = next;
-		}
-		if(next != null) {
-			next.setPrevMusicFolder(prev);
+	/** This method loads the listening statistics and counts the events of the history that were recorded after they were saved. If
+	 * they cannot be read they are computed again from the whole history.
+	 * @throws IOException if the history could not be read.
+	 */
+	private void loadStatistics() throws IOException {
+		try {
+			statistics = ListeningStatistics.load(new File(LISTENING_STATISTICS_PATH));
+		} catch(IOException e) {
+			statistics = new ListeningStatistics();
 		}
+		statistics.catchUp(new File(PLAYBACK_HISTORY_PATH), engine.getLibraries()::getSong);
 	}
-	
-	 /** This method allows to save the songs played register when the application is closed.
-	  * @throws IOException if the file has not been found, deleted or moved to another location.
+
+	/** This method allows to obtain the play counts and listening time of the songs, artists and albums.
+	 * @return The ListeningStatistics of the library.
+	 */
+	public ListeningStatistics getStatistics() {
+		return statistics;
+	}
+
+	 /** This method allows to save the songs played register when the application is closed. The songs are recorded as they are played,
+	  * so it only records how the current song ended and closes the history.
+	  * @throws IOException if the history could not be written.
 	  */
 	public void saveHistory() throws IOException {
-		File dir = new File(PLAYBACK_HISTORY_PATH);
-		if(!dir.exists()) {
-			dir.mkdir();
+		if(historySong != null && playback != null) {
+			statistics.record(historyJournal.record(HistoryEvent.Type.SKIP, historySong, playback.getPositionMillis()), historySong);
+			historySong = null;
 		}
-		File historyFile = new File(PLAYBACK_HISTORY_PATH+File.separator+"history_"+history.split("\n")[0].replace(':', '_')+".txt");
-		historyFile.createNewFile();
-		PrintWriter pw = new PrintWriter(historyFile);
-		pw.println(history);
-		pw.close();
+		historyJournal.sync();
+		statistics.save(new File(LISTENING_STATISTICS_PATH), historyJournal.getSegmentNumber(), historyJournal.getPosition());
+		historyJournal.close();
 	}
 }
@@ -0,0 +1,121 @@
+package model.musicPlayer;
+
+import java.util.Arrays;
+
+public class Palette {
+	/**It represents the number of bits kept of every color channel to group similar colors in the histogram.
+	 */
+	public final static int BITS_PER_CHANNEL = 4;
+	/**It represents the number of colors kept by default in a palette.
+	 */
+	public final static int DEFAULT_SIZE = 5;
+	/**It represents the color used when an image has no opaque pixels, a medium gray in ARGB.
+	 */
+	public final static int DEFAULT_COLOR = 0xFF808080;
+	/**It represents the minimum alpha a pixel must have to be counted.
+	 */
+	private final static int MIN_ALPHA = 128;
+
+	/**It represents the most common colors of the image in ARGB, from the most to the least common.
+	 */
+	private int[] colors;
+	/**It represents the average color of the image in ARGB.
+	 */
+	private int average;
+
+	/**Palette constructor method that receives the colors already computed.
+	 * @param colors An integer array with the colors in ARGB, from the most to the least common<br>colors.length > 0
+	 * @param average An integer that represents the average color in ARGB.
+	 */
+	private Palette(int[] colors, int average) {
+		this.colors = colors;
+		this.average = average;
+	}
+
+	/**This method computes the palette of an image with a color histogram. The channels of every opaque pixel are reduced to
+	 * BITS_PER_CHANNEL bits to find its bucket, and the color of a bucket is the average of the pixels that fall in it, so the
+	 * colors of the palette are real colors of the image. The image should be reduced to thumbnail size before, since every pixel is
+	 * visited.
+	 * @param argb An integer array with the pixels of the image in ARGB<br>argb != null
+	 * @param size An integer that represents the maximum number of colors of the palette<br>size > 0
+	 * @return The Palette of the image. If the image has no opaque pixels it has only DEFAULT_COLOR.
+	 */
+	public static Palette of(int[] argb, int size) {
+		int shift = 8 - BITS_PER_CHANNEL;
+		int buckets = 1 << (3*BITS_PER_CHANNEL);
+		int[] count = new int[buckets];
+		long[] red = new long[buckets];
+		long[] green = new long[buckets];
+		long[] blue = new long[buckets];
+		long totalRed = 0;
+		long totalGreen = 0;
+		long totalBlue = 0;
+		int total = 0;
+		for(int pixel : argb) {
+			if((pixel >>> 24) >= MIN_ALPHA) {
+				int r = (pixel >> 16) & 0xFF;
+				int g = (pixel >> 8) & 0xFF;
+				int b = pixel & 0xFF;
+				int bucket = ((r >> shift) << (2*BITS_PER_CHANNEL)) | ((g >> shift) << BITS_PER_CHANNEL) | (b >> shift);
+				count[bucket]++;
+				red[bucket] += r;
+				green[bucket] += g;
+				blue[bucket] += b;
+				totalRed += r;
+				totalGreen += g;
+				totalBlue += b;
+				total++;
+			}
+		}
+		if(total == 0) {
+			return new Palette(new int[] {DEFAULT_COLOR}, DEFAULT_COLOR);
+		}
+
+		long[] ranked = new long[buckets];
+		int used = 0;
+		for(int i = 0; i < buckets; i++) {
+			if(count[i] > 0) {
+				ranked[used++] = ((long)count[i] << 32) | i;
+			}
+		}
+		Arrays.sort(ranked, 0, used);
+		int[] colors = new int[Math.min(size, used)];
+		for(int i = 0; i < colors.length; i++) {
+			int bucket = (int)ranked[used-1-i];
+			int n = count[bucket];
+			colors[i] = rgb((int)(red[bucket]/n), (int)(green[bucket]/n), (int)(blue[bucket]/n));
+		}
+		return new Palette(colors, rgb((int)(totalRed/total), (int)(totalGreen/total), (int)(totalBlue/total)));
+	}
+
+	/**This method packs the components of an opaque color.
+	 * @param r An integer that represents the red component<br>0 <= r <= 255
+	 * @param g An integer that represents the green component<br>0 <= g <= 255
+	 * @param b An integer that represents the blue component<br>0 <= b <= 255
+	 * @return An integer that represents the color in ARGB.
+	 */
+	private static int rgb(int r, int g, int b) {
+		return 0xFF000000 | (r << 16) | (g << 8) | b;
+	}
+
+	/**This method allows to obtain the most common color of the image.
+	 * @return An integer that represents the dominant color in ARGB.
+	 */
+	public int getDominant() {
+		return colors[0];
+	}
+
+	/**This method allows to obtain the average color of the image.
+	 * @return An integer that represents the average color in ARGB.
+	 */
+	public int getAverage() {
+		return average;
+	}
+
+	/**This method allows to obtain the most common colors of the image.
+	 * @return An integer array with the colors in ARGB, from the most to the least common.
+	 */
+	public int[] getColors() {
+		return colors.clone();
+	}
+}
@@ -0,0 +1,62 @@
+package model.musicPlayer;
+
+public interface Playback {
+
+	/**This method starts or resumes playing the song.
+	 */
+	public void play();
+
+	/**This method pauses the song, keeping its position.
+	 */
+	public void pause();
+
+	/**This method stops the song and goes back to its beginning.
+	 */
+	public void stop();
+
+	/**This method releases the resources used to play the song. The playback cannot be used after it.
+	 */
+	public void dispose();
+
+	/**This method allows to know whether the song is being played.
+	 * @return A boolean that indicates whether the song is being played.
+	 */
+	public boolean isPlaying();
+
+	/**This method allows to obtain how much of the song was played.
+	 * @return A long that represents the position of the song in milliseconds.
+	 */
+	public long getPositionMillis();
+
+	/**This method allows to obtain how long the song is.
+	 * @return A long that represents the duration of the song in milliseconds, or -1 if it is not known yet.
+	 */
+	public long getDurationMillis();
+
+	/**This method allows to obtain the volume of the song.
+	 * @return A double between 0 and 1 that represents the volume.
+	 */
+	public double getVolume();
+
+	/**This method allows to change the volume of the song.
+	 * @param volume A double that represents the volume<br>0 <= volume <= 1
+	 */
+	public void setVolume(double volume);
+
+	/**This method allows to know whether the song is muted.
+	 * @return A boolean that indicates whether the song is muted.
+	 */
+	public boolean isMute();
+
+	/**This method allows to mute the song or to make it sound again.
+	 * @param mute A boolean that indicates whether the song is muted.
+	 */
+	public void setMute(boolean mute);
+
+	/**This method changes the volume of the song gradually, like in a crossfade.
+	 * @param volume A double that represents the volume at the end of the fade<br>0 <= volume <= 1
+	 * @param millis A long that represents the length of the fade in milliseconds.
+	 * @param finished A Runnable that is run when the fade finishes. It can be null.
+	 */
+	public void fade(double volume, long millis, Runnable finished);
+}
@@ -0,0 +1,10 @@
+package model.musicPlayer;
+
+public interface PlaybackBackend {
+
+	/**This method prepares a song to be played, without starting it.
+	 * @param song The Song to play<br>song != null
+	 * @return The Playback that plays the song.
+	 */
+	public Playback open(Song song);
+}
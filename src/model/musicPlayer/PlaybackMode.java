@@ -0,0 +1,16 @@
+package model.musicPlayer;
+
+public enum PlaybackMode {
+	/**It plays the songs in the order of the play list.
+	 */
+	SEQUENTIAL,
+	/**It plays every song of the play list once in random order before any of them is repeated.
+	 */
+	SHUFFLE,
+	/**It plays every song once in random order, where the songs with more weight tend to come earlier.
+	 */
+	WEIGHTED,
+	/**It plays the songs like WEIGHTED, but it avoids playing two songs of the same artist one after the other.
+	 */
+	SMART
+}
@@ -0,0 +1,392 @@
+package model.musicPlayer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+
+public class PlaybackOrder {
+	/**It represents the songs of the play list, in the order of the list.
+	 */
+	private Song[] songs;
+	/**It represents the position of every song in the play list.
+	 */
+	private IdentityHashMap<Song, Integer> indexes;
+	/**It represents the current cycle: a permutation of the positions of the play list in the order they are played.
+	 */
+	private int[] order;
+	/**It represents, for every position of the play list, where it is in the current cycle.
+	 */
+	private int[] positions;
+	/**It represents the next cycle when it was already requested to know the song after the last one of the current cycle. It is null otherwise.
+	 */
+	private int[] pending;
+	/**It represents the cycle played before the current one, so previous can go back to its last song from the first song of the
+	 * current one. It is null in the first cycle and after the play list changes.
+	 */
+	private int[] finished;
+	/**It represents the position in the current cycle of the song being played. It is -1 before the first song.
+	 */
+	private int cursor;
+	/**It represents how the cycles are built.
+	 */
+	private PlaybackMode mode;
+	/**It represents the random number generator used to build the cycles.
+	 */
+	private Random random;
+	/**It represents the function that gives the weight of every song in the WEIGHTED and SMART modes.
+	 */
+	private ToDoubleFunction<Song> weigher;
+
+	/**PlaybackOrder constructor method that builds the first cycle of a play list. No song is being played until next or jumpTo are called.
+	 * @param playlist A Song List that represents the play list. It is copied, so later changes to it are not seen<br>playlist != null
+	 * @param mode The PlaybackMode that defines how the cycles are built<br>mode != null
+	 * @param random The Random used to build the cycles<br>random != null
+	 */
+	public PlaybackOrder(List<Song> playlist, PlaybackMode mode, Random random) {
+		setSongs(playlist.toArray(new Song[playlist.size()]));
+		this.mode = mode;
+		this.random = random;
+		weigher = s -> 1;
+		cursor = -1;
+		setOrder(newCycle(-1));
+	}
+
+	/**This method allows to obtain the number of songs of the play list.
+	 * @return An integer that represents the number of songs.
+	 */
+	public int size() {
+		return songs.length;
+	}
+
+	/**This method allows to obtain the song being played.
+	 * @return The Song being played, or null before the first song.
+	 */
+	public Song current() {
+		return cursor >= 0 ? songs[order[cursor]] : null;
+	}
+
+	/**This method moves to the next song. When the current cycle ends a new one is built, and in the random modes it does not start with
+	 * the song that ended the previous one. It takes constant time except when a new cycle is built.
+	 * @return The Song to be played, or null if the play list is empty.
+	 */
+	public Song next() {
+		Song next = null;
+		if(songs.length > 0) {
+			if(cursor+1 < order.length) {
+				cursor++;
+			} else {
+				int[] played = order;
+				setOrder(pending != null ? pending : newCycle(order[cursor]));
+				finished = played;
+				cursor = 0;
+			}
+			next = songs[order[cursor]];
+		}
+		return next;
+	}
+
+	/**This method allows to know the song that next will return, without moving to it. The next cycle is built if needed and kept for next.
+	 * @return The Song that will be played after the current one, or null if the play list is empty.
+	 */
+	public Song peekNext() {
+		Song next = null;
+		if(songs.length > 0) {
+			if(cursor+1 < order.length) {
+				next = songs[order[cursor+1]];
+			} else {
+				if(pending == null) {
+					pending = newCycle(order[cursor]);
+				}
+				next = songs[pending[0]];
+			}
+		}
+		return next;
+	}
+
+	/**This method goes back to the song played before the current one. From the first song of a cycle it goes back to the last song of
+	 * the previous cycle, and the current cycle is played again after it. In the first cycle there is no song before the first one, so
+	 * it stays on it in the random modes, and it goes to the last song of the play list in sequence.
+	 * @return The Song to be played, or null if the play list is empty.
+	 */
+	public Song previous() {
+		Song previous = null;
+		if(songs.length > 0) {
+			if(cursor > 0) {
+				cursor--;
+			} else if(finished != null) {
+				int[] current = order;
+				setOrder(finished);
+				pending = current;
+				cursor = order.length-1;
+			} else if(mode == PlaybackMode.SEQUENTIAL) {
+				cursor = order.length-1;
+			} else {
+				cursor = 0;
+			}
+			previous = songs[order[cursor]];
+		}
+		return previous;
+	}
+
+	/**This method updates the play list after songs were added to it or removed from it, or after it was sorted. In sequence the songs
+	 * follow the new order of the list from the song being played. In the random modes the current cycle is kept: the removed songs
+	 * are taken out of it and every added song is put in a random position of the part of the cycle that was not played yet, so every
+	 * song is still played once per cycle, and sorting the list does not change anything.
+	 * @param playlist A Song List that represents the play list now. It is copied, so later changes to it are not seen<br>playlist != null
+	 */
+	public void update(List<Song> playlist) {
+		Song current = current();
+		if(mode == PlaybackMode.SEQUENTIAL) {
+			setSongs(playlist.toArray(new Song[playlist.size()]));
+			setOrder(newCycle(-1));
+			cursor = current != null && indexes.containsKey(current) ? indexes.get(current) : -1;
+		} else {
+			IdentityHashMap<Song, Boolean> listed = new IdentityHashMap<Song, Boolean>(playlist.size());
+			ArrayList<Song> kept = new ArrayList<Song>(playlist.size());
+			int[] renumbered = new int[songs.length];
+			for(Song song : playlist) {
+				listed.put(song, true);
+			}
+			for(int i = 0; i < songs.length; i++) {
+				renumbered[i] = listed.containsKey(songs[i]) ? kept.size() : -1;
+				if(renumbered[i] >= 0) {
+					kept.add(songs[i]);
+				}
+			}
+			int oldCount = kept.size();
+			for(Song song : playlist) {
+				if(!indexes.containsKey(song)) {
+					kept.add(song);
+				}
+			}
+			int[] cycle = new int[kept.size()];
+			int length = 0;
+			int newCursor = -1;
+			for(int i = 0; i < order.length; i++) {
+				int index = renumbered[order[i]];
+				if(index >= 0) {
+					cycle[length++] = index;
+				}
+				if(i == cursor) {
+					newCursor = length-1;
+				}
+			}
+			for(int index = oldCount; index < cycle.length; index++) {
+				int position = newCursor+1 + random.nextInt(length - newCursor);
+				cycle[length++] = cycle[position];
+				cycle[position] = index;
+			}
+			setSongs(kept.toArray(new Song[kept.size()]));
+			setOrder(cycle);
+			cursor = newCursor;
+		}
+		finished = null;
+	}
+
+	/**This method moves to a song chosen by the user. In the random modes, if the song had not been played in this cycle yet it is moved
+	 * right after the current one, so the rest of the cycle keeps every other song exactly once.
+	 * @param song The Song to move to<br>song != null
+	 * @return A boolean that indicates whether the song is in the play list.
+	 */
+	public boolean jumpTo(Song song) {
+		Integer index = indexes.get(song);
+		if(index != null) {
+			int position = positions[index];
+			if(mode != PlaybackMode.SEQUENTIAL && position > cursor) {
+				swap(order, positions, cursor+1, position);
+				position = cursor+1;
+			}
+			cursor = position;
+			pending = null;
+		}
+		return index != null;
+	}
+
+	/**This method allows to change how the songs are ordered. The current cycle is rebuilt so that it starts with the song being played.
+	 * @param mode The new PlaybackMode<br>mode != null
+	 */
+	public void setMode(PlaybackMode mode) {
+		this.mode = mode;
+		rebuild();
+	}
+
+	/**This method allows to obtain how the songs are ordered.
+	 * @return The PlaybackMode that defines how the cycles are built.
+	 */
+	public PlaybackMode getMode() {
+		return mode;
+	}
+
+	/**This method allows to set the weight of every song in the WEIGHTED and SMART modes. The songs with no weight are played last. The
+	 * current cycle is rebuilt so that it starts with the song being played.
+	 * @param weigher A Song function that gives a weight greater than or equal to zero<br>weigher != null
+	 */
+	public void setWeigher(ToDoubleFunction<Song> weigher) {
+		this.weigher = weigher;
+		rebuild();
+	}
+
+	/**This method rebuilds the current cycle keeping the song being played in its first position.
+	 */
+	private void rebuild() {
+		Song current = current();
+		setOrder(newCycle(-1));
+		cursor = -1;
+		if(current != null) {
+			int position = positions[indexes.get(current)];
+			if(mode != PlaybackMode.SEQUENTIAL) {
+				swap(order, positions, 0, position);
+				position = 0;
+			}
+			cursor = position;
+		}
+	}
+
+	/**This method sets the songs of the play list and the position of every one of them.
+	 * @param playlist A Song array with the songs in the order of the play list<br>playlist != null
+	 */
+	private void setSongs(Song[] playlist) {
+		songs = playlist;
+		indexes = new IdentityHashMap<Song, Integer>(songs.length);
+		for(int i = 0; i < songs.length; i++) {
+			indexes.put(songs[i], i);
+		}
+	}
+
+	/**This method makes a cycle the current one.
+	 * @param cycle An integer array with the positions of the play list in the order they will be played<br>cycle != null
+	 */
+	private void setOrder(int[] cycle) {
+		order = cycle;
+		positions = new int[cycle.length];
+		for(int i = 0; i < cycle.length; i++) {
+			positions[cycle[i]] = i;
+		}
+		pending = null;
+	}
+
+	/**This method builds a cycle according to the mode.
+	 * @param last An integer that represents the position in the play list of the last song played, which must not start the cycle in the
+	 * random modes, or -1 if there is none.
+	 * @return An integer array with the positions of the play list in the order they will be played.
+	 */
+	private int[] newCycle(int last) {
+		int n = songs.length;
+		int[] cycle = new int[n];
+		for(int i = 0; i < n; i++) {
+			cycle[i] = i;
+		}
+		if(mode == PlaybackMode.SHUFFLE) {
+			for(int i = n-1; i > 0; i--) {
+				int j = random.nextInt(i+1);
+				int tmp = cycle[i];
+				cycle[i] = cycle[j];
+				cycle[j] = tmp;
+			}
+		} else if(mode == PlaybackMode.WEIGHTED || mode == PlaybackMode.SMART) {
+			weightedShuffle(cycle);
+			if(mode == PlaybackMode.SMART) {
+				spreadArtists(cycle, last);
+			}
+		}
+		if(mode != PlaybackMode.SEQUENTIAL && n > 1 && cycle[0] == last) {
+			int j = 1 + random.nextInt(n-1);
+			cycle[0] = cycle[j];
+			cycle[j] = last;
+		}
+		return cycle;
+	}
+
+	/**This method sorts the positions of a cycle by a random key -ln(u)/w, so every song comes before the others with a probability
+	 * proportional to its weight. It is a weighted random permutation without repetitions.
+	 * @param cycle An integer array with the positions of the play list to sort<br>cycle != null
+	 */
+	private void weightedShuffle(int[] cycle) {
+		double[] keys = new double[songs.length];
+		for(int i = 0; i < songs.length; i++) {
+			double weight = weigher.applyAsDouble(songs[i]);
+			keys[i] = weight > 0 ? -Math.log(1 - random.nextDouble()) / weight : Double.POSITIVE_INFINITY;
+		}
+		Integer[] boxed = new Integer[cycle.length];
+		for(int i = 0; i < cycle.length; i++) {
+			boxed[i] = cycle[i];
+		}
+		Arrays.sort(boxed, (a, b) -> Double.compare(keys[a], keys[b]));
+		for(int i = 0; i < cycle.length; i++) {
+			cycle[i] = boxed[i];
+		}
+	}
+
+	/**This method reorders a cycle so that two songs of the same artist are not played one after the other whenever it is possible. The
+	 * songs are placed one by one keeping the order they already have, except when the next one is of the same artist as the previous
+	 * one, in which case the first song of another artist is moved forward. If an artist has so many songs left that it would end up
+	 * played twice in a row, one of its songs is placed first.
+	 * @param cycle An integer array with the positions of the play list in the order they will be played<br>cycle != null
+	 * @param last An integer that represents the position in the play list of the last song played, or -1 if there is none.
+	 */
+	private void spreadArtists(int[] cycle, int last) {
+		HashMap<String, Integer> left = new HashMap<String, Integer>();
+		for(int position : cycle) {
+			left.merge(songs[position].getArtist(), 1, Integer::sum);
+		}
+		int[] artistsWith = new int[cycle.length+1];
+		int max = 0;
+		for(int count : left.values()) {
+			artistsWith[count]++;
+			max = Math.max(max, count);
+		}
+		boolean hasPrevious = last >= 0;
+		String previous = hasPrevious ? songs[last].getArtist() : null;
+		for(int i = 0; i < cycle.length; i++) {
+			int chosen = -1;
+			if(2*max > cycle.length - i) {
+				for(int j = i; j < cycle.length && chosen < 0; j++) {
+					String artist = songs[cycle[j]].getArtist();
+					if(left.get(artist) == max && !(hasPrevious && Objects.equals(artist, previous))) {
+						chosen = j;
+					}
+				}
+			}
+			for(int j = i; j < cycle.length && chosen < 0; j++) {
+				if(!(hasPrevious && Objects.equals(songs[cycle[j]].getArtist(), previous))) {
+					chosen = j;
+				}
+			}
+			if(chosen < 0) {
+				chosen = i;
+			}
+			int moved = cycle[chosen];
+			System.arraycopy(cycle, i, cycle, i+1, chosen-i);
+			cycle[i] = moved;
+
+			previous = songs[moved].getArtist();
+			hasPrevious = true;
+			int count = left.get(previous);
+			left.put(previous, count-1);
+			artistsWith[count]--;
+			artistsWith[count-1]++;
+			while(max > 0 && artistsWith[max] == 0) {
+				max--;
+			}
+		}
+	}
+
+	/**This method exchanges two positions of a cycle, keeping where every position of the play list is in it.
+	 * @param order An integer array that represents the cycle<br>order != null
+	 * @param positions An integer array with where every position of the play list is in the cycle<br>positions != null
+	 * @param i An integer that represents the first position of the cycle.
+	 * @param j An integer that represents the second position of the cycle.
+	 */
+	private static void swap(int[] order, int[] positions, int i, int j) {
+		int tmp = order[i];
+		order[i] = order[j];
+		order[j] = tmp;
+		positions[order[i]] = i;
+		positions[order[j]] = j;
+	}
+}
@@ -0,0 +1,18 @@
+package model.musicPlayer;
+
+public interface ScanListener {
+
+	/**This method is called every time a LibraryScanner finishes reading the metadata of a song and adds it to the folder.<br>
+	 * It is invoked from one of the scanner worker threads, so the implementations that touch the interface must use Platform.runLater.
+	 * @param folder The MusicFolder that received the song.
+	 * @param song The Song that has just been added to the folder.
+	 */
+	public void songScanned(MusicFolder folder, Song song);
+
+	/**This method is called once when a LibraryScanner has processed every file in the folder or when it has been cancelled.<br>
+	 * It is invoked from one of the scanner worker threads, so the implementations that touch the interface must use Platform.runLater.
+	 * @param folder The MusicFolder that was being filled.
+	 * @param cancelled A boolean that indicates whether the scan was cancelled before reading all the files.
+	 */
+	public void scanFinished(MusicFolder folder, boolean cancelled);
+}
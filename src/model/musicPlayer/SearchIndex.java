@@ -0,0 +1,403 @@
+package model.musicPlayer;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+
+public class SearchIndex {
+	/**It represents the maximum number of edits allowed between a query word and an indexed word of up to seven characters.
+	 */
+	public final static int SHORT_WORD_EDITS = 1;
+	/**It represents the maximum number of edits allowed between a query word and a longer indexed word.
+	 */
+	public final static int LONG_WORD_EDITS = 2;
+	/**It represents the minimum length a query word must have to be matched with typos.
+	 */
+	public final static int MIN_FUZZY_LENGTH = 3;
+	/**It represents the minimum number of removed ids before the index is compacted.
+	 */
+	public final static int MIN_COMPACTION = 1024;
+
+	/**It represents the root of the trie with all the indexed words.
+	 */
+	private TrieNode root;
+	/**It represents the indexed songs by id. Removed songs leave a null in their position until the index is compacted.
+	 */
+	private ArrayList<Song> songs;
+	/**It represents the folders that contain every indexed song, by id. A song is in several folders when one of them is inside
+	 * another, and it stays indexed until it is removed from all of them.
+	 */
+	private ArrayList<MusicFolder[]> folders;
+	/**It represents the id of every indexed song.
+	 */
+	private IdentityHashMap<Song, Integer> ids;
+	/**It represents the number of ids left empty by the removed songs since the index was last compacted.
+	 */
+	private int removedIds;
+
+	/**SearchIndex constructor method that creates an empty index.
+	 */
+	public SearchIndex() {
+		root = new TrieNode();
+		songs = new ArrayList<Song>();
+		folders = new ArrayList<MusicFolder[]>();
+		ids = new IdentityHashMap<Song, Integer>();
+	}
+
+	/**This method indexes all the songs of a music folder.
+	 * @param folder The MusicFolder whose songs will be indexed<br>folder != null
+	 */
+	public synchronized void addAll(MusicFolder folder) {
+		for(Song s : new ArrayList<Song>(folder.getSongs())) {
+			add(s, folder);
+		}
+	}
+
+	/**This method removes a music folder from the index. Its songs are removed unless another indexed folder also contains them.
+	 * @param folder The MusicFolder whose songs will be removed<br>folder != null
+	 */
+	public synchronized void removeAll(MusicFolder folder) {
+		for(Song s : new ArrayList<Song>(folder.getSongs())) {
+			remove(s, folder);
+		}
+	}
+
+	/**This method indexes the title, artist, album and genre of a song. If the song is already indexed only the folder is recorded.
+	 * @param song The Song to be indexed<br>song != null
+	 * @param folder The MusicFolder that contains the song.
+	 */
+	public synchronized void add(Song song, MusicFolder folder) {
+		Integer id = ids.get(song);
+		if(id == null) {
+			insert(song, new MusicFolder[] {folder});
+		} else {
+			MusicFolder[] current = folders.get(id);
+			if(indexOf(current, folder) < 0) {
+				MusicFolder[] added = Arrays.copyOf(current, current.length+1);
+				added[current.length] = folder;
+				folders.set(id, added);
+			}
+		}
+	}
+
+	/**This method removes a song from a folder of the index. The song is removed from the index when no other folder contains it.
+	 * @param song The Song to be removed<br>song != null
+	 * @param folder The MusicFolder that no longer contains the song.
+	 * @return A boolean that indicates whether the song was removed from the index.
+	 */
+	public synchronized boolean remove(Song song, MusicFolder folder) {
+		Integer id = ids.get(song);
+		boolean removed = false;
+		if(id != null) {
+			MusicFolder[] current = folders.get(id);
+			int position = indexOf(current, folder);
+			if(position >= 0 && current.length > 1) {
+				MusicFolder[] left = new MusicFolder[current.length-1];
+				System.arraycopy(current, 0, left, 0, position);
+				System.arraycopy(current, position+1, left, position, left.length-position);
+				folders.set(id, left);
+			} else if(position >= 0) {
+				removed = remove(song);
+			}
+		}
+		return removed;
+	}
+
+	/**This method removes a song from the index, whatever the folders that contain it.
+	 * @param song The Song to be removed<br>song != null
+	 * @return A boolean that indicates whether the song was indexed.
+	 */
+	public synchronized boolean remove(Song song) {
+		Integer id = ids.remove(song);
+		if(id != null) {
+			for(String word : words(song)) {
+				TrieNode node = root.find(word, 0);
+				if(node != null) {
+					node.removePosting(id);
+				}
+			}
+			songs.set(id, null);
+			folders.set(id, null);
+			removedIds++;
+			if(removedIds >= MIN_COMPACTION && removedIds*2 > songs.size()) {
+				compact();
+			}
+		}
+		return id != null;
+	}
+
+	/**This method indexes again the songs that were not removed with consecutive ids, in the same order, so the ids left empty by the
+	 * removed songs stop taking memory and time in the lists and the postings. It is called when more than half the ids are empty, so
+	 * every removal costs a constant time on average.
+	 */
+	private void compact() {
+		ArrayList<Song> oldSongs = songs;
+		ArrayList<MusicFolder[]> oldFolders = folders;
+		root = new TrieNode();
+		songs = new ArrayList<Song>(oldSongs.size()-removedIds);
+		folders = new ArrayList<MusicFolder[]>(oldSongs.size()-removedIds);
+		ids.clear();
+		removedIds = 0;
+		for(int i = 0; i < oldSongs.size(); i++) {
+			if(oldSongs.get(i) != null) {
+				insert(oldSongs.get(i), oldFolders.get(i));
+			}
+		}
+	}
+
+	/**This method gives the next id to a song that is not indexed and adds it to the postings of its words.
+	 * @param song The Song to be indexed<br>song != null and it is not indexed
+	 * @param songFolders A MusicFolder array with the folders that contain the song<br>songFolders != null
+	 */
+	private void insert(Song song, MusicFolder[] songFolders) {
+		int id = songs.size();
+		songs.add(song);
+		folders.add(songFolders);
+		ids.put(song, id);
+		for(String word : words(song)) {
+			root.insert(word, 0).addPosting(id);
+		}
+	}
+
+	/**This method allows to obtain the number of ids in use, including the ones left empty by the removed songs that were not compacted
+	 * yet.
+	 * @return An integer that represents the number of ids.
+	 */
+	public synchronized int capacity() {
+		return songs.size();
+	}
+
+	/**This method allows to obtain the folder that contains an indexed song. If several folders contain it, the first one that was
+	 * indexed with the song and still contains it is returned.
+	 * @param song The Song to look for<br>song != null
+	 * @return The MusicFolder that contains the song, or null if the song is not indexed.
+	 */
+	public synchronized MusicFolder getFolder(Song song) {
+		Integer id = ids.get(song);
+		return id != null ? folders.get(id)[0] : null;
+	}
+
+	/**This method allows to obtain the position of a folder in the folders of a song.
+	 * @param list A MusicFolder array with the folders of the song<br>list != null
+	 * @param folder The MusicFolder to look for.
+	 * @return An integer that represents the position of the folder, or -1 if it is not in the array.
+	 */
+	private static int indexOf(MusicFolder[] list, MusicFolder folder) {
+		int position = -1;
+		for(int i = 0; i < list.length && position < 0; i++) {
+			if(list[i] == folder) {
+				position = i;
+			}
+		}
+		return position;
+	}
+
+	/**This method allows to obtain the number of indexed songs.
+	 * @return An integer that represents the number of indexed songs.
+	 */
+	public synchronized int size() {
+		return ids.size();
+	}
+
+	/**This method allows to obtain the songs that match a query. Every word of the query must appear in the title, artist, album or
+	 * genre of the song, either as a whole word or as the beginning of a word, so the query can be typed incrementally. When a query
+	 * word does not begin any indexed word, the indexed words that differ from it by one or two edits are used instead.
+	 * @param query A String that represents the text typed by the user<br>query != null
+	 * @param limit An integer that represents the maximum number of songs returned<br>limit > 0
+	 * @return A Song ArrayList with the matching songs in the order they were indexed. It is empty if the query has no words.
+	 */
+	public synchronized ArrayList<Song> search(String query, int limit) {
+		ArrayList<Song> result = new ArrayList<Song>();
+		String[] terms = tokenize(query);
+		BitSet matches = null;
+		for(int i = 0; i < terms.length && (matches == null || !matches.isEmpty()); i++) {
+			BitSet termMatches = new BitSet(songs.size());
+			TrieNode prefix = root.find(terms[i], 0);
+			if(prefix != null) {
+				prefix.collect(termMatches);
+			}
+			if(termMatches.isEmpty() && terms[i].length() >= MIN_FUZZY_LENGTH) {
+				int maxEdits = terms[i].length() > 7 ? LONG_WORD_EDITS : SHORT_WORD_EDITS;
+				int[] firstRow = new int[terms[i].length()+1];
+				for(int j = 0; j < firstRow.length; j++) {
+					firstRow[j] = j;
+				}
+				root.collectSimilar(terms[i], null, firstRow, (char)0, maxEdits, termMatches);
+			}
+			if(matches == null) {
+				matches = termMatches;
+			} else {
+				matches.and(termMatches);
+			}
+		}
+		if(matches != null) {
+			for(int id = matches.nextSetBit(0); id >= 0 && result.size() < limit; id = matches.nextSetBit(id+1)) {
+				result.add(songs.get(id));
+			}
+		}
+		return result;
+	}
+
+	/**This method allows to obtain the different words of the metadata of a song.
+	 * @param song The Song whose words are requested<br>song != null
+	 * @return A String LinkedHashSet with the normalized words of the title, artist, album and genre of the song.
+	 */
+	private static LinkedHashSet<String> words(Song song) {
+		LinkedHashSet<String> words = new LinkedHashSet<String>();
+		String[] fields = {song.getTitle(), song.getArtist(), song.getAlbum(), song.getGenre()};
+		for(String field : fields) {
+			if(field != null) {
+				words.addAll(Arrays.asList(tokenize(field)));
+			}
+		}
+		return words;
+	}
+
+	/**This method splits a text into lower case words without accents.
+	 * @param text A String that represents the text to split<br>text != null
+	 * @return A String array with the words of the text.
+	 */
+	public static String[] tokenize(String text) {
+		String normalized = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "").toLowerCase();
+		ArrayList<String> tokens = new ArrayList<String>();
+		for(String t : normalized.split("[^\\p{L}\\p{N}]+")) {
+			if(!t.isEmpty()) {
+				tokens.add(t);
+			}
+		}
+		return tokens.toArray(new String[tokens.size()]);
+	}
+
+	/**It represents a node of the trie. The node that ends a word keeps the ids of the songs that contain it, in increasing order.
+	 */
+	private static class TrieNode {
+		/**It represents the characters that lead to the children, in increasing order.
+		 */
+		private char[] keys = new char[0];
+		/**It represents the children, in the order of their characters.
+		 */
+		private TrieNode[] children = new TrieNode[0];
+		/**It represents the ids of the songs that contain the word that ends in this node. It is null if no word ends here.
+		 */
+		private int[] postings;
+		/**It represents the number of ids used in postings.
+		 */
+		private int postingCount;
+
+		/**This method finds the child of a character with a binary search.
+		 * @param c A char that represents the character<br>c is a character of a normalized word
+		 * @return The child TrieNode of the character, or null if there is none.
+		 */
+		private TrieNode child(char c) {
+			int pos = Arrays.binarySearch(keys, c);
+			return pos >= 0 ? children[pos] : null;
+		}
+
+		/**This method finds the node of the end of a word, adding the nodes that are missing.
+		 * @param word A String that represents the word<br>word != null
+		 * @param from An integer that represents the first character of the word below this node<br>0 <= from <= word.length()
+		 * @return The TrieNode where the word ends.
+		 */
+		private TrieNode insert(String word, int from) {
+			if(from == word.length()) {
+				return this;
+			}
+			char c = word.charAt(from);
+			int pos = Arrays.binarySearch(keys, c);
+			if(pos < 0) {
+				pos = -pos-1;
+				char[] newKeys = new char[keys.length+1];
+				TrieNode[] newChildren = new TrieNode[children.length+1];
+				System.arraycopy(keys, 0, newKeys, 0, pos);
+				System.arraycopy(children, 0, newChildren, 0, pos);
+				newKeys[pos] = c;
+				newChildren[pos] = new TrieNode();
+				System.arraycopy(keys, pos, newKeys, pos+1, keys.length-pos);
+				System.arraycopy(children, pos, newChildren, pos+1, children.length-pos);
+				keys = newKeys;
+				children = newChildren;
+			}
+			return children[pos].insert(word, from+1);
+		}
+
+		/**This method finds the node of the end of a word.
+		 * @param word A String that represents the word<br>word != null
+		 * @param from An integer that represents the first character of the word below this node<br>0 <= from <= word.length()
+		 * @return The TrieNode where the word ends, or null if no indexed word starts with it.
+		 */
+		private TrieNode find(String word, int from) {
+			TrieNode current = this;
+			for(int i = from; i < word.length() && current != null; i++) {
+				current = current.child(word.charAt(i));
+			}
+			return current;
+		}
+
+		/**This method adds the id of a song to the postings of this node.
+		 * @param id An integer that represents the id of the song<br>id is greater than every id of the postings
+		 */
+		private void addPosting(int id) {
+			if(postings == null) {
+				postings = new int[2];
+			} else if(postingCount == postings.length) {
+				postings = Arrays.copyOf(postings, postingCount*2);
+			}
+			postings[postingCount++] = id;
+		}
+
+		/**This method removes the id of a song from the postings of this node, if it is there.
+		 * @param id An integer that represents the id of the song.
+		 */
+		private void removePosting(int id) {
+			int pos = postings != null ? Arrays.binarySearch(postings, 0, postingCount, id) : -1;
+			if(pos >= 0) {
+				System.arraycopy(postings, pos+1, postings, pos, postingCount-pos-1);
+				postingCount--;
+			}
+		}
+
+		/**This method marks the ids of the songs of this node and of all the nodes below it, which are the songs with a word that
+		 * starts with the word of this node.
+		 * @param tofill The BitSet where the ids are marked<br>tofill != null
+		 */
+		private void collect(BitSet tofill) {
+			for(int i = 0; i < postingCount; i++) {
+				tofill.set(postings[i]);
+			}
+			for(TrieNode child : children) {
+				child.collect(tofill);
+			}
+		}
+
+		/**This method walks the trie computing, for every node, the row of the edit distance matrix between the query word and the
+		 * word that ends in the node. Insertions, deletions, substitutions and transpositions of adjacent characters count as one
+		 * edit. Branches whose whole row exceeds the allowed edits are not explored.
+		 */
+		private void collectSimilar(String word, int[] prevRow, int[] row, char last, int maxEdits, BitSet tofill) {
+			if(row[word.length()] <= maxEdits) {
+				for(int i = 0; i < postingCount; i++) {
+					tofill.set(postings[i]);
+				}
+			}
+			for(int k = 0; k < keys.length; k++) {
+				int[] next = new int[row.length];
+				next[0] = row[0]+1;
+				int min = next[0];
+				for(int j = 1; j < row.length; j++) {
+					int cost = word.charAt(j-1) == keys[k] ? 0 : 1;
+					next[j] = Math.min(Math.min(next[j-1]+1, row[j]+1), row[j-1]+cost);
+					if(prevRow != null && j > 1 && word.charAt(j-1) == last && word.charAt(j-2) == keys[k]) {
+						next[j] = Math.min(next[j], prevRow[j-2]+1);
+					}
+					min = Math.min(min, next[j]);
+				}
+				if(min <= maxEdits) {
+					children[k].collectSimilar(word, row, next, keys[k], maxEdits, tofill);
+				}
+			}
+		}
+	}
+}
@@ -3,105 +3,128 @@ package model.musicPlayer;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 import com.beaglebuddy.id3.enums.PictureType;
+import com.beaglebuddy.id3.pojo.AttachedPicture;
 import com.beaglebuddy.mp3.MP3;
 
 import customExceptions.NotMP3FileException;
 
 
 public class Song implements Serializable, Comparable<Song>{
-	/**It represents the song title.
+	/**It represents the version of the serialized form, kept so the songs saved by previous versions can still be migrated.
 	 */
-	private String title;
-	/** It represents the song artist.
+	private static final long serialVersionUID = -7613431415764141484L;
+	/**It represents the store that keeps the metadata of the song. It changes when the song is detached from the store of its folder.
 	 */
-	private String artist;
-	/** It represents the song album.
+	private volatile SongStore store;
+	/**It represents the id of the song in its store.
 	 */
-	private String album;
-	/**It represents the song genre.
+	private int id;
+	/**It represents the number of music folders that keep the song.
 	 */
-	private String genre;
-	/**It represents the song size as double value.
-	 */
-	private double size;
-	/**It represents the song path as String.
-	 */
-	private String songPath;
-	/**It represents the song file name.
-	 */
-	private String fileName;
-	/**It represents the song parent folder path as String.
-	 */
-	private String parentFolderPath;
-	/**It represents the song image as a byte array.
-	 */
-	private byte[] image;
-	/**It represents the right Song of this Song in the binary search three.
-	 */
-	private Song right;
-	/**It represents the left Song of this Song in the binary search three.
-	 */
-	private Song left;
-	/**It is the file that is being represented by this Song
-	 * */
-	private File songFile;
+	private transient int folders;
 	
-	/**Song constructor method that receives a mp3 file as parameter and starts the entire song metadata. 
+	/**Song constructor method that receives a mp3 file as parameter and adds its metadata to a store. Only the frames of the tag that
+	 * a Song uses are read, unless the tag is one that Id3Tag does not handle, in which case the whole file is parsed.
+	 * @param store The SongStore where the metadata is kept<br>store != null
 	 * @param song A mp3 file that represents the song to instance this class<br>song is different to null and is a valid mp3 file
 	 * @throws IOException if the file has not been found, deleted or moved to another location. 
 	 * @throws NotMP3FileException if the file delivered as parameter is not of mp3 type. 
 	 */
-	public Song(File song) throws IOException, NotMP3FileException {
-		songFile = song;
+	public Song(SongStore store, File song) throws IOException, NotMP3FileException {
 		String path = song.toURI().toString();
 		if(!song.exists()) {
 			throw new FileNotFoundException();
 		}
-		parentFolderPath = song.getParentFile().toURI().toString();
-		fileName = song.getName();
 		if(!path.endsWith(".mp3")) {
 			String[] parts = path.split("[.]");
 			throw new NotMP3FileException(parts[parts.length-1]);
 		}
-		this.songPath = song.toURI().toString();
-		MP3 mp3 = new MP3(song);
-		
-		album = mp3.getAlbum()!=null?mp3.getAlbum():"unknown";
-		artist = mp3.getBand()!=null?mp3.getBand():mp3.getLeadPerformer();
-		title = mp3.getTitle()!=null?mp3.getTitle():"unknown";
-		size = mp3.getAudioSize() / 1000000.0;
-		genre = mp3.getMusicType()!=null?mp3.getMusicType():"unknown";
-		image = mp3.getPicture(PictureType.FRONT_COVER)!=null?mp3.getPicture(PictureType.FRONT_COVER).getImage():null;
+		String title;
+		String artist;
+		String album;
+		String genre;
+		double size;
+		Id3Tag tag = Id3Tag.read(song);
+		if(tag != null) {
+			album = tag.getAlbum()!=null?tag.getAlbum():"unknown";
+			artist = tag.getBand()!=null?tag.getBand():tag.getLeadPerformer();
+			title = tag.getTitle()!=null?tag.getTitle():"unknown";
+			size = tag.getAudioSize() / 1000000.0;
+			genre = tag.getGenre()!=null?tag.getGenre():"unknown";
+		} else {
+			MP3 mp3 = new MP3(song);
+			
+			album = mp3.getAlbum()!=null?mp3.getAlbum():"unknown";
+			artist = mp3.getBand()!=null?mp3.getBand():mp3.getLeadPerformer();
+			title = mp3.getTitle()!=null?mp3.getTitle():"unknown";
+			size = mp3.getAudioSize() / 1000000.0;
+			genre = mp3.getMusicType()!=null?mp3.getMusicType():"unknown";
+		}
+		this.store = store;
+		id = store.add(song, title, artist, album, genre, size);
+	}
+	
+	/**Song constructor method that adds a mp3 file together with the metadata already known about it to a store, so the file is not read.
+	 * @param store The SongStore where the metadata is kept<br>store != null
+	 * @param song A mp3 file that represents the song<br>song is different to null and is a valid mp3 file
+	 * @param title A String that represents the song title
+	 * @param artist A String that represents the song artist
+	 * @param album A String that represents the song album
+	 * @param genre A String that represents the song genre
+	 * @param size A double that represents the song size
+	 */
+	Song(SongStore store, File song, String title, String artist, String album, String genre, double size) {
+		this.store = store;
+		id = store.add(song, title, artist, album, genre, size);
 	}
 	
 	/** Method that allows to get the song title
 	 * @return A string that represents the song title
 	 */
 	public String getTitle() {
-		return title;
+		return store.getTitle(id);
 	}
 	
 	/**Method that allows to get the song artist
 	 * @return A string that represents the song artist
 	 */
 	public String getArtist() {
-		return artist;
+		return store.getArtist(id);
 	}
 	
 	/**Method that allows to get the song title
 	 * @return A string that represents the song title
 	 */
 	public String getAlbum() {
-		return album;
+		return store.getAlbum(id);
 	}
 	
-	/**Method that allows to get the song image as a byte array
-	 * @return A byte array that represents the song image
+	/**Method that allows to get the song image as a byte array. Unless the user chose another cover art, the image is not kept in memory,
+	 * it is read from the file every time it is requested, so it should be cached by whoever shows it, for example with an ArtworkCache.
+	 * Only the image is read when Id3Tag handles the tag of the file.
+	 * @return A byte array that represents the song image, or null if the song has no front cover.
 	 */
 	public byte[] getImage() {
+		byte[] image = store.getCustomCover(id);
+		if(image == null) {
+			try {
+				File songFile = getSongFile();
+				Id3Tag tag = Id3Tag.read(songFile);
+				if(tag != null) {
+					image = tag.readCover(songFile);
+				} else {
+					MP3 mp3 = new MP3(songFile);
+					AttachedPicture picture = mp3.getPicture(PictureType.FRONT_COVER);
+					image = picture!=null?picture.getImage():null;
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
 		return image;
 	}
 	
@@ -109,7 +132,21 @@ public class Song implements Serializable, Comparable<Song>{
 	 * @return A string that represents the song genre
 	 */
 	public String getGenre() {
-		return genre;
+		return store.getGenre(id);
+	}
+	
+	/**Method that allows to get the cover art chosen by the user for this song, which is saved in the library catalog.
+	 * @return A byte array that represents the chosen image, or null if the song shows the cover of its file.
+	 */
+	public byte[] getCustomCover() {
+		return store.getCustomCover(id);
+	}
+	
+	/**Method that allows to change the cover art chosen by the user for this song, for example when it is read from the catalog.
+	 * @param image A byte array that represents the chosen image. If it is null the song shows the cover of its file again.
+	 */
+	void setCustomCover(byte[] image) {
+		store.setCustomCover(id, image);
 	}
 	
 	/** This method allows to set the song cover art specifying a image file as parameter.
@@ -117,77 +154,118 @@ public class Song implements Serializable, Comparable<Song>{
 	 */
 	public void setCoverArt(File imageFile) {
 		try {
-			MP3 mp3 = new MP3(songFile);
+			MP3 mp3 = new MP3(getSongFile());
 			mp3.setPicture(PictureType.FRONT_COVER, imageFile);
-			image = mp3.getPicture(PictureType.FRONT_COVER).getImage();
+			store.setCustomCover(id, mp3.getPicture(PictureType.FRONT_COVER).getImage());
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 	
-	/**Method that allows to get the song path
+	/**Method that allows to get the song path. It is built from the file every time it is requested.
 	 * @return A string that represents the song path
 	 */
 	public String getSongPath() {
-		return songPath;
+		return getSongFile().toURI().toString();
 	}
 	
 	/** Method that allows to get the song size as a double type number.
 	 * @return A double that represents the song size
 	 */
 	public double getSize() {
-		return size;
+		return store.getSize(id);
 	}
 	
 	/**Method that allows to get the song file name
 	 * @return A string that represents the song file name
 	 */
 	public String getFileName() {
-		return fileName;
+		return store.getFileName(id);
 	}
 	
 	/** Method that allows to get the song parent folder path
 	 * @return A string that represents the song parent folder path
 	 */
 	public String getParentFolderPath() {
-		return parentFolderPath;
+		return store.getParentFolderPath(id);
+	}
+
+	/** Method that allows to get the file represented by this song. It is built from its folder and its name every time it is requested.
+	 * @return A File that represents the mp3 file of the song
+	 */
+	public File getSongFile() {
+		return new File(store.getParentFolder(id), store.getFileName(id));
 	}
 	
-	/**Method that allows to get the right Song associated with this Song in the binary search three
-	 * @return A Song that represents the right Song associated with this Song in the binary search three
+	/**This method compares two song title lexicographically by natural order
+	 * @param s A song that represents the song that will be compared with this song lexicographically<br>s != null
+	 * @return An integer that represents if this title is greater, less or equal to s title lexicographically
 	 */
-	public Song getRight() {
-		return right;
+	@Override
+	public int compareTo(Song s) {
+		return getTitle().compareTo(s.getTitle());
 	}
 	
-	/**
-	 * Method that allows to set the right Song associated with this Song in the binary search three
-	 * @param right A Song that represents the right Song associated with this Song in the binary search three
+	/**Method that allows to get the store that keeps the metadata of this song
+	 * @return The SongStore of the song
 	 */
-	public void setRight(Song right) {
-		this.right = right;
+	public SongStore getStore() {
+		return store;
 	}
 	
-	/**Method that allows to get the left Song associated with this Song in the binary search three
-	 * @return A Song that represents the left Song associated with this Song in the binary search three
+	/**The method is called when a music folder starts keeping this song.
 	 */
-	public Song getLeft() {
-		return left;
+	synchronized void hold() {
+		folders++;
 	}
 	
-	/** Method that allows to set the left Song associated with this Song in the binary search three.
-	 * @param left A Song that represents the left Song associated with this Song in the binary search three.
+	/**The method is called when a music folder stops keeping this song.
+	 * @return A boolean that indicates whether no other folder keeps it.
 	 */
-	public void setLeft(Song left) {
-		this.left = left;
+	synchronized boolean drop() {
+		return folders > 0 && --folders == 0;
 	}
 	
-	/**This method compares two song title lexicographically by natural order
-	 * @param s A song that represents the song that will be compared with this song lexicographically<br>s != null
-	 * @return An integer that represents if this title is greater, less or equal to s title lexicographically
+	/**The method allows to know whether a music folder keeps this song.
+	 * @return A boolean that indicates whether some folder keeps it.
 	 */
-	@Override
-	public int compareTo(Song s) {
-		return title.compareTo(s.title);
+	synchronized boolean isHeld() {
+		return folders > 0;
+	}
+	
+	/**The method moves the metadata of this song to a store of its own and releases its row in the store it was, so another song can
+	 * use it. It is called when no folder keeps the song, which can still be read by whoever has it.
+	 */
+	synchronized void detach() {
+		if(store.size() > 1) {
+			store = store.detach(id);
+		}
+	}
+	
+	/**The method reads a serialized song. The previous versions of the player kept the metadata and the cover of every song in fields
+	 * of its own, so their songs are read into a store of their own, keeping the cover as if the user had chosen it, so it can be
+	 * migrated, see LibraryEngine.migrateLegacyFolders.
+	 * @param ois The stream where the song is read.
+	 * @throws IOException if there was a problem reading the song.
+	 * @throws ClassNotFoundException if the stream contains classes that are not in the class path.
+	 */
+	private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = ois.readFields();
+		if(fields.getObjectStreamClass().getField("store") != null) {
+			store = (SongStore)fields.get("store", null);
+			id = fields.get("id", 0);
+		} else {
+			store = new SongStore(1);
+			id = store.add((File)fields.get("songFile", null), (String)fields.get("title", null), (String)fields.get("artist", null),
+					(String)fields.get("album", null), (String)fields.get("genre", null), fields.get("size", 0.0));
+			store.setCustomCover(id, (byte[])fields.get("image", null));
+		}
+	}
+	
+	/**Method that allows to get the id of this song in its store
+	 * @return An integer that represents the row of the song in its store
+	 */
+	public int getId() {
+		return id;
 	}
 }
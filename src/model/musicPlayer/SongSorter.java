@@ -0,0 +1,212 @@
+package model.musicPlayer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class SongSorter {
+
+	/**It represents the songs in the order they were received. Every permutation refers to the positions in this list.
+	 */
+	private ArrayList<Song> base;
+	/**It represents the permutations already computed, by key. Each one holds the positions of base in ascending order.
+	 */
+	private EnumMap<SortKey, int[]> permutations;
+
+	/**SongSorter constructor method that receives the songs to be sorted.
+	 * @param songs A Song List with the songs to be sorted<br>songs != null
+	 */
+	public SongSorter(List<Song> songs) {
+		base = new ArrayList<Song>(songs);
+		permutations = new EnumMap<SortKey, int[]>(SortKey.class);
+	}
+
+	/**This method allows to obtain the permutation that sorts the songs in ascending order according to a key. It is computed
+	 * with a stable merge sort the first time it is requested and kept for the next requests.
+	 * @param key The SortKey that defines the order<br>key != null
+	 * @return An integer array where the position i holds the index in the original list of the i-th song in ascending order.
+	 */
+	public synchronized int[] permutation(SortKey key) {
+		int[] perm = permutations.get(key);
+		if(perm == null) {
+			perm = sort(base, key.getComparator());
+			permutations.put(key, perm);
+		}
+		return perm;
+	}
+
+	/**This method fills a list with the songs sorted according to a key. When the permutation of the key was already computed it
+	 * takes linear time.<br>
+	 * In descending order the songs that are equal according to the key keep the same relative order they have in ascending order.
+	 * @param target The Song ArrayList that will contain the sorted songs. Its previous content is replaced<br>target != null
+	 * @param key The SortKey that defines the order<br>key != null
+	 * @param ascending A boolean that indicates whether the songs are sorted in ascending or descending order.
+	 */
+	public void sort(ArrayList<Song> target, SortKey key, boolean ascending) {
+		int[] perm = permutation(key);
+		target.clear();
+		target.ensureCapacity(perm.length);
+		if(ascending) {
+			for(int i = 0; i < perm.length; i++) {
+				target.add(base.get(perm[i]));
+			}
+		} else {
+			Comparator<Song> c = key.getComparator();
+			int end = perm.length;
+			while(end > 0) {
+				int start = end-1;
+				while(start > 0 && c.compare(base.get(perm[start-1]), base.get(perm[end-1])) == 0) {
+					start--;
+				}
+				for(int i = start; i < end; i++) {
+					target.add(base.get(perm[i]));
+				}
+				end = start;
+			}
+		}
+	}
+
+	/**This method adds a song to the songs being sorted. The permutations already computed are kept: the song is inserted in each one
+	 * after the songs that are equal to it, as if it had been at the end of the list when they were sorted, so it takes linear time
+	 * instead of sorting again.
+	 * @param song The Song to add<br>song != null
+	 */
+	public synchronized void add(Song song) {
+		int index = base.size();
+		base.add(song);
+		for(SortKey key : permutations.keySet()) {
+			int[] perm = permutations.get(key);
+			Comparator<Song> c = key.getComparator();
+			int low = 0;
+			int high = perm.length;
+			while(low < high) {
+				int mid = (low+high)/2;
+				if(c.compare(base.get(perm[mid]), song) > 0) {
+					high = mid;
+				} else {
+					low = mid+1;
+				}
+			}
+			int[] updated = new int[perm.length+1];
+			System.arraycopy(perm, 0, updated, 0, low);
+			updated[low] = index;
+			System.arraycopy(perm, low, updated, low+1, perm.length-low);
+			permutations.put(key, updated);
+		}
+	}
+
+	/**This method removes a song from the songs being sorted. The permutations already computed are kept without the song, so it takes
+	 * linear time instead of sorting again.
+	 * @param song The Song to remove<br>song != null
+	 * @return A boolean that indicates whether the song was being sorted.
+	 */
+	public synchronized boolean remove(Song song) {
+		int index = base.indexOf(song);
+		if(index >= 0) {
+			base.remove(index);
+			for(SortKey key : permutations.keySet()) {
+				int[] perm = permutations.get(key);
+				int[] updated = new int[perm.length-1];
+				int j = 0;
+				for(int i = 0; i < perm.length; i++) {
+					if(perm[i] != index) {
+						updated[j++] = perm[i] > index ? perm[i]-1 : perm[i];
+					}
+				}
+				permutations.put(key, updated);
+			}
+		}
+		return index >= 0;
+	}
+
+	/**This method removes many songs from the songs being sorted in a single pass over the songs and over every permutation already
+	 * computed, instead of one pass for every song.
+	 * @param songs A Song Collection with the songs to remove<br>songs != null
+	 * @return An integer that represents the number of songs that were being sorted and were removed.
+	 */
+	public synchronized int removeAll(Collection<Song> songs) {
+		Set<Song> removed = new HashSet<Song>(songs);
+		int[] moved = new int[base.size()];
+		ArrayList<Song> kept = new ArrayList<Song>(base.size());
+		for(int i = 0; i < base.size(); i++) {
+			if(removed.contains(base.get(i))) {
+				moved[i] = -1;
+			} else {
+				moved[i] = kept.size();
+				kept.add(base.get(i));
+			}
+		}
+		int count = base.size() - kept.size();
+		if(count > 0) {
+			base = kept;
+			for(SortKey key : permutations.keySet()) {
+				int[] perm = permutations.get(key);
+				int[] updated = new int[kept.size()];
+				int j = 0;
+				for(int i = 0; i < perm.length; i++) {
+					if(moved[perm[i]] >= 0) {
+						updated[j++] = moved[perm[i]];
+					}
+				}
+				permutations.put(key, updated);
+			}
+		}
+		return count;
+	}
+
+	/**This method allows to obtain the number of songs being sorted.
+	 * @return An integer that represents the number of songs being sorted.
+	 */
+	public int size() {
+		return base.size();
+	}
+
+	/**This method computes the permutation that sorts a list according to a comparator, using a stable merge sort.
+	 * @param songs The Song List to be sorted<br>songs != null
+	 * @param c The Song Comparator that defines the order<br>c != null
+	 * @return An integer array where the position i holds the index in songs of the i-th song in ascending order.
+	 */
+	public static int[] sort(List<Song> songs, Comparator<Song> c) {
+		int n = songs.size();
+		Song[] values = songs.toArray(new Song[n]);
+		int[] perm = new int[n];
+		for(int i = 0; i < n; i++) {
+			perm[i] = i;
+		}
+		int[] buffer = new int[n];
+		for(int width = 1; width < n; width *= 2) {
+			for(int low = 0; low < n - width; low += 2*width) {
+				int mid = low + width;
+				int high = Math.min(low + 2*width, n);
+				if(c.compare(values[perm[mid-1]], values[perm[mid]]) > 0) {
+					merge(values, c, perm, buffer, low, mid, high);
+				}
+			}
+		}
+		return perm;
+	}
+
+	/**This method merges the two consecutive sorted runs perm[low..mid) and perm[mid..high), taking from the left run on ties
+	 * so the sort is stable.
+	 */
+	private static void merge(Song[] values, Comparator<Song> c, int[] perm, int[] buffer, int low, int mid, int high) {
+		System.arraycopy(perm, low, buffer, low, high - low);
+		int i = low;
+		int j = mid;
+		for(int k = low; k < high; k++) {
+			if(i == mid) {
+				perm[k] = buffer[j++];
+			} else if(j == high) {
+				perm[k] = buffer[i++];
+			} else if(c.compare(values[buffer[j]], values[buffer[i]]) < 0) {
+				perm[k] = buffer[j++];
+			} else {
+				perm[k] = buffer[i++];
+			}
+		}
+	}
+}
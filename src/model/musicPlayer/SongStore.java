@@ -0,0 +1,340 @@
+package model.musicPlayer;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+
+public class SongStore implements Serializable {
+	/**It represents the version of the serialized form.
+	 */
+	private static final long serialVersionUID = 4190233087366725185L;
+	/**It represents the number of rows reserved by a store when no capacity is given.
+	 */
+	public final static int DEFAULT_CAPACITY = 16;
+	/**It represents the id stored in a dictionary column when the song has no value.
+	 */
+	private final static int NO_VALUE = -1;
+
+	/**It represents the number of rows of the store, including the released ones.
+	 */
+	private volatile int rows;
+	/**It represents the id of the first row. It is 0 unless the store keeps a single song that was detached from another store, so
+	 * the song keeps its id.
+	 */
+	private int first;
+	/**It represents the released rows, which are given to the next songs that are added.
+	 */
+	private int[] free;
+	/**It represents the number of released rows.
+	 */
+	private int freeCount;
+	/**It represents the title of every song, by id.
+	 */
+	private volatile String[] titles;
+	/**It represents the file name of every song, by id.
+	 */
+	private volatile String[] fileNames;
+	/**It represents the id in the parent table of the folder of every song, by id.
+	 */
+	private volatile int[] parents;
+	/**It represents the id in the value table of the artist of every song, by id.
+	 */
+	private volatile int[] artists;
+	/**It represents the id in the value table of the album of every song, by id.
+	 */
+	private volatile int[] albums;
+	/**It represents the id in the value table of the genre of every song, by id.
+	 */
+	private volatile int[] genres;
+	/**It represents the size of every song, by id.
+	 */
+	private volatile double[] sizes;
+	/**It represents the artists, albums and genres of the songs, every different one once, by id.
+	 */
+	private volatile String[] values;
+	/**It represents the number of values of the value table.
+	 */
+	private int valueCount;
+	/**It represents the id of every value of the value table.
+	 */
+	private HashMap<String, Integer> valueIds;
+	/**It represents the folders that contain the songs, every different one once, by id.
+	 */
+	private volatile File[] parentFolders;
+	/**It represents the URI of every folder of the parent table, by id.
+	 */
+	private volatile String[] parentUris;
+	/**It represents the number of folders of the parent table.
+	 */
+	private int parentCount;
+	/**It represents the id of every folder of the parent table, by path.
+	 */
+	private HashMap<String, Integer> parentIds;
+	/**It represents the cover art chosen by the user for some songs, by id. Most songs show the cover of their file, so it is not a column.
+	 */
+	private HashMap<Integer, byte[]> customCovers;
+
+	/**SongStore constructor method that creates an empty store with the default capacity.
+	 */
+	public SongStore() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**SongStore constructor method that creates an empty store. The columns grow when more songs are added.
+	 * @param capacity An integer that represents the number of songs the store can hold before its columns grow<br>capacity >= 0
+	 */
+	public SongStore(int capacity) {
+		capacity = Math.max(1, capacity);
+		titles = new String[capacity];
+		fileNames = new String[capacity];
+		parents = new int[capacity];
+		artists = new int[capacity];
+		albums = new int[capacity];
+		genres = new int[capacity];
+		sizes = new double[capacity];
+		values = new String[Math.min(capacity, DEFAULT_CAPACITY)];
+		valueIds = new HashMap<String, Integer>();
+		parentFolders = new File[Math.min(capacity, DEFAULT_CAPACITY)];
+		parentUris = new String[parentFolders.length];
+		parentIds = new HashMap<String, Integer>();
+		customCovers = new HashMap<Integer, byte[]>();
+	}
+
+	/**This method adds a song to the store. The artist, album and genre are kept once for all the songs that share them, and so is the
+	 * folder of the file.<br>
+	 * Many threads can add songs at the same time, and the songs can be read while others are added. A released row is used before the
+	 * columns grow.
+	 * @param file A File that represents the MP3 file of the song<br>file != null and has a parent folder
+	 * @param title A String that represents the song title
+	 * @param artist A String that represents the song artist. It can be null.
+	 * @param album A String that represents the song album. It can be null.
+	 * @param genre A String that represents the song genre. It can be null.
+	 * @param size A double that represents the song size
+	 * @return An integer that represents the id of the song in this store.
+	 */
+	public synchronized int add(File file, String title, String artist, String album, String genre, double size) {
+		int row;
+		if(freeCount > 0) {
+			row = free[--freeCount];
+		} else {
+			if(rows == titles.length) {
+				grow(rows * 2);
+			}
+			row = rows;
+		}
+		titles[row] = title;
+		fileNames[row] = file.getName();
+		parents[row] = parentId(file.getParentFile());
+		artists[row] = valueId(artist);
+		albums[row] = valueId(album);
+		genres[row] = valueId(genre);
+		sizes[row] = size;
+		rows = Math.max(rows, row + 1);
+		return first + row;
+	}
+
+	/**This method replaces the columns of the store with bigger ones. Every column is copied before it is published, so a reader that
+	 * gets a column keeps seeing the songs that were already there.
+	 * @param capacity An integer that represents the new number of rows of the columns.
+	 */
+	private void grow(int capacity) {
+		titles = Arrays.copyOf(titles, capacity);
+		fileNames = Arrays.copyOf(fileNames, capacity);
+		parents = Arrays.copyOf(parents, capacity);
+		artists = Arrays.copyOf(artists, capacity);
+		albums = Arrays.copyOf(albums, capacity);
+		genres = Arrays.copyOf(genres, capacity);
+		sizes = Arrays.copyOf(sizes, capacity);
+	}
+
+	/**This method releases the row of a song that no folder keeps, so it is given to the next song that is added. The Song of the row
+	 * must not be used after it is released, see detach.
+	 * @param id An integer that represents the id of the song<br>id is the id of a song of this store
+	 */
+	public synchronized void release(int id) {
+		int row = id - first;
+		if(fileNames[row] != null) {
+			titles[row] = null;
+			fileNames[row] = null;
+			customCovers.remove(id);
+			if(free == null) {
+				free = new int[DEFAULT_CAPACITY];
+			} else if(freeCount == free.length) {
+				free = Arrays.copyOf(free, freeCount * 2);
+			}
+			free[freeCount++] = row;
+		}
+	}
+
+	/**This method moves a song to a store of its own, with the same id, and releases its row in this store. It is used when no folder
+	 * keeps the song, so its row can be given to another song while whoever still has the Song can read it.
+	 * @param id An integer that represents the id of the song<br>id is the id of a song of this store that was not released
+	 * @return The SongStore that keeps the song now.
+	 */
+	synchronized SongStore detach(int id) {
+		SongStore detached = new SongStore(1);
+		detached.first = id;
+		detached.add(new File(getParentFolder(id), getFileName(id)), getTitle(id), getArtist(id), getAlbum(id), getGenre(id), getSize(id));
+		byte[] cover = customCovers.get(id);
+		if(cover != null) {
+			detached.customCovers.put(id, cover);
+		}
+		release(id);
+		return detached;
+	}
+
+	/**This method allows to obtain the id of a value of the value table, adding it if it is not there yet.
+	 * @param value A String that represents the artist, album or genre. It can be null.
+	 * @return An integer that represents the id of the value, or NO_VALUE if it is null.
+	 */
+	private int valueId(String value) {
+		int id = NO_VALUE;
+		if(value != null) {
+			Integer known = valueIds.get(value);
+			if(known == null) {
+				if(valueCount == values.length) {
+					values = Arrays.copyOf(values, valueCount * 2);
+				}
+				id = valueCount++;
+				values[id] = value;
+				valueIds.put(value, id);
+			} else {
+				id = known;
+			}
+		}
+		return id;
+	}
+
+	/**This method allows to obtain the id of a folder of the parent table, adding it if it is not there yet.
+	 * @param folder A File that represents the folder that contains a song<br>folder != null
+	 * @return An integer that represents the id of the folder.
+	 */
+	private int parentId(File folder) {
+		Integer id = parentIds.get(folder.getPath());
+		if(id == null) {
+			if(parentCount == parentFolders.length) {
+				parentUris = Arrays.copyOf(parentUris, parentCount * 2);
+				parentFolders = Arrays.copyOf(parentFolders, parentCount * 2);
+			}
+			id = parentCount++;
+			parentUris[id] = folder.toURI().toString();
+			parentFolders[id] = folder;
+			parentIds.put(folder.getPath(), id);
+		}
+		return id;
+	}
+
+	/**This method allows to obtain a value of the value table.
+	 * @param id An integer that represents the id of the value.
+	 * @return The String with the requested id, or null if the id is NO_VALUE.
+	 */
+	private String value(int id) {
+		return id == NO_VALUE ? null : values[id];
+	}
+
+	/**This method allows to obtain the number of songs in the store.
+	 * @return An integer that represents the number of songs added to the store whose rows were not released.
+	 */
+	public synchronized int size() {
+		return rows - freeCount;
+	}
+
+	/**This method allows to obtain the number of different artists, albums and genres of the songs in the store.
+	 * @return An integer that represents the number of values of the value table.
+	 */
+	public synchronized int getValueCount() {
+		return valueCount;
+	}
+
+	/**This method allows to obtain the number of different folders that contain the songs in the store.
+	 * @return An integer that represents the number of folders of the parent table.
+	 */
+	public synchronized int getFolderCount() {
+		return parentCount;
+	}
+
+	/**This method allows to obtain the title of a song.
+	 * @param id An integer that represents the id of the song<br>id is the id of a song of this store
+	 * @return A String that represents the song title.
+	 */
+	public String getTitle(int id) {
+		return titles[id - first];
+	}
+
+	/**This method allows to obtain the artist of a song.
+	 * @param id An integer that represents the id of the song<br>id is the id of a song of this store
+	 * @return A String that represents the song artist. It can be null.
+	 */
+	public String getArtist(int id) {
+		return value(artists[id - first]);
+	}
+
+	/**This method allows to obtain the album of a song.
+	 * @param id An integer that represents the id of the song<br>id is the id of a song of this store
+	 * @return A String that represents the song album. It can be null.
+	 */
+	public String getAlbum(int id) {
+		return value(albums[id - first]);
+	}
+
+	/**This method allows to obtain the genre of a song.
+	 * @param id An integer that represents the id of the song<br>id is the id of a song of this store
+	 * @return A String that represents the song genre. It can be null.
+	 */
+	public String getGenre(int id) {
+		return value(genres[id - first]);
+	}
+
+	/**This method allows to obtain the size of a song.
+	 * @param id An integer that represents the id of the song<br>id is the id of a song of this store
+	 * @return A double that represents the song size.
+	 */
+	public double getSize(int id) {
+		return sizes[id - first];
+	}
+
+	/**This method allows to obtain the file name of a song.
+	 * @param id An integer that represents the id of the song<br>id is the id of a song of this store
+	 * @return A String that represents the file name of the song.
+	 */
+	public String getFileName(int id) {
+		return fileNames[id - first];
+	}
+
+	/**This method allows to obtain the folder that contains the file of a song.
+	 * @param id An integer that represents the id of the song<br>id is the id of a song of this store
+	 * @return A File that represents the parent folder of the song file.
+	 */
+	public File getParentFolder(int id) {
+		return parentFolders[parents[id - first]];
+	}
+
+	/**This method allows to obtain the URI of the folder that contains the file of a song.
+	 * @param id An integer that represents the id of the song<br>id is the id of a song of this store
+	 * @return A String that represents the URI of the parent folder of the song file.
+	 */
+	public String getParentFolderPath(int id) {
+		return parentUris[parents[id - first]];
+	}
+
+	/**This method allows to obtain the cover art chosen by the user for a song.
+	 * @param id An integer that represents the id of the song<br>id is the id of a song of this store
+	 * @return A byte array that represents the chosen image, or null if the song shows the cover of its file.
+	 */
+	public synchronized byte[] getCustomCover(int id) {
+		return customCovers.get(id);
+	}
+
+	/**This method allows to change the cover art chosen by the user for a song.
+	 * @param id An integer that represents the id of the song<br>id is the id of a song of this store
+	 * @param image A byte array that represents the chosen image. If it is null the song shows the cover of its file again.
+	 */
+	public synchronized void setCustomCover(int id, byte[] image) {
+		if(image == null) {
+			customCovers.remove(id);
+		} else {
+			customCovers.put(id, image);
+		}
+	}
+}
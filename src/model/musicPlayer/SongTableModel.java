@@ -0,0 +1,100 @@
+package model.musicPlayer;
+
+import java.util.Collections;
+
+import javafx.collections.ObservableListBase;
+
+public class SongTableModel extends ObservableListBase<Song> {
+	/**It represents the music folder whose songs are shown. It can be null, in which case the list is empty.
+	 */
+	private MusicFolder folder;
+	/**It represents the number of songs of the folder the last time the list was updated, which is the size seen by the table.
+	 */
+	private int size;
+	/**It represents the modifications of the folder the last time the list was updated.
+	 */
+	private int modifications;
+
+	/**SongTableModel constructor method that creates a view of the songs of a music folder in their current order. The songs are not
+	 * copied: every position is read from the folder when it is requested.
+	 * @param folder The MusicFolder whose songs are shown. It can be null.
+	 */
+	public SongTableModel(MusicFolder folder) {
+		this.folder = folder;
+		if(folder != null) {
+			synchronized(folder) {
+				size = folder.getSongs().size();
+				modifications = folder.getModifications();
+			}
+		}
+	}
+
+	/**This method allows to obtain the music folder whose songs are shown.
+	 * @return The MusicFolder whose songs are shown, or null if there is none.
+	 */
+	public MusicFolder getFolder() {
+		return folder;
+	}
+
+	/**This method allows to show the songs of another music folder. It takes constant time and does not allocate anything for the songs,
+	 * the table only reads the rows it displays.
+	 * @param folder The MusicFolder whose songs are shown. It can be null.
+	 */
+	public void setFolder(MusicFolder folder) {
+		this.folder = folder;
+		update();
+	}
+
+	/**This method notifies the table that the songs of the folder changed, because they were sorted, added or removed, if they did
+	 * since the last time the list was updated. It must be called from the thread that owns the table.
+	 */
+	public void refresh() {
+		if(folder != null && folder.getModifications() != modifications) {
+			update();
+		}
+	}
+
+	/**This method takes the size of the folder again and notifies that every row was replaced. The removed songs are reported as null
+	 * because the old order is no longer kept, only their number is meaningful.
+	 */
+	private void update() {
+		int old = size;
+		if(folder != null) {
+			synchronized(folder) {
+				size = folder.getSongs().size();
+				modifications = folder.getModifications();
+			}
+		} else {
+			size = 0;
+		}
+		beginChange();
+		nextReplace(0, size, Collections.<Song>nCopies(old, null));
+		endChange();
+	}
+
+	/**This method allows to obtain the song shown in a row, read from the folder in its current order.
+	 * @param index An integer that represents the row<br>0 <= index < size()
+	 * @return The Song of the row, or null if the folder has fewer songs since the list was updated.
+	 */
+	@Override
+	public Song get(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		Song song = null;
+		synchronized(folder) {
+			if(index < folder.getSongs().size()) {
+				song = folder.getSongs().get(index);
+			}
+		}
+		return song;
+	}
+
+	/**This method allows to obtain the number of rows, the number of songs of the folder the last time the list was updated.
+	 * @return An integer that represents the number of rows.
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+}
@@ -0,0 +1,300 @@
+package model.musicPlayer;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+public class SongTree implements Serializable {
+	/**It represents the version of the serialized form, the tree is serialized together with its MusicFolder.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**It represents the root of the AVL tree.
+	 */
+	private Node root;
+	/**It represents the number of songs in the tree.
+	 */
+	private int size;
+
+	/**SongTree constructor method that creates an empty tree.
+	 */
+	public SongTree() {
+	}
+
+	/**This method adds a song to the tree according to the natural order. The tree is rebalanced after the insertion, so its height
+	 * is always logarithmic. Songs with the same title are kept together in the same node, in insertion order.
+	 * @param song The Song to be added<br>song != null
+	 */
+	public void add(Song song) {
+		root = add(root, song);
+		size++;
+	}
+
+	/**This method adds a song to the subtree rooted in current.
+	 * @param current The root of the subtree. It can be null.
+	 * @param song The Song to be added<br>song != null
+	 * @return The new root of the subtree after rebalancing it.
+	 */
+	private Node add(Node current, Song song) {
+		if(current == null) {
+			return new Node(song);
+		}
+		int comp = song.getTitle().compareTo(current.title);
+		if(comp < 0) {
+			current.left = add(current.left, song);
+		} else if(comp > 0) {
+			current.right = add(current.right, song);
+		} else {
+			current.songs.add(song);
+			return current;
+		}
+		return rebalance(current);
+	}
+
+	/**This method removes a song from the tree. The song is found by its title and then compared by identity.
+	 * @param song The Song to be removed<br>song != null
+	 * @return A boolean that indicates whether the song was in the tree.
+	 */
+	public boolean remove(Song song) {
+		int before = size;
+		root = remove(root, song);
+		return size < before;
+	}
+
+	/**This method removes a song from the subtree rooted in current.
+	 * @param current The root of the subtree. It can be null.
+	 * @param song The Song to be removed<br>song != null
+	 * @return The new root of the subtree after rebalancing it.
+	 */
+	private Node remove(Node current, Song song) {
+		if(current == null) {
+			return null;
+		}
+		int comp = song.getTitle().compareTo(current.title);
+		if(comp < 0) {
+			current.left = remove(current.left, song);
+		} else if(comp > 0) {
+			current.right = remove(current.right, song);
+		} else {
+			boolean removed = false;
+			for(int i = 0; i < current.songs.size() && !removed; i++) {
+				if(current.songs.get(i) == song) {
+					current.songs.remove(i);
+					removed = true;
+					size--;
+				}
+			}
+			if(current.songs.isEmpty()) {
+				if(current.left == null) {
+					return current.right;
+				} else if(current.right == null) {
+					return current.left;
+				}
+				Node successor = current.right;
+				while(successor.left != null) {
+					successor = successor.left;
+				}
+				current.right = removeMin(current.right);
+				successor.right = current.right;
+				successor.left = current.left;
+				current = successor;
+			}
+		}
+		return rebalance(current);
+	}
+
+	/**This method unlinks the node with the lowest title of the subtree rooted in current.
+	 * @param current The root of the subtree<br>current != null
+	 * @return The new root of the subtree after rebalancing it.
+	 */
+	private Node removeMin(Node current) {
+		if(current.left == null) {
+			return current.right;
+		}
+		current.left = removeMin(current.left);
+		return rebalance(current);
+	}
+
+	/**This method allows to obtain the first song added with the requested title.
+	 * @param title A String that represents the title to look for<br>title != null
+	 * @return A Song with the requested title, or null if there is none.
+	 */
+	public Song search(String title) {
+		Node node = find(title);
+		return node != null ? node.songs.get(0) : null;
+	}
+
+	/**This method allows to obtain all the songs with the requested title.
+	 * @param title A String that represents the title to look for<br>title != null
+	 * @return A Song ArrayList with the songs that have the requested title, in insertion order. It is empty if there is none.
+	 */
+	public ArrayList<Song> searchAll(String title) {
+		Node node = find(title);
+		return node != null ? new ArrayList<Song>(node.songs) : new ArrayList<Song>();
+	}
+
+	/**This method allows to obtain the node that holds the songs with the requested title.
+	 * @param title A String that represents the title to look for<br>title != null
+	 * @return The Node with the requested title, or null if there is none.
+	 */
+	private Node find(String title) {
+		Node current = root;
+		while(current != null) {
+			int comp = title.compareTo(current.title);
+			if(comp == 0) {
+				return current;
+			}
+			current = comp < 0 ? current.left : current.right;
+		}
+		return null;
+	}
+
+	/**This method allows to obtain a list with the songs in the tree in order.
+	 * @return A Song ArrayList with the songs in order.
+	 */
+	public ArrayList<Song> inorder() {
+		ArrayList<Song> songs = new ArrayList<Song>(size);
+		inorder(root, songs);
+		return songs;
+	}
+
+	/**This method fills an ArrayList with the songs of the subtree rooted in current in order.
+	 * @param current The root of the subtree. It can be null.
+	 * @param tofill The ArrayList where the songs are going to accumulate.
+	 */
+	private void inorder(Node current, ArrayList<Song> tofill) {
+		if(current != null) {
+			inorder(current.left, tofill);
+			tofill.addAll(current.songs);
+			inorder(current.right, tofill);
+		}
+	}
+
+	/**This method allows to obtain a list with the songs in the tree in preorder.
+	 * @return A Song ArrayList with the songs in preorder.
+	 */
+	public ArrayList<Song> preorder() {
+		ArrayList<Song> songs = new ArrayList<Song>(size);
+		preorder(root, songs);
+		return songs;
+	}
+
+	/**This method fills an ArrayList with the songs of the subtree rooted in current in preorder.
+	 * @param current The root of the subtree. It can be null.
+	 * @param tofill The ArrayList where the songs are going to accumulate.
+	 */
+	private void preorder(Node current, ArrayList<Song> tofill) {
+		if(current != null) {
+			tofill.addAll(current.songs);
+			preorder(current.left, tofill);
+			preorder(current.right, tofill);
+		}
+	}
+
+	/**This method allows to obtain the number of songs in the tree.
+	 * @return An integer that represents the number of songs in the tree.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**This method allows to obtain the height of the tree.
+	 * @return An integer that represents the height of the tree. It is 0 when the tree is empty.
+	 */
+	public int height() {
+		return height(root);
+	}
+
+	/**This method allows to obtain the height of a subtree.
+	 * @param n The root of the subtree, or null if it is empty
+	 * @return An integer that represents the height of the subtree. It is 0 when the subtree is empty.
+	 */
+	private static int height(Node n) {
+		return n != null ? n.height : 0;
+	}
+
+	/**This method computes the height of a node from the heights of its children.
+	 * @param n The node whose height is computed<br>n != null
+	 */
+	private static void updateHeight(Node n) {
+		n.height = Math.max(height(n.left), height(n.right)) + 1;
+	}
+
+	/**This method restores the AVL property of a node whose subtrees differ in height by two at most.
+	 * @param n The node to rebalance<br>n != null
+	 * @return The new root of the subtree.
+	 */
+	private Node rebalance(Node n) {
+		updateHeight(n);
+		int balance = height(n.left) - height(n.right);
+		if(balance > 1) {
+			if(height(n.left.left) < height(n.left.right)) {
+				n.left = rotateLeft(n.left);
+			}
+			return rotateRight(n);
+		} else if(balance < -1) {
+			if(height(n.right.right) < height(n.right.left)) {
+				n.right = rotateRight(n.right);
+			}
+			return rotateLeft(n);
+		}
+		return n;
+	}
+
+	/**This method rotates a subtree to the right, so its left child becomes its root.
+	 * @param n The root of the subtree<br>n != null and n.left != null
+	 * @return The new root of the subtree.
+	 */
+	private Node rotateRight(Node n) {
+		Node l = n.left;
+		n.left = l.right;
+		l.right = n;
+		updateHeight(n);
+		updateHeight(l);
+		return l;
+	}
+
+	/**This method rotates a subtree to the left, so its right child becomes its root.
+	 * @param n The root of the subtree<br>n != null and n.right != null
+	 * @return The new root of the subtree.
+	 */
+	private Node rotateLeft(Node n) {
+		Node r = n.right;
+		n.right = r.left;
+		r.left = n;
+		updateHeight(n);
+		updateHeight(r);
+		return r;
+	}
+
+	/**It represents a title in the tree together with all the songs that have it.
+	 */
+	private static class Node implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		/**It represents the title shared by the songs of the node.
+		 */
+		private String title;
+		/**It represents the songs with the title, in insertion order.
+		 */
+		private ArrayList<Song> songs;
+		/**It represents the subtree of the titles that come before.
+		 */
+		private Node left;
+		/**It represents the subtree of the titles that come after.
+		 */
+		private Node right;
+		/**It represents the height of the subtree of this node.
+		 */
+		private int height;
+
+		/**Node constructor method that creates a leaf with the title of a song.
+		 * @param song The first Song with the title<br>song != null
+		 */
+		private Node(Song song) {
+			title = song.getTitle();
+			songs = new ArrayList<Song>(1);
+			songs.add(song);
+			height = 1;
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package model.musicPlayer;
+
+import java.util.Comparator;
+
+public enum SortKey {
+	/**It sorts the songs by title, their natural order.
+	 */
+	TITLE(new Comparator<Song>() {
+		@Override
+		public int compare(Song s1, Song s2) {
+			return s1.compareTo(s2);
+		}
+	}),
+	/**It sorts the songs by artist.
+	 */
+	ARTIST(new ArtistComparator()),
+	/**It sorts the songs by album.
+	 */
+	ALBUM(new AlbumComparator()),
+	/**It sorts the songs by genre.
+	 */
+	GENRE(new GenreComparator()),
+	/**It sorts the songs by size.
+	 */
+	SIZE(new SizeComparator()),
+	/**It sorts the songs by artist, the songs of the same artist by album and the songs of the same album by title.
+	 */
+	ARTIST_ALBUM_TITLE(new ArtistComparator().thenComparing(new AlbumComparator()).thenComparing(TITLE.comparator));
+
+	/**It represents the comparator that defines the order of this key.
+	 */
+	private Comparator<Song> comparator;
+
+	/**SortKey constructor method that receives the comparator that defines its order.
+	 * @param comparator A Song Comparator that defines the ascending order of this key.
+	 */
+	private SortKey(Comparator<Song> comparator) {
+		this.comparator = comparator;
+	}
+
+	/**This method allows to obtain the comparator that defines the ascending order of this key.
+	 * @return A Song Comparator that defines the ascending order of this key.
+	 */
+	public Comparator<Song> getComparator() {
+		return comparator;
+	}
+}
@@ -0,0 +1,336 @@
+package model.musicPlayer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+
+public class StatisticsTable {
+	/**It represents the number of slots of an empty table. It is a power of two.
+	 */
+	public final static int DEFAULT_CAPACITY = 16;
+
+	/**It represents the key of every used slot: the id of a song, an artist or an album.
+	 */
+	private long[] keys;
+	/**It represents whether every slot is used.
+	 */
+	private boolean[] used;
+	/**It represents the name shown for every key.
+	 */
+	private String[] names;
+	/**It represents the number of times every key was played.
+	 */
+	private int[] plays;
+	/**It represents the number of times every key was played until its end.
+	 */
+	private int[] finishes;
+	/**It represents the number of times every key was left before its end.
+	 */
+	private int[] skips;
+	/**It represents the time every key was listened, in milliseconds.
+	 */
+	private long[] listenMillis;
+	/**It represents the number of used slots.
+	 */
+	private int size;
+
+	/**StatisticsTable constructor method that creates an empty table.
+	 */
+	public StatisticsTable() {
+		allocate(DEFAULT_CAPACITY);
+	}
+
+	/**This method adds counts to a key, adding the key if it is not in the table yet. The counts are kept in primitive arrays with open
+	 * addressing, so no object is created for every key.
+	 * @param key A long that represents the id of the song, artist or album.
+	 * @param name A String that represents the name shown for the key<br>name != null
+	 * @param plays An integer that represents the plays to add.
+	 * @param finishes An integer that represents the plays until the end to add.
+	 * @param skips An integer that represents the plays left before the end to add.
+	 * @param listenMillis A long that represents the listened time to add, in milliseconds.
+	 */
+	public void add(long key, String name, int plays, int finishes, int skips, long listenMillis) {
+		if(2 * (size+1) > keys.length) {
+			grow();
+		}
+		int slot = slotOf(key);
+		if(!used[slot]) {
+			used[slot] = true;
+			keys[slot] = key;
+			names[slot] = name;
+			size++;
+		}
+		this.plays[slot] += plays;
+		this.finishes[slot] += finishes;
+		this.skips[slot] += skips;
+		this.listenMillis[slot] += listenMillis;
+	}
+
+	/**This method adds all the counts of another table to this one.
+	 * @param other The StatisticsTable to add<br>other != null
+	 */
+	public void addAll(StatisticsTable other) {
+		for(int i = 0; i < other.keys.length; i++) {
+			if(other.used[i]) {
+				add(other.keys[i], other.names[i], other.plays[i], other.finishes[i], other.skips[i], other.listenMillis[i]);
+			}
+		}
+	}
+
+	/**This method allows to obtain the number of keys of the table.
+	 * @return An integer that represents the number of keys.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**This method allows to obtain the counts of a key.
+	 * @param key A long that represents the id of the song, artist or album.
+	 * @return The ListeningStatistics.Entry of the key, or null if it is not in the table.
+	 */
+	public ListeningStatistics.Entry get(long key) {
+		int slot = slotOf(key);
+		return used[slot] ? entry(slot) : null;
+	}
+
+	/**This method allows to obtain the keys with the greatest value of a metric. Only n slots are kept ordered at the same time, in a heap,
+	 * so it takes a time proportional to the size of the table times the logarithm of n.
+	 * @param metric The ListeningStatistics.Metric used to order the keys<br>metric != null
+	 * @param n An integer that represents the maximum number of keys<br>n >= 0
+	 * @return A ListeningStatistics.Entry ArrayList with at most n keys, from the greatest to the smallest value of the metric.
+	 */
+	public ArrayList<ListeningStatistics.Entry> top(ListeningStatistics.Metric metric, int n) {
+		int[] heap = new int[Math.min(n, size)];
+		double[] values = new double[heap.length];
+		int count = 0;
+		for(int i = 0; i < keys.length && heap.length > 0; i++) {
+			if(used[i]) {
+				double value = value(metric, i);
+				if(count < heap.length) {
+					heap[count] = i;
+					values[count] = value;
+					siftUp(heap, values, count++);
+				} else if(value > values[0]) {
+					heap[0] = i;
+					values[0] = value;
+					siftDown(heap, values, count);
+				}
+			}
+		}
+		ArrayList<ListeningStatistics.Entry> top = new ArrayList<ListeningStatistics.Entry>(count);
+		while(count > 0) {
+			top.add(entry(heap[0]));
+			count--;
+			heap[0] = heap[count];
+			values[0] = values[count];
+			siftDown(heap, values, count);
+		}
+		Collections.reverse(top);
+		return top;
+	}
+
+	/**This method writes the table.
+	 * @param out The DataOutputStream where the table is written<br>out != null
+	 * @throws IOException if the table could not be written.
+	 */
+	public void write(DataOutputStream out) throws IOException {
+		out.writeInt(size);
+		for(int i = 0; i < keys.length; i++) {
+			if(used[i]) {
+				out.writeLong(keys[i]);
+				writeString(out, names[i]);
+				out.writeInt(plays[i]);
+				out.writeInt(finishes[i]);
+				out.writeInt(skips[i]);
+				out.writeLong(listenMillis[i]);
+			}
+		}
+	}
+
+	/**This method reads a table written with the method write.
+	 * @param in The DataInputStream where the table is read<br>in != null
+	 * @return The StatisticsTable read.
+	 * @throws IOException if the table could not be read.
+	 */
+	public static StatisticsTable read(DataInputStream in) throws IOException {
+		StatisticsTable table = new StatisticsTable();
+		int count = in.readInt();
+		for(int i = 0; i < count; i++) {
+			table.add(in.readLong(), readString(in), in.readInt(), in.readInt(), in.readInt(), in.readLong());
+		}
+		return table;
+	}
+
+	/**This method writes a string as its length in bytes followed by its UTF-8 bytes, so it can be of any length.
+	 * @param out The DataOutputStream where the string is written<br>out != null
+	 * @param s A String that represents the string to write<br>s != null
+	 * @throws IOException if there was a problem writing the string.
+	 */
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(utf8.length);
+		out.write(utf8);
+	}
+
+	/**This method reads a string written by writeString.
+	 * @param in The DataInputStream where the string is read<br>in != null
+	 * @return The String read.
+	 * @throws IOException if there was a problem reading the string.
+	 */
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] utf8 = new byte[in.readInt()];
+		in.readFully(utf8);
+		return new String(utf8, StandardCharsets.UTF_8);
+	}
+
+	/**This method allows to obtain a copy of the counts of a slot.
+	 * @param slot An integer that represents a used slot.
+	 * @return The ListeningStatistics.Entry with the counts of the slot.
+	 */
+	private ListeningStatistics.Entry entry(int slot) {
+		return new ListeningStatistics.Entry(keys[slot], names[slot], plays[slot], finishes[slot], skips[slot], listenMillis[slot]);
+	}
+
+	/**This method allows to obtain the value of a metric for a slot, to rank the slots by it.
+	 * @param metric The ListeningStatistics.Metric to compute<br>metric != null
+	 * @param slot An integer that represents a used slot.
+	 * @return A double that represents the value of the metric.
+	 */
+	private double value(ListeningStatistics.Metric metric, int slot) {
+		double value;
+		switch(metric) {
+		case LISTEN_TIME:
+			value = listenMillis[slot];
+			break;
+		case SKIPS:
+			value = skips[slot];
+			break;
+		case SKIP_RATE:
+			int ended = finishes[slot] + skips[slot];
+			value = ended > 0 ? (double)skips[slot] / ended : 0;
+			break;
+		default:
+			value = plays[slot];
+		}
+		return value;
+	}
+
+	/**This method finds the slot of a key with linear probing.
+	 * @param key A long that represents the id of a song, an artist or an album.
+	 * @return An integer that represents the slot that has the key, or the empty slot where it would be added.
+	 */
+	private int slotOf(long key) {
+		int mask = keys.length - 1;
+		int slot = (int)mix(key) & mask;
+		while(used[slot] && keys[slot] != key) {
+			slot = (slot+1) & mask;
+		}
+		return slot;
+	}
+
+	/**This method mixes the bits of a key, so keys that differ only in their high bits do not fall in the same slots.
+	 * @param key A long that represents the key to mix.
+	 * @return A long that represents the mixed key.
+	 */
+	private static long mix(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		return key;
+	}
+
+	/**This method doubles the number of slots and adds every entry again in its new slot.
+	 */
+	private void grow() {
+		long[] oldKeys = keys;
+		boolean[] oldUsed = used;
+		String[] oldNames = names;
+		int[] oldPlays = plays;
+		int[] oldFinishes = finishes;
+		int[] oldSkips = skips;
+		long[] oldListenMillis = listenMillis;
+		allocate(keys.length * 2);
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldUsed[i]) {
+				int slot = slotOf(oldKeys[i]);
+				used[slot] = true;
+				keys[slot] = oldKeys[i];
+				names[slot] = oldNames[i];
+				plays[slot] = oldPlays[i];
+				finishes[slot] = oldFinishes[i];
+				skips[slot] = oldSkips[i];
+				listenMillis[slot] = oldListenMillis[i];
+			}
+		}
+	}
+
+	/**This method creates the empty arrays of the slots.
+	 * @param capacity An integer that represents the number of slots<br>capacity is a power of two
+	 */
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		used = new boolean[capacity];
+		names = new String[capacity];
+		plays = new int[capacity];
+		finishes = new int[capacity];
+		skips = new int[capacity];
+		listenMillis = new long[capacity];
+	}
+
+	/**This method moves an element of the min heap up until its parent is not greater.
+	 * @param heap An integer array with the slots in the heap<br>heap != null
+	 * @param values A double array with the values of the slots in the heap, in the same order<br>values != null
+	 * @param i An integer that represents the position of the element to move.
+	 */
+	private static void siftUp(int[] heap, double[] values, int i) {
+		while(i > 0 && values[(i-1)/2] > values[i]) {
+			swap(heap, values, i, (i-1)/2);
+			i = (i-1)/2;
+		}
+	}
+
+	/**This method moves the root of the min heap down until its children are not smaller.
+	 * @param heap An integer array with the slots in the heap<br>heap != null
+	 * @param values A double array with the values of the slots in the heap, in the same order<br>values != null
+	 * @param count An integer that represents the number of elements in the heap.
+	 */
+	private static void siftDown(int[] heap, double[] values, int count) {
+		int i = 0;
+		boolean done = false;
+		while(!done) {
+			int smallest = i;
+			int left = 2*i + 1;
+			int right = left + 1;
+			if(left < count && values[left] < values[smallest]) {
+				smallest = left;
+			}
+			if(right < count && values[right] < values[smallest]) {
+				smallest = right;
+			}
+			if(smallest != i) {
+				swap(heap, values, i, smallest);
+				i = smallest;
+			} else {
+				done = true;
+			}
+		}
+	}
+
+	/**This method exchanges two elements of the heap and their values.
+	 * @param heap An integer array with the slots in the heap<br>heap != null
+	 * @param values A double array with the values of the slots in the heap, in the same order<br>values != null
+	 * @param i An integer that represents the position of the first element.
+	 * @param j An integer that represents the position of the second element.
+	 */
+	private static void swap(int[] heap, double[] values, int i, int j) {
+		int slot = heap[i];
+		heap[i] = heap[j];
+		heap[j] = slot;
+		double value = values[i];
+		values[i] = values[j];
+		values[j] = value;
+	}
+}
@@ -0,0 +1,14 @@
+package model.musicPlayer;
+
+import java.util.ArrayList;
+
+public interface WatchListener {
+
+	/**This method is called every time a LibraryWatcher applies the changes of the files of a music folder.<br>
+	 * It is invoked from the watcher thread, so the implementations that touch the interface must use Platform.runLater.
+	 * @param folder The MusicFolder that changed.
+	 * @param added A Song ArrayList with the songs added to the folder, including the new Song of the files that changed.
+	 * @param removed A Song ArrayList with the songs removed from the folder, including the old Song of the files that changed.
+	 */
+	public void songsChanged(MusicFolder folder, ArrayList<Song> added, ArrayList<Song> removed);
+}
@@ -0,0 +1,329 @@
+package model.paint;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.ToLongFunction;
+
+public class GalleryCache<V> {
+
+	/**
+	 * The number of background threads that decode the images ahead of time.
+	 */
+	public final static int PREFETCH_THREADS = 2;
+
+	private LinkedHashMap<Integer, Entry> entries;
+	private IntFunction<V> loader;
+	private ToLongFunction<V> weigher;
+	private long maxPixels;
+	private long pixels;
+	private long hits;
+	private long misses;
+	private long evictions;
+	private int generation;
+	private ExecutorService pool;
+	private ExecutorService requests;
+
+	/**
+	 * Constructor for GalleryCache class.
+	 * post: an empty cache is created, with its background threads ready to decode images. The images
+	 * requested by the user are decoded by a thread of their own, so they never wait behind the prefetched ones.
+	 * @param maxPixels the number of pixels of all the decoded images kept, the most recently used
+	 * image is kept even if it is bigger. It must be > 0.
+	 * @param loader the function that reads and decodes the image of a value of the gallery, it returns
+	 * null if the image cannot be read. It is called from the background threads, so it cannot touch the
+	 * interface.
+	 * @param weigher the function that returns the number of pixels of a decoded image.
+	 */
+	public GalleryCache(long maxPixels, IntFunction<V> loader, ToLongFunction<V> weigher) {
+		this.maxPixels = maxPixels;
+		this.loader = loader;
+		this.weigher = weigher;
+		entries = new LinkedHashMap<Integer, Entry>(16, 0.75f, true);
+		pool = Executors.newFixedThreadPool(PREFETCH_THREADS, new ThreadFactory() {
+			private int created = 0;
+			@Override
+			public synchronized Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "gallery-prefetch-" + (++created));
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		requests = Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "gallery-request");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * This method returns the decoded image of a value, decoding it in the calling thread if it was
+	 * not decoded yet. If it is being decoded in the background, the method waits for it instead of
+	 * decoding it again.
+	 * @param value the value of the image in the gallery.
+	 * @return the decoded image, or null if it could not be read.
+	 */
+	public V get(int value) {
+		return load(access(value));
+	}
+
+	/**
+	 * This method delivers the decoded image of a value without decoding it in the calling thread. If
+	 * the image is already decoded onReady receives it right away, otherwise it is decoded in the
+	 * background and onReady is run through the executor passed as parameter, for example
+	 * Platform::runLater. The image is decoded ahead of the prefetched ones that did not start yet.
+	 * @param value the value of the image in the gallery.
+	 * @param executor the executor that runs onReady when the image was not ready yet.
+	 * @param onReady the function that receives the decoded image, or null if it could not be read.
+	 */
+	public void request(int value, Executor executor, Consumer<V> onReady) {
+		final Entry entry = access(value);
+		if (entry.isDone()) {
+			onReady.accept(load(entry));
+		} else {
+			requests.execute(() -> {
+				V image = load(entry);
+				executor.execute(() -> onReady.accept(image));
+			});
+		}
+	}
+
+	/**
+	 * This method starts decoding the image of a value in the background, unless it is already
+	 * decoded or being decoded. The decoding is skipped if it did not start before the images around
+	 * another one are prefetched and the value is not among them.
+	 * @param value the value of the image in the gallery.
+	 */
+	public void prefetch(int value) {
+		Entry entry = null;
+		synchronized (this) {
+			Entry known = entries.get(value); //it becomes the most recently used, so it is not the next one discarded
+			if (known == null) {
+				entry = new Entry(value);
+				entries.put(value, entry);
+				known = entry;
+			}
+			known.generation = generation;
+		}
+		if (entry != null) {
+			final Entry queued = entry;
+			pool.execute(() -> prefetched(queued));
+		}
+	}
+
+	/**
+	 * This method runs the decoding of a prefetched entry in a background thread, unless it became
+	 * stale, in which case it is discarded without decoding it.
+	 * @param entry the prefetched entry.
+	 */
+	private void prefetched(Entry entry) {
+		boolean stale;
+		synchronized (this) {
+			stale = entry.generation != generation && !entry.isDone();
+			if (stale && entries.get(entry.value) == entry) {
+				entries.remove(entry.value);
+			}
+		}
+		if (!stale) {
+			entry.run();
+		}
+	}
+
+	/**
+	 * This method starts decoding in the background the selected image of a list and the images
+	 * around it, wrapping around the ends of the list like its selection does. When nothing is
+	 * selected, the first image is taken as the selected one. The images prefetched before that are not
+	 * around the selected one are no longer decoded if they did not start.
+	 * @param list the list of images of the gallery, it cannot be null.
+	 * @param radius the number of images decoded at each side of the selected one.
+	 */
+	public void prefetchAround(ListOfImages list, int radius) {
+		synchronized (this) {
+			generation++;
+		}
+		int size = list.size();
+		if (size > 0) {
+			int center = Math.max(0, list.getSelectedIndex());
+			prefetch(list.get(center).getValue());
+			for (int d = 1; d <= radius && d <= size / 2; d++) {
+				prefetch(list.get((center + d) % size).getValue());
+				prefetch(list.get((center - d + size) % size).getValue());
+			}
+		}
+	}
+
+	/**
+	 * This method returns the entry of a value, creating it if it was not in the cache, and counts
+	 * the request as a hit when the image is already decoded. A requested entry is never stale.
+	 * @param value the value of the image in the gallery.
+	 * @return entry the entry of the value.
+	 */
+	private synchronized Entry access(int value) {
+		Entry entry = entries.get(value);
+		if (entry == null) {
+			entry = new Entry(value);
+			entries.put(value, entry);
+		}
+		entry.generation = generation;
+		if (entry.isDone()) {
+			hits++;
+		} else {
+			misses++;
+		}
+		return entry;
+	}
+
+	/**
+	 * This method runs the decoding of an entry in the calling thread, unless a background thread
+	 * already started it, and waits for its image.
+	 * @param entry the entry to decode.
+	 * @return the decoded image, or null if it could not be read.
+	 */
+	private V load(Entry entry) {
+		entry.run();
+		V image = null;
+		try {
+			image = entry.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			image = null;
+		}
+		return image;
+	}
+
+	/**
+	 * This method adds the pixels of an image that has just been decoded and discards the least
+	 * recently used images until the cache fits in its pixels again. An image that could not be read
+	 * is not kept, so it is read again the next time it is needed.
+	 * @param entry the entry that has just been decoded.
+	 * @param image the decoded image, it can be null.
+	 */
+	private synchronized void decoded(Entry entry, V image) {
+		if (entries.get(entry.value) == entry && image == null) {
+			entries.remove(entry.value);
+		} else if (entries.get(entry.value) == entry) {
+			entry.pixels = weigher.applyAsLong(image);
+			pixels += entry.pixels;
+			Iterator<Entry> it = entries.values().iterator();
+			int remaining = entries.size();
+			while (pixels > maxPixels && remaining > 1) {
+				Entry eldest = it.next();
+				remaining--;
+				if (eldest.isDone() && eldest != entry) {
+					it.remove();
+					pixels -= eldest.pixels;
+					evictions++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * This method discards all the decoded images. The metrics are not reset.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		pixels = 0;
+	}
+
+	/**
+	 * This method stops the background threads. The images that were being decoded are discarded.
+	 */
+	public void close() {
+		pool.shutdownNow();
+		requests.shutdownNow();
+		clear();
+	}
+
+	/**
+	 * This method tells whether the image of a value is decoded and kept in the cache.
+	 * @param value the value of the image in the gallery.
+	 * @return true if the image can be obtained without waiting for it.
+	 */
+	public synchronized boolean isReady(int value) {
+		Entry entry = entries.get(value);
+		return entry != null && entry.isDone();
+	}
+
+	/**
+	 * @return size the number of images kept or being decoded.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return pixels the number of pixels of the decoded images kept.
+	 */
+	public synchronized long getPixels() {
+		return pixels;
+	}
+
+	/**
+	 * @return maxPixels the number of pixels the cache can keep.
+	 */
+	public long getMaxPixels() {
+		return maxPixels;
+	}
+
+	/**
+	 * @return hits the number of requests for an image that was already decoded.
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return misses the number of requests that had to wait for the image to be decoded.
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return evictions the number of images discarded to respect the pixels of the cache.
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * The decoding of the image of a value, which is run once by the first thread that needs it.
+	 */
+	private class Entry extends FutureTask<V> {
+		private int value;
+		private long pixels;
+		private int generation;
+
+		/**
+		 * Constructor for Entry class.
+		 * post: an entry that decodes the image of value with the loader of the cache is created, it is not run yet.
+		 * @param value the value of the image.
+		 */
+		private Entry(int value) {
+			super(() -> loader.apply(value));
+			this.value = value;
+		}
+
+		@Override
+		protected void done() {
+			V image = null;
+			if (!isCancelled()) {
+				try {
+					image = get();
+				} catch (InterruptedException | ExecutionException e) {
+					image = null;
+				}
+			}
+			decoded(this, image);
+		}
+	}
+}
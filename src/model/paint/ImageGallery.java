@@ -0,0 +1,310 @@
+package model.paint;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ImageGallery implements Measurable {
+
+	/**
+	 * The extensions of the files that are added to the gallery, in lower case.
+	 */
+	public final static String[] EXTENSIONS = {".jpg", ".jpeg", ".png", ".gif", ".bmp"};
+	/**
+	 * The order of the files of a folder in the gallery: by name, comparing the numbers inside the
+	 * names by their value, so "img2" comes before "img10".
+	 */
+	public final static Comparator<File> NAME_ORDER = (a, b) -> {
+		int order = compareNames(a.getName(), b.getName());
+		return order != 0 ? order : a.compareTo(b);
+	};
+
+	private File folder;
+	private ThumbnailCache thumbnails;
+	private ArrayList<File> files;
+	private HashSet<File> excluded;
+	private ListOfImages list;
+	private TreeOfImages tree;
+	private volatile boolean cancelled;
+	private CountDownLatch finished;
+
+	/**
+	 * Constructor for ImageGallery class. The gallery starts empty, its images are added by scan.
+	 * post: an empty gallery of the folder is created.
+	 * @param folder the folder whose images, and the images of its subfolders, make the gallery.
+	 * @param thumbnails the cache where the thumbnails of the images are kept, it can be null and
+	 * then the images are shown from their own files.
+	 * @throws FileNotFoundException if the folder doesn't exist.
+	 */
+	public ImageGallery(File folder, ThumbnailCache thumbnails) throws FileNotFoundException {
+		if (!folder.isDirectory()) {
+			throw new FileNotFoundException(folder.getPath());
+		}
+		this.folder = folder;
+		this.thumbnails = thumbnails;
+		files = new ArrayList<File>();
+		excluded = new HashSet<File>();
+		list = new ListOfImages();
+		tree = new TreeOfImages();
+		finished = new CountDownLatch(1);
+	}
+
+	/**
+	 * This method starts scanning the folder in a background thread and returns immediately. Every
+	 * image found is added to the list and the tree right away, so the gallery can be browsed while
+	 * the folder is being scanned. The folders are visited in the NAME_ORDER. The thumbnails are
+	 * not created here but when the images are shown, so only the images around the selected one
+	 * get one. When all the images are added, the thumbnail cache is pruned.
+	 * pre: the gallery has not been scanned before.
+	 * post: the images of the folder will be added to the gallery and onFinished will be run.
+	 * @param onFinished the function run from the background thread when the scan is over, it can be null.
+	 */
+	public void scan(final Runnable onFinished) {
+		Thread scanner = new Thread(() -> {
+			try {
+				addImages();
+				if (thumbnails != null && !cancelled) {
+					thumbnails.prune();
+				}
+			} finally {
+				finished.countDown();
+				if (onFinished != null) {
+					onFinished.run();
+				}
+			}
+		}, "gallery-scanner");
+		scanner.setDaemon(true);
+		scanner.start();
+	}
+
+	/**
+	 * This method walks the folder and its subfolders, adding every image in the NAME_ORDER.
+	 */
+	private void addImages() {
+		ArrayDeque<File> pending = new ArrayDeque<File>();
+		pending.push(folder);
+		while (!pending.isEmpty() && !cancelled) {
+			File[] children = pending.pop().listFiles();
+			if (children != null) {
+				Arrays.sort(children, NAME_ORDER);
+				for (int i = children.length - 1; i >= 0; i--) {
+					if (children[i].isDirectory()) {
+						pending.push(children[i]);
+					}
+				}
+				for (File child : children) {
+					if (!cancelled && child.isFile() && isImage(child) && !excluded.contains(child.getAbsoluteFile())) {
+						add(child);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * This method adds an image to the gallery. Its value in the list and in the tree is its position
+	 * in the gallery.
+	 * @param image the image file.
+	 */
+	private synchronized void add(File image) {
+		int value = files.size();
+		files.add(image);
+		list.addNode(value);
+		tree.addNode(value);
+	}
+
+	/**
+	 * This method compares two file names, taking every run of digits as a number, so the images
+	 * numbered without leading zeros are shown in the order of their numbers. The rest of the names
+	 * is compared by its characters, and the names that are still equal by the leading zeros of their
+	 * first number that has a different number of them.
+	 * @param a the first name, it cannot be null.
+	 * @param b the second name, it cannot be null.
+	 * @return a negative number if a comes first, a positive one if b comes first, 0 if they are equal.
+	 */
+	public static int compareNames(String a, String b) {
+		int i = 0;
+		int j = 0;
+		int order = 0;
+		int zeros = 0;
+		while (order == 0 && i < a.length() && j < b.length()) {
+			char ca = a.charAt(i);
+			char cb = b.charAt(j);
+			if (Character.isDigit(ca) && Character.isDigit(cb)) {
+				int startA = i;
+				int startB = j;
+				while (i < a.length() && a.charAt(i) == '0') {
+					i++;
+				}
+				while (j < b.length() && b.charAt(j) == '0') {
+					j++;
+				}
+				int digitsA = i;
+				int digitsB = j;
+				while (i < a.length() && Character.isDigit(a.charAt(i))) {
+					i++;
+				}
+				while (j < b.length() && Character.isDigit(b.charAt(j))) {
+					j++;
+				}
+				order = Integer.compare(i - digitsA, j - digitsB);
+				for (int k = 0; order == 0 && k < i - digitsA; k++) {
+					order = Character.compare(a.charAt(digitsA + k), b.charAt(digitsB + k));
+				}
+				if (zeros == 0) {
+					zeros = Integer.compare(digitsA - startA, digitsB - startB);
+				}
+			} else {
+				order = Character.compare(ca, cb);
+				i++;
+				j++;
+			}
+		}
+		if (order == 0) {
+			order = Integer.compare(a.length() - i, b.length() - j);
+		}
+		return order != 0 ? order : zeros;
+	}
+
+	/**
+	 * This method tells whether a file is added to the gallery by its extension.
+	 * @param file the file, it cannot be null.
+	 * @return true if the name of the file ends with one of the EXTENSIONS.
+	 */
+	public static boolean isImage(File file) {
+		String name = file.getName().toLowerCase();
+		boolean image = false;
+		for (int i = 0; i < EXTENSIONS.length && !image; i++) {
+			image = name.endsWith(EXTENSIONS[i]);
+		}
+		return image;
+	}
+
+	/**
+	 * This method leaves a file out of the gallery, for example a file that the program writes in the
+	 * folder of the gallery.
+	 * pre: the gallery has not been scanned yet.
+	 * post: the file will not be added to the gallery.
+	 * @param file the file, it cannot be null.
+	 */
+	public void exclude(File file) {
+		excluded.add(file.getAbsoluteFile());
+	}
+
+	/**
+	 * This method stops the scan, the images already added stay in the gallery.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * This method waits until the scan is over.
+	 * @param timeout the longest time to wait.
+	 * @param unit the unit of timeout.
+	 * @return true if the scan is over, false if the time ran out.
+	 * @throws InterruptedException if the thread was interrupted while waiting.
+	 */
+	public boolean awaitScan(long timeout, TimeUnit unit) throws InterruptedException {
+		return finished.await(timeout, unit);
+	}
+
+	/**
+	 * This method selects the next image of the list, going back to the first one after the last.
+	 * @return the value of the selected image, or -1 if the gallery is empty.
+	 * @see ListOfImages#selectNext()
+	 */
+	public synchronized int selectNext() {
+		list.selectNext();
+		return list.lastSelected() == null ? -1 : list.lastSelected().getValue();
+	}
+
+	/**
+	 * This method selects the previous image of the list, going to the last one before the first.
+	 * @return the value of the selected image, or -1 if the gallery is empty.
+	 * @see ListOfImages#selectPrevious()
+	 */
+	public synchronized int selectPrevious() {
+		list.selectPrevious();
+		return list.lastSelected() == null ? -1 : list.lastSelected().getValue();
+	}
+
+	/**
+	 * This method picks an image uniformly at random from the tree.
+	 * @return the value of the picked image, or -1 if the gallery is empty.
+	 * @see TreeOfImages#selectRandomNode()
+	 */
+	public synchronized int selectRandom() {
+		ImageOnTree node = tree.selectRandomNode();
+		return node == null ? -1 : node.getValue();
+	}
+
+	/**
+	 * This method starts decoding the selected image of the list and the images around it.
+	 * @param cache the cache where the images are decoded.
+	 * @param radius the number of images decoded at each side of the selected one.
+	 * @see GalleryCache#prefetchAround(ListOfImages, int)
+	 */
+	public synchronized void prefetchAround(GalleryCache<?> cache, int radius) {
+		cache.prefetchAround(list, radius);
+	}
+
+	/**
+	 * This method returns the file of an image of the gallery.
+	 * pre: 0 <= value < size().
+	 * @param value the value of the image.
+	 * @return the image file.
+	 */
+	public synchronized File getFile(int value) {
+		return files.get(value);
+	}
+
+	/**
+	 * This method returns the file to show for an image: its thumbnail, created if it is missing, or
+	 * the image file itself when the gallery has no thumbnail cache or the thumbnail cannot be created.
+	 * pre: 0 <= value < size().
+	 * @param value the value of the image.
+	 * @return the file to read to show the image.
+	 */
+	public File getDisplayFile(int value) {
+		File image = getFile(value);
+		File shown = null;
+		if (thumbnails != null) {
+			try {
+				shown = thumbnails.getThumbnail(image);
+			} catch (IOException e) {
+				shown = null;
+			}
+		}
+		return shown != null ? shown : image;
+	}
+
+	/**
+	 * @return the number of images added to the gallery.
+	 */
+	@Override
+	public synchronized int size() {
+		return files.size();
+	}
+
+	/**
+	 * @return folder the folder of the gallery.
+	 */
+	public File getFolder() {
+		return folder;
+	}
+
+	/**
+	 * @return thumbnails the thumbnail cache of the gallery, it can be null.
+	 */
+	public ThumbnailCache getThumbnails() {
+		return thumbnails;
+	}
+}
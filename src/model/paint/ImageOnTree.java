@@ -4,31 +4,72 @@ public class ImageOnTree extends Image {
 
 	private ImageOnTree left;
 	private ImageOnTree right;
-	
+	private int size;
+
 	/**
 	 * Constructor for Node class.
+	 * post: the new node is a leaf, so the size of its subtree is 1.
 	 * @param val this integer is set to the value attribute.
 	 */
 	public ImageOnTree(int val) {
 		super(val);
+		size = 1;
 	}
-	
+
 	//Getters and setters for left, right and value attributes:
-	
+
 	public ImageOnTree getLeft() {
 		return left;
 	}
 
+	/**
+	 * Setter for the left child.
+	 * post: the size of the subtree of this node is updated, the sizes of its ancestors are not.
+	 * @param left the new left child, it can be null.
+	 */
 	public void setLeft(ImageOnTree left) {
 		this.left = left;
+		updateSize();
 	}
 
 	public ImageOnTree getRight() {
 		return right;
 	}
 
+	/**
+	 * Setter for the right child.
+	 * post: the size of the subtree of this node is updated, the sizes of its ancestors are not.
+	 * @param right the new right child, it can be null.
+	 */
 	public void setRight(ImageOnTree right) {
 		this.right = right;
+		updateSize();
+	}
+
+	/**
+	 * Getter method for the size of the subtree.
+	 * @return size the number of nodes of the subtree whose root is this node, counting it.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * This method computes again the size of the subtree from the sizes of the children. It is called
+	 * on the way up after a node is added below this one.
+	 * post: size == 1 + size of left + size of right.
+	 */
+	void updateSize() {
+		size = 1 + size(left) + size(right);
 	}
-	
+
+	/**
+	 * This method returns the size of a subtree that can be empty.
+	 * @param node the root of the subtree, it can be null.
+	 * @return the number of nodes of the subtree, 0 if node == null.
+	 */
+	static int size(ImageOnTree node) {
+		return node == null ? 0 : node.size;
+	}
+
 }
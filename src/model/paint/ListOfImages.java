@@ -1,52 +1,54 @@
 package model.paint;
 
+import java.util.ArrayList;
+
 public class ListOfImages implements Measurable {
 
+	/**
+	 * The distance between two nodes of the skip index. A jump to a position walks at most
+	 * SKIP_INTERVAL - 1 nodes from the closest indexed one.
+	 */
+	public final static int SKIP_INTERVAL = 64;
+
 	private ImageOnList first;
+	private ImageOnList last;
+	private int size;
+	private ImageOnList selected;
+	private int selectedIndex;
+	private ArrayList<ImageOnList> skipIndex;
 
 	/**
 	 * Basic constructor for ListOfImages class. post: a new instance of List with a
 	 * ListNode reference as attribute first equals to null can be created.
 	 */
-		
-	public ListOfImages() {
 
+	public ListOfImages() {
+		skipIndex = new ArrayList<ImageOnList>();
+		selectedIndex = -1;
 	}
 
 	/**
 	 * This method adds a new node, which value is passed as parameter, to the
 	 * doubly linked list. If the first reference == null, the new node is going to
-	 * be the first, otherwise, the node is going to be added to the end of the list
-	 * by calling another method. post: the new node is going to be added to the
+	 * be the first, otherwise, the node is going to be linked after the last one,
+	 * which takes O(1) time. post: the new node is going to be added to the
 	 * list.
-	 * 
+	 *
 	 * @param value is the integer which the new node will be created with.
-	 * @see #addNode(ListNode, ListNode)
 	 */
 	public void addNode(int value) {
 		ImageOnList n = new ImageOnList(value);
 		if (first == null) {
 			first = n;
 		} else {
-			addNode(n, first);
+			last.setNext(n);
+			n.setPrevious(last);
 		}
-	}
-
-	/**
-	 * This method adds a new node to the doubly linked list in a recursive way.
-	 * pre: n != null && current != null. post: the node is going to be added at the
-	 * end of the list.
-	 * 
-	 * @param n       the node to be added.
-	 * @param current the needed parameter to make this method recursive.
-	 */
-	private void addNode(ImageOnList n, ImageOnList current) {
-		if(current.getNext() != null) {
-			addNode(n, current.getNext());
-		} else {
-			current.setNext(n);
-			n.setPrevious(current);
+		if (size % SKIP_INTERVAL == 0) {
+			skipIndex.add(n);
 		}
+		last = n;
+		size++;
 	}
 
 	/**
@@ -57,107 +59,155 @@ public class ListOfImages implements Measurable {
 	}
 
 	/**
-	 * Setter method for <first> attribute.
+	 * Setter method for <first> attribute. The nodes linked after it become the list, so the last
+	 * node, the size, the selected node and the skip index are found again walking them once.
+	 * post: the list is made of first and the nodes that follow it.
 	 * @param first the object of the type ImageOnList to replace the list's first object reference.
 	 */
 	public void setFirst(ImageOnList first) {
 		this.first = first;
+		last = null;
+		size = 0;
+		selected = null;
+		selectedIndex = -1;
+		skipIndex.clear();
+		ImageOnList current = first;
+		while (current != null) {
+			if (size % SKIP_INTERVAL == 0) {
+				skipIndex.add(current);
+			}
+			if (selected == null && current.isSelected()) {
+				selected = current;
+				selectedIndex = size;
+			}
+			last = current;
+			size++;
+			current = current.getNext();
+		}
 	}
 
-	
+
 	/**
-	 * This method counts every object in the list and returns that value.
+	 * This method returns the number of objects in the list, which is counted as they are added.
 	 * post: the returned value is going to be the total number of nodes in the list.
 	 * @return size the size of the list.
 	 */
 	@Override
 	public int size() {
-		ImageOnList current = first;
-		int size = 0;
-		while (current != null) {
-			size++;
-			current = current.getNext();
-		}
 		return size;
 	}
 
 	/**
-	 * This method sets the <selected> attribute from the last selected object in the list to false, 
-	 * and sets its next's to true. When none of the nodes in the list has been selected in the list 
-	 * ever before, the selected item will be the first node of the list. 
-	 * pre: there must be just 0 or 1 items selected in the list, otherwise the selection function is 
+	 * This method sets the <selected> attribute from the last selected object in the list to false,
+	 * and sets its next's to true. When none of the nodes in the list has been selected in the list
+	 * ever before, the selected item will be the first node of the list. After the last node the
+	 * selection goes back to the first one.
+	 * pre: the nodes are selected only through this list, otherwise the selection function is
 	 * going to go wrong.
 	 * post: one and only one item in the list will be selected.
 	 * @see #lastSelected()
 	 */
 	public void selectNext() {
-		ImageOnList last = lastSelected();
-		if (last != null) {
-			last.setSelected(false);
-			if (last.getNext() != null) {
-				last.getNext().setSelected(true);
-			} else {
-				first.setSelected(true);
-			}
+		if (selected != null && selected.getNext() != null) {
+			select(selected.getNext(), selectedIndex + 1);
 		} else {
-			first.setSelected(true);
+			select(first, 0);
 		}
 	}
 
 	/**
-	 * This method sets the <selected> attribute from the last selected object in the list to false, 
-	 * and sets its previous's to true. When none of the nodes in the list has been selected in the list 
-	 * ever before, the selected item will be the first node of the list. 
-	 * pre: there must be just 0 or 1 items selected in the list, otherwise the selection function is 
+	 * This method sets the <selected> attribute from the last selected object in the list to false,
+	 * and sets its previous's to true. When none of the nodes in the list has been selected in the list
+	 * ever before, the selected item will be the first node of the list. Before the first node the
+	 * selection goes to the last one.
+	 * pre: the nodes are selected only through this list, otherwise the selection function is
 	 * going to go wrong.
 	 * post: one and only one item in the list will be selected.
 	 * @see #lastSelected()
 	 */
 	public void selectPrevious() {
-		ImageOnList last = lastSelected();
-		if (last != null) {
-			last.setSelected(false);
-			if (last.getPrevious() != null) {
-				last.getPrevious().setSelected(true);
-			} else {
-				getLastNode().setSelected(true);
-			}
+		if (selected == null) {
+			select(first, 0);
+		} else if (selected.getPrevious() != null) {
+			select(selected.getPrevious(), selectedIndex - 1);
 		} else {
-			first.setSelected(true);
+			select(last, size - 1);
+		}
+	}
+
+	/**
+	 * This method selects the object at a position of the list, starting from the closest node of
+	 * the skip index.
+	 * pre: 0 <= index < size().
+	 * post: one and only one item in the list will be selected, the one at the requested position.
+	 * @param index the position of the object to select, 0 is the first one.
+	 * @throws IndexOutOfBoundsException if the index is not a position of the list.
+	 */
+	public void selectAt(int index) {
+		select(get(index), index);
+	}
+
+	/**
+	 * This method moves the selection to another node.
+	 * post: node is the only selected item of the list, unless it is null.
+	 * @param node the node to select, it can be null only when the list is empty.
+	 * @param index the position of the node in the list.
+	 */
+	private void select(ImageOnList node, int index) {
+		if (selected != null) {
+			selected.setSelected(false);
+		}
+		selected = node;
+		selectedIndex = node == null ? -1 : index;
+		if (node != null) {
+			node.setSelected(true);
 		}
 	}
-	
+
+	/**
+	 * This method returns the object at a position of the list. It starts from the node of the skip
+	 * index right before the position, so it walks less than SKIP_INTERVAL nodes.
+	 * pre: 0 <= index < size().
+	 * @param index the position of the object, 0 is the first one.
+	 * @return the object at the requested position.
+	 * @throws IndexOutOfBoundsException if the index is not a position of the list.
+	 * @see #SKIP_INTERVAL
+	 */
+	public ImageOnList get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		ImageOnList current = skipIndex.get(index / SKIP_INTERVAL);
+		for (int i = index % SKIP_INTERVAL; i > 0; i--) {
+			current = current.getNext();
+		}
+		return current;
+	}
+
 	/**
 	 * If the first reference != null, this method returns the last object from the list, otherwise it returns null.
 	 * @return last object from a not-empty list or null.
 	 */
 	public ImageOnList getLastNode() {
-		if(first != null) {
-			ImageOnList ln = first;
-			while(ln.getNext() != null) {
-				ln = ln.getNext();
-			}
-			return ln;
-		} 
-		return null;
-	}		
-	
+		return last;
+	}
+
 	/**
-	 * If the first reference != null, this method returns the last object from the list, otherwise it returns null.
-	 * @return selected which can be null only when the list of images is empty, otherwise it's going to be the last 
-	 * selected image.
+	 * If the first reference != null, this method returns the selected object from the list, otherwise it returns null.
+	 * @return selected which can be null only when the list of images is empty or nothing was selected yet, otherwise
+	 * it's going to be the last selected image.
 	 */
 	public ImageOnList lastSelected() {
-		ImageOnList selected = null; //the last node selected
-		ImageOnList current = first; //the iterator
-		while(current != null && selected == null) { //it iterates over the list till the last selected node is found
-			if(current.isSelected()) { // verifies if the actual node was the last selected
-				selected = current; // updates the selected node reference
-			}
-			current = current.getNext(); // advances over the list
-		}
-		return selected;// returns null if none of the nodes was selected, otherwise it returns the last
-						// selected
+		return selected;
+	}
+
+	/**
+	 * This method returns the position of the selected object, for example to show which image of
+	 * the gallery is being displayed.
+	 * @return selectedIndex the position of the selected object, or -1 if none is selected.
+	 */
+	public int getSelectedIndex() {
+		return selectedIndex;
 	}
 
 }
@@ -0,0 +1,227 @@
+package model.paint;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.ImageIO;
+
+public class ThumbnailCache {
+
+	/**
+	 * The bytes of thumbnails kept in the folder of a cache when no other size is given.
+	 */
+	public final static long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+	private File directory;
+	private int maxWidth;
+	private int maxHeight;
+	private long maxBytes;
+	private Set<String> inUse;
+	private AtomicLong created;
+	private AtomicLong reused;
+	private AtomicLong pruned;
+
+	/**
+	 * Constructor for ThumbnailCache class. The thumbnails are kept in a folder, so they are reused
+	 * by the next executions as long as their images do not change. The folder keeps up to
+	 * DEFAULT_MAX_BYTES of thumbnails.
+	 * post: a cache that keeps its thumbnails in directory is created, the directory is created when
+	 * the first thumbnail is written.
+	 * @param directory the folder where the thumbnails are written.
+	 * @param maxWidth the largest width of a thumbnail, in pixels. It must be > 0.
+	 * @param maxHeight the largest height of a thumbnail, in pixels. It must be > 0.
+	 */
+	public ThumbnailCache(File directory, int maxWidth, int maxHeight) {
+		this(directory, maxWidth, maxHeight, DEFAULT_MAX_BYTES);
+	}
+
+	/**
+	 * Constructor for ThumbnailCache class. The thumbnails are kept in a folder, so they are reused
+	 * by the next executions as long as their images do not change.
+	 * post: a cache that keeps its thumbnails in directory is created, the directory is created when
+	 * the first thumbnail is written.
+	 * @param directory the folder where the thumbnails are written.
+	 * @param maxWidth the largest width of a thumbnail, in pixels. It must be > 0.
+	 * @param maxHeight the largest height of a thumbnail, in pixels. It must be > 0.
+	 * @param maxBytes the bytes of thumbnails kept in the folder by prune. It must be >= 0.
+	 */
+	public ThumbnailCache(File directory, int maxWidth, int maxHeight, long maxBytes) {
+		this.directory = directory;
+		this.maxWidth = maxWidth;
+		this.maxHeight = maxHeight;
+		this.maxBytes = maxBytes;
+		inUse = ConcurrentHashMap.newKeySet();
+		created = new AtomicLong();
+		reused = new AtomicLong();
+		pruned = new AtomicLong();
+	}
+
+	/**
+	 * This method returns the thumbnail of an image, creating it if there is none for the current
+	 * version of the image. The thumbnail keeps the proportions of the image and fits in the largest
+	 * width and height of the cache, images that already fit are not enlarged. It is written to a
+	 * temporary file and then moved, so many threads can ask for the same thumbnail. The modification
+	 * time of a reused thumbnail is updated, so prune discards the thumbnails used the longest time ago,
+	 * and the thumbnails returned by this cache are never pruned by it.
+	 * @param image the image file, it cannot be null.
+	 * @return thumbnail the file of the thumbnail, or null if the image cannot be read.
+	 * @throws IOException if the image or the thumbnail could not be read or written.
+	 */
+	public File getThumbnail(File image) throws IOException {
+		String key = keyOf(image);
+		File thumbnail = new File(directory, key + ".jpg");
+		if (!thumbnail.exists()) {
+			thumbnail = new File(directory, key + ".png");
+		}
+		if (thumbnail.exists()) {
+			thumbnail.setLastModified(System.currentTimeMillis());
+			reused.incrementAndGet();
+		} else {
+			thumbnail = create(image, key);
+		}
+		if (thumbnail != null) {
+			inUse.add(thumbnail.getName());
+		}
+		return thumbnail;
+	}
+
+	/**
+	 * This method reads an image, scales it down and writes its thumbnail. The images with
+	 * transparency are written as PNG, the other ones as JPEG.
+	 * @param image the image file.
+	 * @param key the name of the thumbnail without extension.
+	 * @return thumbnail the file of the new thumbnail, or null if the image cannot be read.
+	 * @throws IOException if the image could not be read or the thumbnail could not be written.
+	 */
+	private File create(File image, String key) throws IOException {
+		BufferedImage source = ImageIO.read(image);
+		File thumbnail = null;
+		if (source != null) {
+			double scale = Math.min(1.0, Math.min(maxWidth / (double)source.getWidth(), maxHeight / (double)source.getHeight()));
+			int width = Math.max(1, (int)Math.round(source.getWidth() * scale));
+			int height = Math.max(1, (int)Math.round(source.getHeight() * scale));
+			boolean alpha = source.getColorModel().hasAlpha();
+			BufferedImage scaled = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+			Graphics2D g = scaled.createGraphics();
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			g.drawImage(source, 0, 0, width, height, null);
+			g.dispose();
+			String format = alpha ? "png" : "jpg";
+			directory.mkdirs();
+			File temp = File.createTempFile(key, ".tmp", directory);
+			try {
+				ImageIO.write(scaled, format, temp);
+				thumbnail = new File(directory, key + "." + format);
+				Files.move(temp.toPath(), thumbnail.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				temp.delete();
+			}
+			created.incrementAndGet();
+		}
+		return thumbnail;
+	}
+
+	/**
+	 * This method deletes the thumbnails used the longest time ago until the thumbnails of the folder
+	 * take up to the bytes of the cache, so the thumbnails of images that were changed, deleted or
+	 * no longer shown do not pile up in the folder. The thumbnails returned by getThumbnail in this
+	 * execution are kept, so the images being shown never lose their thumbnails.
+	 * post: the thumbnails of the folder take up to maxBytes, or only the ones returned by this cache are left.
+	 * @return deleted the number of thumbnails deleted.
+	 */
+	public int prune() {
+		File[] thumbnails = directory.listFiles((dir, name) -> name.endsWith(".jpg") || name.endsWith(".png"));
+		int deleted = 0;
+		if (thumbnails != null) {
+			long[] modified = new long[thumbnails.length];
+			long bytes = 0;
+			Integer[] order = new Integer[thumbnails.length];
+			for (int i = 0; i < thumbnails.length; i++) {
+				modified[i] = thumbnails[i].lastModified();
+				bytes += thumbnails[i].length();
+				order[i] = i;
+			}
+			Arrays.sort(order, Comparator.comparingLong(i -> modified[i]));
+			for (int i = 0; i < order.length && bytes > maxBytes; i++) {
+				File thumbnail = thumbnails[order[i]];
+				long length = thumbnail.length();
+				if (!inUse.contains(thumbnail.getName()) && thumbnail.delete()) {
+					bytes -= length;
+					deleted++;
+				}
+			}
+		}
+		pruned.addAndGet(deleted);
+		return deleted;
+	}
+
+	/**
+	 * This method returns the name of the thumbnail of an image. It depends on the path, the size and
+	 * the modification time of the image and on the largest size of the thumbnails, so a thumbnail is
+	 * created again when any of them changes.
+	 * @param image the image file, it cannot be null.
+	 * @return key the hexadecimal SHA-1 of the version of the image.
+	 */
+	public String keyOf(File image) {
+		String version = image.getAbsolutePath() + "|" + image.length() + "|" + image.lastModified() + "|" + maxWidth + "x" + maxHeight;
+		StringBuilder key = new StringBuilder();
+		try {
+			for (byte b : MessageDigest.getInstance("SHA-1").digest(version.getBytes(StandardCharsets.UTF_8))) {
+				key.append(String.format("%02x", b));
+			}
+		} catch (NoSuchAlgorithmException e) {
+			//every Java platform is required to support SHA-1
+			throw new IllegalStateException(e);
+		}
+		return key.toString();
+	}
+
+	/**
+	 * @return directory the folder where the thumbnails are written.
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * @return created the number of thumbnails created by this cache.
+	 */
+	public long getCreated() {
+		return created.get();
+	}
+
+	/**
+	 * @return reused the number of thumbnails found already written.
+	 */
+	public long getReused() {
+		return reused.get();
+	}
+
+	/**
+	 * @return maxBytes the bytes of thumbnails kept in the folder.
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * @return pruned the number of thumbnails deleted by prune.
+	 */
+	public long getPruned() {
+		return pruned.get();
+	}
+}
@@ -1,23 +1,42 @@
 package model.paint;
 
+import java.util.ArrayList;
 import java.util.Random;
 
 public class TreeOfImages implements Measurable {
 
+	/**
+	 * The weight balance of the tree: no child of a node may have more than this fraction of the
+	 * nodes of its subtree. A subtree that breaks it after an insertion is rebuilt perfectly balanced,
+	 * so the height stays below log(n) / log(1 / ALPHA) + 1.
+	 */
+	public final static double ALPHA = 0.75;
+
 	private ImageOnTree root;
-	
+	private Random random;
+
 	/**
 	 * Basic constructor for Tree class.
 	 * post: it allows to create a Tree object with it's root reference == null.
 	 */
 	public TreeOfImages() {
-		
+		this(new Random());
 	}
-	
+
 	/**
-	 * This method changes the root reference to the new node created with the value passed as 
-	 * parameter in case that root == null, otherwise it just calls to the recursive method to 
-	 * add the new node.
+	 * Constructor for Tree class that picks the random nodes with the generator passed as parameter,
+	 * for example to repeat the same picks with a fixed seed.
+	 * post: it allows to create a Tree object with it's root reference == null.
+	 * @param random the generator used by selectRandomNode, it cannot be null.
+	 */
+	public TreeOfImages(Random random) {
+		this.random = random;
+	}
+
+	/**
+	 * This method changes the root reference to the new node created with the value passed as
+	 * parameter in case that root == null, otherwise it just calls to the method that adds the
+	 * new node below the root.
 	 * post: the new node created with required value is going to be added to the tree.
 	 * @param value the value needed to create the new node.
 	 * @see #addNode(ImageOnTree, ImageOnTree)
@@ -30,112 +49,175 @@ public class TreeOfImages implements Measurable {
 			addNode(n, root);
 		}
 	}
-	
+
 	/**
-	 * This method adds recursively a node passed as parameter into the tree.
-	 * pre: current cannot be null.
+	 * This method adds a node passed as parameter into the tree. The sizes of the subtrees on the
+	 * way down are updated and, if a subtree is no longer weight balanced, the highest one of them
+	 * is rebuilt, which takes O(log n) amortized time.
+	 * pre: current == getRoot() and current != null.
 	 * post: the new node is going to be added to the tree.
 	 * @param n the new node.
-	 * @param current the necessary node reference to apply recursion.
+	 * @param current the root of the tree, where the search for the place of the new node starts.
+	 * @see #ALPHA
 	 */
 	public void addNode(ImageOnTree n, ImageOnTree current) {
-		if(n.getValue() <= current.getValue()) {
-			if(current.getLeft() == null) {
-				current.setLeft(n);
+		ArrayList<ImageOnTree> path = new ArrayList<ImageOnTree>();
+		boolean added = false;
+		while(!added) {
+			path.add(current);
+			if(n.getValue() <= current.getValue()) {
+				if(current.getLeft() == null) {
+					current.setLeft(n);
+					added = true;
+				} else {
+					current = current.getLeft();
+				}
 			} else {
-				addNode(n, current.getLeft());
+				if(current.getRight() == null) {
+					current.setRight(n);
+					added = true;
+				} else {
+					current = current.getRight();
+				}
 			}
-		} else {
-			if(current.getRight() == null) {
-				current.setRight(n);
+		}
+		for(int i = path.size() - 2; i >= 0; i--) {
+			path.get(i).updateSize();
+		}
+		int scapegoat = -1;
+		for(int i = 0; i < path.size() && scapegoat == -1; i++) {
+			ImageOnTree node = path.get(i);
+			int heavier = Math.max(ImageOnTree.size(node.getLeft()), ImageOnTree.size(node.getRight()));
+			if(heavier > ALPHA * node.getSize()) {
+				scapegoat = i;
+			}
+		}
+		if(scapegoat != -1) {
+			ImageOnTree rebuilt = rebuild(path.get(scapegoat));
+			if(scapegoat == 0) {
+				root = rebuilt;
+			} else if(path.get(scapegoat - 1).getLeft() == path.get(scapegoat)) {
+				path.get(scapegoat - 1).setLeft(rebuilt);
+			} else {
+				path.get(scapegoat - 1).setRight(rebuilt);
+			}
+		}
+	}
+
+	/**
+	 * This method rebuilds a subtree with the smallest possible height, keeping its nodes in order.
+	 * pre: subtree != null.
+	 * post: the returned node is the root of a perfectly balanced subtree with the same nodes.
+	 * @param subtree the root of the subtree to rebuild.
+	 * @return the new root of the subtree.
+	 */
+	private ImageOnTree rebuild(ImageOnTree subtree) {
+		ImageOnTree[] nodes = new ImageOnTree[subtree.getSize()];
+		ArrayList<ImageOnTree> stack = new ArrayList<ImageOnTree>();
+		ImageOnTree current = subtree;
+		int count = 0;
+		while(current != null || !stack.isEmpty()) {
+			if(current != null) {
+				stack.add(current);
+				current = current.getLeft();
 			} else {
-				addNode(n, current.getRight());
+				current = stack.remove(stack.size() - 1);
+				nodes[count++] = current;
+				current = current.getRight();
 			}
 		}
+		return build(nodes, 0, nodes.length - 1);
 	}
-	
-	
+
+	/**
+	 * This method links recursively the nodes of a sorted range as a balanced subtree.
+	 * post: the sizes of the subtree are updated, since the children are set from the bottom up.
+	 * @param nodes the nodes of the subtree in order.
+	 * @param low the first position of the range.
+	 * @param high the last position of the range.
+	 * @return the root of the balanced subtree, or null if the range is empty.
+	 */
+	private ImageOnTree build(ImageOnTree[] nodes, int low, int high) {
+		ImageOnTree middle = null;
+		if(low <= high) {
+			int mid = (low + high + 1) >>> 1;
+			middle = nodes[mid];
+			middle.setLeft(build(nodes, low, mid - 1));
+			middle.setRight(build(nodes, mid + 1, high));
+		}
+		return middle;
+	}
+
 	/**
-	 * This method just calls the recursive one only if root != null and returns 
-	 * a random node from the tree, otherwise it returns null.
-	 * @return a partly-random chosen node or null.
+	 * This method returns a node chosen uniformly at random, so every node of the tree has the same
+	 * probability of being picked. It takes O(log n) time.
+	 * @return a random node or null if the tree is empty.
+	 * @see #select(int)
 	 */
 	public ImageOnTree selectRandomNode() {
-		int size = size();
-		if(root == null) {
-			return null;
+		ImageOnTree selected = null;
+		if(root != null) {
+			selected = select(random.nextInt(root.getSize()));
 		}
-		return selectRandomNode(root, size);
+		return selected;
 	}
-	
+
 	/**
-	 * This method returns a random node from the tree if and only if root != null.
-	 * pre: root != null.
-	 * post: a partly random node from the tree will be returned.
-	 * @param current necessary parameter in order to apply recursion.
-	 * @param size the size or weight of the tree which is passed as parameter to this 
-	 * function mainly to avoid calling the size() method every time this method calls itself
-	 * and making it more efficient.
-	 * @return current the node which has been chosen by a random condition inside the method.
+	 * This method returns the node at a position of the tree in order, using the sizes of the
+	 * subtrees to descend directly to it.
+	 * pre: 0 <= index < size().
+	 * @param index the number of nodes that come before the requested one in order.
+	 * @return the node at the requested position.
+	 * @throws IndexOutOfBoundsException if the index is not a position of the tree.
 	 */
-	private ImageOnTree selectRandomNode(ImageOnTree current, int size) {
-		if(current != null) {
-			if(current.getRight() != null || current.getLeft() != null) {
-				if(1.0 / (Math.random()*(size+1)) <= 1.0/size) {
-					return current;
-				} else {
-					Random r = new Random();
-					if(r.nextBoolean()) {
-						if(current.getLeft() != null) {
-							return selectRandomNode(current.getLeft(), size);
-						}
-						return selectRandomNode(current.getRight(), size);
-					} else {
-						if(current.getRight() != null) {
-							return selectRandomNode(current.getRight(), size);
-						}
-						return selectRandomNode(current.getLeft(), size);
-					}
-				}
+	public ImageOnTree select(int index) {
+		if(index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+		}
+		ImageOnTree current = root;
+		int leftSize = ImageOnTree.size(current.getLeft());
+		while(index != leftSize) {
+			if(index < leftSize) {
+				current = current.getLeft();
 			} else {
-				return current;
+				index -= leftSize + 1;
+				current = current.getRight();
 			}
+			leftSize = ImageOnTree.size(current.getLeft());
 		}
-		return null;
+		return current;
 	}
-	
+
 	/**
-	 * This method returns the size or also called weight of the tree. In case that root == null
-	 * it returns 0, otherwise it calls the recursive method for size to calculate this value.
-	 * post: the returned value is the number of nodes in the tree.
-	 * @see #size(ImageOnTree)
+	 * This method returns the number of nodes whose value is smaller than the one passed as
+	 * parameter, which is the position where a node with that value is found in order. It takes
+	 * O(log n) time.
+	 * @param value the value to look for.
+	 * @return rank the number of nodes of the tree with a smaller value.
 	 */
-	@Override
-	public int size() {
-		if(root == null) {
-			return 0;
+	public int rank(int value) {
+		int rank = 0;
+		ImageOnTree current = root;
+		while(current != null) {
+			if(value <= current.getValue()) {
+				current = current.getLeft();
+			} else {
+				rank += ImageOnTree.size(current.getLeft()) + 1;
+				current = current.getRight();
+			}
 		}
-		return size(root);
+		return rank;
 	}
-	
+
 	/**
-	 * This recursive method calculates the weight of the tree.
-	 * pre: current != null
+	 * This method returns the size or also called weight of the tree, which is kept by the root.
 	 * post: the returned value is the number of nodes in the tree.
-	 * @param current the necessary parameter to make this function recursive.
-	 * @return size the correspondent weight of the tree.
 	 */
-	private int size(ImageOnTree current) {
-		int size = 1;
-		if(current.getLeft() != null) {
-			size += size(current.getLeft());
-		}
-		if(current.getRight() != null) {
-			size += size(current.getRight());
-		}
-		return size;
+	@Override
+	public int size() {
+		return ImageOnTree.size(root);
 	}
-	
+
 	/**
 	 * Getter method for root attribute.
 	 * @return root the reference for the root node of the tree.
@@ -143,5 +225,5 @@ public class TreeOfImages implements Measurable {
 	public ImageOnTree getRoot() {
 		return root;
 	}
-	
+
 }
@@ -0,0 +1,173 @@
+package threads;
+
+import javafx.animation.AnimationTimer;
+import javafx.beans.value.ChangeListener;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+import ui.PrimaryStageController;
+
+public class PlaybackProgressUpdater {
+
+	/** It represents music player interface controller.
+	 */
+	private PrimaryStageController psc;
+
+	/** It represents the media player whose progress is being shown.
+	 */
+	private MediaPlayer attached;
+
+	/** It represents the timer that refreshes the progress once per frame while the song is playing.
+	 */
+	private AnimationTimer timer;
+
+	/** It represents whether the current time changed since the progress was refreshed for the last time.
+	 */
+	private boolean dirty;
+
+	/** It represents whether the timer is running.
+	 */
+	private boolean running;
+
+	/** It represents whether the next song was already charged to crossfade it with the current one.
+	 */
+	private boolean advanced;
+
+	/** It represents the last second shown in the current time label, so the label is only rewritten when it changes.
+	 */
+	private long shownSecond;
+
+	/** It represents the last second shown in the duration label, so the label is only rewritten when it changes.
+	 */
+	private long shownTotal;
+
+	/** It represents the listener that marks the progress as outdated when the current time changes.
+	 */
+	private ChangeListener<Duration> timeListener;
+
+	/** It represents the listener that starts and stops the timer when the song is played and paused.
+	 */
+	private ChangeListener<MediaPlayer.Status> statusListener;
+
+	/** PlaybackProgressUpdater constructor method that receives the music player interface controller as parameter.
+	 * @param psc A PrimaryStageController that represents the music player interface controller<br>psc != null
+	 */
+	public PlaybackProgressUpdater(PrimaryStageController psc) {
+		this.psc = psc;
+		timer = new AnimationTimer() {
+			@Override
+			public void handle(long now) {
+				if(dirty) {
+					refresh();
+				}
+			}
+		};
+		timeListener = (obs, oldTime, newTime) -> {
+			dirty = true;
+			if(!running) {
+				refresh();
+			}
+		};
+		statusListener = (obs, oldStatus, newStatus) -> {
+			if(newStatus == MediaPlayer.Status.PLAYING) {
+				startTimer();
+			} else {
+				stopTimer();
+				refresh();
+			}
+		};
+	}
+
+	/** This method moves the updater to a new media player. It must be called every time the music player charges another song, from the
+	 * JavaFX application thread. The progress is refreshed when the current time of the media player changes, at most once per frame,
+	 * and the next song is charged when the media player reaches the end of the current one, or earlier when the music player has a
+	 * crossfade. Nothing runs while the song is paused.
+	 * @param mediaPlayer The MediaPlayer that plays the current song<br>mediaPlayer != null
+	 */
+	public void attach(MediaPlayer mediaPlayer) {
+		detach();
+		attached = mediaPlayer;
+		advanced = false;
+		shownSecond = -1;
+		shownTotal = -1;
+		mediaPlayer.currentTimeProperty().addListener(timeListener);
+		mediaPlayer.statusProperty().addListener(statusListener);
+		mediaPlayer.setOnEndOfMedia(psc.getMusicPlayer()::playNext);
+		mediaPlayer.setOnReady(this::refresh);
+		if(mediaPlayer.getStatus() == MediaPlayer.Status.PLAYING) {
+			startTimer();
+		}
+		refresh();
+	}
+
+	/** This method stops following the current media player.
+	 */
+	public void detach() {
+		stopTimer();
+		if(attached != null) {
+			attached.currentTimeProperty().removeListener(timeListener);
+			attached.statusProperty().removeListener(statusListener);
+			attached.setOnEndOfMedia(null);
+			attached.setOnReady(null);
+			attached = null;
+		}
+	}
+
+	/** This method starts the timer that refreshes the progress, if it is not running.
+	 */
+	private void startTimer() {
+		if(!running) {
+			running = true;
+			timer.start();
+		}
+	}
+
+	/** This method stops the timer that refreshes the progress, if it is running.
+	 */
+	private void stopTimer() {
+		if(running) {
+			running = false;
+			timer.stop();
+		}
+	}
+
+	/** This method shows the current time and the duration of the song and moves the slider, unless the user is dragging it. When the
+	 * music player has a crossfade and the song is about to end, it charges the next one.
+	 */
+	private void refresh() {
+		dirty = false;
+		if(attached == null) {
+			return;
+		}
+		Duration total = attached.getTotalDuration();
+		double totalMillis = total == null || total.isUnknown() || total.isIndefinite() ? 0 : total.toMillis();
+		double millis = attached.getCurrentTime().toMillis();
+		long totalSeconds = (long)(totalMillis / 1000);
+		long seconds = (long)(millis / 1000);
+		if(totalSeconds != shownTotal) {
+			shownTotal = totalSeconds;
+			psc.getDurationLabel().setText(format(totalSeconds));
+		}
+		if(seconds != shownSecond) {
+			shownSecond = seconds;
+			psc.getCurrentTimeLabel().setText(format(seconds));
+		}
+		if(totalMillis > 0 && !psc.getTrackTimeSlider().isValueChanging()) {
+			psc.getTrackTimeSlider().setValue(millis/totalMillis*psc.getTrackTimeSlider().getMax());
+		}
+		Duration crossfade = psc.getMusicPlayer().getCrossfade();
+		if(!advanced && running && totalMillis > 0 && crossfade.greaterThan(Duration.ZERO) && totalMillis - millis <= crossfade.toMillis()) {
+			advanced = true;
+			psc.getMusicPlayer().playNext();
+		}
+	}
+
+	/** This method formats a number of seconds as minutes and seconds with two digits each.
+	 * @param seconds A long that represents the seconds to format<br>seconds >= 0
+	 * @return A String with the form mm:ss.
+	 */
+	static String format(long seconds) {
+		long minutes = seconds / 60;
+		long rest = seconds % 60;
+		return (minutes < 10 ? "0" : "") + minutes + ":" + (rest < 10 ? "0" : "") + rest;
+	}
+}
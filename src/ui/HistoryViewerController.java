@@ -1,26 +1,47 @@
 package ui;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableListBase;
 import javafx.fxml.FXML;
 import javafx.scene.control.ListView;
-import javafx.scene.control.TextArea;
+import model.musicPlayer.HistoryJournal;
+import model.musicPlayer.HistoryPager;
 
 public class HistoryViewerController {
-	
+
 	@FXML
 	private ListView<File> historyFilesListView;
 
 	@FXML
-	private TextArea historyText;
-	
+	private ListView<String> historyLines;
+
+	/** It represents the thread where the history files are opened and indexed, out of the FX thread.
+	 */
+	private ExecutorService historyLoader = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "history-loader");
+		t.setDaemon(true);
+		return t;
+	});
+
+	/** It represents the number of the last history file requested, so the files opened for an older request are not shown.
+	 */
+	private volatile long historyRequest;
+
+	/** It represents the history file shown, which is closed when another one is shown. It is only used in the FX thread.
+	 */
+	private HistoryPager shownPager;
+
 	/** This method starts and setups all the necessary components inside the interface and bind them with the model when is started.
 	 */
 	@FXML
@@ -28,20 +49,17 @@ public class HistoryViewerController {
 		historyFilesListView.setItems(FXCollections.observableArrayList(loadHistoryFiles()));
 		historyFilesListView.getSelectionModel().selectedItemProperty().addListener(
 				new ChangeListener<File>() {
-					public void changed(ObservableValue<? extends File> ov, 
+					public void changed(ObservableValue<? extends File> ov,
 							File old_val, File new_val) {
 						if(new_val != null) {
-							try {
-								loadHistoryInfo(new_val);
-							} catch (IOException e) {
-								e.printStackTrace();
-							}
+							loadHistoryInfo(new_val);
 						}
 					}
 				});
 	}
-	
-	/** This method allows to a File ArrayList where all the song played registers are loaded. 
+
+	/** This method allows to a File ArrayList where all the song played registers are loaded: the segments of the history journal and
+	 * the text files written by previous versions of the player.
 	 * @return A File ArrayList where all the song played registers are loaded.
 	 */
 	public ArrayList<File> loadHistoryFiles() {
@@ -50,27 +68,119 @@ public class HistoryViewerController {
 		if(dir.exists()) {
 			File[] items = dir.listFiles();
 			for(File f:items) {
-				hst.add(f);
+				if(HistoryJournal.isSegment(f) || f.getName().endsWith(".txt")) {
+					hst.add(f);
+				}
 			}
 		}
 		return hst;
 	}
-	
-	/** This method allows to load the history file where the played song register is printed.
-	 * @param history A File that represents the history file where the played song register is printed. 
-	 * @throws IOException if the file has not been found, deleted or moved to another location.
+
+	/** This method allows to load the history file where the played song register is printed. The file is opened and indexed out of
+	 * the FX thread, and then only the lines that are visible are read, also out of the FX thread.
+	 * @param history A File that represents the history file where the played song register is printed.
 	 */
-	public void loadHistoryInfo(File history) throws IOException {
-		FileReader fr = new FileReader(history);
-		BufferedReader br = new BufferedReader(fr);
-		String line = "";
-		historyText.setText(line);
-		line = br.readLine();
-		while(line != null) {
-			historyText.setText(historyText.getText().concat(line+"\n"));
-			line = br.readLine();
+	public void loadHistoryInfo(File history) {
+		long request = ++historyRequest;
+		historyLines.setItems(FXCollections.observableArrayList());
+		closeShownPager();
+		historyLoader.execute(() -> {
+			try {
+				HistoryPager pager = new HistoryPager(history);
+				Platform.runLater(() -> {
+					if(request == historyRequest) {
+						shownPager = pager;
+						historyLines.setItems(new HistoryLines(pager));
+					} else {
+						historyLoader.execute(() -> close(pager));
+					}
+				});
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		});
+	}
+
+	/** This method closes the history file shown. It is closed in the thread where its pages are read, after the pages requested before.
+	 */
+	private void closeShownPager() {
+		HistoryPager pager = shownPager;
+		shownPager = null;
+		if(pager != null) {
+			historyLoader.execute(() -> close(pager));
+		}
+	}
+
+	/** This method closes a history file.
+	 * @param pager The HistoryPager of the history file<br>pager != null
+	 */
+	private static void close(HistoryPager pager) {
+		try {
+			pager.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/** A read only list with the lines of a history file, which are read from the file only when the list view shows them. A line whose
+	 * page was not read yet is shown as PLACEHOLDER while the page is read out of the FX thread, and then it is replaced by its text.
+	 */
+	private class HistoryLines extends ObservableListBase<String> {
+		/** It represents the text shown for the lines that are being read.
+		 */
+		private static final String PLACEHOLDER = "...";
+
+		/** It represents the history file opened to read its lines.
+		 */
+		private HistoryPager pager;
+
+		/** It represents the first line of every page being read, so every page is requested only once. It is only used in the FX thread.
+		 */
+		private HashSet<Integer> loading;
+
+		/** HistoryLines constructor method that shows the lines of an opened history file.
+		 * @param pager The HistoryPager of the history file<br>pager != null
+		 */
+		private HistoryLines(HistoryPager pager) {
+			this.pager = pager;
+			loading = new HashSet<Integer>();
+		}
+
+		@Override
+		public String get(int index) {
+			String line = pager.getLoadedLine(index);
+			if(line == null) {
+				line = PLACEHOLDER;
+				loadPage(index);
+			}
+			return line;
+		}
+
+		/** This method reads the page of a line out of the FX thread, and then replaces the placeholders of its lines by their text.
+		 * @param index An integer that represents the number of the line<br>0 <= index < size()
+		 */
+		private void loadPage(int index) {
+			int[] bounds = pager.getPageBounds(index);
+			if(loading.add(bounds[0])) {
+				historyLoader.execute(() -> {
+					try {
+						pager.getLine(index);
+						Platform.runLater(() -> {
+							loading.remove(bounds[0]);
+							beginChange();
+							nextReplace(bounds[0], bounds[1], Collections.nCopies(bounds[1] - bounds[0], PLACEHOLDER));
+							endChange();
+						});
+					} catch (IOException e) {
+						e.printStackTrace();
+					}
+				});
+			}
+		}
+
+		@Override
+		public int size() {
+			return pager.getLineCount();
 		}
-		br.close();
-		fr.close();
 	}
 }
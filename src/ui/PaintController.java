@@ -19,13 +19,16 @@ import javafx.scene.control.ComboBox;
 import javafx.scene.control.DialogEvent;
 import javafx.scene.image.Image;
 import javafx.scene.layout.BorderPane;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
-import model.paint.ListOfImages;
-import model.paint.TreeOfImages;
+import model.paint.GalleryCache;
+import model.paint.ImageGallery;
+import model.paint.ThumbnailCache;
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import javax.imageio.ImageIO;
 
@@ -33,6 +36,18 @@ public class PaintController {
 	
 	public final static String EXPORTED_IMGS_PATH = "img";  
 	public final static String ICON = EXPORTED_IMGS_PATH + File.separator + "icon.PNG";
+	/**
+	 * The folder where the thumbnails of the gallery images are kept between executions.
+	 */
+	public final static String THUMBNAILS_PATH = "data" + File.separator + "thumbnails";
+	/**
+	 * The pixels of the gallery images kept decoded, about 48 MB of ARGB pixels or 17 images of the size of the canvas.
+	 */
+	public final static long GALLERY_CACHE_PIXELS = 12000000;
+	/**
+	 * The number of images decoded ahead of time at each side of the one shown by the gallery.
+	 */
+	public final static int GALLERY_PREFETCH_RADIUS = 2;
 	@FXML
 	private BorderPane borderPane;
 
@@ -57,8 +72,10 @@ public class PaintController {
     @FXML
     private ComboBox<String> pencilType;
     
-    private TreeOfImages treeOfImages;
-    private ListOfImages listOfImages;
+    private ImageGallery imageGallery;
+    private GalleryCache<Image> gallery;
+    private int shownImage;
+    private int nextRandomImage;
     
     /**
      * This method initializes the options to choose the pencil size and sets 
@@ -150,39 +167,85 @@ public class PaintController {
 			}
 		});
     	
-    	treeOfImages = new TreeOfImages();
-    	treeOfImages.addNode(10);
-    	treeOfImages.addNode(15);
-    	treeOfImages.addNode(12);
-    	treeOfImages.addNode(17);
-    	treeOfImages.addNode(11);
-    	treeOfImages.addNode(13);
-    	treeOfImages.addNode(14);
-    	treeOfImages.addNode(16);
-    	treeOfImages.addNode(19);
-    	treeOfImages.addNode(18);
-    	treeOfImages.addNode(20);
-    	treeOfImages.addNode(5);
-    	treeOfImages.addNode(2);
-    	treeOfImages.addNode(7);
-    	treeOfImages.addNode(1);
-    	treeOfImages.addNode(3);
-    	treeOfImages.addNode(4);
-    	treeOfImages.addNode(6);
-    	treeOfImages.addNode(8);
-    	treeOfImages.addNode(9);
-    	listOfImages = new ListOfImages();
-    	for (int i = 1; i <= 20; i++) {
-			listOfImages.addNode(i);
+    	if (new File(EXPORTED_IMGS_PATH).isDirectory()) {
+    		openGallery(new File(EXPORTED_IMGS_PATH));
+    	}
+	}
+
+	/**
+	 * This method replaces the gallery with the images of a folder. The folder is scanned in the background, so the
+	 * gallery can be browsed while its images are being added, and the images are shown from their thumbnails, which
+	 * have the size of the canvas, are created when the images around the selected one are decoded and are kept in
+	 * THUMBNAILS_PATH for the next executions. The image saved as ICON is
+	 * not part of the gallery.
+	 * post: if the folder exists, the previous gallery is cancelled and the images of the folder will be added to the
+	 * new one, otherwise the previous gallery is kept.
+	 * @param folder the folder whose images make the gallery.
+	 */
+	private void openGallery(File folder) {
+		try {
+			final double width = canvas.getWidth();
+			final double height = canvas.getHeight();
+			final ImageGallery images = new ImageGallery(folder, new ThumbnailCache(new File(THUMBNAILS_PATH), (int)width, (int)height));
+			images.exclude(new File(ICON));
+			GalleryCache<Image> cache = new GalleryCache<Image>(GALLERY_CACHE_PIXELS,
+					value -> new Image(images.getDisplayFile(value).toURI().toString(), width, height, false, false),
+					image -> (long)(image.getWidth() * image.getHeight()));
+			if (imageGallery != null) {
+				imageGallery.cancel();
+				gallery.close();
+			}
+			imageGallery = images;
+			gallery = cache;
+			nextRandomImage = -1;
+			images.scan(null);
+		} catch (FileNotFoundException e) {
+			Alert alert = new Alert(AlertType.ERROR, "The folder " + folder.getPath() + " doesn't exist.");
+			alert.showAndWait();
+		}
+	}
+
+	/**
+	 * This method allows the user to choose the folder of the gallery.
+	 * post: the gallery shows the images of the chosen folder, unless none was chosen.
+	 * @param event the event received after clicking on the <<Open gallery>> menu item.
+	 */
+	@FXML
+	public void chooseGallery(ActionEvent event) {
+		DirectoryChooser chooser = new DirectoryChooser();
+		File initial = imageGallery != null ? imageGallery.getFolder() : new File(EXPORTED_IMGS_PATH);
+		if (initial.isDirectory()) {
+			chooser.setInitialDirectory(initial);
+		}
+		File folder = chooser.showDialog(canvas.getScene().getWindow());
+		if (folder != null) {
+			openGallery(folder);
 		}
 	}
 
+	/**
+	 * This method displays an image of the gallery in the canvas. The image is taken from the gallery cache, so it is
+	 * decoded in the background when it was not decoded ahead of time, and it is drawn only if no other image was
+	 * requested meanwhile.
+	 * post: the image is drawn in the canvas as soon as it is decoded.
+	 * @param value the value of the image, which is its position in the ImageGallery.
+	 */
+	private void showGalleryImage(int value) {
+		shownImage = value;
+		gallery.request(value, Platform::runLater, image -> {
+			if (shownImage == value) {
+				canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+				canvas.getGraphicsContext2D().drawImage(image, 0, 0);
+			}
+		});
+	}
+
 
     
     /**
      * This method allows to save the drawn image in the specified path.
      * pre: the specified path has to exist in the file system.
-     * post: The image will be saved successfully.
+     * post: The image will be saved successfully. If no gallery was open, the gallery of the img folder is opened.
      */
     public void onSave() {
         try {
@@ -192,6 +255,9 @@ public class PaintController {
     			dir.mkdir();
     		}
             ImageIO.write(SwingFXUtils.fromFXImage(snapshot, null), "png", new File(ICON));
+            if (imageGallery == null) {
+            	openGallery(dir);
+            }
         } catch (IOException e) {
         	e.printStackTrace();
         }
@@ -199,38 +265,36 @@ public class PaintController {
     
     /**
 	 * This method uses the doubly linked list from the model package to select the next node (image) from it, then an image 
-	 * from the ui/img package is selected and displayed in the canvas.
-	 * pre: listOfImages != null && the list cannot be empty -> list.size() != 0. 
+	 * from the gallery folder is selected and displayed in the canvas.
+	 * Nothing is shown while no gallery is open or the gallery is empty.
 	 * post: the next selected image from the list will be selected and it's correspondent representation is 
 	 * displayed on the canvas.
-	 * @see #listOfImages
+	 * @see #imageGallery
 	 */
     @FXML
     public void prevImg(ActionEvent event) {
-    	canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
-    	listOfImages.selectPrevious();
-    	String imageFile = listOfImages.lastSelected().getValue()+".jpg";
-    	String path = System.getProperty("user.dir").replace(File.separator, "/") + "/img/" + imageFile;
-    	Image image = new Image("file:///"+path, canvas.getWidth(), canvas.getHeight(), false, false);
-    	canvas.getGraphicsContext2D().drawImage(image, 0, 0);
+    	int value = imageGallery != null ? imageGallery.selectPrevious() : -1;
+    	if (value != -1) {
+    		showGalleryImage(value);
+    		imageGallery.prefetchAround(gallery, GALLERY_PREFETCH_RADIUS);
+    	}
     }
     
     /**
 	 * This method uses the doubly linked list from the model package to select the previous node (image) from it, then an image 
-	 * from the ui/img package is selected and displayed in the canvas.
-	 * pre: listOfImages != null && the list cannot be empty -> listOfImages.size() != 0. 
+	 * from the gallery folder is selected and displayed in the canvas.
+	 * Nothing is shown while no gallery is open or the gallery is empty.
 	 * post: the previous selected image from the list will be selected and it's correspondent representation is 
 	 * displayed on the canvas.
-	 * @see #listOfImages
+	 * @see #imageGallery
 	 */
     @FXML
     public void nextImg(ActionEvent event) {
-    	canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
-    	listOfImages.selectNext();
-    	String imageFile = listOfImages.lastSelected().getValue()+".jpg";
-    	String path = System.getProperty("user.dir").replace(File.separator, "/") + "/img/" + imageFile;
-    	Image image = new Image("file:///"+path, canvas.getWidth(), canvas.getHeight(), false, false);
-    	canvas.getGraphicsContext2D().drawImage(image, 0, 0);
+    	int value = imageGallery != null ? imageGallery.selectNext() : -1;
+    	if (value != -1) {
+    		showGalleryImage(value);
+    		imageGallery.prefetchAround(gallery, GALLERY_PREFETCH_RADIUS);
+    	}
     }
 
 	/**
@@ -262,18 +326,19 @@ public class PaintController {
 
 	/**
 	 * This method uses the binary tree from the model package to select a random node (image) from it, then an image 
-	 * from the ui/img package is selected and displayed in the canvas.
-	 * pre: tree != null && the tree cannot be empty -> tree.size() != 0. 
+	 * from the gallery folder is selected and displayed in the canvas.
+	 * Nothing is shown while no gallery is open or the gallery is empty.
 	 * post: a random selected image from the tree will be selected and it's correspondent representation is 
-	 * displayed on the canvas.
+	 * displayed on the canvas. The next random image is picked right away, so it is decoded before it is requested.
 	 */
     @FXML
     public void randomImg(ActionEvent event) throws IOException {
-    	canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
-    	String imageFile = treeOfImages.selectRandomNode().getValue()+".jpg";
-    	String path = System.getProperty("user.dir").replace(File.separator, "/") + "/img/" + imageFile;
-    	Image image = new Image("file:///"+path, canvas.getWidth(), canvas.getHeight(), false, false);
-    	canvas.getGraphicsContext2D().drawImage(image, 0, 0);
+    	int value = imageGallery == null ? -1 : nextRandomImage != -1 ? nextRandomImage : imageGallery.selectRandom();
+    	if (value != -1) {
+    		showGalleryImage(value);
+    		nextRandomImage = imageGallery.selectRandom();
+    		gallery.prefetch(nextRandomImage);
+    	}
     }
     
     @FXML
@@ -3,18 +3,19 @@ package ui;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.util.Random;
-
-import javax.imageio.ImageIO;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 
 import customExceptions.AttemptedToRemoveCurrentPlayListException;
 import customExceptions.AttemptedToRemoveDemoLibraryException;
 import customExceptions.FolderWithoutMP3ContentException;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.embed.swing.SwingFXUtils;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -28,11 +29,12 @@ import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.control.Slider;
 import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableColumn.CellDataFeatures;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.layout.Pane;
 import javafx.scene.media.MediaPlayer;
 import javafx.scene.media.MediaPlayer.Status;
@@ -47,19 +49,25 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.Window;
 import javafx.stage.WindowEvent;
+import javafx.util.Callback;
 import javafx.util.Duration;
+import model.musicPlayer.ArtworkCache;
 import model.musicPlayer.MusicFolder;
 import model.musicPlayer.MusicPlayer;
+import model.musicPlayer.Palette;
+import model.musicPlayer.ScanListener;
 import model.musicPlayer.Song;
+import model.musicPlayer.SongTableModel;
+import model.musicPlayer.SortKey;
 import threads.CoverArtAnimationThread;
-import threads.CurrentTrackTimeUpdaterThread;
+import threads.PlaybackProgressUpdater;
 
 
 public class PrimaryStageController {
 
-	/** It represents the current thread to modify the song time inside the application and the shuffle mode.	 
+	/** It represents the updater of the song time inside the application.
 	 */
-	private CurrentTrackTimeUpdaterThread cttu;
+	private PlaybackProgressUpdater progressUpdater;
 
 	/** It represents the default cover art image in the left corner when the current song metadata does not have this property. 
 	 */
@@ -89,14 +97,67 @@ public class PrimaryStageController {
 	 */
 	public final static Image SHUFFLE_DISABLED = new Image(new File("imgs"+File.separator+"not-shuffle.png").toURI().toString(), 40, 40, false, false);
 
+	/** It represents how many songs have to be scanned in a new library before refreshing its song count in the libraries table.
+	 */
+	public final static int SCAN_REFRESH_INTERVAL = 250;
+
+	/** It represents the maximum number of songs shown in the table while the user types a search.
+	 */
+	public final static int MAX_SEARCH_RESULTS = 500;
+
+	/** It represents the width and height in pixels at which the cover arts are decoded, the size of the biggest place where they are shown.
+	 */
+	public final static int THUMBNAIL_SIZE = 200;
+
 	/** It represents the MusicPlayer that will manage all the mp3 files.
 	 */
 	private MusicPlayer musicPlayer;
 
+	/** It represents the songs shown in the table when there is no search: a view of the current music folder in its current order that
+	 * is never copied.
+	 */
+	private SongTableModel songTable;
+
 	/** It represents the thread in charge of moving the cover art in circle form.
 	 */
 	private CoverArtAnimationThread caat;
 
+	/** It represents the cover arts already decoded at thumbnail size together with their palette, so changing between songs of the same
+	 * album does not read them again and the background keeps the same colors.
+	 */
+	private ArtworkCache<Cover> artworkCache = new ArtworkCache<Cover>(ArtworkCache.DEFAULT_CAPACITY, picture -> {
+		Image img = new Image(new ByteArrayInputStream(picture), THUMBNAIL_SIZE, THUMBNAIL_SIZE, true, true);
+		return img.isError() ? null : new Cover(img);
+	});
+
+	/** It represents the thread that reads and decodes the cover arts, so the interface does not stall when the song changes.
+	 */
+	private ExecutorService coverLoader = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "cover-loader");
+		t.setDaemon(true);
+		return t;
+	});
+
+	/** It represents the number of the last cover requested. The covers that arrive after a newer one was requested are discarded.
+	 */
+	private volatile long coverRequest;
+
+	/** It represents the cover shown when the current song does not have one.
+	 */
+	private Cover defaultCover;
+
+	/** It represents the palette of the cover being shown, used to paint the player background.
+	 */
+	private Palette currentPalette;
+
+	/** It represents the last order requested for the songs table.
+	 */
+	private SortKey lastSortKey;
+
+	/** It represents whether the songs table is sorted in ascending order.
+	 */
+	private boolean sortAscending;
+
 	@FXML private Circle backgroundCircle;
 	@FXML private Circle coverImageCircle;
 	@FXML private ImageView songThumbnail;
@@ -127,16 +188,30 @@ public class PrimaryStageController {
 	@FXML private TableColumn<Song, Double> sizeTableColumn;
 	@FXML private TextField searchTextField;
 
+	/** This method shows the songs of a music folder again after they changed because of a scan or the watcher. If the table shows the
+	 * results of a search, they are kept.
+	 * @param folder The MusicFolder whose songs changed<br>folder != null
+	 */
+	private void refreshLibrary(MusicFolder folder) {
+		librariesTableView.refresh();
+		if(folder == songTable.getFolder()) {
+			songTable.refresh();
+		}
+	}
+
 	/** This method starts and setups all the necessary components inside the interface and bind them with the model when is started.
 	 */
 	@FXML
 	public void initialize() {
+		defaultCover = new Cover(DEFAULT_THUMBNAIL);
+		progressUpdater = new PlaybackProgressUpdater(this);
 		try {
 			musicPlayer = new MusicPlayer();
 			musicPlayer.getSongLoaded().addListener(new ChangeListener<Number>() {
 				@Override
 				public void changed(ObservableValue<? extends Number> ov, 
 						Number old_val, Number new_val) {
+					progressUpdater.attach(musicPlayer.getMediaPlayer());
 					applyChangesToPlayPauseButton();
 					refreshIcons();
 				}
@@ -144,6 +219,7 @@ public class PrimaryStageController {
 			songTitleLabel.textProperty().bind(musicPlayer.getCurrentSongTitle());
 			songAlbumLabel.textProperty().bind(musicPlayer.getCurrentSongAlbum());
 			songArtistLabel.textProperty().bind(musicPlayer.getCurrentSongArtist());
+			musicPlayer.setLibraryListener((folder, added, removed) -> Platform.runLater(() -> refreshLibrary(folder)));
 		} catch (FolderWithoutMP3ContentException | ClassNotFoundException | IOException e) {
 			e.printStackTrace();;
 		}
@@ -162,30 +238,44 @@ public class PrimaryStageController {
 			}
 		});
 		librariesTableView.setItems(musicPlayer.getMusicFolders());
-		musicInfoTableView.setItems(FXCollections.observableArrayList(musicPlayer.getFirstMusicFolder().getSongs()));
+		songTable = new SongTableModel(musicPlayer.getFirstMusicFolder());
+		musicInfoTableView.setItems(songTable);
 		volumeSwitchButton.setUserData(false);
 
-		libraryTableColumn.setCellValueFactory(new PropertyValueFactory<MusicFolder, String>("folderName"));
-		songsTableColumn.setCellValueFactory(new PropertyValueFactory<MusicFolder, Integer>("numberOfSongs"));
+		libraryTableColumn.setCellValueFactory(cell(MusicFolder::getFolderName));
+		songsTableColumn.setCellValueFactory(cell(MusicFolder::getNumberOfSongs));
 
-		genreTableColumn.setCellValueFactory(new PropertyValueFactory<Song, String>("genre"));
-		titleTableColumn.setCellValueFactory(new PropertyValueFactory<Song, String>("title"));
-		albumTableColumn.setCellValueFactory(new PropertyValueFactory<Song, String>("album"));
-		artistTableColumn.setCellValueFactory(new PropertyValueFactory<Song, String>("artist"));
-		sizeTableColumn.setCellValueFactory(new PropertyValueFactory<Song, Double>("size"));
+		genreTableColumn.setCellValueFactory(cell(Song::getGenre));
+		titleTableColumn.setCellValueFactory(cell(Song::getTitle));
+		albumTableColumn.setCellValueFactory(cell(Song::getAlbum));
+		artistTableColumn.setCellValueFactory(cell(Song::getArtist));
+		sizeTableColumn.setCellValueFactory(cell(Song::getSize));
 		librariesTableView.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
 			if(newSelection != null) {
-				musicInfoTableView.setItems(FXCollections.observableArrayList(newSelection.getSongs()));
+				songTable.setFolder(newSelection);
+				musicInfoTableView.setItems(songTable);
 				musicPlayer.setCurrentPlayList(newSelection);
 			}
 		});
 		musicInfoTableView.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
 			if(newSelection != null && !musicPlayer.getCurrentSongTitle().get().equals(newSelection.getTitle())) {
 				int cI = musicPlayer.getCurrentPlayList().indexOf(newSelection);
+				if(cI < 0 && musicPlayer.getMusicFolderOf(newSelection) != null) {
+					musicPlayer.setCurrentPlayList(musicPlayer.getMusicFolderOf(newSelection));
+					cI = musicPlayer.getCurrentPlayList().indexOf(newSelection);
+				}
 				musicPlayer.setMedia(cI);
 				restartThreads();
 			}
 		});
+		searchTextField.textProperty().addListener((obs, oldText, newText) -> {
+			if(newText.trim().isEmpty()) {
+				songTable.setFolder(musicPlayer.getCurrentMusicFolder());
+				musicInfoTableView.setItems(songTable);
+			} else {
+				musicInfoTableView.setItems(FXCollections.observableArrayList(musicPlayer.search(newText, MAX_SEARCH_RESULTS)));
+			}
+		});
 		trackTimeSlider.valueChangingProperty().addListener(new ChangeListener<Boolean>() {
 			//Allows to change the current time in the song
 			@Override
@@ -215,9 +305,7 @@ public class PrimaryStageController {
 			}
 		});
 		shuffleSwitchButton.setGraphic(new ImageView(SHUFFLE_DISABLED));
-		cttu = new CurrentTrackTimeUpdaterThread(this, false);
-		cttu.setDaemon(true);
-		cttu.start();
+		progressUpdater.attach(musicPlayer.getMediaPlayer());
 		refreshIcons();
 	}
 
@@ -240,6 +328,7 @@ public class PrimaryStageController {
 			File icon = new File(PaintController.ICON);
 			if(icon.exists()) {
 				musicPlayer.getCurrentSong().setCoverArt(icon);
+				artworkCache.invalidate(musicPlayer.getCurrentSong());
 				icon.delete();
 			}
 		} catch (IOException e) {
@@ -257,11 +346,31 @@ public class PrimaryStageController {
 		dc.setTitle("Choose a music directory");
 		File directory = dc.showDialog(coverImageCircle.getParent().getScene().getWindow());
 		try {
-			musicPlayer.addMusicFolder(directory);
+			musicPlayer.addMusicFolderInBackground(directory, new ScanListener() {
+				@Override
+				public void songScanned(MusicFolder folder, Song song) {
+					if(folder.getNumberOfSongs() % SCAN_REFRESH_INTERVAL == 0) {
+						Platform.runLater(() -> refreshLibrary(folder));
+					}
+				}
+
+				@Override
+				public void scanFinished(MusicFolder folder, boolean cancelled) {
+					Platform.runLater(() -> {
+						if(!cancelled && folder.getNumberOfSongs() == 0) {
+							try {
+								musicPlayer.removeMusicFolderFromLibraries(folder);
+							} catch (AttemptedToRemoveDemoLibraryException | AttemptedToRemoveCurrentPlayListException e) {
+								e.printStackTrace();
+							}
+							showErrorAlert("No MP3 files found", "The chosen directory does not contain MP3 files to add to a new library");
+						}
+						librariesTableView.setItems(musicPlayer.getMusicFolders());
+					});
+				}
+			});
 		} catch (IOException e) {
 			showErrorAlert("Error loading the library", "The music folder could not be loaded");
-		} catch (FolderWithoutMP3ContentException e) {
-			showErrorAlert("No MP3 files found", "The chosen directory does not contain MP3 files to add to a new library");
 		}
 		librariesTableView.setItems(musicPlayer.getMusicFolders());
 	}
@@ -271,22 +380,10 @@ public class PrimaryStageController {
 	 */
 	@FXML
 	public void nextTrackButtonPressed(ActionEvent event) {
-		if(!cttu.getShuffle()) {
-			try {
-				if(caat != null) {
-					caat.pause();
-				}
-				int cI = musicPlayer.getCurrentPlayList().indexOf(musicPlayer.getCurrentSong());
-				int nI = cI+1;
-				musicPlayer.setMedia(nI);
-			} catch(IndexOutOfBoundsException aioobe) {
-				restartThreads();
-			}
-		} else {
-			Random r = new Random();
-			int song = r.nextInt(musicPlayer.getCurrentPlayList().size());
-			musicPlayer.setMedia(song);
+		if(caat != null) {
+			caat.pause();
 		}
+		musicPlayer.playNext();
 	}
 
 	/** This method calls the method that modifies the media player and cover art animation state.
@@ -317,22 +414,10 @@ public class PrimaryStageController {
 	 */
 	@FXML
 	public void prevTrackButtonPressed(ActionEvent event) {
-		if(!cttu.getShuffle()) {
-			try {
-				if(caat != null) {
-					caat.pause();
-				}
-				int cI = musicPlayer.getCurrentPlayList().indexOf(musicPlayer.getCurrentSong());
-				int nI = cI-1;
-				musicPlayer.setMedia(nI);
-			} catch(IndexOutOfBoundsException aioobe) {
-				restartThreads();
-			}
-		} else {
-			Random r = new Random();
-			int song = r.nextInt(musicPlayer.getCurrentPlayList().size());
-			musicPlayer.setMedia(song);
+		if(caat != null) {
+			caat.pause();
 		}
+		musicPlayer.playPrevious();
 	}
 
 	/** This method shows play list history text files when these exist.
@@ -359,12 +444,12 @@ public class PrimaryStageController {
 	 */
 	@FXML
 	public void shuffleSwitchButtonPressed(ActionEvent event) {
-		if(cttu.getShuffle() == true) {
+		if(musicPlayer.isShuffle()) {
 			shuffleSwitchButton.setGraphic(new ImageView(SHUFFLE_DISABLED));
-			cttu.setShuffle(false);
+			musicPlayer.setShuffle(false);
 		} else {
 			shuffleSwitchButton.setGraphic(new ImageView(SHUFFLE_ACTIVATED));
-			cttu.setShuffle(true);
+			musicPlayer.setShuffle(true);
 		}
 	}
 
@@ -435,26 +520,42 @@ public class PrimaryStageController {
 	/** This method refresh all the icons when another song is picked from the music folder.
 	 */
 	public void refreshIcons() {
-		songThumbnail.setImage(DEFAULT_THUMBNAIL);
-		coverImageCircle.setFill(new ImagePattern(songThumbnail.getImage()));
-		byte[] picture = musicPlayer.getCurrentSong().getImage();
-		if(picture != null && picture.length>0) {
-			ByteArrayInputStream bais = new ByteArrayInputStream(picture);
-			try {
-				Image img = SwingFXUtils.toFXImage(ImageIO.read(bais), null);
-				songThumbnail.setImage(img);
-				coverImageCircle.setFill(new ImagePattern(songThumbnail.getImage()));
-			} catch (IOException e) {
-				e.printStackTrace();
+		Song song = musicPlayer.getCurrentSong();
+		long request = ++coverRequest;
+		coverLoader.execute(() -> {
+			if(request == coverRequest) {
+				Cover cover = artworkCache.get(song);
+				Platform.runLater(() -> {
+					if(request == coverRequest) {
+						showCover(cover != null ? cover : defaultCover);
+					}
+				});
 			}
-		}
+		});
+	}
+
+	/** This method shows a cover in the thumbnail and in the circle and paints the background with its palette.
+	 * @param cover The Cover to show<br>cover != null
+	 */
+	private void showCover(Cover cover) {
+		songThumbnail.setImage(cover.image);
+		coverImageCircle.setFill(new ImagePattern(cover.image));
+		currentPalette = cover.palette;
 		refreshPlayerBackground();
 	}
 
+	/** This method allows to obtain the cache of the decoded cover arts, for example to read its hit and miss metrics.
+	 * @return An ArtworkCache that represents the cache of the decoded cover arts.
+	 */
+	public ArtworkCache<?> getArtworkCache() {
+		return artworkCache;
+	}
+
 	/** This method refresh the player background when another song is picked from the music folder.
 	 */
 	public void refreshPlayerBackground() {
-		Color color1 = songThumbnail.getImage().getPixelReader().getColor((int)songThumbnail.getImage().getWidth()/2, (int)songThumbnail.getImage().getHeight()/2).brighter().brighter();
+		int dominant = currentPalette != null ? currentPalette.getDominant() : Palette.DEFAULT_COLOR;
+		Color color1 = Color.rgb((dominant >> 16) & 0xFF, (dominant >> 8) & 0xFF, dominant & 0xFF).brighter().brighter();
 		Color color2 = color1.brighter().darker().darker().darker().darker();
 		Pane background = (Pane)coverImageCircle.getParent();
 		int red = (int)(color1.getRed()*255);
@@ -501,13 +602,33 @@ public class PrimaryStageController {
 		alert.showAndWait();
 	}
 
+	/** This method creates a cell value factory that reads a value directly from the row, without looking the property up by reflection
+	 * for every cell as PropertyValueFactory does.
+	 * @param getter A Function that obtains the value of the column from a row<br>getter != null
+	 * @return A Callback to use as the cell value factory of a column. Empty rows have no value.
+	 */
+	private static <S, T> Callback<CellDataFeatures<S, T>, ObservableValue<T>> cell(Function<S, T> getter) {
+		return features -> new ReadOnlyObjectWrapper<T>(features.getValue() != null ? getter.apply(features.getValue()) : null);
+	}
+
+	/** This method sorts the songs of the current music folder and shows them in the table view. Sorting again by the same key
+	 * switches between ascending and descending order.
+	 * @param key A SortKey that represents the order requested by the user.
+	 */
+	private void sortBy(SortKey key) {
+		sortAscending = key != lastSortKey || !sortAscending;
+		lastSortKey = key;
+		musicPlayer.getCurrentMusicFolder().sortSongs(key, sortAscending);
+		songTable.setFolder(musicPlayer.getCurrentMusicFolder());
+		musicInfoTableView.setItems(songTable);
+	}
+
 	/** This method allows to sort the songs in the table view by title.
 	 * @param event An ActionEvent that represents the event when the associated sort by title button is pressed.
 	 */
 	@FXML
 	public void sortByTitle(ActionEvent event) {
-		musicPlayer.getCurrentMusicFolder().sortSongsByTitle();
-		musicInfoTableView.setItems(FXCollections.observableArrayList(musicPlayer.getCurrentMusicFolder().getSongs()));
+		sortBy(SortKey.TITLE);
 	}
 
 	/** This method allows to sort the songs in the table view by genre.
@@ -515,8 +636,7 @@ public class PrimaryStageController {
 	 */
 	@FXML
 	public void sortByGenre(ActionEvent event) {
-		musicPlayer.getCurrentMusicFolder().sortSongsByGenre();
-		musicInfoTableView.setItems(FXCollections.observableArrayList(musicPlayer.getCurrentMusicFolder().getSongs()));
+		sortBy(SortKey.GENRE);
 	}
 
 	/** This method allows to sort the songs in the table view by album.
@@ -524,17 +644,15 @@ public class PrimaryStageController {
 	 */
 	@FXML
 	public void sortByAlbum(ActionEvent event) {
-		musicPlayer.getCurrentMusicFolder().sortSongsByAlbum();
-		musicInfoTableView.setItems(FXCollections.observableArrayList(musicPlayer.getCurrentMusicFolder().getSongs()));
+		sortBy(SortKey.ALBUM);
 	}
 
-	/** This method allows to sort the songs in the table view by artist.
+	/** This method allows to sort the songs in the table view by artist, then by album and then by title.
 	 * @param event An ActionEvent that represents the event when the associated sort by artist button is pressed.
 	 */
 	@FXML
 	public void sortByArtist(ActionEvent event) {
-		musicPlayer.getCurrentMusicFolder().sortSongsByArtist();
-		musicInfoTableView.setItems(FXCollections.observableArrayList(musicPlayer.getCurrentMusicFolder().getSongs()));
+		sortBy(SortKey.ARTIST_ALBUM_TITLE);
 	}
 
 	/** This method allows to sort the songs in the table view by size.
@@ -542,8 +660,7 @@ public class PrimaryStageController {
 	 */
 	@FXML
 	public void sortBySize(ActionEvent event) {
-		musicPlayer.getCurrentMusicFolder().sortSongsBySize();
-		musicInfoTableView.setItems(FXCollections.observableArrayList(musicPlayer.getCurrentMusicFolder().getSongs()));
+		sortBy(SortKey.SIZE);
 	}
 
 	/** This method allows to found a song in the current folder specifying its file name.
@@ -566,15 +683,15 @@ public class PrimaryStageController {
 			TableView<Song> result = new TableView<Song>();
 			TableColumn<Song, String> titleColumn = new TableColumn<Song, String>("Title");
 			TableColumn<Song, String> genreColumn = new TableColumn<Song, String>("Genre");
-			TableColumn<Song, Integer> albumColumn = new TableColumn<Song, Integer>("Album");
+			TableColumn<Song, String> albumColumn = new TableColumn<Song, String>("Album");
 			TableColumn<Song, String> artistColumn = new TableColumn<Song, String>("Artist");
-			TableColumn<Song, String> sizeColumn = new TableColumn<Song, String>("Size");
+			TableColumn<Song, Double> sizeColumn = new TableColumn<Song, Double>("Size");
 
-			titleColumn.setCellValueFactory(new PropertyValueFactory<Song, String>("title"));
-			genreColumn.setCellValueFactory(new PropertyValueFactory<Song, String>("genre"));
-			albumColumn.setCellValueFactory(new PropertyValueFactory<Song, Integer>("album"));
-			artistColumn.setCellValueFactory(new PropertyValueFactory<Song, String>("artist"));
-			sizeColumn.setCellValueFactory(new PropertyValueFactory<Song, String>("size"));
+			titleColumn.setCellValueFactory(cell(Song::getTitle));
+			genreColumn.setCellValueFactory(cell(Song::getGenre));
+			albumColumn.setCellValueFactory(cell(Song::getAlbum));
+			artistColumn.setCellValueFactory(cell(Song::getArtist));
+			sizeColumn.setCellValueFactory(cell(Song::getSize));
 
 			result.getColumns().addAll(titleColumn, genreColumn, albumColumn, artistColumn, sizeColumn);
 			result.setItems(SongResults);
@@ -615,4 +732,27 @@ public class PrimaryStageController {
 		window.setOnCloseRequest(event -> window.hide());
 		dialog.showAndWait();
 	}
+
+	/** It represents a cover art decoded at thumbnail size together with the palette of its colors.
+	 */
+	private static class Cover {
+		/** It represents the decoded cover art.
+		 */
+		private final Image image;
+		/** It represents the palette of the colors of the cover art.
+		 */
+		private final Palette palette;
+
+		/** Cover constructor method that reads the pixels of a decoded cover art to compute its palette.
+		 * @param image The Image of the cover art, completely loaded.
+		 */
+		private Cover(Image image) {
+			int width = (int)image.getWidth();
+			int height = (int)image.getHeight();
+			int[] pixels = new int[width*height];
+			image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+			this.image = image;
+			palette = Palette.of(pixels, Palette.DEFAULT_SIZE);
+		}
+	}
 }
@@ -0,0 +1,79 @@
+package model.musicPlayer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+public class ArtworkCacheTest {
+	private ArtworkCache<Integer> cache;
+	private int decoded;
+	private Song ukulele;
+	private Song badass;
+	private Song clearday;
+
+	private void setupScenario1(int capacity) throws IOException {
+		decoded = 0;
+		cache = new ArtworkCache<Integer>(capacity, picture -> {
+			decoded++;
+			return picture.length;
+		});
+		SongStore store = new SongStore();
+		ukulele = new Song(store, new File("music", "bensound-ukulele.mp3"));
+		badass = new Song(store, new File("music", "bensound-badass.mp3"));
+		clearday = new Song(store, new File("music", "bensound-clearday.mp3"));
+	}
+
+	@Test
+	public void albumSharesCoverTest() throws IOException {
+		setupScenario1(4);
+		assertEquals(ArtworkCache.keyOf(ukulele), ArtworkCache.keyOf(badass), "Both songs belong to the same album, so they should share the cover");
+		assertNull(cache.get(ukulele));
+		assertNull(cache.get(badass));
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+		assertEquals(0.5, cache.getHitRate());
+	}
+
+	@Test
+	public void chosenCoverIsNotSharedTest() throws IOException {
+		setupScenario1(4);
+		assertNull(cache.get(badass));
+		ukulele.setCoverArt(new File("imgs", "cd.png"));
+		cache.invalidate(ukulele);
+		assertNotNull(cache.get(ukulele), "The cover chosen for the song should have been decoded");
+		assertNull(cache.get(badass), "The cover chosen for a song should not be shown for the rest of its album");
+		assertEquals(1, decoded);
+	}
+
+	@Test
+	public void songWithoutCoverTest() throws IOException {
+		setupScenario1(4);
+		assertNull(cache.get(clearday));
+		assertNull(cache.get(clearday));
+		assertEquals(0, decoded, "A song without cover should not be decoded");
+		assertEquals(1, cache.getHits(), "The absence of a cover should have been kept too");
+	}
+
+	@Test
+	public void leastRecentlyUsedEvictionTest() throws IOException {
+		setupScenario1(1);
+		cache.get(ukulele);
+		cache.get(clearday);
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.getEvictions());
+		cache.get(ukulele);
+		assertEquals(3, cache.getMisses(), "The first cover should have been discarded to keep the capacity");
+	}
+
+	@Test
+	public void invalidateTest() throws IOException {
+		setupScenario1(4);
+		assertNull(cache.get(ukulele));
+		ukulele.setCoverArt(new File("imgs", "cd.png"));
+		cache.invalidate(ukulele);
+		assertNotNull(cache.get(ukulele), "The new cover should have been read after invalidating the old one");
+	}
+}
@@ -0,0 +1,191 @@
+package model.musicPlayer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class HistoryJournalTest {
+	private File directory;
+	private HistoryJournal journal;
+
+	private void setupScenario1() throws IOException {
+		directory = Files.createTempDirectory("history").toFile();
+		journal = new HistoryJournal(directory);
+	}
+
+	private void setupScenario2() throws IOException {
+		directory = Files.createTempDirectory("history").toFile();
+		journal = new HistoryJournal(directory, 256, 1);
+	}
+
+	@AfterEach
+	public void deleteJournal() throws IOException {
+		if(journal != null) {
+			journal.close();
+		}
+		if(directory != null) {
+			for(File f : directory.listFiles()) {
+				f.delete();
+			}
+			directory.delete();
+		}
+	}
+
+	private HistoryEvent event(int i) {
+		String path = new File("music", "song" + i + ".mp3").getAbsolutePath();
+		HistoryEvent.Type type = HistoryEvent.Type.values()[i % HistoryEvent.Type.values().length];
+		return new HistoryEvent(1000L * i, type, HistoryJournal.songId(path), 10L * i, path);
+	}
+
+	private ArrayList<HistoryEvent> readAll() throws IOException {
+		ArrayList<HistoryEvent> events = new ArrayList<HistoryEvent>();
+		for(File segment : HistoryJournal.segments(directory)) {
+			try(HistoryReader reader = new HistoryReader(segment)) {
+				events.addAll(reader.read(Integer.MAX_VALUE));
+			}
+		}
+		return events;
+	}
+
+	private void assertSameEvent(HistoryEvent expected, HistoryEvent read) {
+		assertEquals(expected.getTimestamp(), read.getTimestamp());
+		assertEquals(expected.getType(), read.getType());
+		assertEquals(expected.getSongId(), read.getSongId());
+		assertEquals(expected.getPlayedMillis(), read.getPlayedMillis());
+		assertEquals(expected.getPath(), read.getPath());
+	}
+
+	@Test
+	public void appendAndReadTest() throws IOException {
+		setupScenario1();
+		for(int i = 0; i < 100; i++) {
+			journal.append(event(i));
+		}
+		journal.sync();
+		ArrayList<HistoryEvent> events = readAll();
+		assertEquals(100, events.size());
+		for(int i = 0; i < 100; i++) {
+			assertSameEvent(event(i), events.get(i));
+		}
+	}
+
+	@Test
+	public void reopenAppendsTest() throws IOException {
+		setupScenario1();
+		journal.append(event(1));
+		journal.close();
+		journal = new HistoryJournal(directory);
+		journal.append(event(2));
+		journal.close();
+		ArrayList<HistoryEvent> events = readAll();
+		assertEquals(2, events.size(), "The records of the previous session should be kept");
+		assertSameEvent(event(1), events.get(0));
+		assertSameEvent(event(2), events.get(1));
+		assertEquals(1, HistoryJournal.segments(directory).size());
+	}
+
+	@Test
+	public void rotationTest() throws IOException {
+		setupScenario2();
+		for(int i = 0; i < 50; i++) {
+			journal.append(event(i));
+		}
+		ArrayList<File> segments = HistoryJournal.segments(directory);
+		assertTrue(segments.size() > 1, "The journal should have started new segments");
+		for(File segment : segments) {
+			assertTrue(segment.length() < 256 + HistoryJournal.RECORD_OVERHEAD + 100);
+		}
+		assertEquals(segments.get(segments.size()-1), journal.getCurrentSegment());
+		ArrayList<HistoryEvent> events = readAll();
+		assertEquals(50, events.size(), "No record should be lost between segments");
+		for(int i = 0; i < 50; i++) {
+			assertSameEvent(event(i), events.get(i));
+		}
+	}
+
+	@Test
+	public void tornRecordTest() throws IOException {
+		setupScenario1();
+		journal.append(event(1));
+		journal.append(event(2));
+		journal.close();
+		File segment = HistoryJournal.segments(directory).get(0);
+		try(RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+			file.setLength(file.length() - 5);
+		}
+		ArrayList<HistoryEvent> events = readAll();
+		assertEquals(1, events.size(), "A record that was not completely written should not be read");
+
+		journal = new HistoryJournal(directory);
+		journal.append(event(3));
+		journal.close();
+		events = readAll();
+		assertEquals(2, events.size());
+		assertSameEvent(event(1), events.get(0));
+		assertSameEvent(event(3), events.get(1));
+	}
+
+	@Test
+	public void longPathTest() throws IOException {
+		setupScenario1();
+		StringBuilder path = new StringBuilder("xy");
+		while(path.length() < Short.MAX_VALUE) {
+			path.append("\u00f1");
+		}
+		journal.append(new HistoryEvent(1, HistoryEvent.Type.PLAY, 2, 3, path.toString()));
+		journal.close();
+		String read = readAll().get(0).getPath();
+		assertTrue(path.toString().startsWith(read), "A path that is too long should be cut between two characters");
+		assertEquals(Short.MAX_VALUE - 1, read.getBytes("UTF-8").length);
+	}
+
+	@Test
+	public void seekTest() throws IOException {
+		setupScenario1();
+		for(int i = 0; i < 10; i++) {
+			journal.append(event(i));
+		}
+		journal.close();
+		try(HistoryReader reader = new HistoryReader(journal.getCurrentSegment())) {
+			reader.read(4);
+			long position = reader.position();
+			HistoryEvent fifth = reader.next();
+			reader.read(3);
+			reader.seek(position);
+			assertSameEvent(fifth, reader.next());
+			assertSameEvent(event(4), fifth);
+		}
+	}
+
+	@Test
+	public void readAcrossBlocksTest() throws IOException {
+		setupScenario1();
+		int count = 3 * HistoryReader.BLOCK_SIZE / HistoryJournal.RECORD_OVERHEAD;
+		for(int i = 0; i < count; i++) {
+			journal.append(event(i));
+		}
+		journal.close();
+		ArrayList<HistoryEvent> events = readAll();
+		assertEquals(count, events.size());
+		for(int i = 0; i < count; i++) {
+			assertSameEvent(event(i), events.get(i));
+		}
+		for(File segment : HistoryJournal.segments(directory)) {
+			assertTrue(segment.delete(), "A segment should not stay locked after its reader is closed");
+		}
+	}
+
+	@Test
+	public void songIdTest() {
+		String path = new File("music", "song.mp3").getAbsolutePath();
+		assertEquals(HistoryJournal.songId(path), HistoryJournal.songId(new String(path)));
+		assertNotEquals(HistoryJournal.songId(path), HistoryJournal.songId(path + "x"));
+	}
+}
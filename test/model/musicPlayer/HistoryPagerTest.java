@@ -0,0 +1,126 @@
+package model.musicPlayer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class HistoryPagerTest {
+	private File directory;
+	private File text;
+	private ArrayList<HistoryPager> pagers = new ArrayList<HistoryPager>();
+
+	private void setupScenario1(int lines) throws IOException {
+		directory = Files.createTempDirectory("history").toFile();
+		text = new File(directory, "history_test.txt");
+		appendLines(0, lines);
+	}
+
+	private void appendLines(int from, int to) throws IOException {
+		try(PrintWriter pw = new PrintWriter(new FileWriter(text, true))) {
+			for(int i = from; i < to; i++) {
+				pw.println("song" + i + ".mp3");
+			}
+		}
+	}
+
+	private HistoryPager open(File file) throws IOException {
+		HistoryPager pager = new HistoryPager(file);
+		pagers.add(pager);
+		return pager;
+	}
+
+	@AfterEach
+	public void deleteFiles() throws IOException {
+		for(HistoryPager pager : pagers) {
+			pager.close();
+		}
+		if(directory != null) {
+			for(File f : directory.listFiles()) {
+				f.delete();
+			}
+			directory.delete();
+		}
+	}
+
+	@Test
+	public void textLinesTest() throws IOException {
+		setupScenario1(1000);
+		HistoryPager pager = open(text);
+		assertEquals(1000, pager.getLineCount());
+		assertEquals("song999.mp3", pager.getLine(999));
+		assertEquals("song0.mp3", pager.getLine(0));
+		assertEquals("song300.mp3", pager.getLine(300));
+		assertTrue(pager.getIndexFile().exists(), "The line index should be saved next to the file");
+		assertThrows(IndexOutOfBoundsException.class, () -> pager.getLine(1000));
+	}
+
+	@Test
+	public void indexIsReusedAndExtendedTest() throws IOException {
+		setupScenario1(200);
+		new HistoryPager(text).close();
+		appendLines(200, 500);
+		HistoryPager pager = open(text);
+		assertEquals(500, pager.getLineCount(), "The lines added after the index was saved should be indexed");
+		assertEquals("song199.mp3", pager.getLine(199));
+		assertEquals("song450.mp3", pager.getLine(450));
+	}
+
+	@Test
+	public void staleIndexTest() throws IOException {
+		setupScenario1(300);
+		new HistoryPager(text).close();
+		text.delete();
+		appendLines(0, 10);
+		HistoryPager pager = open(text);
+		assertEquals(10, pager.getLineCount(), "An index longer than the file should be built again");
+		assertEquals("song9.mp3", pager.getLine(9));
+	}
+
+	@Test
+	public void partialLineTest() throws IOException {
+		setupScenario1(64);
+		try(FileWriter fw = new FileWriter(text, true)) {
+			fw.write("unfinished");
+		}
+		HistoryPager pager = open(text);
+		assertEquals(65, pager.getLineCount());
+		assertEquals("unfinished", pager.getLine(64));
+		assertEquals(65, open(text).getLineCount());
+	}
+
+	@Test
+	public void journalLinesTest() throws IOException {
+		directory = Files.createTempDirectory("history").toFile();
+		try(HistoryJournal journal = new HistoryJournal(directory)) {
+			for(int i = 0; i < 700; i++) {
+				String path = new File("music", "song" + i + ".mp3").getAbsolutePath();
+				journal.append(new HistoryEvent(i, HistoryEvent.Type.PLAY, HistoryJournal.songId(path), 0, path));
+			}
+		}
+		HistoryPager pager = open(HistoryJournal.segments(directory).get(0));
+		assertEquals(700, pager.getLineCount());
+		assertTrue(pager.getLine(0).endsWith("song0.mp3"));
+		assertTrue(pager.getLine(513).endsWith("song513.mp3"));
+		assertTrue(pager.getLine(699).endsWith("song699.mp3"));
+	}
+
+	@Test
+	public void loadedLinesTest() throws IOException {
+		setupScenario1(600);
+		HistoryPager pager = open(text);
+		assertNull(pager.getLoadedLine(300), "A line should not be available before its page is read");
+		assertEquals("song300.mp3", pager.getLine(300));
+		assertEquals("song256.mp3", pager.getLoadedLine(256), "The whole page of the line should be read");
+		assertEquals("song511.mp3", pager.getLoadedLine(511));
+		assertNull(pager.getLoadedLine(512));
+		assertArrayEquals(new int[] {512, 600}, pager.getPageBounds(599));
+	}
+}
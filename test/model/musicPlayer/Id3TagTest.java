@@ -0,0 +1,169 @@
+package model.musicPlayer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.beaglebuddy.mp3.MP3;
+
+public class Id3TagTest {
+	private final static int AUDIO_SIZE = 5000;
+
+	private File directory;
+	private byte[] cover;
+
+	private void setupScenario1() throws IOException {
+		directory = Files.createTempDirectory("tags").toFile();
+		cover = new byte[3000];
+		for(int i = 0; i < cover.length; i++) {
+			cover[i] = (byte)(i * 31);
+		}
+	}
+
+	@AfterEach
+	public void deleteFiles() {
+		if(directory != null) {
+			for(File f : directory.listFiles()) {
+				f.delete();
+			}
+			directory.delete();
+		}
+	}
+
+	private static byte[] text(int encoding, String value) {
+		Charset charset = encoding == 1 ? StandardCharsets.UTF_16 : encoding == 3 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+		byte[] bytes = value.getBytes(charset);
+		int terminator = encoding == 1 ? 2 : 1;
+		byte[] content = new byte[1 + bytes.length + terminator];
+		content[0] = (byte)encoding;
+		System.arraycopy(bytes, 0, content, 1, bytes.length);
+		return content;
+	}
+
+	private byte[] picture(int type) {
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		content.write(0);
+		content.write("image/png".getBytes(StandardCharsets.ISO_8859_1), 0, 9);
+		content.write(0);
+		content.write(type);
+		content.write("cover".getBytes(StandardCharsets.ISO_8859_1), 0, 5);
+		content.write(0);
+		content.write(cover, 0, cover.length);
+		return content.toByteArray();
+	}
+
+	private static byte[] frame(int version, String id, int flags, byte[] content) {
+		byte[] frame = new byte[Id3Tag.HEADER_SIZE + content.length];
+		System.arraycopy(id.getBytes(StandardCharsets.ISO_8859_1), 0, frame, 0, 4);
+		size(frame, 4, content.length, version == 4);
+		frame[9] = (byte)flags;
+		System.arraycopy(content, 0, frame, Id3Tag.HEADER_SIZE, content.length);
+		return frame;
+	}
+
+	private static void size(byte[] bytes, int position, int size, boolean syncsafe) {
+		int shift = syncsafe ? 7 : 8;
+		int mask = syncsafe ? 0x7F : 0xFF;
+		for(int i = 0; i < 4; i++) {
+			bytes[position+i] = (byte)((size >> (shift * (3-i))) & mask);
+		}
+	}
+
+	private File write(int version, int flags, boolean id3v1, byte[]... frames) throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		for(byte[] frame : frames) {
+			body.write(frame, 0, frame.length);
+		}
+		body.write(new byte[64], 0, 64);
+		byte[] header = {'I', 'D', '3', (byte)version, 0, (byte)flags, 0, 0, 0, 0};
+		size(header, 6, body.size(), true);
+		ByteArrayOutputStream file = new ByteArrayOutputStream();
+		file.write(header, 0, header.length);
+		body.writeTo(file);
+		file.write(new byte[AUDIO_SIZE], 0, AUDIO_SIZE);
+		if(id3v1) {
+			byte[] trailer = new byte[Id3Tag.ID3V1_SIZE];
+			trailer[0] = 'T';
+			trailer[1] = 'A';
+			trailer[2] = 'G';
+			file.write(trailer, 0, trailer.length);
+		}
+		File mp3 = File.createTempFile("song", ".mp3", directory);
+		Files.write(mp3.toPath(), file.toByteArray());
+		return mp3;
+	}
+
+	@Test
+	public void sameAsCompleteParserTest() throws IOException {
+		for(File f : LibraryScanner.listMP3Files(new File("music"))) {
+			Id3Tag tag = Id3Tag.read(f);
+			MP3 mp3 = new MP3(f);
+			assertNotNull(tag, f.getName());
+			assertEquals(mp3.getTitle(), tag.getTitle());
+			assertEquals(mp3.getLeadPerformer(), tag.getLeadPerformer());
+			assertEquals(mp3.getBand(), tag.getBand());
+			assertEquals(mp3.getAlbum(), tag.getAlbum());
+			assertEquals(mp3.getMusicType(), tag.getGenre());
+			assertEquals(mp3.getAudioSize(), tag.getAudioSize(), "The audio should be the file without its tags");
+		}
+	}
+
+	@Test
+	public void version4Test() throws IOException {
+		setupScenario1();
+		File f = write(4, 0, true, frame(4, "TIT2", 0, text(3, "T\u00edtulo")), frame(4, "TPE1", 0, text(1, "\u00c4rtist")),
+				frame(4, "TALB", 0, text(0, "Album")), frame(4, "APIC", 0, picture(Id3Tag.FRONT_COVER)), frame(4, "TCON", 0, text(0, "Jazz")));
+		Id3Tag tag = Id3Tag.read(f);
+		assertEquals("T\u00edtulo", tag.getTitle());
+		assertEquals("\u00c4rtist", tag.getLeadPerformer());
+		assertNull(tag.getBand());
+		assertEquals("Album", tag.getAlbum());
+		assertEquals("Jazz", tag.getGenre());
+		assertEquals(AUDIO_SIZE, tag.getAudioSize(), "The ID3v1 tag should not be counted as audio");
+		assertTrue(tag.hasCover());
+		assertArrayEquals(cover, tag.readCover(f));
+	}
+
+	@Test
+	public void onlyFrontCoverTest() throws IOException {
+		setupScenario1();
+		File f = write(3, 0, false, frame(3, "APIC", 0, picture(4)), frame(3, "TIT2", 0, text(0, "Title")));
+		Id3Tag tag = Id3Tag.read(f);
+		assertEquals("Title", tag.getTitle());
+		assertFalse(tag.hasCover(), "A back cover should not be taken as the front cover");
+		assertNull(tag.readCover(f));
+		assertEquals(AUDIO_SIZE, tag.getAudioSize());
+	}
+
+	@Test
+	public void unhandledTagsTest() throws IOException {
+		setupScenario1();
+		assertNull(Id3Tag.read(write(2, 0, false)), "ID3v2.2 tags should be left to the complete parser");
+		assertNull(Id3Tag.read(write(3, 0x80, false, frame(3, "TIT2", 0, text(0, "Title")))), "Unsynchronised tags should not be read");
+		assertNull(Id3Tag.read(write(3, 0, false, frame(3, "TIT2", 0x80, text(0, "Title")))), "Compressed frames should not be read");
+		assertNull(Id3Tag.read(write(3, 0, false, frame(3, "TCON", 0, text(0, "(8)")))), "Genres by number should be translated by the complete parser");
+		File untagged = new File(directory, "untagged.mp3");
+		Files.write(untagged.toPath(), new byte[AUDIO_SIZE]);
+		assertNull(Id3Tag.read(untagged));
+	}
+
+	@Test
+	public void unusedFramesAreSkippedTest() throws IOException {
+		setupScenario1();
+		File f = write(3, 0, false, frame(3, "PRIV", 0x80, new byte[100]), frame(3, "TPE2", 0, text(1, "Band")));
+		Id3Tag tag = Id3Tag.read(f);
+		assertNotNull(tag, "The flags of the frames that are not used should not matter");
+		assertEquals("Band", tag.getBand());
+		Song song = new Song(new SongStore(), f);
+		assertEquals("Band", song.getArtist());
+		assertEquals("unknown", song.getTitle());
+	}
+}
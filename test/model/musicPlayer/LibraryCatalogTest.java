@@ -0,0 +1,121 @@
+package model.musicPlayer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import customExceptions.FolderWithoutMP3ContentException;
+
+public class LibraryCatalogTest {
+	private MusicFolder first;
+	private File catalog;
+
+	private void setupScenario1() throws IOException, FolderWithoutMP3ContentException {
+		first = new MusicFolder(new File("music"));
+		MusicFolder second = new MusicFolder(new File("music"));
+		first.setNextMusicFolder(second);
+		second.setPrevMusicFolder(first);
+		catalog = Files.createTempFile("catalog", ".got").toFile();
+	}
+
+	@AfterEach
+	public void deleteCatalog() {
+		if(catalog != null) {
+			catalog.delete();
+		}
+	}
+
+	@Test
+	public void writeAndReadTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		LibraryCatalog.write(catalog, first);
+		MusicFolder read = LibraryCatalog.read(catalog);
+		MusicFolder expected = first;
+		while(expected != null) {
+			assertNotNull(read, "Every saved folder should have been read");
+			assertEquals(expected.getFolder().getPath(), read.getFolder().getPath());
+			assertEquals(expected.getNumberOfSongs(), read.getNumberOfSongs());
+			ArrayList<Song> expectedSongs = expected.inorder();
+			ArrayList<Song> readSongs = read.inorder();
+			for(int i = 0; i < expectedSongs.size(); i++) {
+				Song e = expectedSongs.get(i);
+				Song r = readSongs.get(i);
+				assertEquals(e.getTitle(), r.getTitle());
+				assertEquals(e.getArtist(), r.getArtist());
+				assertEquals(e.getAlbum(), r.getAlbum());
+				assertEquals(e.getGenre(), r.getGenre());
+				assertEquals(e.getSize(), r.getSize());
+				assertEquals(e.getSongPath(), r.getSongPath());
+			}
+			assertTrue(read.getPrevMusicFolder() == null || read.getPrevMusicFolder().getNextMusicFolder() == read);
+			expected = expected.getNextMusicFolder();
+			read = read.getNextMusicFolder();
+		}
+		assertNull(read, "No extra folder should have been read");
+	}
+
+	@Test
+	public void stringsAreSharedTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		LibraryCatalog.write(catalog, first);
+		long twoFolders = catalog.length();
+		first.getNextMusicFolder().setNextMusicFolder(new MusicFolder(new File("music")));
+		LibraryCatalog.write(catalog, first);
+		assertTrue(catalog.length() - twoFolders < twoFolders / 2, "The strings of a repeated folder should not be written again");
+	}
+
+	@Test
+	public void writeKeepsTheOrderTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		first.sortSongsBySize();
+		ArrayList<Song> shown = new ArrayList<Song>(first.getSongs());
+		LibraryCatalog.write(catalog, first);
+		assertEquals(shown, first.getSongs(), "Writing the catalog should not change the order of the songs");
+		for(Song song : shown) {
+			assertNotNull(first.search(song.getTitle()), "The songs should still be found after the catalog is written");
+		}
+	}
+
+	@Test
+	public void customCoversAreSavedTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		Song chosen = first.getNextMusicFolder().inorder().get(2);
+		chosen.setCoverArt(new File("imgs", "cd.png"));
+		LibraryCatalog.write(catalog, first);
+		ArrayList<Song> read = LibraryCatalog.read(catalog).getNextMusicFolder().inorder();
+		assertArrayEquals(chosen.getCustomCover(), read.get(2).getCustomCover(), "The cover chosen by the user should be kept");
+		assertNull(read.get(1).getCustomCover(), "The other songs should still show the cover of their file");
+	}
+
+	@Test
+	public void readInvalidFileTest() throws IOException {
+		catalog = Files.createTempFile("catalog", ".got").toFile();
+		try(DataOutputStream out = new DataOutputStream(new FileOutputStream(catalog))) {
+			out.writeInt(LibraryCatalog.MAGIC);
+			out.writeInt(LibraryCatalog.VERSION + 1);
+		}
+		assertThrows(StreamCorruptedException.class, () -> LibraryCatalog.read(catalog), "A newer version should not be read");
+		assertThrows(StreamCorruptedException.class, () -> LibraryCatalog.read(new File("data" + File.separator + "testfile.txt")));
+	}
+
+	@Test
+	public void readLegacyFoldersTest() throws IOException, ClassNotFoundException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		try(ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(catalog))) {
+			oos.writeObject(first);
+		}
+		ArrayList<MusicFolder> folders = LibraryCatalog.readLegacyFolders(catalog);
+		assertEquals(2, folders.size());
+		assertEquals(first.getFolder(), folders.get(0).getFolder());
+	}
+}
@@ -0,0 +1,173 @@
+package model.musicPlayer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import customExceptions.FolderWithoutMP3ContentException;
+
+public class LibraryEngineTest {
+	private File data;
+	private File root;
+	private File catalog;
+	private File index;
+	private LibraryEngine engine;
+
+	private void setupScenario1() throws IOException {
+		data = Files.createTempDirectory("data").toFile();
+		root = Files.createTempDirectory("library").toFile();
+		for(File f : new File("music").listFiles()) {
+			Files.copy(f.toPath(), new File(root, f.getName()).toPath());
+		}
+		catalog = new File(data, "ctlg.got");
+		index = new File(data, "lbrryndx.got");
+		engine = new LibraryEngine(catalog, index);
+	}
+
+	@AfterEach
+	public void deleteFiles() throws IOException {
+		if(engine != null) {
+			engine.close();
+		}
+		for(File dir : new File[] {data, root}) {
+			if(dir != null) {
+				delete(dir);
+			}
+		}
+	}
+
+	private void delete(File file) {
+		if(file.isDirectory()) {
+			for(File f : file.listFiles()) {
+				delete(f);
+			}
+		}
+		file.delete();
+	}
+
+	@Test
+	public void emptyEngineTest() throws IOException {
+		setupScenario1();
+		assertEquals(0, engine.getLibraries().size(), "Nothing should be scanned without a catalog");
+		assertTrue(engine.search("title", 10).isEmpty());
+	}
+
+	@Test
+	public void addAndSearchTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		MusicFolder folder = engine.addMusicFolder(root);
+		assertSame(folder, engine.addMusicFolder(root), "A folder should be added only once");
+		assertEquals(1, engine.getLibraries().size());
+		Song song = folder.getSongs().get(0);
+		ArrayList<Song> found = engine.search(song.getTitle(), 10);
+		assertTrue(found.contains(song));
+		assertSame(folder, engine.getMusicFolderOf(song));
+		assertTrue(engine.removeMusicFolder(folder));
+		assertTrue(engine.search(song.getTitle(), 10).isEmpty());
+		assertNull(engine.getMusicFolderOf(song));
+	}
+
+	@Test
+	public void removeNestedFolderTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		File sub = new File(root, "sub");
+		sub.mkdir();
+		for(File f : new File("music").listFiles()) {
+			Files.copy(f.toPath(), new File(sub, "copy " + f.getName()).toPath());
+		}
+		MusicFolder outer = engine.addMusicFolder(root);
+		MusicFolder inner = engine.addMusicFolder(sub);
+		Song shared = inner.getSongs().get(0);
+		assertTrue(outer.getSongs().contains(shared), "The nested folders should share their songs");
+		assertSame(outer, engine.getMusicFolderOf(shared));
+		assertTrue(engine.removeMusicFolder(outer));
+		assertTrue(engine.search(shared.getTitle(), 50).contains(shared), "The songs of the folder kept should still be found");
+		assertSame(inner, engine.getMusicFolderOf(shared), "The songs should be played from the folder kept");
+		assertTrue(engine.removeMusicFolder(inner));
+		assertFalse(engine.search(shared.getTitle(), 50).contains(shared));
+		assertNull(engine.getMusicFolderOf(shared));
+	}
+
+	@Test
+	public void saveAndLoadTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		engine.addMusicFolder(new File("music"));
+		engine.addMusicFolder(root);
+		engine.save();
+		engine.close();
+		engine = new LibraryEngine(catalog, index);
+		ArrayList<MusicFolder> folders = engine.getLibraries().getFolders();
+		assertEquals(2, folders.size());
+		assertEquals(root.getPath(), folders.get(1).getFolder().getPath());
+		assertEquals(new File("music").listFiles().length, folders.get(1).getNumberOfSongs());
+		assertEquals(2 * folders.get(1).getNumberOfSongs(), engine.getLibraryIndex().size());
+		Song song = folders.get(1).getSongs().get(0);
+		assertTrue(engine.search(song.getTitle(), 20).contains(song), "The loaded songs should be searchable");
+	}
+
+	@Test
+	public void rescanTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		engine.addMusicFolder(new File("music"));
+		MusicFolder folder = engine.addMusicFolder(root);
+		Song deleted = folder.getSongs().get(0);
+		deleted.getSongFile().delete();
+		engine.rescanMusicFolders();
+		MusicFolder rescanned = engine.getLibraries().get(root);
+		assertNotSame(folder, rescanned);
+		assertEquals(folder.getNumberOfSongs() - 1, rescanned.getNumberOfSongs());
+		assertFalse(engine.search(deleted.getTitle(), 20).contains(deleted), "The deleted song should no longer be found");
+		assertSame(rescanned, engine.getMusicFolderOf(rescanned.getSongs().get(0)), "The songs should be found in the rescanned folder");
+	}
+
+	@Test
+	public void reconcileInPlaceTest() throws Exception {
+		setupScenario1();
+		engine.addMusicFolder(root);
+		engine.save();
+		engine.close();
+		File[] files = root.listFiles();
+		File deleted = files[0];
+		File added = new File(root, "added.mp3");
+		Files.copy(deleted.toPath(), added.toPath());
+		deleted.delete();
+		engine = new LibraryEngine(catalog, index);
+		MusicFolder loaded = engine.getLibraries().get(root);
+		Song gone = loaded.findSong(deleted);
+		assertNotNull(gone, "The folder should be loaded as it was saved");
+		assertFalse(engine.reconcileMusicFolders(), "The folders can only be compared through the watcher");
+		assertTrue(engine.startWatching());
+		assertTrue(engine.reconcileMusicFolders());
+		assertSame(loaded, engine.getLibraries().get(root), "The folder should be updated in place");
+		assertEquals(files.length, loaded.getNumberOfSongs());
+		assertNull(loaded.findSong(deleted));
+		assertNotNull(loaded.findSong(added));
+		assertFalse(engine.search(gone.getTitle(), 20).contains(gone), "The deleted song should no longer be found");
+		assertTrue(engine.search(loaded.findSong(added).getTitle(), 20).contains(loaded.findSong(added)));
+	}
+
+	@Test
+	public void rescanKeepsWatchingTest() throws Exception {
+		setupScenario1();
+		MusicFolder folder = engine.addMusicFolder(root);
+		assertTrue(engine.startWatching());
+		File moved = folder.getSongs().get(0).getSongFile();
+		File kept = new File(data, moved.getName());
+		Files.move(moved.toPath(), kept.toPath());
+		engine.rescanMusicFolders();
+		MusicFolder rescanned = engine.getLibraries().get(root);
+		int songs = rescanned.getNumberOfSongs();
+		Files.move(kept.toPath(), moved.toPath());
+		long limit = System.currentTimeMillis() + 10000;
+		while(rescanned.getNumberOfSongs() == songs && System.currentTimeMillis() < limit) {
+			Thread.sleep(50);
+		}
+		assertEquals(songs + 1, rescanned.getNumberOfSongs(), "The rescanned folder should still be watched");
+	}
+}
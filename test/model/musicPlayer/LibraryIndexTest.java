@@ -0,0 +1,127 @@
+package model.musicPlayer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import customExceptions.FolderWithoutMP3ContentException;
+
+public class LibraryIndexTest {
+	private LibraryIndex index;
+	private SongStore store;
+	private File library;
+	private File nested;
+
+	private void setupScenario1() throws IOException {
+		index = new LibraryIndex();
+		store = new SongStore();
+		library = Files.createTempDirectory("library").toFile();
+		nested = new File(library, "nested");
+		nested.mkdir();
+		Files.copy(new File("music", "bensound-ukulele.mp3").toPath(), new File(library, "ukulele.mp3").toPath());
+		Files.copy(new File("music", "bensound-badass.mp3").toPath(), new File(nested, "badass.mp3").toPath());
+	}
+
+	@AfterEach
+	public void deleteLibrary() {
+		if(library != null) {
+			new File(nested, "badass.mp3").delete();
+			nested.delete();
+			new File(library, "ukulele.mp3").delete();
+			new File(library, "index.got").delete();
+			library.delete();
+		}
+	}
+
+	@Test
+	public void recursiveScanTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		MusicFolder mf = new MusicFolder(library, index);
+		assertEquals(2, mf.getNumberOfSongs(), "The songs inside the subfolders should have been added too");
+		assertEquals(2, index.size(), "Every read song should have been recorded in the index");
+	}
+
+	@Test
+	public void rescanWithWarmIndexTest() throws Exception {
+		setupScenario1();
+		new MusicFolder(library, index);
+		LibraryScanner scanner = new LibraryScanner(2, index);
+		MusicFolder mf = new MusicFolder(library, scanner, null);
+		scanner.awaitCompletion();
+		assertEquals(2, mf.getNumberOfSongs());
+		assertEquals(2, scanner.getReusedSongs(), "No file changed, so every song should have been taken from the index");
+	}
+
+	@Test
+	public void lookupChangedFileTest() throws IOException {
+		setupScenario1();
+		File f = new File(library, "ukulele.mp3");
+		Song read = new Song(store, f);
+		index.record(f, read);
+		assertTrue(index.isFresh(f));
+		Song cached = index.lookup(f, store);
+		assertNotNull(cached, "The file did not change, so it should have been found in the index");
+		assertEquals(read.getTitle(), cached.getTitle());
+		assertEquals(read.getSize(), cached.getSize());
+		assertArrayEquals(read.getImage(), cached.getImage(), "The image of an indexed song should be read from its file");
+		f.setLastModified(f.lastModified() - 60000);
+		assertFalse(index.isFresh(f), "A modified file should be read again");
+		assertNull(index.lookup(f, store));
+	}
+
+	@Test
+	public void saveAndLoadTest() throws IOException {
+		setupScenario1();
+		File f = new File(library, "ukulele.mp3");
+		index.record(f, new Song(store, f));
+		File saved = new File(library, "index.got");
+		index.save(saved);
+		LibraryIndex loaded = LibraryIndex.load(saved);
+		assertEquals(1, loaded.size());
+		assertTrue(loaded.isFresh(f), "The loaded index should contain the saved song");
+	}
+
+	@Test
+	public void saveLongStringTest() throws IOException {
+		setupScenario1();
+		File f = new File(library, "ukulele.mp3");
+		StringBuilder title = new StringBuilder();
+		while(title.length() <= 70000) {
+			title.append("\u00e1 long title ");
+		}
+		index.record(f, new Song(store, f, title.toString(), "artist", null, "genre", 1.0));
+		File saved = new File(library, "index.got");
+		index.save(saved);
+		assertFalse(new File(library, "index.got.tmp").exists(), "The index should be written to a temporary file and moved");
+		Song loaded = LibraryIndex.load(saved).lookup(f, store);
+		assertNotNull(loaded, "A string longer than 64 KB should not stop the index from being saved");
+		assertEquals(title.toString(), loaded.getTitle());
+		assertNull(loaded.getAlbum());
+	}
+
+	@Test
+	public void loadInvalidFileTest() {
+		LibraryIndex loaded = LibraryIndex.load(new File("data" + File.separator + "testfile.txt"));
+		assertEquals(0, loaded.size(), "A file that is not an index should be ignored");
+	}
+
+	@Test
+	public void removeMissingTest() throws IOException {
+		setupScenario1();
+		File kept = new File(library, "ukulele.mp3");
+		File removed = new File(nested, "badass.mp3");
+		index.record(kept, new Song(store, kept));
+		index.record(removed, new Song(store, removed));
+		HashSet<String> found = new HashSet<String>();
+		found.add(kept.getAbsolutePath());
+		assertEquals(1, index.removeMissing(library, found));
+		assertFalse(index.isFresh(removed));
+		assertTrue(index.isFresh(kept));
+	}
+}
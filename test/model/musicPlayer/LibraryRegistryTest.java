@@ -0,0 +1,166 @@
+package model.musicPlayer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import customExceptions.FolderWithoutMP3ContentException;
+
+public class LibraryRegistryTest {
+	private File root;
+	private File sub;
+	private LibraryRegistry registry;
+
+	private void setupScenario1() throws IOException {
+		root = Files.createTempDirectory("library").toFile();
+		sub = new File(root, "sub");
+		sub.mkdir();
+		File[] mp3 = new File("music").listFiles();
+		Files.copy(mp3[0].toPath(), new File(root, mp3[0].getName()).toPath());
+		Files.copy(mp3[1].toPath(), new File(root, mp3[1].getName()).toPath());
+		Files.copy(mp3[2].toPath(), new File(sub, mp3[2].getName()).toPath());
+		Files.copy(mp3[3].toPath(), new File(sub, mp3[3].getName()).toPath());
+		registry = new LibraryRegistry();
+	}
+
+	@AfterEach
+	public void deleteFiles() {
+		if(root != null) {
+			for(File f : sub.listFiles()) {
+				f.delete();
+			}
+			sub.delete();
+			for(File f : root.listFiles()) {
+				f.delete();
+			}
+			root.delete();
+		}
+	}
+
+	@Test
+	public void duplicatesTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		assertTrue(registry.add(new MusicFolder(root)));
+		assertTrue(registry.contains(root));
+		assertTrue(registry.contains(new File(sub, "..")), "The same folder reached through another path should be found");
+		assertFalse(registry.add(new MusicFolder(new File(sub, ".."))));
+		assertEquals(1, registry.size());
+		assertFalse(registry.contains(sub));
+		assertNull(registry.get(sub));
+	}
+
+	@Test
+	public void orderAndLinksTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		MusicFolder first = new MusicFolder(new File("music"));
+		MusicFolder second = new MusicFolder(root);
+		MusicFolder third = new MusicFolder(sub);
+		registry.add(first);
+		registry.add(second);
+		registry.add(third);
+		ArrayList<MusicFolder> folders = registry.getFolders();
+		assertSame(first, folders.get(0));
+		assertSame(second, folders.get(1));
+		assertSame(third, folders.get(2));
+		assertSame(second, first.getNextMusicFolder());
+		assertSame(first, second.getPrevMusicFolder());
+
+		registry.remove(second);
+		assertSame(third, first.getNextMusicFolder(), "The linked list should skip the removed folder");
+		assertSame(first, third.getPrevMusicFolder());
+		assertNull(third.getNextMusicFolder());
+		assertSame(first, registry.getFirst());
+		assertEquals(2, registry.size());
+	}
+
+	@Test
+	public void sharedSongsTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		MusicFolder outer = new MusicFolder(root);
+		MusicFolder inner = new MusicFolder(sub);
+		registry.add(outer);
+		registry.add(inner);
+		assertEquals(4, registry.getSongCount(), "The files of the inner folder should be kept only once");
+		for(Song song : inner.getSongs()) {
+			assertTrue(outer.getSongs().contains(song), "Both folders should share the same Song");
+			assertSame(song, registry.getSong(song.getSongFile().getAbsolutePath()));
+		}
+
+		registry.remove(outer);
+		assertEquals(2, registry.getSongCount(), "Only the songs of the inner folder should be kept");
+		registry.remove(inner);
+		assertEquals(0, registry.getSongCount());
+	}
+
+	@Test
+	public void linkedFolderSongsAreSharedTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		File links = Files.createTempDirectory("links").toFile();
+		File link = new File(links, "library");
+		try {
+			try {
+				Files.createSymbolicLink(link.toPath(), root.toPath());
+			} catch(UnsupportedOperationException | IOException e) {
+				Assumptions.assumeTrue(false, "Symbolic links cannot be created here");
+			}
+			MusicFolder outer = new MusicFolder(root);
+			MusicFolder linked = new MusicFolder(new File(link, "sub"));
+			registry.add(outer);
+			registry.add(linked);
+			assertEquals(2, registry.size(), "The linked folder is not the outer folder");
+			assertEquals(4, registry.getSongCount(), "The files reached through the link should be kept only once");
+			for(Song song : linked.getSongs()) {
+				assertTrue(outer.getSongs().contains(song), "Both folders should share the same Song");
+				assertSame(song, registry.getSong(new File(new File(link, "sub"), song.getSongFile().getName()).getPath()));
+			}
+		} finally {
+			link.delete();
+			links.delete();
+		}
+	}
+
+	@Test
+	public void songsAddedLaterAreSharedTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		MusicFolder outer = new MusicFolder(root);
+		registry.add(outer);
+		LibraryScanner scanner = new LibraryScanner(1);
+		MusicFolder inner = new MusicFolder(sub, scanner, null);
+		registry.add(inner);
+		try {
+			scanner.awaitCompletion();
+		} catch(InterruptedException e) {
+			fail(e);
+		}
+		assertEquals(2, inner.getNumberOfSongs());
+		for(Song song : inner.getSongs()) {
+			assertTrue(outer.getSongs().contains(song), "The songs scanned after the folder was registered should be shared too");
+		}
+		assertEquals(4, registry.getSongCount());
+	}
+
+	@Test
+	public void replaceTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		MusicFolder first = new MusicFolder(new File("music"));
+		MusicFolder old = new MusicFolder(root);
+		MusicFolder last = new MusicFolder(sub);
+		registry.add(first);
+		registry.add(old);
+		registry.add(last);
+		MusicFolder rescanned = new MusicFolder(root);
+		assertTrue(registry.replace(old, rescanned));
+		assertSame(rescanned, registry.get(root));
+		assertSame(rescanned, first.getNextMusicFolder());
+		assertSame(rescanned, last.getPrevMusicFolder());
+		assertEquals(new MusicFolder(new File("music")).getNumberOfSongs() + 4, registry.getSongCount());
+		assertFalse(registry.replace(old, rescanned), "A folder that is no longer registered cannot be replaced");
+	}
+}
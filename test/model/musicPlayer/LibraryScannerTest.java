@@ -0,0 +1,113 @@
+package model.musicPlayer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+public class LibraryScannerTest {
+	private LibraryScanner scanner;
+	private MusicFolder mf;
+	private volatile int notifiedSongs;
+	private volatile boolean finished;
+
+	private void setupScenario1() {
+		scanner = new LibraryScanner(2);
+		mf = null;
+		notifiedSongs = 0;
+		finished = false;
+	}
+
+	private ScanListener countingListener() {
+		return new ScanListener() {
+			@Override
+			public synchronized void songScanned(MusicFolder folder, Song song) {
+				notifiedSongs++;
+			}
+
+			@Override
+			public void scanFinished(MusicFolder folder, boolean cancelled) {
+				finished = true;
+			}
+		};
+	}
+
+	@Test
+	public void listMP3FilesTest() {
+		ArrayList<File> files = LibraryScanner.listMP3Files(new File("music"));
+		assertEquals(6, files.size(), "The demo library contains six MP3 files");
+		for(File f : files) {
+			assertTrue(f.getName().endsWith(".mp3"), "Only MP3 files should have been listed");
+		}
+	}
+
+	@Test
+	public void createScannerWithoutWorkersTest() {
+		assertThrows(IllegalArgumentException.class, () -> new LibraryScanner(0), "A scanner without workers could not read any song");
+	}
+
+	@Test
+	public void scanInBackgroundTest() throws Exception {
+		setupScenario1();
+		mf = new MusicFolder(new File("music"), scanner, countingListener());
+		scanner.awaitCompletion();
+		assertTrue(scanner.isFinished(), "The scanner should have finished");
+		assertTrue(finished, "The listener should have been notified when the scan finished");
+		assertEquals(6, mf.getNumberOfSongs(), "All the songs of the demo library should have been added");
+		assertEquals(6, notifiedSongs, "The listener should have been notified once per song");
+		assertEquals(6, scanner.getScannedSongs());
+		assertEquals(0, scanner.getFailedFiles());
+		ArrayList<Song> songs = mf.getSongs();
+		for(int i = 1; i < songs.size(); i++) {
+			assertTrue(songs.get(i).compareTo(songs.get(i-1)) >= 0, "The songs added while scanning should be sorted by title");
+		}
+	}
+
+	@Test
+	public void scanWalksTheFolderInTheBackgroundTest() throws Exception {
+		setupScenario1();
+		Thread caller = Thread.currentThread();
+		ArrayList<Thread> readers = new ArrayList<Thread>();
+		mf = new MusicFolder(new File("music"), scanner, new ScanListener() {
+			@Override
+			public synchronized void songScanned(MusicFolder folder, Song song) {
+				readers.add(Thread.currentThread());
+			}
+
+			@Override
+			public void scanFinished(MusicFolder folder, boolean cancelled) {
+			}
+		});
+		scanner.awaitCompletion();
+		assertEquals(6, scanner.getTotalFiles(), "Every file found while walking should be counted");
+		assertEquals(6, readers.size());
+		assertFalse(readers.contains(caller), "The songs should be read by the workers, not by the caller");
+	}
+
+	@Test
+	public void cancelScanTest() throws Exception {
+		setupScenario1();
+		scanner.cancel();
+		mf = new MusicFolder(new File("music"), scanner, countingListener());
+		scanner.awaitCompletion();
+		assertTrue(scanner.isCancelled());
+		assertTrue(finished, "A cancelled scan should notify the listener as well");
+		assertEquals(0, mf.getNumberOfSongs(), "A scan cancelled before starting should not add any song");
+	}
+
+	@Test
+	public void scannerStartedTwiceTest() throws Exception {
+		setupScenario1();
+		mf = new MusicFolder(new File("music"), scanner, null);
+		assertThrows(IllegalStateException.class, () -> scanner.scan(mf, null), "A scanner can only be started once");
+	}
+
+	@Test
+	public void scanInvalidFolderTest() {
+		setupScenario1();
+		assertThrows(FileNotFoundException.class, () -> new MusicFolder(new File("idonotexist"), scanner, null));
+	}
+}
@@ -0,0 +1,148 @@
+package model.musicPlayer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import customExceptions.FolderWithoutMP3ContentException;
+
+public class LibraryWatcherTest {
+	private File root;
+	private File[] mp3;
+	private LibraryRegistry registry;
+	private MusicFolder folder;
+	private LibraryWatcher watcher;
+	private AtomicInteger notifications;
+
+	private void setupScenario1() throws IOException, FolderWithoutMP3ContentException {
+		root = Files.createTempDirectory("watched").toFile().getCanonicalFile();
+		mp3 = new File("music").listFiles();
+		Files.copy(mp3[0].toPath(), new File(root, mp3[0].getName()).toPath());
+		Files.copy(mp3[1].toPath(), new File(root, mp3[1].getName()).toPath());
+		registry = new LibraryRegistry();
+		folder = new MusicFolder(root);
+		registry.add(folder);
+		notifications = new AtomicInteger();
+		watcher = new LibraryWatcher(registry, null, 100, (f, added, removed) -> notifications.incrementAndGet());
+		watcher.watch(folder);
+	}
+
+	@AfterEach
+	public void deleteFiles() throws IOException {
+		if(watcher != null) {
+			watcher.close();
+		}
+		if(root != null) {
+			delete(root);
+		}
+	}
+
+	private void delete(File file) {
+		File[] children = file.listFiles();
+		if(children != null) {
+			for(File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	private LinkedHashSet<Path> changed(File... files) {
+		LinkedHashSet<Path> changed = new LinkedHashSet<Path>();
+		for(File file : files) {
+			changed.add(file.toPath());
+		}
+		return changed;
+	}
+
+	@Test
+	public void createAndDeleteTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		File created = new File(root, mp3[2].getName());
+		Files.copy(mp3[2].toPath(), created.toPath());
+		watcher.apply(changed(created), false);
+		assertEquals(3, folder.getNumberOfSongs());
+		assertNotNull(folder.findSong(created));
+		assertEquals(3, registry.getSongCount(), "The new song should be shared through the registry");
+
+		File deleted = new File(root, mp3[0].getName());
+		deleted.delete();
+		watcher.apply(changed(deleted), false);
+		assertEquals(2, folder.getNumberOfSongs());
+		assertNull(folder.findSong(deleted));
+		assertEquals(2, notifications.get());
+	}
+
+	@Test
+	public void modifiedFileIsReplacedTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		File modified = new File(root, mp3[0].getName());
+		Song old = folder.findSong(modified);
+		watcher.apply(changed(modified, modified), false);
+		assertEquals(2, folder.getNumberOfSongs(), "A changed file should replace its song instead of adding another one");
+		assertNotNull(folder.findSong(modified));
+		assertEquals(old.getTitle(), folder.findSong(modified).getTitle());
+	}
+
+	@Test
+	public void newDirectoryTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		File sub = new File(root, "album");
+		sub.mkdir();
+		Files.copy(mp3[2].toPath(), new File(sub, mp3[2].getName()).toPath());
+		Files.copy(mp3[3].toPath(), new File(sub, mp3[3].getName()).toPath());
+		watcher.apply(changed(sub), false);
+		assertEquals(4, folder.getNumberOfSongs(), "The files of a new directory should be added together");
+
+		delete(sub);
+		watcher.apply(changed(sub), false);
+		assertEquals(2, folder.getNumberOfSongs(), "The songs of a deleted directory should be removed");
+	}
+
+	@Test
+	public void overflowTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		new File(root, mp3[0].getName()).delete();
+		Files.copy(mp3[2].toPath(), new File(root, mp3[2].getName()).toPath());
+		Files.copy(mp3[3].toPath(), new File(root, mp3[3].getName()).toPath());
+		watcher.apply(Collections.emptySet(), true);
+		assertEquals(3, folder.getNumberOfSongs(), "The folder should be compared with its files when changes were lost");
+	}
+
+	@Test
+	public void sortedOrderIsKeptTest() throws IOException, FolderWithoutMP3ContentException {
+		setupScenario1();
+		folder.sortSongs(SortKey.ARTIST_ALBUM_TITLE, true);
+		File created = new File(root, mp3[2].getName());
+		Files.copy(mp3[2].toPath(), created.toPath());
+		watcher.apply(changed(created), false);
+		folder.sortSongs(SortKey.ARTIST_ALBUM_TITLE, true);
+		ArrayList<Song> sorted = folder.getSongs();
+		assertEquals(3, sorted.size());
+		for(int i = 1; i < sorted.size(); i++) {
+			assertTrue(SortKey.ARTIST_ALBUM_TITLE.getComparator().compare(sorted.get(i-1), sorted.get(i)) <= 0);
+		}
+	}
+
+	@Test
+	public void liveWatchTest() throws IOException, FolderWithoutMP3ContentException, InterruptedException {
+		setupScenario1();
+		Files.copy(mp3[2].toPath(), new File(root, mp3[2].getName()).toPath());
+		long deadline = System.currentTimeMillis() + 10000;
+		while(folder.getNumberOfSongs() < 3 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		assertEquals(3, folder.getNumberOfSongs(), "The copied file should be added without rescanning the folder");
+		assertTrue(notifications.get() > 0);
+	}
+}
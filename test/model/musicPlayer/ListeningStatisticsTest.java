@@ -0,0 +1,138 @@
+package model.musicPlayer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class ListeningStatisticsTest {
+	private final static long DAY = ListeningStatistics.DAY_MILLIS;
+
+	private SongStore store = new SongStore();
+	private ArrayList<Song> songs;
+	private ListeningStatistics statistics;
+	private File directory;
+
+	private void setupScenario1() {
+		songs = new ArrayList<Song>();
+		for(int i = 0; i < 10; i++) {
+			songs.add(new Song(store, new File("music", "song" + i + ".mp3"), "title" + i, "artist" + (i % 3), "album" + (i % 2), "genre", 1));
+		}
+		statistics = new ListeningStatistics();
+	}
+
+	@AfterEach
+	public void deleteFiles() {
+		if(directory != null) {
+			for(File f : directory.listFiles()) {
+				f.delete();
+			}
+			directory.delete();
+		}
+	}
+
+	private HistoryEvent event(HistoryEvent.Type type, int song, long time, long played) {
+		String path = songs.get(song).getSongFile().getAbsolutePath();
+		return new HistoryEvent(time, type, HistoryJournal.songId(path), played, path);
+	}
+
+	private void play(int song, long time, boolean finished) {
+		statistics.record(event(HistoryEvent.Type.PLAY, song, time, 0), songs.get(song));
+		HistoryEvent.Type end = finished ? HistoryEvent.Type.FINISH : HistoryEvent.Type.SKIP;
+		statistics.record(event(end, song, time + 1000, finished ? 180000 : 10000), songs.get(song));
+	}
+
+	@Test
+	public void countsTest() {
+		setupScenario1();
+		play(1, 0, true);
+		play(1, 1000, false);
+		play(4, 2000, true);
+		ListeningStatistics.Entry entry = statistics.get(songs.get(1));
+		assertEquals(2, entry.getPlays());
+		assertEquals(1, entry.getFinishes());
+		assertEquals(1, entry.getSkips());
+		assertEquals(190000, entry.getListenMillis());
+		assertEquals(0.5, entry.getSkipRate(), 1e-9);
+		ListeningStatistics.Entry artist = statistics.get(ListeningStatistics.Kind.ARTIST, ListeningStatistics.artistId("artist1"));
+		assertEquals(3, artist.getPlays(), "The songs 1 and 4 are of the same artist");
+		assertNull(statistics.get(songs.get(2)));
+	}
+
+	@Test
+	public void topTest() {
+		setupScenario1();
+		for(int i = 0; i < songs.size(); i++) {
+			for(int j = 0; j <= i; j++) {
+				play(i, j, true);
+			}
+		}
+		ArrayList<ListeningStatistics.Entry> top = statistics.top(ListeningStatistics.Kind.SONG, ListeningStatistics.Metric.PLAYS, 3);
+		assertEquals(3, top.size());
+		assertEquals("title9", top.get(0).getName());
+		assertEquals("title8", top.get(1).getName());
+		assertEquals("title7", top.get(2).getName());
+		assertEquals(songs.size(), statistics.top(ListeningStatistics.Kind.SONG, ListeningStatistics.Metric.PLAYS, 100).size());
+		assertTrue(statistics.top(ListeningStatistics.Kind.SONG, ListeningStatistics.Metric.PLAYS, 0).isEmpty());
+	}
+
+	@Test
+	public void timeWindowTest() {
+		setupScenario1();
+		for(int i = 0; i < 5; i++) {
+			play(2, 10 * DAY + i, true);
+		}
+		play(3, 20 * DAY, true);
+		play(3, 21 * DAY, true);
+		ArrayList<ListeningStatistics.Entry> top = statistics.top(ListeningStatistics.Kind.SONG, ListeningStatistics.Metric.PLAYS, 1, 15 * DAY, 30 * DAY);
+		assertEquals("title3", top.get(0).getName(), "Only the plays of the window should be counted");
+		assertEquals(2, top.get(0).getPlays());
+		top = statistics.top(ListeningStatistics.Kind.SONG, ListeningStatistics.Metric.PLAYS, 1, 0, 30 * DAY);
+		assertEquals("title2", top.get(0).getName());
+	}
+
+	@Test
+	public void saveAndCatchUpTest() throws IOException {
+		setupScenario1();
+		directory = Files.createTempDirectory("history").toFile();
+		File file = new File(directory, "stts.got");
+		HashMap<String, Song> library = new HashMap<String, Song>();
+		for(Song song : songs) {
+			library.put(song.getSongFile().getAbsolutePath(), song);
+		}
+		try(HistoryJournal journal = new HistoryJournal(directory)) {
+			statistics.record(journal.record(HistoryEvent.Type.PLAY, songs.get(5), 0), songs.get(5));
+			statistics.save(file, journal.getSegmentNumber(), journal.getPosition());
+			journal.record(HistoryEvent.Type.PLAY, songs.get(5), 0);
+			journal.record(HistoryEvent.Type.PLAY, songs.get(6), 0);
+		}
+		ListeningStatistics loaded = ListeningStatistics.load(file);
+		assertEquals(1, loaded.get(songs.get(5)).getPlays());
+		loaded.catchUp(directory, library::get);
+		assertEquals(2, loaded.get(songs.get(5)).getPlays(), "Only the events after the saved position should be counted");
+		assertEquals(1, loaded.get(songs.get(6)).getPlays());
+		assertEquals(1, loaded.get(ListeningStatistics.Kind.ALBUM, ListeningStatistics.albumId("artist0", "album0")).getPlays());
+	}
+
+	@Test
+	public void longTitleTest() throws IOException {
+		setupScenario1();
+		directory = Files.createTempDirectory("history").toFile();
+		File file = new File(directory, "stts.got");
+		StringBuilder title = new StringBuilder();
+		while(title.length() < 40000) {
+			title.append("\u00f1");
+		}
+		Song song = new Song(store, new File("music", "long.mp3"), title.toString(), "artist", "album", "genre", 1);
+		statistics.record(new HistoryEvent(0, HistoryEvent.Type.PLAY, HistoryJournal.songId(song.getSongFile().getAbsolutePath()), 0,
+				song.getSongFile().getAbsolutePath()), song);
+		statistics.save(file, 1, HistoryJournal.HEADER_SIZE);
+		assertEquals(title.toString(), ListeningStatistics.load(file).get(song).getName(), "A title longer than 65535 bytes should be saved");
+	}
+}
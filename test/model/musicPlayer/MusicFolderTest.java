@@ -138,4 +138,67 @@ public class MusicFolderTest {
 			assertTrue("The list is not sorted by genre", arc.compare(songs.get(i), songs.get(i-1)) >= 0);
 		}
 	}
+
+	@Test
+	public void sortSongsDescendingTest() {
+		setupScenario2();
+		mf.sortSongs(SortKey.ALBUM, false);
+		ArrayList<Song> songs = mf.getSongs();
+		AlbumComparator ac = new AlbumComparator();
+
+		assertEquals(mf.getNumberOfSongs(), songs.size(), "Sorting should not add or remove songs");
+		for(int i = 1; i < songs.size(); i++) {
+			assertTrue("The list is not sorted by album in descending order", ac.compare(songs.get(i), songs.get(i-1)) <= 0);
+		}
+	}
+
+	@Test
+	public void addSongKeepsTheSortOrderTest() {
+		setupScenario2();
+		mf.sortSongs(SortKey.SIZE, false);
+		Song same = mf.getSongs().get(1);
+		mf.addSong(new Song(mf.getStore(), new File("music", "same.mp3"), "same", "artist", "album", "genre", same.getSize()));
+		mf.addSong(new Song(mf.getStore(), new File("music", "largest.mp3"), "largest", "artist", "album", "genre", Double.MAX_VALUE));
+		ArrayList<Song> added = new ArrayList<Song>(mf.getSongs());
+		mf.sortSongs(SortKey.SIZE, false);
+		assertEquals(mf.getSongs(), added, "The added songs should be where sorting again puts them");
+		assertEquals("largest", added.get(0).getTitle());
+	}
+
+	@Test
+	public void songsAppendedByAScanAreSortedOnceTest() {
+		SongStore store = new SongStore();
+		ArrayList<Song> read = new ArrayList<Song>();
+		for(int i = 2000; i > 0; i--) {
+			read.add(new Song(store, new File("music", i + ".mp3"), String.format("%05d", i), "artist", "album", "genre", i));
+		}
+		mf = new MusicFolder(new File("music"), store, read);
+		ArrayList<Song> songs = mf.getSongs();
+		for(int i = 1; i < songs.size(); i++) {
+			assertTrue("The songs read in any order should end sorted by title", songs.get(i-1).getTitle().compareTo(songs.get(i).getTitle()) <= 0);
+		}
+		assertSame(read.get(0), mf.search("02000"));
+		mf.addSong(new Song(store, new File("music", "0.mp3"), "00000", "artist", "album", "genre", 0));
+		assertEquals("00000", mf.getSongs().get(0).getTitle(), "The songs added after the scan should be inserted in their position");
+	}
+
+	@Test
+	public void removeSongsInTest() {
+		setupScenario2();
+		int before = mf.getNumberOfSongs();
+		File sub = new File("music", "sub");
+		for(int i = 0; i < 5; i++) {
+			mf.addSong(new Song(mf.getStore(), new File(sub, "song" + i + ".mp3"), "song" + i, "artist", "album", "genre", i));
+		}
+		mf.sortSongs(SortKey.ARTIST, true);
+		assertNotNull(mf.findSong(new File(sub, "song3.mp3")));
+		assertEquals(1, mf.removeSongsIn(new File(sub, "song3.mp3")).size());
+		assertNull(mf.findSong(new File(sub, "song3.mp3")));
+		assertEquals(4, mf.removeSongsIn(sub).size(), "Every song inside the folder should be removed");
+		assertEquals(before, mf.getNumberOfSongs());
+		assertEquals(before, mf.getSongs().size());
+		assertNull(mf.findSong(new File(sub, "song0.mp3")));
+		mf.sortSongs(SortKey.SIZE, true);
+		assertEquals(before, mf.getSongs().size(), "The sorted permutations should not keep the removed songs");
+	}
 }
\ No newline at end of file
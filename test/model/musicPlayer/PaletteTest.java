@@ -0,0 +1,50 @@
+package model.musicPlayer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class PaletteTest {
+	private int[] pixels;
+
+	private void setupScenario1() {
+		pixels = new int[100];
+		Arrays.fill(pixels, 0, 70, 0xFFC81E1E);
+		Arrays.fill(pixels, 70, 95, 0xFF1E1EC8);
+		Arrays.fill(pixels, 95, 100, 0x001EC81E);
+	}
+
+	@Test
+	public void dominantColorTest() {
+		setupScenario1();
+		Palette p = Palette.of(pixels, Palette.DEFAULT_SIZE);
+		assertEquals(0xFFC81E1E, p.getDominant(), "The red pixels are the most common ones");
+		assertArrayEquals(new int[] {0xFFC81E1E, 0xFF1E1EC8}, p.getColors(), "The transparent pixels should have been ignored");
+	}
+
+	@Test
+	public void averageColorTest() {
+		setupScenario1();
+		Palette p = Palette.of(pixels, 1);
+		int red = (70*0xC8 + 25*0x1E) / 95;
+		int blue = (70*0x1E + 25*0xC8) / 95;
+		assertEquals(0xFF000000 | red << 16 | 0x1E << 8 | blue, p.getAverage());
+		assertEquals(1, p.getColors().length);
+	}
+
+	@Test
+	public void similarColorsAreGroupedTest() {
+		pixels = new int[] {0xFF101010, 0xFF121212, 0xFF141414, 0xFFF0F0F0};
+		Palette p = Palette.of(pixels, Palette.DEFAULT_SIZE);
+		assertEquals(0xFF121212, p.getDominant(), "Close shades should fall in the same bucket and be averaged");
+	}
+
+	@Test
+	public void transparentImageTest() {
+		Palette p = Palette.of(new int[] {0x00FFFFFF}, Palette.DEFAULT_SIZE);
+		assertEquals(Palette.DEFAULT_COLOR, p.getDominant());
+		assertEquals(Palette.DEFAULT_COLOR, p.getAverage());
+	}
+}
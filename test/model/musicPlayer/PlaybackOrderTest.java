@@ -0,0 +1,207 @@
+package model.musicPlayer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class PlaybackOrderTest {
+	private SongStore store = new SongStore();
+	private ArrayList<Song> songs;
+	private PlaybackOrder order;
+
+	private void setupScenario1(PlaybackMode mode) {
+		songs = new ArrayList<Song>();
+		for(int i = 0; i < 20; i++) {
+			String title = String.format("%02d", i);
+			songs.add(new Song(store, new File("music", title + ".mp3"), title, "artist" + (i % 4), "album", "genre", 1));
+		}
+		order = new PlaybackOrder(songs, mode, new Random(3));
+	}
+
+	@Test
+	public void sequentialTest() {
+		setupScenario1(PlaybackMode.SEQUENTIAL);
+		assertNull(order.current());
+		for(int i = 0; i < songs.size(); i++) {
+			assertSame(songs.get(i), order.next());
+		}
+		assertSame(songs.get(0), order.next(), "After the last song the play list should start again");
+		assertSame(songs.get(songs.size()-1), order.previous());
+	}
+
+	@Test
+	public void shuffleWithoutRepeatsTest() {
+		setupScenario1(PlaybackMode.SHUFFLE);
+		for(int cycle = 0; cycle < 5; cycle++) {
+			IdentityHashMap<Song, Boolean> played = new IdentityHashMap<Song, Boolean>();
+			for(int i = 0; i < songs.size(); i++) {
+				assertNull(played.put(order.next(), true), "No song should be repeated before all of them were played");
+			}
+			assertEquals(songs.size(), played.size());
+		}
+	}
+
+	@Test
+	public void noRepeatBetweenCyclesTest() {
+		setupScenario1(PlaybackMode.SHUFFLE);
+		Song last = null;
+		for(int i = 0; i < songs.size() * 50; i++) {
+			Song next = order.next();
+			assertNotSame(last, next, "The same song should never be played twice in a row");
+			last = next;
+		}
+	}
+
+	@Test
+	public void previousGoesBackTest() {
+		setupScenario1(PlaybackMode.SHUFFLE);
+		Song first = order.next();
+		Song second = order.next();
+		assertSame(first, order.previous(), "Previous should go back to the song played before");
+		assertSame(second, order.next());
+	}
+
+	@Test
+	public void previousFromTheFirstSongOfACycleTest() {
+		setupScenario1(PlaybackMode.SHUFFLE);
+		Song first = order.next();
+		assertSame(first, order.previous(), "Before the first song there is nothing to go back to");
+		Song last = null;
+		for(int i = 1; i < songs.size(); i++) {
+			last = order.next();
+		}
+		Song second = order.next();
+		assertSame(last, order.previous(), "From the first song of a cycle it should go back to the last song played");
+		assertSame(second, order.next(), "The cycle it came from should be played again");
+	}
+
+	@Test
+	public void sortingKeepsTheCycleTest() {
+		setupScenario1(PlaybackMode.SHUFFLE);
+		IdentityHashMap<Song, Boolean> played = new IdentityHashMap<Song, Boolean>();
+		for(int i = 0; i < songs.size() / 2; i++) {
+			played.put(order.next(), true);
+		}
+		Song current = order.current();
+		songs.sort((a, b) -> b.getTitle().compareTo(a.getTitle()));
+		order.update(songs);
+		assertSame(current, order.current());
+		for(int i = songs.size() / 2; i < songs.size(); i++) {
+			assertNull(played.put(order.next(), true), "Sorting the play list should not bring back the songs already played");
+		}
+	}
+
+	@Test
+	public void updateAddsAndRemovesSongsTest() {
+		setupScenario1(PlaybackMode.SHUFFLE);
+		IdentityHashMap<Song, Boolean> played = new IdentityHashMap<Song, Boolean>();
+		for(int i = 0; i < 5; i++) {
+			played.put(order.next(), true);
+		}
+		Song removedPlayed = order.current();
+		Song removed = null;
+		for(Song s : songs) {
+			if(removed == null && !played.containsKey(s)) {
+				removed = s;
+			}
+		}
+		songs.remove(removedPlayed);
+		songs.remove(removed);
+		Song added = new Song(store, new File("music", "new.mp3"), "new", "artist9", "album", "genre", 1);
+		songs.add(7, added);
+		order.update(songs);
+		assertEquals(songs.size(), order.size());
+		while(played.size() < songs.size() + 1) {
+			Song next = order.next();
+			assertNotSame(removed, next, "A removed song should not be played");
+			assertNull(played.put(next, true), "The rest of the cycle should play every other song once");
+		}
+		assertTrue(played.containsKey(added), "The added song should be played in the current cycle");
+	}
+
+	@Test
+	public void updateInSequenceFollowsTheListTest() {
+		setupScenario1(PlaybackMode.SEQUENTIAL);
+		order.next();
+		order.next();
+		songs.sort((a, b) -> b.getTitle().compareTo(a.getTitle()));
+		order.update(songs);
+		assertSame(songs.get(songs.size()-2), order.current());
+		assertSame(songs.get(songs.size()-1), order.next(), "In sequence the new order of the list should be followed");
+	}
+
+	@Test
+	public void peekNextTest() {
+		setupScenario1(PlaybackMode.SHUFFLE);
+		for(int i = 0; i < songs.size() * 3; i++) {
+			Song peeked = order.peekNext();
+			assertSame(peeked, order.next(), "Next should return the song announced by peekNext, also between cycles");
+		}
+	}
+
+	@Test
+	public void jumpToKeepsCycleTest() {
+		setupScenario1(PlaybackMode.SHUFFLE);
+		order.next();
+		assertTrue(order.jumpTo(songs.get(7)));
+		assertSame(songs.get(7), order.current());
+		IdentityHashMap<Song, Boolean> played = new IdentityHashMap<Song, Boolean>();
+		Song s = order.next();
+		while(played.size() < songs.size() - 2) {
+			assertNull(played.put(s, true), "The rest of the cycle should not repeat songs");
+			s = order.next();
+		}
+		assertFalse(order.jumpTo(new Song(store, new File("music", "x.mp3"), "x", "a", "b", "c", 1)));
+	}
+
+	@Test
+	public void setModeKeepsCurrentTest() {
+		setupScenario1(PlaybackMode.SEQUENTIAL);
+		order.next();
+		order.next();
+		order.setMode(PlaybackMode.SHUFFLE);
+		assertSame(songs.get(1), order.current());
+		order.setMode(PlaybackMode.SEQUENTIAL);
+		assertSame(songs.get(2), order.next(), "Back in sequence the song after the current one should be played");
+	}
+
+	@Test
+	public void weightedTest() {
+		setupScenario1(PlaybackMode.WEIGHTED);
+		Song favourite = songs.get(5);
+		order.setWeigher(s -> s == favourite ? 1000 : 1);
+		int first = 0;
+		for(int cycle = 0; cycle < 50; cycle++) {
+			order = new PlaybackOrder(songs, PlaybackMode.WEIGHTED, new Random(cycle));
+			order.setWeigher(s -> s == favourite ? 1000 : 1);
+			if(order.next() == favourite) {
+				first++;
+			}
+		}
+		assertTrue(first > 40, "The song with much more weight should almost always be played first");
+	}
+
+	@Test
+	public void smartSpreadsArtistsTest() {
+		setupScenario1(PlaybackMode.SMART);
+		Song last = order.next();
+		for(int i = 1; i < songs.size() * 5; i++) {
+			Song next = order.next();
+			assertNotEquals(last.getArtist(), next.getArtist(), "Two songs of the same artist should not be played together, also between cycles");
+			last = next;
+		}
+	}
+
+	@Test
+	public void emptyPlaylistTest() {
+		order = new PlaybackOrder(new ArrayList<Song>(), PlaybackMode.SHUFFLE, new Random());
+		assertNull(order.next());
+		assertNull(order.previous());
+		assertNull(order.peekNext());
+	}
+}
@@ -0,0 +1,150 @@
+package model.musicPlayer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+public class SearchIndexTest {
+	private SongStore store = new SongStore();
+	private SearchIndex index;
+	private Song rock;
+	private Song jazz;
+	private Song cafe;
+
+	private void setupScenario1() {
+		index = new SearchIndex();
+		rock = song("Happy Rock", "Bensound", "Demo Songs", "Rock");
+		jazz = song("Jazzy Frenchy", "Bensound", "Jazz Album", "Jazz");
+		cafe = song("Caf\u00e9 del Mar", "Energy 52", "Ibiza", "Trance");
+		index.add(rock, null);
+		index.add(jazz, null);
+		index.add(cafe, null);
+	}
+
+	private Song song(String title, String artist, String album, String genre) {
+		return new Song(store, new File("music", title + ".mp3"), title, artist, album, genre, 1);
+	}
+
+	@Test
+	public void tokenizeTest() {
+		assertArrayEquals(new String[] {"cafe", "del", "mar", "52"}, SearchIndex.tokenize("  Caf\u00e9-del MAR (52)"));
+		assertEquals(0, SearchIndex.tokenize(" -- ").length);
+	}
+
+	@Test
+	public void searchWholeWordsInAnyFieldTest() {
+		setupScenario1();
+		ArrayList<Song> result = index.search("bensound", 10);
+		assertEquals(2, result.size(), "Both songs by the artist should be found");
+		result = index.search("trance", 10);
+		assertEquals(1, result.size(), "The genre should be searchable");
+		assertSame(cafe, result.get(0));
+	}
+
+	@Test
+	public void searchPrefixTest() {
+		setupScenario1();
+		ArrayList<Song> result = index.search("jaz", 10);
+		assertEquals(1, result.size(), "A word being typed should match the words it begins");
+		assertSame(jazz, result.get(0));
+	}
+
+	@Test
+	public void searchSeveralWordsTest() {
+		setupScenario1();
+		ArrayList<Song> result = index.search("bensound ro", 10);
+		assertEquals(1, result.size(), "Every word of the query should be matched");
+		assertSame(rock, result.get(0));
+		assertTrue(index.search("bensound trance", 10).isEmpty());
+	}
+
+	@Test
+	public void searchIgnoresCaseAndAccentsTest() {
+		setupScenario1();
+		assertEquals(1, index.search("CAFE", 10).size());
+		assertEquals(1, index.search("caf\u00e9", 10).size());
+	}
+
+	@Test
+	public void searchWithTyposTest() {
+		setupScenario1();
+		ArrayList<Song> result = index.search("frenhcy", 10);
+		assertEquals(1, result.size(), "A word with a small typo should still be found");
+		assertSame(jazz, result.get(0));
+		assertTrue(index.search("xyzzy", 10).isEmpty());
+	}
+
+	@Test
+	public void searchLimitTest() {
+		setupScenario1();
+		assertEquals(1, index.search("bensound", 1).size());
+		assertTrue(index.search("", 10).isEmpty(), "An empty query should not match anything");
+	}
+
+	@Test
+	public void removeTest() {
+		setupScenario1();
+		assertTrue(index.remove(rock));
+		assertFalse(index.remove(rock));
+		assertEquals(2, index.size());
+		ArrayList<Song> result = index.search("bensound", 10);
+		assertEquals(1, result.size(), "A removed song should not be found");
+		assertSame(jazz, result.get(0));
+	}
+
+	@Test
+	public void removeFromOneOfTwoFoldersTest() throws Exception {
+		index = new SearchIndex();
+		MusicFolder first = new MusicFolder(new File("music"));
+		MusicFolder second = new MusicFolder(new File("music"));
+		Song any = first.getSongs().get(0);
+		index.add(any, first);
+		index.add(any, second);
+		assertEquals(1, index.size());
+		assertFalse(index.remove(any, first), "The song should stay indexed while another folder contains it");
+		assertSame(second, index.getFolder(any));
+		assertEquals(1, index.search(any.getTitle(), 10).size());
+		assertTrue(index.remove(any, second));
+		assertEquals(0, index.size());
+	}
+
+	@Test
+	public void compactionTest() {
+		setupScenario1();
+		ArrayList<Song> added = new ArrayList<Song>();
+		for(int i = 0; i < 4 * SearchIndex.MIN_COMPACTION; i++) {
+			Song s = song("Churn " + i, "Watcher", "Updates", "Rock");
+			index.add(s, null);
+			added.add(s);
+		}
+		for(Song s : added) {
+			assertTrue(index.remove(s));
+		}
+		assertEquals(3, index.size());
+		assertTrue(index.capacity() < 2 * SearchIndex.MIN_COMPACTION, "The ids of the removed songs should be compacted");
+		ArrayList<Song> result = index.search("bensound", 10);
+		assertEquals(2, result.size(), "The songs kept should still be found after compacting");
+		assertSame(rock, result.get(0));
+		assertSame(jazz, result.get(1));
+		assertTrue(index.search("churn", 10).isEmpty());
+		assertTrue(index.remove(cafe));
+		assertTrue(index.search("cafe", 10).isEmpty());
+		assertSame(jazz, index.search("jazzy", 10).get(0));
+	}
+
+	@Test
+	public void addFolderTest() throws Exception {
+		index = new SearchIndex();
+		MusicFolder mf = new MusicFolder(new File("music"));
+		index.addAll(mf);
+		assertEquals(mf.getNumberOfSongs(), index.size());
+		Song any = mf.getSongs().get(0);
+		assertSame(mf, index.getFolder(any));
+		index.removeAll(mf);
+		assertEquals(0, index.size());
+		assertNull(index.getFolder(any));
+	}
+}
@@ -0,0 +1,114 @@
+package model.musicPlayer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class SongSorterTest {
+	private SongStore store = new SongStore();
+	private ArrayList<Song> songs;
+	private SongSorter sorter;
+
+	private void setupScenario1() {
+		songs = new ArrayList<Song>();
+		Random r = new Random(7);
+		for(int i = 0; i < 500; i++) {
+			String title = String.format("%03d", i);
+			songs.add(new Song(store, new File("music", title + ".mp3"), title, "artist" + r.nextInt(10), "album" + r.nextInt(5), "genre" + r.nextInt(3), r.nextInt(20)));
+		}
+		sorter = new SongSorter(songs);
+	}
+
+	@Test
+	public void sortAscendingIsStableTest() {
+		setupScenario1();
+		ArrayList<Song> sorted = new ArrayList<Song>();
+		sorter.sort(sorted, SortKey.GENRE, true);
+		assertEquals(songs.size(), sorted.size());
+		GenreComparator gc = new GenreComparator();
+		for(int i = 1; i < sorted.size(); i++) {
+			int comp = gc.compare(sorted.get(i-1), sorted.get(i));
+			assertTrue(comp <= 0, "The list is not sorted by genre");
+			if(comp == 0) {
+				assertTrue(sorted.get(i-1).compareTo(sorted.get(i)) < 0, "Songs with the same genre should keep their original order");
+			}
+		}
+	}
+
+	@Test
+	public void sortDescendingTest() {
+		setupScenario1();
+		ArrayList<Song> sorted = new ArrayList<Song>();
+		sorter.sort(sorted, SortKey.SIZE, false);
+		SizeComparator sc = new SizeComparator();
+		for(int i = 1; i < sorted.size(); i++) {
+			int comp = sc.compare(sorted.get(i-1), sorted.get(i));
+			assertTrue(comp >= 0, "The list is not sorted by size in descending order");
+			if(comp == 0) {
+				assertTrue(sorted.get(i-1).compareTo(sorted.get(i)) < 0, "Songs with the same size should keep their original order");
+			}
+		}
+	}
+
+	@Test
+	public void compositeKeyTest() {
+		setupScenario1();
+		ArrayList<Song> sorted = new ArrayList<Song>();
+		sorter.sort(sorted, SortKey.ARTIST_ALBUM_TITLE, true);
+		for(int i = 1; i < sorted.size(); i++) {
+			Song prev = sorted.get(i-1);
+			Song cur = sorted.get(i);
+			int comp = prev.getArtist().compareTo(cur.getArtist());
+			if(comp == 0) {
+				comp = prev.getAlbum().compareTo(cur.getAlbum());
+			}
+			if(comp == 0) {
+				comp = prev.compareTo(cur);
+			}
+			assertTrue(comp < 0, "The list is not sorted by artist, album and title");
+		}
+	}
+
+	@Test
+	public void permutationIsCachedTest() {
+		setupScenario1();
+		int[] first = sorter.permutation(SortKey.ALBUM);
+		assertSame(first, sorter.permutation(SortKey.ALBUM), "The permutation of a key should be computed only once");
+		assertEquals(songs.size(), first.length);
+	}
+
+	@Test
+	public void sortEmptyListTest() {
+		sorter = new SongSorter(new ArrayList<Song>());
+		ArrayList<Song> sorted = new ArrayList<Song>();
+		sorter.sort(sorted, SortKey.TITLE, false);
+		assertTrue(sorted.isEmpty());
+	}
+
+	@Test
+	public void incrementalUpdateTest() {
+		setupScenario1();
+		sorter.permutation(SortKey.ARTIST);
+		sorter.permutation(SortKey.SIZE);
+		ArrayList<Song> expected = new ArrayList<Song>(songs);
+		for(int i = 0; i < 50; i++) {
+			Song removed = expected.remove(i * 7);
+			assertTrue(sorter.remove(removed));
+			Song added = new Song(store, new File("music", "new" + i + ".mp3"), "new" + i, "artist" + (i % 10), "album", "genre", i % 20);
+			expected.add(added);
+			sorter.add(added);
+		}
+		assertFalse(sorter.remove(new Song(store, new File("music", "x.mp3"), "x", "a", "b", "c", 1)));
+		for(SortKey key : new SortKey[] {SortKey.ARTIST, SortKey.SIZE}) {
+			ArrayList<Song> updated = new ArrayList<Song>();
+			sorter.sort(updated, key, true);
+			ArrayList<Song> sorted = new ArrayList<Song>();
+			new SongSorter(expected).sort(sorted, key, true);
+			assertEquals(sorted, updated, "Updating the permutation should give the same order as sorting again");
+		}
+	}
+}
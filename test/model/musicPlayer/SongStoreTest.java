@@ -0,0 +1,139 @@
+package model.musicPlayer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+public class SongStoreTest {
+	private SongStore store;
+	private ArrayList<Song> songs;
+
+	private void setupScenario1() {
+		store = new SongStore(4);
+		songs = new ArrayList<Song>();
+		for(int i = 0; i < 100; i++) {
+			File file = new File("library" + File.separator + "artist" + (i / 10), "song" + i + ".mp3");
+			songs.add(new Song(store, file, "title" + i, new String("artist" + (i / 10)), new String("album" + (i / 5)), new String("genre" + (i % 3)), i / 10.0));
+		}
+	}
+
+	@Test
+	public void addTest() {
+		setupScenario1();
+		assertEquals(100, store.size());
+		for(int i = 0; i < songs.size(); i++) {
+			Song song = songs.get(i);
+			assertEquals(i, song.getId());
+			assertSame(store, song.getStore());
+			assertEquals("title" + i, song.getTitle());
+			assertEquals("artist" + (i / 10), song.getArtist());
+			assertEquals("album" + (i / 5), song.getAlbum());
+			assertEquals("genre" + (i % 3), song.getGenre());
+			assertEquals(i / 10.0, song.getSize());
+			assertEquals("song" + i + ".mp3", song.getFileName());
+		}
+	}
+
+	@Test
+	public void sharedValuesTest() {
+		setupScenario1();
+		assertEquals(10 + 20 + 3, store.getValueCount());
+		assertEquals(10, store.getFolderCount());
+		assertSame(songs.get(0).getArtist(), songs.get(9).getArtist(), "The songs of an artist should share its name");
+		assertSame(songs.get(0).getGenre(), songs.get(99).getGenre());
+		assertSame(store.getParentFolder(0), store.getParentFolder(9), "The songs of a folder should share it");
+	}
+
+	@Test
+	public void pathsTest() {
+		setupScenario1();
+		File file = new File("library" + File.separator + "artist3", "song35.mp3");
+		Song song = songs.get(35);
+		assertEquals(file, song.getSongFile());
+		assertEquals(file.toURI().toString(), song.getSongPath());
+		assertEquals(file.getParentFile().toURI().toString(), song.getParentFolderPath());
+	}
+
+	@Test
+	public void missingValuesTest() {
+		setupScenario1();
+		Song song = new Song(store, new File("library", "unknown.mp3"), "unknown", null, null, null, 0);
+		assertNull(song.getArtist());
+		assertNull(song.getAlbum());
+		assertNull(song.getGenre());
+		assertEquals(101, store.size());
+	}
+
+	@Test
+	public void customCoverTest() {
+		setupScenario1();
+		byte[] image = new byte[] {1, 2, 3};
+		store.setCustomCover(7, image);
+		assertSame(image, songs.get(7).getImage());
+		assertNull(store.getCustomCover(8));
+		store.setCustomCover(7, null);
+		assertNull(store.getCustomCover(7));
+	}
+
+	@Test
+	public void musicFolderStoreTest() throws Exception {
+		MusicFolder folder = new MusicFolder(new File("music"));
+		assertEquals(folder.getNumberOfSongs(), folder.getStore().size());
+		for(Song song : folder.getSongs()) {
+			assertSame(folder.getStore(), song.getStore(), "The scanned songs should be kept in the store of their folder");
+		}
+	}
+
+	@Test
+	public void releaseTest() {
+		setupScenario1();
+		store.setCustomCover(7, new byte[] {1});
+		store.release(7);
+		store.release(7);
+		assertEquals(99, store.size());
+		assertNull(store.getCustomCover(7), "The cover of a released song should be forgotten");
+		Song added = new Song(store, new File("library", "new.mp3"), "new", "artist", "album", "genre", 1);
+		assertEquals(7, added.getId(), "A released row should be used before the columns grow");
+		assertEquals("new", added.getTitle());
+		assertEquals(100, store.size());
+		Song next = new Song(store, new File("library", "next.mp3"), "next", "artist", "album", "genre", 1);
+		assertEquals(100, next.getId());
+	}
+
+	@Test
+	public void detachTest() {
+		setupScenario1();
+		Song song = songs.get(35);
+		byte[] image = new byte[] {1, 2, 3};
+		store.setCustomCover(35, image);
+		song.detach();
+		assertNotSame(store, song.getStore());
+		assertEquals(35, song.getId(), "A detached song should keep its id");
+		assertEquals(99, store.size());
+		Song added = new Song(store, new File("library", "new.mp3"), "new", null, null, null, 0);
+		assertEquals(35, added.getId());
+		assertEquals("title35", song.getTitle(), "A detached song should still be read after its row is used by another song");
+		assertEquals("artist3", song.getArtist());
+		assertEquals(new File("library" + File.separator + "artist3", "song35.mp3"), song.getSongFile());
+		assertSame(image, song.getImage());
+		assertEquals("new", added.getTitle());
+		assertNull(store.getCustomCover(35), "The cover of the detached song should not be shown by the new one");
+	}
+
+	@Test
+	public void removedSongsReleaseTheirRowsTest() throws Exception {
+		MusicFolder folder = new MusicFolder(new File("music"));
+		SongStore folderStore = folder.getStore();
+		int size = folderStore.size();
+		for(int i = 0; i < 10; i++) {
+			Song old = folder.getSongs().get(0);
+			folder.putSong(new Song(folderStore, old.getSongFile(), "title" + i, old.getArtist(), old.getAlbum(), old.getGenre(), old.getSize()));
+			assertNotSame(folderStore, old.getStore(), "The replaced song should have been detached");
+		}
+		assertEquals(size, folderStore.size(), "Replacing the songs should not make the store grow");
+		assertEquals(size, folder.getNumberOfSongs());
+	}
+}
@@ -0,0 +1,87 @@
+package model.musicPlayer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import javafx.collections.ListChangeListener;
+
+public class SongTableModelTest {
+	private MusicFolder first;
+	private MusicFolder second;
+	private SongTableModel model;
+	private ArrayList<Integer> changes;
+
+	private void setupScenario1() {
+		SongStore store = new SongStore();
+		ArrayList<Song> songs = new ArrayList<Song>();
+		for(int i = 0; i < 20; i++) {
+			songs.add(new Song(store, new File("first", "song" + i + ".mp3"), "title" + (char)('a' + (i*7) % 20), "artist" + (i % 4), "album", "genre", i));
+		}
+		first = new MusicFolder(new File("first"), songs);
+		songs = new ArrayList<Song>();
+		for(int i = 0; i < 5; i++) {
+			songs.add(new Song(store, new File("second", "song" + i + ".mp3"), "other" + i, "artist", "album", "genre", i));
+		}
+		second = new MusicFolder(new File("second"), songs);
+		model = new SongTableModel(first);
+		changes = new ArrayList<Integer>();
+		model.addListener((ListChangeListener<Song>) c -> {
+			while(c.next()) {
+				changes.add(c.getAddedSize());
+			}
+		});
+	}
+
+	@Test
+	public void viewTest() {
+		setupScenario1();
+		assertEquals(first.getNumberOfSongs(), model.size());
+		for(int i = 0; i < model.size(); i++) {
+			assertSame(first.getSongs().get(i), model.get(i));
+		}
+		assertThrows(IndexOutOfBoundsException.class, () -> model.get(model.size()));
+		assertThrows(UnsupportedOperationException.class, () -> model.add(second.getSongs().get(0)), "The view should be read-only");
+	}
+
+	@Test
+	public void switchFolderTest() {
+		setupScenario1();
+		model.setFolder(second);
+		assertEquals(5, model.size());
+		assertSame(second.getSongs().get(0), model.get(0));
+		assertEquals(1, changes.size());
+		assertEquals(5, changes.get(0).intValue());
+		model.setFolder(null);
+		assertEquals(0, model.size());
+	}
+
+	@Test
+	public void sortAndRefreshTest() {
+		setupScenario1();
+		model.refresh();
+		assertTrue(changes.isEmpty(), "Nothing should be notified if the folder did not change");
+		first.sortSongs(SortKey.ARTIST, false);
+		assertEquals(0, changes.size(), "The table is only notified when it is refreshed");
+		model.refresh();
+		assertEquals(1, changes.size());
+		for(int i = 0; i < model.size(); i++) {
+			assertSame(first.getSongs().get(i), model.get(i), "The view should show the folder in its new order");
+		}
+	}
+
+	@Test
+	public void removedSongsTest() {
+		setupScenario1();
+		int size = model.size();
+		first.removeSong(first.getSongs().get(0));
+		first.removeSong(first.getSongs().get(0));
+		assertEquals(size, model.size(), "The size should be kept until the table is refreshed");
+		assertNull(model.get(size-1), "A row that no longer exists should be empty");
+		model.refresh();
+		assertEquals(size-2, model.size());
+	}
+}
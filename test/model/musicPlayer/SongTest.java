@@ -12,9 +12,11 @@ import customExceptions.NotMP3FileException;
 import model.musicPlayer.Song;
 
 public class SongTest {
+	private SongStore store;
 	private Song s;
 	
 	private void setupScenario1() {
+		store = new SongStore();
 		s = null;
 	}
 	
@@ -24,7 +26,7 @@ public class SongTest {
 		try {
 			String fileName = "bensound-happyrock.mp3";
 			String songPath = "music"+File.separator+fileName;
-			s = new Song(new File(songPath));
+			s = new Song(store, new File(songPath));
 			assertTrue("The name of the file does not correspond to the requested one", fileName.equals(s.getFileName()));
 		} catch (IOException e) {
 			fail("The song should have been created as the file is the one that comes in the repository as a demo audio with MP3 format");
@@ -35,7 +37,7 @@ public class SongTest {
 	public void createSongWithInvalidPathTest() {
 		setupScenario1();
 		try {
-			s = new Song(new File("idonotexist.mp3"));
+			s = new Song(store, new File("idonotexist.mp3"));
 			fail("The song shouldn't have been created as the file named idonotexist.mp3 literally doesn't exist in the repository");
 		} catch (IOException e) {
 			assertTrue(true);
@@ -46,7 +48,7 @@ public class SongTest {
 	public void createSongWithValidPathButInvalidFileFormatTest() {
 		setupScenario1();
 		try {
-			s = new Song(new File("data"+File.separator+"testfile.txt"));
+			s = new Song(store, new File("data"+File.separator+"testfile.txt"));
 			fail("The song shouldn't have been created as the file does not have mp3 format");
 		} catch (NotMP3FileException | IOException e) {
 			assertTrue(true);
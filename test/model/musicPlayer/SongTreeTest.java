@@ -0,0 +1,99 @@
+package model.musicPlayer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+public class SongTreeTest {
+	private SongStore store = new SongStore();
+	private SongTree tree;
+
+	private void setupScenario1() {
+		tree = new SongTree();
+	}
+
+	private void setupScenario2() {
+		setupScenario1();
+		for(int i = 0; i < 1000; i++) {
+			tree.add(song(String.format("%04d", i)));
+		}
+	}
+
+	private Song song(String title) {
+		return new Song(store, new File("music", title + ".mp3"), title, "artist", "album", "genre", 1);
+	}
+
+	@Test
+	public void emptyTreeTest() {
+		setupScenario1();
+		assertEquals(0, tree.size());
+		assertEquals(0, tree.height());
+		assertNull(tree.search("anything"));
+		assertTrue(tree.inorder().isEmpty());
+	}
+
+	@Test
+	public void sortedInsertionKeepsTreeBalancedTest() {
+		setupScenario2();
+		assertEquals(1000, tree.size());
+		assertTrue(tree.height() <= 15, "Adding sorted titles should not degenerate the tree into a list: " + tree.height());
+		ArrayList<Song> songs = tree.inorder();
+		for(int i = 1; i < songs.size(); i++) {
+			assertTrue(songs.get(i).compareTo(songs.get(i-1)) > 0, "The songs are not in order");
+		}
+	}
+
+	@Test
+	public void duplicatedTitlesTest() {
+		setupScenario1();
+		Song first = song("same");
+		Song second = song("same");
+		tree.add(song("before"));
+		tree.add(first);
+		tree.add(second);
+		tree.add(song("zafter"));
+		assertSame(first, tree.search("same"), "The first song added with the title should be returned");
+		ArrayList<Song> all = tree.searchAll("same");
+		assertEquals(2, all.size(), "Both songs with the same title should be found");
+		assertSame(first, all.get(0));
+		assertSame(second, all.get(1));
+		assertEquals(4, tree.inorder().size());
+		assertEquals(4, tree.preorder().size());
+	}
+
+	@Test
+	public void removeTest() {
+		setupScenario2();
+		Song target = tree.search("0500");
+		assertTrue(tree.remove(target));
+		assertFalse(tree.remove(target), "A song cannot be removed twice");
+		assertNull(tree.search("0500"));
+		assertEquals(999, tree.size());
+		for(int i = 0; i < 1000; i += 2) {
+			if(i != 500) {
+				assertTrue(tree.remove(tree.search(String.format("%04d", i))));
+			}
+		}
+		assertEquals(500, tree.size());
+		assertTrue(tree.height() <= 13, "The tree should stay balanced after removing songs: " + tree.height());
+		ArrayList<Song> songs = tree.inorder();
+		for(int i = 1; i < songs.size(); i++) {
+			assertTrue(songs.get(i).compareTo(songs.get(i-1)) > 0, "The songs are not in order after removing");
+		}
+	}
+
+	@Test
+	public void removeOneOfDuplicatedTitlesTest() {
+		setupScenario1();
+		Song first = song("same");
+		Song second = song("same");
+		tree.add(first);
+		tree.add(second);
+		assertTrue(tree.remove(second));
+		assertSame(first, tree.search("same"), "Removing a song should not remove another one with the same title");
+		assertEquals(1, tree.size());
+	}
+}
@@ -0,0 +1,181 @@
+package model.paint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class GalleryCacheTest {
+	private GalleryCache<int[]> cache;
+	private AtomicInteger decoded;
+	private ListOfImages list;
+	private CountDownLatch started;
+	private CountDownLatch blocked;
+
+	private void setupStage1() {
+		decoded = new AtomicInteger();
+		cache = new GalleryCache<int[]>(1000, value -> {
+			decoded.incrementAndGet();
+			return value < 0 ? null : new int[value];
+		}, image -> image.length);
+	}
+
+	private void setupStage2() {
+		setupStage1();
+		list = new ListOfImages();
+		for (int i = 1; i <= 20; i++) {
+			list.addNode(i * 10);
+		}
+	}
+
+	private void setupStage3() {
+		decoded = new AtomicInteger();
+		started = new CountDownLatch(GalleryCache.PREFETCH_THREADS);
+		blocked = new CountDownLatch(1);
+		cache = new GalleryCache<int[]>(100000, value -> {
+			if (value >= 1000) {
+				started.countDown();
+				try {
+					blocked.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			decoded.incrementAndGet();
+			return new int[value];
+		}, image -> image.length);
+		list = new ListOfImages();
+		for (int i = 1; i <= 20; i++) {
+			list.addNode(i * 10);
+		}
+	}
+
+	@AfterEach
+	public void closeCache() {
+		if (blocked != null) {
+			blocked.countDown();
+		}
+		if (cache != null) {
+			cache.close();
+		}
+	}
+
+	@Test
+	public void testGetDecodesOnce() {
+		setupStage1();
+		int[] image = cache.get(100);
+		assertEquals(100, image.length);
+		assertSame(image, cache.get(100), "The decoded image should be kept");
+		assertEquals(1, decoded.get());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(100, cache.getPixels());
+	}
+
+	@Test
+	public void testUnreadableImage() {
+		setupStage1();
+		assertNull(cache.get(-1));
+		assertFalse(cache.isReady(-1));
+		assertNull(cache.get(-1));
+		assertEquals(2, decoded.get(), "An image that could not be read should be read again the next time");
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getPixels());
+	}
+
+	@Test
+	public void testEvictionByPixels() {
+		setupStage1();
+		cache.get(400);
+		cache.get(300);
+		cache.get(400);
+		cache.get(500);
+		assertFalse(cache.isReady(300), "The least recently used image should be discarded");
+		assertTrue(cache.isReady(400));
+		assertTrue(cache.isReady(500));
+		assertEquals(900, cache.getPixels());
+		assertEquals(1, cache.getEvictions());
+		cache.get(2000);
+		assertTrue(cache.isReady(2000), "The most recently used image should be kept even if it is too big");
+		assertEquals(1, cache.size());
+		assertEquals(2000, cache.getPixels());
+	}
+
+	@Test
+	public void testPrefetchAround() throws InterruptedException {
+		setupStage2();
+		list.selectAt(0);
+		cache.prefetchAround(list, 2);
+		for (int value : new int[] {10, 20, 30, 200, 190}) {
+			assertNotNull(cache.get(value));
+		}
+		assertEquals(5, decoded.get(), "Only the selected image and its neighbours should be decoded, once each");
+		assertEquals(5, cache.size());
+		assertFalse(cache.isReady(40));
+	}
+
+	@Test
+	public void testRequestDeliversThroughExecutor() throws InterruptedException {
+		setupStage1();
+		final CountDownLatch delivered = new CountDownLatch(1);
+		final ArrayList<Runnable> posted = new ArrayList<Runnable>();
+		final int[][] received = new int[1][];
+		cache.request(50, r -> {
+			posted.add(r);
+			r.run();
+		}, image -> {
+			received[0] = image;
+			delivered.countDown();
+		});
+		assertTrue(delivered.await(5, TimeUnit.SECONDS));
+		assertEquals(50, received[0].length);
+		assertEquals(1, posted.size(), "An image that was not ready should be delivered through the executor");
+		cache.request(50, r -> posted.add(r), image -> received[0] = null);
+		assertNull(received[0], "A decoded image should be delivered right away");
+		assertEquals(1, posted.size());
+	}
+
+	@Test
+	public void testRequestDoesNotWaitForPrefetches() throws InterruptedException {
+		setupStage3();
+		for (int value = 1000; value < 1004; value++) {
+			cache.prefetch(value);
+		}
+		assertTrue(started.await(2, TimeUnit.SECONDS));
+		final CountDownLatch delivered = new CountDownLatch(1);
+		cache.request(50, Runnable::run, image -> delivered.countDown());
+		assertTrue(delivered.await(2, TimeUnit.SECONDS), "A requested image should not wait for the prefetched ones");
+		assertFalse(cache.isReady(1002));
+	}
+
+	@Test
+	public void testStalePrefetchesAreSkipped() throws InterruptedException {
+		setupStage3();
+		for (int value = 1000; value < 1004; value++) {
+			cache.prefetch(value);
+		}
+		assertTrue(started.await(2, TimeUnit.SECONDS));
+		list.selectAt(0);
+		cache.prefetchAround(list, 1);
+		blocked.countDown();
+		long limit = System.currentTimeMillis() + 5000;
+		while ((cache.size() > 5 || decoded.get() < 5 || !cache.isReady(200)) && System.currentTimeMillis() < limit) {
+			Thread.sleep(10);
+		}
+		assertEquals(5, cache.size(), "The prefetches that did not start should be discarded");
+		assertFalse(cache.isReady(1002));
+		assertFalse(cache.isReady(1003));
+		assertTrue(cache.isReady(200), "The images around the selected one should be decoded");
+		assertEquals(5, decoded.get());
+	}
+}
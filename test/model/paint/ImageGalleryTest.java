@@ -0,0 +1,148 @@
+package model.paint;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ImageGalleryTest {
+	private File folder;
+	private File thumbnailsFolder;
+	private ImageGallery gallery;
+
+	private void setupStage1() throws IOException {
+		folder = Files.createTempDirectory("gallery").toFile();
+		thumbnailsFolder = Files.createTempDirectory("thumbnails").toFile();
+		File sub = new File(folder, "b-sketches");
+		sub.mkdir();
+		ThumbnailCacheTest.writeImage(new File(folder, "c.png"), 40, 40, BufferedImage.TYPE_INT_ARGB);
+		ThumbnailCacheTest.writeImage(new File(folder, "a.jpg"), 60, 30, BufferedImage.TYPE_INT_RGB);
+		ThumbnailCacheTest.writeImage(new File(sub, "d.jpg"), 30, 60, BufferedImage.TYPE_INT_RGB);
+		Files.write(new File(folder, "notes.txt").toPath(), "not an image".getBytes());
+	}
+
+	private void setupStage2() throws IOException, InterruptedException {
+		setupStage1();
+		gallery = new ImageGallery(folder, new ThumbnailCache(thumbnailsFolder, 20, 20));
+		gallery.scan(null);
+		assertTrue(gallery.awaitScan(10, TimeUnit.SECONDS), "The scan should finish");
+	}
+
+	@AfterEach
+	public void deleteFiles() {
+		if (folder != null) {
+			ThumbnailCacheTest.delete(folder);
+			ThumbnailCacheTest.delete(thumbnailsFolder);
+		}
+	}
+
+	@Test
+	public void testScanAddsImagesInOrder() throws IOException, InterruptedException {
+		setupStage2();
+		assertEquals(3, gallery.size(), "Only the images of the folder and its subfolders should be added");
+		assertEquals("a.jpg", gallery.getFile(0).getName());
+		assertEquals("c.png", gallery.getFile(1).getName());
+		assertEquals("d.jpg", gallery.getFile(2).getName());
+	}
+
+	@Test
+	public void testBrowse() throws IOException, InterruptedException {
+		setupStage2();
+		assertEquals(0, gallery.selectNext());
+		assertEquals(1, gallery.selectNext());
+		assertEquals(2, gallery.selectNext());
+		assertEquals(0, gallery.selectNext(), "The selection should go back to the first image");
+		assertEquals(2, gallery.selectPrevious(), "The selection should go to the last image");
+		for (int i = 0; i < 20; i++) {
+			int value = gallery.selectRandom();
+			assertTrue(value >= 0 && value < 3, "The random image doesn't belong to the gallery");
+		}
+	}
+
+	@Test
+	public void testThumbnails() throws IOException, InterruptedException {
+		setupStage2();
+		assertEquals(0, gallery.getThumbnails().getCreated(), "The scan should not create the thumbnails of the images");
+		File shown = gallery.getDisplayFile(0);
+		assertEquals(thumbnailsFolder, shown.getParentFile(), "The images should be shown from their thumbnails");
+		assertEquals(1, gallery.getThumbnails().getCreated());
+		assertEquals(shown, gallery.getDisplayFile(0));
+		assertEquals(1, gallery.getThumbnails().getReused());
+
+		ImageGallery again = new ImageGallery(folder, new ThumbnailCache(thumbnailsFolder, 20, 20));
+		again.scan(null);
+		assertTrue(again.awaitScan(10, TimeUnit.SECONDS));
+		assertEquals(shown, again.getDisplayFile(0));
+		assertEquals(0, again.getThumbnails().getCreated(), "The thumbnails should be reused by the next galleries");
+		assertEquals(1, again.getThumbnails().getReused());
+	}
+
+	@Test
+	public void testExclude() throws IOException, InterruptedException {
+		setupStage1();
+		gallery = new ImageGallery(folder, null);
+		gallery.exclude(new File(folder, "c.png"));
+		gallery.scan(null);
+		assertTrue(gallery.awaitScan(10, TimeUnit.SECONDS));
+		assertEquals(2, gallery.size(), "An excluded file should not be added");
+		assertEquals("a.jpg", gallery.getFile(0).getName());
+		assertEquals("d.jpg", gallery.getFile(1).getName());
+	}
+
+	@Test
+	public void testGalleryWithoutThumbnails() throws IOException, InterruptedException {
+		setupStage1();
+		gallery = new ImageGallery(folder, null);
+		assertEquals(-1, gallery.selectNext(), "An empty gallery has nothing to select");
+		assertEquals(-1, gallery.selectRandom());
+		gallery.scan(null);
+		assertTrue(gallery.awaitScan(10, TimeUnit.SECONDS));
+		assertEquals(gallery.getFile(1), gallery.getDisplayFile(1));
+	}
+
+	@Test
+	public void testCancel() throws IOException, InterruptedException {
+		setupStage1();
+		gallery = new ImageGallery(folder, new ThumbnailCache(thumbnailsFolder, 20, 20));
+		gallery.cancel();
+		gallery.scan(null);
+		assertTrue(gallery.awaitScan(10, TimeUnit.SECONDS));
+		assertEquals(0, gallery.size(), "A cancelled scan should not add images");
+		assertEquals(0, thumbnailsFolder.list().length, "A cancelled scan should not create thumbnails");
+	}
+
+	@Test
+	public void testMissingFolder() {
+		assertThrows(FileNotFoundException.class, () -> new ImageGallery(new File("idonotexist"), null));
+	}
+
+	@Test
+	public void testNameOrder() {
+		String[] names = {"img10.png", "img2.png", "img1.png", "img02.png", "a.png", "img.png", "img2b.png"};
+		Arrays.sort(names, ImageGallery::compareNames);
+		assertArrayEquals(new String[] {"a.png", "img.png", "img1.png", "img2.png", "img02.png", "img2b.png", "img10.png"}, names);
+		assertEquals(0, ImageGallery.compareNames("img2.png", "img2.png"));
+		assertTrue(ImageGallery.compareNames("img99999999999999999999.png", "img100000000000000000000.png") < 0,
+				"Numbers longer than a long should be compared too");
+	}
+
+	@Test
+	public void testIsImage() {
+		assertTrue(ImageGallery.isImage(new File("Photo.JPEG")));
+		assertFalse(ImageGallery.isImage(new File("notes.txt")));
+		assertNotEquals(ImageGallery.isImage(new File("a.png")), ImageGallery.isImage(new File("a.pngx")));
+	}
+}
@@ -2,7 +2,11 @@ package model.paint;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
@@ -28,6 +32,13 @@ class ListOfImagesTest {
 		list.addNode(4);
 	}
 
+	private void setupStage3() {
+		setupStage1();
+		for (int i = 0; i < 10000; i++) {
+			list.addNode(i);
+		}
+	}
+
 	@Test
 	public void selectNextTest() {
 		setupStage2();
@@ -114,4 +125,72 @@ class ListOfImagesTest {
 		list.selectNext();
 		assertTrue(list.lastSelected().getValue() == 6, "The last selected object doesn't coincide with the correct one");
 	}
+
+	@Test
+	public void testSelectWrapAround() {
+		setupStage2();
+		for (int i = 0; i < 6; i++) {
+			list.selectNext();
+		}
+		assertSame(list.getLastNode(), list.lastSelected(), "The last object should be selected after six moves");
+		list.selectNext();
+		assertSame(list.getFirst(), list.lastSelected(), "The selection should go back to the first object");
+		assertEquals(0, list.getSelectedIndex());
+		list.selectPrevious();
+		assertSame(list.getLastNode(), list.lastSelected(), "The selection should go to the last object");
+		assertEquals(5, list.getSelectedIndex());
+		assertFalse(list.getFirst().isSelected(), "Only one object should be selected");
+	}
+
+	@Test
+	public void testEmptyList() {
+		setupStage1();
+		assertEquals(0, list.size());
+		assertNull(list.getLastNode());
+		assertNull(list.lastSelected());
+		assertEquals(-1, list.getSelectedIndex());
+		assertThrows(IndexOutOfBoundsException.class, () -> list.get(0));
+	}
+
+	@Test
+	public void testGetAndSelectAt() {
+		setupStage3();
+		assertEquals(10000, list.size());
+		for (int i = 0; i < 10000; i += 37) {
+			assertEquals(i, list.get(i).getValue(), "The object at position " + i + " is not the expected one");
+		}
+		assertEquals(9999, list.get(9999).getValue());
+		list.selectAt(4242);
+		assertEquals(4242, list.lastSelected().getValue());
+		list.selectNext();
+		assertEquals(4243, list.lastSelected().getValue());
+		assertEquals(4243, list.getSelectedIndex());
+		assertFalse(list.get(4242).isSelected(), "Only one object should be selected");
+		assertThrows(IndexOutOfBoundsException.class, () -> list.selectAt(10000));
+	}
+
+	@Test
+	public void testSetFirstRebuildsList() {
+		setupStage3();
+		list.selectAt(100);
+		ImageOnList third = list.get(2);
+		third.getPrevious().setNext(null);
+		third.setPrevious(null);
+		list.setFirst(third);
+		assertEquals(9998, list.size());
+		assertEquals(9999, list.getLastNode().getValue());
+		assertEquals(102, list.get(100).getValue());
+		assertEquals(98, list.getSelectedIndex(), "The selected object should be found in the new list");
+	}
+
+	@Test
+	public void testLongList() {
+		setupStage1();
+		for (int i = 0; i < 1000000; i++) {
+			list.addNode(i);
+		}
+		assertEquals(1000000, list.size());
+		assertEquals(999999, list.getLastNode().getValue());
+		assertEquals(765432, list.get(765432).getValue());
+	}
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package model.paint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ThumbnailCacheTest {
+	private File folder;
+	private File thumbnailsFolder;
+	private ThumbnailCache cache;
+
+	private void setupStage1() throws IOException {
+		folder = Files.createTempDirectory("images").toFile();
+		thumbnailsFolder = new File(folder, "thumbnails");
+		cache = new ThumbnailCache(thumbnailsFolder, 100, 50);
+	}
+
+	public static File writeImage(File file, int width, int height, int type) throws IOException {
+		BufferedImage image = new BufferedImage(width, height, type);
+		image.setRGB(0, 0, 0xFF336699);
+		ImageIO.write(image, file.getName().endsWith(".png") ? "png" : "jpg", file);
+		return file;
+	}
+
+	public static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	@AfterEach
+	public void deleteFiles() {
+		if (folder != null) {
+			delete(folder);
+		}
+	}
+
+	@Test
+	public void testThumbnailFitsAndKeepsProportions() throws IOException {
+		setupStage1();
+		File image = writeImage(new File(folder, "wide.jpg"), 400, 100, BufferedImage.TYPE_INT_RGB);
+		File thumbnail = cache.getThumbnail(image);
+		BufferedImage read = ImageIO.read(thumbnail);
+		assertEquals(100, read.getWidth());
+		assertEquals(25, read.getHeight());
+		assertTrue(thumbnail.getName().endsWith(".jpg"), "An image without transparency should be written as JPEG");
+		assertEquals(thumbnailsFolder, thumbnail.getParentFile());
+	}
+
+	@Test
+	public void testSmallImageIsNotEnlarged() throws IOException {
+		setupStage1();
+		File image = writeImage(new File(folder, "small.png"), 20, 10, BufferedImage.TYPE_INT_ARGB);
+		File thumbnail = cache.getThumbnail(image);
+		BufferedImage read = ImageIO.read(thumbnail);
+		assertEquals(20, read.getWidth());
+		assertEquals(10, read.getHeight());
+		assertTrue(thumbnail.getName().endsWith(".png"), "An image with transparency should be written as PNG");
+	}
+
+	@Test
+	public void testThumbnailIsReused() throws IOException {
+		setupStage1();
+		File image = writeImage(new File(folder, "a.jpg"), 300, 300, BufferedImage.TYPE_INT_RGB);
+		File thumbnail = cache.getThumbnail(image);
+		assertEquals(thumbnail, cache.getThumbnail(image));
+		ThumbnailCache next = new ThumbnailCache(thumbnailsFolder, 100, 50);
+		assertEquals(thumbnail, next.getThumbnail(image), "The thumbnail should be found by the next executions");
+		assertEquals(1, cache.getCreated());
+		assertEquals(1, cache.getReused());
+		assertEquals(0, next.getCreated());
+		assertEquals(1, thumbnailsFolder.listFiles().length, "No temporary file should be left");
+	}
+
+	@Test
+	public void testChangedImageGetsNewThumbnail() throws IOException {
+		setupStage1();
+		File image = writeImage(new File(folder, "b.jpg"), 300, 300, BufferedImage.TYPE_INT_RGB);
+		String key = cache.keyOf(image);
+		image.setLastModified(image.lastModified() - 60000);
+		assertNotEquals(key, cache.keyOf(image), "A modified image should have another thumbnail");
+		assertNotEquals(key, new ThumbnailCache(thumbnailsFolder, 200, 50).keyOf(image), "Another size should have another thumbnail");
+	}
+
+	@Test
+	public void testUnreadableImage() throws IOException {
+		setupStage1();
+		File text = new File(folder, "notes.jpg");
+		Files.write(text.toPath(), "not an image".getBytes());
+		assertNull(cache.getThumbnail(text));
+		assertEquals(0, cache.getCreated());
+	}
+
+	@Test
+	public void testPruneKeepsTheRecentlyUsedThumbnails() throws IOException {
+		setupStage1();
+		File[] thumbnails = new File[3];
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < thumbnails.length; i++) {
+			File image = writeImage(new File(folder, "image" + i + ".jpg"), 300, 300, BufferedImage.TYPE_INT_RGB);
+			thumbnails[i] = cache.getThumbnail(image);
+			thumbnails[i].setLastModified(now - 60000 * (thumbnails.length - i));
+		}
+		cache.getThumbnail(new File(folder, "image0.jpg"));
+		long kept = thumbnails[0].length() + thumbnails[2].length();
+		ThumbnailCache small = new ThumbnailCache(thumbnailsFolder, 100, 50, kept);
+		assertEquals(1, small.prune(), "Only the thumbnail used the longest time ago should be deleted");
+		assertTrue(thumbnails[0].exists(), "A reused thumbnail should count as recently used");
+		assertFalse(thumbnails[1].exists());
+		assertTrue(thumbnails[2].exists());
+		assertEquals(0, small.prune());
+		assertEquals(1, small.getPruned());
+	}
+
+	@Test
+	public void testPruneKeepsTheThumbnailsOfThisExecution() throws IOException {
+		setupStage1();
+		ThumbnailCache empty = new ThumbnailCache(thumbnailsFolder, 100, 50, 0);
+		File[] thumbnails = new File[2];
+		for (int i = 0; i < thumbnails.length; i++) {
+			File image = writeImage(new File(folder, "image" + i + ".jpg"), 300, 300, BufferedImage.TYPE_INT_RGB);
+			thumbnails[i] = empty.getThumbnail(image);
+			thumbnails[i].setLastModified(System.currentTimeMillis() - 60000);
+		}
+		assertEquals(0, empty.prune(), "The thumbnails returned by a cache should not be pruned by it");
+		assertTrue(thumbnails[0].exists() && thumbnails[1].exists());
+		assertEquals(2, new ThumbnailCache(thumbnailsFolder, 100, 50, 0).prune(), "The next executions can prune them");
+	}
+}
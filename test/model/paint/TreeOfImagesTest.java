@@ -1,10 +1,14 @@
 package model.paint;
 
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
@@ -31,6 +35,13 @@ class TreeOfImagesTest {
 		tree.addNode(8);
 	}
 	
+	private void setupScenary4() {
+		this.tree = new TreeOfImages(new Random(20201018L));
+		for (int i = 1; i <= 1000; i++) {
+			tree.addNode(i);
+		}
+	}
+	
 	@Test
 	public void testTreeOfImages() {
 		setupScenary1();
@@ -71,6 +82,57 @@ class TreeOfImagesTest {
 		assertTrue(approximatelyRandom, "The method isn't approximately random");
 	}
 
+	@Test
+	public void testSelectRandomNodeUniform() {
+		this.tree = new TreeOfImages(new Random(20201018L));
+		for (int i = 1; i <= 20; i++) {
+			tree.addNode(i * 7 % 20);
+		}
+		int draws = 200000;
+		int[] frequencies = new int[20];
+		for (int i = 0; i < draws; i++) {
+			frequencies[tree.selectRandomNode().getValue()]++;
+		}
+		double expected = draws / 20.0;
+		double chiSquare = 0;
+		for (int i = 0; i < frequencies.length; i++) {
+			chiSquare += (frequencies[i] - expected) * (frequencies[i] - expected) / expected;
+		}
+		//43.82 is the critical value of the chi-square distribution with 19 degrees of freedom for p = 0.001
+		assertTrue(chiSquare < 43.82, "The nodes are not picked uniformly, chi-square = " + chiSquare);
+	}
+	
+	@Test
+	public void testSelectRandomNodeEmpty() {
+		setupScenary2();
+		assertNull(tree.selectRandomNode(), "An empty tree has no node to pick");
+	}
+	
+	@Test
+	public void testSelectAndRank() {
+		setupScenary4();
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i + 1, tree.select(i).getValue(), "The node at position " + i + " is not the expected one");
+			assertEquals(i, tree.rank(i + 1), "The rank of " + (i + 1) + " is not the expected one");
+		}
+		assertEquals(1000, tree.rank(5000));
+		assertThrows(IndexOutOfBoundsException.class, () -> tree.select(1000));
+		assertThrows(IndexOutOfBoundsException.class, () -> tree.select(-1));
+	}
+	
+	@Test
+	public void testBalance() {
+		setupScenary4();
+		assertEquals(1000, tree.size());
+		int maxHeight = (int)(Math.log(1000) / Math.log(1 / TreeOfImages.ALPHA)) + 1;
+		assertTrue(height(tree.getRoot()) <= maxHeight, "The tree is not balanced after adding sorted values, height = " + height(tree.getRoot()));
+		assertTrue(sizesAreRight(tree.getRoot()), "The sizes of the subtrees don't match their nodes");
+		ImageOnTree n = new ImageOnTree(0);
+		tree.addNode(n, tree.getRoot());
+		assertSame(n, tree.select(0), "The node added with the root as parameter is not the first one");
+		assertTrue(sizesAreRight(tree.getRoot()), "The sizes of the subtrees don't match their nodes");
+	}
+	
 	@Test
 	public void testSize() {
 		setupScenary3();
@@ -95,6 +157,21 @@ class TreeOfImagesTest {
 		assertNull(tree.getRoot(), "The root reference should be null");
 	}
 	
+	public int height(ImageOnTree current) {
+		if(current == null) {
+			return 0;
+		}
+		return 1 + Math.max(height(current.getLeft()), height(current.getRight()));
+	}
+	
+	public boolean sizesAreRight(ImageOnTree current) {
+		if(current == null) {
+			return true;
+		}
+		int size = 1 + (current.getLeft() == null ? 0 : current.getLeft().getSize()) + (current.getRight() == null ? 0 : current.getRight().getSize());
+		return current.getSize() == size && sizesAreRight(current.getLeft()) && sizesAreRight(current.getRight());
+	}
+	
 	public boolean search(TreeOfImages toi, int key) {
 		return search(toi.getRoot(), key);
 	}